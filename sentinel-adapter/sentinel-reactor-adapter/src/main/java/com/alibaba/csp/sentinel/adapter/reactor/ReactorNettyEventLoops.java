@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.reactor;
+
+import com.alibaba.csp.sentinel.slots.system.EventLoopLagMonitor;
+
+import org.springframework.http.server.reactive.AbstractServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.Connection;
+
+/**
+ * Registers the event loops of Reactor Netty servers to {@link EventLoopLagMonitor}, so that the event loop lag
+ * system rule can work for reactive web applications. Nothing will be done if Reactor Netty is absent
+ * (e.g. Spring WebFlux running on Undertow) or the event loop lag rule is not enabled.
+ *
+ * @since 1.8.8
+ */
+public final class ReactorNettyEventLoops {
+
+    private static final boolean REACTOR_NETTY_PRESENT = isReactorNettyPresent();
+
+    /**
+     * Register the event loop which the given native request (e.g. {@code HttpServerRequest}) is bound to.
+     *
+     * @param nativeRequest the native request of the underlying server
+     */
+    public static void registerEventLoopOf(Object nativeRequest) {
+        if (!REACTOR_NETTY_PRESENT || nativeRequest == null || !EventLoopLagMonitor.isEnabled()) {
+            return;
+        }
+        ConnectionEventLoopRegistrar.register(nativeRequest);
+    }
+
+    /**
+     * Register the event loop which the request of the given Spring WebFlux exchange is bound to.
+     * Request decorators (e.g. of a mutated exchange) are unwrapped to get the native request.
+     *
+     * @param exchange the exchange of Spring WebFlux
+     */
+    public static void registerEventLoopOfExchange(ServerWebExchange exchange) {
+        if (!REACTOR_NETTY_PRESENT || exchange == null || !EventLoopLagMonitor.isEnabled()) {
+            return;
+        }
+        ConnectionEventLoopRegistrar.register(ExchangeNativeRequests.nativeRequestOf(exchange));
+    }
+
+    private static boolean isReactorNettyPresent() {
+        try {
+            Class.forName("reactor.netty.Connection", false, ReactorNettyEventLoops.class.getClassLoader());
+            return true;
+        } catch (Throwable ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Isolates the reference to Reactor Netty classes, so that it won't be loaded when Reactor Netty is absent.
+     */
+    private static final class ConnectionEventLoopRegistrar {
+
+        static void register(Object nativeRequest) {
+            if (nativeRequest instanceof Connection) {
+                EventLoopLagMonitor.register(((Connection)nativeRequest).channel().eventLoop());
+            }
+        }
+    }
+
+    /**
+     * Isolates the reference to Spring Web classes, so that it won't be loaded unless an exchange is given.
+     */
+    private static final class ExchangeNativeRequests {
+
+        static Object nativeRequestOf(ServerWebExchange exchange) {
+            ServerHttpRequest request = exchange.getRequest();
+            while (request instanceof ServerHttpRequestDecorator) {
+                request = ((ServerHttpRequestDecorator)request).getDelegate();
+            }
+            if (request instanceof AbstractServerHttpRequest) {
+                return ((AbstractServerHttpRequest)request).getNativeRequest();
+            }
+            return null;
+        }
+    }
+
+    private ReactorNettyEventLoops() {}
+}
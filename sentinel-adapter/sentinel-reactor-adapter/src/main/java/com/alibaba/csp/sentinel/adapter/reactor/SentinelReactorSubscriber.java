@@ -16,6 +16,8 @@
 package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
@@ -23,11 +25,15 @@ import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowTokenPrefetcher;
+import com.alibaba.csp.sentinel.slots.block.flow.PrefetchedClusterTokens;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.function.Supplier;
 
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.context.Context;
 
 /**
@@ -43,6 +49,7 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     private volatile AsyncEntry currentEntry;
     private final AtomicBoolean entryExited = new AtomicBoolean(false);
+    private final AtomicBoolean downstreamSubscribed = new AtomicBoolean(false);
 
     public SentinelReactorSubscriber(EntryConfig entryConfig,
                                      CoreSubscriber<? super T> actual,
@@ -92,13 +99,13 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
             AsyncEntry entry = SphU.asyncEntry(entryConfig.getResourceName(), entryConfig.getResourceType(),
                 entryConfig.getEntryType(), entryConfig.getAcquireCount(), entryConfig.getArgs());
             this.currentEntry = entry;
-            actual.onSubscribe(this);
+            subscribeDownstream();
         } catch (BlockException ex) {
             // Mark as completed (exited) explicitly.
             entryExited.set(true);
             // Signal cancel and propagate the {@code BlockException}.
             cancel();
-            actual.onSubscribe(this);
+            subscribeDownstream();
             actual.onError(ex);
         } finally {
             if (sentinelContextConfig != null) {
@@ -109,6 +116,47 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     @Override
     protected void hookOnSubscribe(Subscription subscription) {
+        // In cluster client mode, cluster flow tokens are acquired asynchronously in advance,
+        // so that the subscribing thread won't be blocked by the round trip to the token server.
+        CompletableFuture<PrefetchedClusterTokens> tokensFuture = ClusterFlowTokenPrefetcher.prefetch(
+            entryConfig.getResourceName(), entryConfig.getAcquireCount(), false);
+        if (tokensFuture.isDone() && !tokensFuture.isCompletedExceptionally()) {
+            tokensFuture.join().runWith(this::entryWithContext);
+        } else {
+            entryWhenPrefetched(tokensFuture, Schedulers.elastic());
+        }
+    }
+
+    /**
+     * Enter the resource on the given scheduler once tokens are prefetched, so that neither the I/O thread
+     * of the token client nor the wait scheduler runs the downstream subscription. Any failure is signalled
+     * to the downstream subscriber.
+     */
+    void entryWhenPrefetched(CompletableFuture<PrefetchedClusterTokens> tokensFuture, Scheduler scheduler) {
+        tokensFuture
+            .thenAcceptAsync(tokens -> tokens.runWith(this::entryWithContext), scheduler::schedule)
+            .whenComplete((v, ex) -> {
+                if (ex != null) {
+                    onEntryFailure(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                }
+            });
+    }
+
+    private void onEntryFailure(Throwable t) {
+        tryCompleteEntry();
+        entryExited.set(true);
+        cancel();
+        subscribeDownstream();
+        actual.onError(t);
+    }
+
+    private void subscribeDownstream() {
+        if (downstreamSubscribed.compareAndSet(false, true)) {
+            actual.onSubscribe(this);
+        }
+    }
+
+    private void entryWithContext() {
         doWithContextOrCurrent(() -> currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
             this::entryWhenSubscribed);
     }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.reactor;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.slots.system.EventLoopLagMonitor;
+import com.alibaba.csp.sentinel.slots.system.SystemRule;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Test;
+import reactor.netty.Connection;
+
+import static org.junit.Assert.*;
+
+public class ReactorNettyEventLoopsTest {
+
+    @After
+    public void tearDown() {
+        SystemRuleManager.loadRules(Collections.<SystemRule>emptyList());
+    }
+
+    @Test
+    public void testRegisterEventLoopOfConnection() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        Connection connection = Connection.from(channel);
+
+        ReactorNettyEventLoops.registerEventLoopOf(connection);
+        assertFalse("Should not register when the rule is absent",
+            EventLoopLagMonitor.isRegistered(channel.eventLoop()));
+
+        SystemRule rule = new SystemRule();
+        rule.setMaxEventLoopLag(100);
+        SystemRuleManager.loadRules(Collections.singletonList(rule));
+
+        ReactorNettyEventLoops.registerEventLoopOf(connection);
+        assertTrue(EventLoopLagMonitor.isRegistered(channel.eventLoop()));
+        EventLoopLagMonitor.unregister(channel.eventLoop());
+
+        ReactorNettyEventLoops.registerEventLoopOf(new Object());
+        ReactorNettyEventLoops.registerEventLoopOf(null);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.reactor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowTokenPrefetcher;
+import com.alibaba.csp.sentinel.slots.block.flow.PrefetchedClusterTokens;
+
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.scheduler.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link SentinelReactorSubscriber} when cluster tokens are prefetched asynchronously.
+ */
+public class SentinelReactorSubscriberTest {
+
+    @Test
+    public void testEntryNotOnCompletingThread() throws Exception {
+        RecordingSubscriber actual = new RecordingSubscriber();
+        SentinelReactorSubscriber<Integer> subscriber = new SentinelReactorSubscriber<>(
+            new EntryConfig("reactor_test_prefetch_async"), actual, true);
+        CompletableFuture<PrefetchedClusterTokens> tokensFuture = new CompletableFuture<>();
+        subscriber.entryWhenPrefetched(tokensFuture, Schedulers.elastic());
+
+        Thread completingThread = new Thread(
+            () -> tokensFuture.complete(ClusterFlowTokenPrefetcher.prefetch(null, 1, false).join()));
+        completingThread.start();
+        completingThread.join();
+
+        assertTrue(actual.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, actual.subscribeCount.get());
+        assertNotEquals(completingThread, actual.subscribeThread.get());
+        assertNull(actual.error.get());
+    }
+
+    @Test
+    public void testPrefetchFailureSignalled() throws Exception {
+        RecordingSubscriber actual = new RecordingSubscriber();
+        SentinelReactorSubscriber<Integer> subscriber = new SentinelReactorSubscriber<>(
+            new EntryConfig("reactor_test_prefetch_failure"), actual, true);
+        CompletableFuture<PrefetchedClusterTokens> tokensFuture = new CompletableFuture<>();
+        subscriber.entryWhenPrefetched(tokensFuture, Schedulers.elastic());
+
+        IllegalStateException ex = new IllegalStateException("prefetch failed");
+        tokensFuture.completeExceptionally(ex);
+
+        assertTrue(actual.errorLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, actual.subscribeCount.get());
+        assertSame(ex, actual.error.get());
+    }
+
+    private static class RecordingSubscriber implements CoreSubscriber<Integer> {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final CountDownLatch errorLatch = new CountDownLatch(1);
+        private final AtomicInteger subscribeCount = new AtomicInteger();
+        private final AtomicReference<Thread> subscribeThread = new AtomicReference<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscribeThread.set(Thread.currentThread());
+            subscribeCount.incrementAndGet();
+            latch.countDown();
+        }
+
+        @Override
+        public void onNext(Integer value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.set(t);
+            errorLatch.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -25,6 +25,7 @@ import com.alibaba.csp.sentinel.adapter.gateway.sc.api.matcher.WebExchangeApiMat
 import com.alibaba.csp.sentinel.adapter.gateway.sc.callback.GatewayCallbackManager;
 import com.alibaba.csp.sentinel.adapter.reactor.ContextConfig;
 import com.alibaba.csp.sentinel.adapter.reactor.EntryConfig;
+import com.alibaba.csp.sentinel.adapter.reactor.ReactorNettyEventLoops;
 import com.alibaba.csp.sentinel.adapter.reactor.SentinelReactorTransformer;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -70,6 +71,7 @@ public class SentinelGatewayFilter implements GatewayFilter, GlobalFilter, Order
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ReactorNettyEventLoops.registerEventLoopOfExchange(exchange);
         Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
 
         Mono<Void> asyncResult = chain.filter(exchange);
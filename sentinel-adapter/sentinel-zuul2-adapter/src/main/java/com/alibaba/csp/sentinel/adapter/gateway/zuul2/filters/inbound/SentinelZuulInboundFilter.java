@@ -36,11 +36,14 @@ import com.alibaba.csp.sentinel.adapter.gateway.zuul2.filters.EntryHolder;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul2.filters.endpoint.SentinelZuulEndpoint;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.system.EventLoopLagMonitor;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.netflix.zuul.context.CommonContextKeys;
 import com.netflix.zuul.context.SessionContext;
 import com.netflix.zuul.filters.http.HttpInboundFilter;
 import com.netflix.zuul.message.http.HttpRequestMessage;
+import io.netty.channel.ChannelHandlerContext;
 import rx.Observable;
 import rx.schedulers.Schedulers;
 
@@ -121,6 +124,7 @@ public class SentinelZuulInboundFilter extends HttpInboundFilter {
 
     @Override
     public Observable<HttpRequestMessage> applyAsync(HttpRequestMessage request) {
+        registerEventLoop(request.getContext());
         if (executor != null) {
             return Observable.just(request).subscribeOn(Schedulers.from(executor)).flatMap(this::apply);
         } else {
@@ -172,6 +176,16 @@ public class SentinelZuulInboundFilter extends HttpInboundFilter {
         holders.push(new EntryHolder(entry, params));
     }
 
+    private void registerEventLoop(SessionContext context) {
+        if (!EventLoopLagMonitor.isEnabled()) {
+            return;
+        }
+        Object ctx = context.get(CommonContextKeys.NETTY_SERVER_CHANNEL_HANDLER_CONTEXT);
+        if (ctx instanceof ChannelHandlerContext) {
+            EventLoopLagMonitor.register(((ChannelHandlerContext)ctx).channel().eventLoop());
+        }
+    }
+
     private Set<String> pickMatchingApiDefinitions(HttpRequestMessage message) {
         Set<String> apis = new HashSet<>();
         for (HttpRequestMessageApiMatcher matcher : ZuulGatewayApiMatcherManager.getApiMatcherMap().values()) {
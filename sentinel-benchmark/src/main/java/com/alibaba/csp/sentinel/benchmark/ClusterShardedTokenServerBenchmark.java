@@ -0,0 +1,148 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.NettyTransportClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the throughput of an in-process {@link NettyTransportServer} under load from multiple
+ * {@link NettyTransportClient}s on loopback, with requests processed on I/O workers ({@code shards} = 0)
+ * or in processing shards of their flows, over 1 to 64 flows.
+ *
+ * @since 1.8.8
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(16)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ClusterShardedTokenServerBenchmark {
+
+    private static final long FLOW_ID_BASE = 270201L;
+    private static final int CLIENT_COUNT = 4;
+
+    @Param({"1", "4", "16", "64"})
+    private int flows;
+
+    @Param({"0", "4"})
+    private int shards;
+
+    private NettyTransportServer server;
+    private final List<NettyTransportClient> clients = new ArrayList<>(CLIENT_COUNT);
+    private final AtomicInteger nextClient = new AtomicInteger(0);
+
+    @State(Scope.Thread)
+    public static class ClientState {
+
+        private NettyTransportClient client;
+
+        @Setup(Level.Trial)
+        public void setUp(ClusterShardedTokenServerBenchmark benchmark) {
+            client = benchmark.clients.get(benchmark.nextClient.getAndIncrement() % CLIENT_COUNT);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        InitExecutor.doInit();
+        int port = findFreePort();
+        String namespace = ConfigSupplierRegistry.getNamespaceSupplier().get();
+        List<FlowRule> rules = new ArrayList<>(flows);
+        for (int i = 0; i < flows; i++) {
+            rules.add(new FlowRule("benchmark-shard-" + i).setCount(Integer.MAX_VALUE).setClusterMode(true)
+                .setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID_BASE + i)
+                    .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)));
+        }
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, rules);
+
+        server = new NettyTransportServer(port, ClusterConstants.TRANSPORT_NIO, null, shards);
+        server.start();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000));
+        long deadline = System.currentTimeMillis() + 10000;
+        for (int i = 0; i < CLIENT_COUNT; i++) {
+            NettyTransportClient client = new NettyTransportClient("127.0.0.1", port);
+            client.start();
+            while (!client.isReady()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Transport client cannot connect to the token server");
+                }
+                Thread.sleep(20);
+            }
+            clients.add(client);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        for (NettyTransportClient client : clients) {
+            client.stop();
+        }
+        clients.clear();
+        server.stop();
+    }
+
+    @Benchmark
+    public ClusterResponse requestToken(ClientState state) throws Exception {
+        long flowId = FLOW_ID_BASE + ThreadLocalRandom.current().nextInt(flows);
+        FlowRequestData data = new FlowRequestData().setFlowId(flowId).setCount(1).setPriority(false);
+        return state.client.sendRequest(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data));
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
+import com.alibaba.csp.sentinel.cluster.server.SentinelDefaultTokenServer;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for blocking and pipelined cluster token requests against an in-process
+ * {@link SentinelDefaultTokenServer} on loopback.
+ *
+ * @since 1.8.8
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ClusterTokenClientBenchmark {
+
+    private static final long FLOW_ID = 270001L;
+    private static final int PIPELINE_DEPTH = 64;
+
+    private SentinelDefaultTokenServer tokenServer;
+    private DefaultClusterTokenClient tokenClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        int port = findFreePort();
+        String namespace = ConfigSupplierRegistry.getNamespaceSupplier().get();
+        FlowRule rule = new FlowRule("benchmark-cluster").setCount(Integer.MAX_VALUE).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(rule));
+
+        ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig(port, 600));
+        tokenServer = new SentinelDefaultTokenServer();
+        tokenServer.start();
+
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig("127.0.0.1", port));
+        tokenClient = new DefaultClusterTokenClient();
+        tokenClient.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (tokenClient.getState() != ClientConstants.CLIENT_STATUS_STARTED) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Token client cannot connect to the token server");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        tokenClient.stop();
+        tokenServer.stop();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TokenResult requestTokenBlocking() {
+        return tokenClient.requestToken(FLOW_ID, 1, false);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    @SuppressWarnings("unchecked")
+    public Object requestTokenPipelined() {
+        CompletableFuture<TokenResult>[] futures = new CompletableFuture[PIPELINE_DEPTH];
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            futures[i] = tokenClient.requestTokenAsync(FLOW_ID, 1, false);
+        }
+        return CompletableFuture.allOf(futures).join();
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.NettyTransportClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the round-trip latency of cluster token requests between an in-process
+ * {@link NettyTransportServer} and {@link NettyTransportClient} on loopback, over NIO, native epoll (TCP)
+ * and native epoll (Unix domain socket). Native transports fall back to NIO where epoll is unavailable.
+ *
+ * @since 1.8.8
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ClusterTransportLatencyBenchmark {
+
+    private static final long FLOW_ID = 270101L;
+
+    @Param({ClusterConstants.TRANSPORT_NIO, ClusterConstants.TRANSPORT_EPOLL, ClusterConstants.TRANSPORT_EPOLL_UDS})
+    private String transportType;
+
+    private NettyTransportServer server;
+    private NettyTransportClient client;
+    private File udsFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        InitExecutor.doInit();
+        int port = findFreePort();
+        udsFile = new File(System.getProperty("java.io.tmpdir"), "sentinel-benchmark-" + port + ".sock");
+        String namespace = ConfigSupplierRegistry.getNamespaceSupplier().get();
+        FlowRule rule = new FlowRule("benchmark-transport").setCount(Integer.MAX_VALUE).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(rule));
+
+        server = new NettyTransportServer(port, transportType, udsFile.getAbsolutePath());
+        server.start();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000)
+            .setTransportType(transportType).setUdsPath(udsFile.getAbsolutePath()));
+        client = new NettyTransportClient("127.0.0.1", port);
+        client.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!client.isReady()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Transport client cannot connect to the token server");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.stop();
+        server.stop();
+        udsFile.delete();
+    }
+
+    @Benchmark
+    public ClusterResponse requestRoundTrip() throws Exception {
+        FlowRequestData data = new FlowRequestData().setFlowId(FLOW_ID).setCount(1).setPriority(false);
+        return client.sendRequest(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data));
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
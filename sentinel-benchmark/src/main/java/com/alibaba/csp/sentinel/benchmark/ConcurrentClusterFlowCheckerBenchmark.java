@@ -0,0 +1,119 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.ConcurrentClusterFlowChecker;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention benchmark for acquiring and releasing concurrent cluster tokens from many threads,
+ * on the same flow (all threads contend on one counter) and on the flow of each thread.
+ *
+ * @since 1.8.8
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ConcurrentClusterFlowCheckerBenchmark {
+
+    private static final String NAMESPACE = "concurrent-benchmark";
+    private static final long SHARED_FLOW_ID = 330001L;
+    private static final long FLOW_ID_BASE = 330100L;
+    private static final int FLOW_COUNT = 16;
+    private static final String CLIENT_ADDRESS = "127.0.0.1:8719";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FlowRule[] rules = new FlowRule[FLOW_COUNT + 1];
+        // Low enough to be reached by the contending threads.
+        rules[0] = newRule(SHARED_FLOW_ID, 8);
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            rules[i + 1] = newRule(FLOW_ID_BASE + i, Integer.MAX_VALUE);
+        }
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Arrays.asList(rules));
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadFlow {
+
+        private static int nextIndex = 0;
+
+        private FlowRule rule;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            synchronized (ThreadFlow.class) {
+                rule = ClusterFlowRuleManager.getFlowRuleById(FLOW_ID_BASE + (nextIndex++ % FLOW_COUNT));
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TokenResult acquireAndReleaseSharedFlow() {
+        return acquireAndRelease(ClusterFlowRuleManager.getFlowRuleById(SHARED_FLOW_ID));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TokenResult acquireAndReleaseThreadFlow(ThreadFlow flow) {
+        return acquireAndRelease(flow.rule);
+    }
+
+    private static TokenResult acquireAndRelease(FlowRule rule) {
+        TokenResult result = ConcurrentClusterFlowChecker.acquireConcurrentToken(CLIENT_ADDRESS, rule, 1);
+        if (result.getStatus() == TokenResultStatus.OK) {
+            return ConcurrentClusterFlowChecker.releaseConcurrentToken(result.getTokenId());
+        }
+        return result;
+    }
+
+    private static FlowRule newRule(long flowId, double count) {
+        FlowRule rule = new FlowRule("concurrent-benchmark-" + flowId)
+            .setCount(count)
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        return rule;
+    }
+}
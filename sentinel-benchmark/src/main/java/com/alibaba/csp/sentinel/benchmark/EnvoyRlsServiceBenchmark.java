@@ -0,0 +1,124 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRule;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.service.v3.SentinelEnvoyRlsServiceImpl;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+
+import io.envoyproxy.envoy.extensions.common.ratelimit.v3.RateLimitDescriptor;
+import io.envoyproxy.envoy.service.ratelimit.v3.RateLimitRequest;
+import io.envoyproxy.envoy.service.ratelimit.v3.RateLimitResponse;
+import io.envoyproxy.envoy.service.ratelimit.v3.RateLimitServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load benchmark for the Envoy RLS service (v3 API) over an in-process gRPC channel, where every request
+ * carries {@code descriptorsPerRequest} descriptors out of {@code rules} descriptor rules of one domain.
+ *
+ * @since 1.8.8
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class EnvoyRlsServiceBenchmark {
+
+    private static final String DOMAIN = "benchmark-domain";
+
+    @Param({"16", "1024"})
+    private int rules;
+
+    @Param({"1", "4"})
+    private int descriptorsPerRequest;
+
+    private Server server;
+    private ManagedChannel channel;
+    private RateLimitServiceGrpc.RateLimitServiceBlockingStub stub;
+    private RateLimitDescriptor[] descriptors;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        InitExecutor.doInit();
+        List<EnvoyRlsRule.ResourceDescriptor> resourceDescriptors = new ArrayList<>(rules);
+        descriptors = new RateLimitDescriptor[rules];
+        for (int i = 0; i < rules; i++) {
+            LinkedHashSet<EnvoyRlsRule.KeyValueResource> resources = new LinkedHashSet<>();
+            resources.add(new EnvoyRlsRule.KeyValueResource("service", "service-" + (i % 8)));
+            resources.add(new EnvoyRlsRule.KeyValueResource("path", "/api/" + i));
+            resourceDescriptors.add(new EnvoyRlsRule.ResourceDescriptor(resources, (double)Integer.MAX_VALUE));
+            descriptors[i] = RateLimitDescriptor.newBuilder()
+                .addEntries(RateLimitDescriptor.Entry.newBuilder().setKey("service").setValue("service-" + (i % 8)))
+                .addEntries(RateLimitDescriptor.Entry.newBuilder().setKey("path").setValue("/api/" + i))
+                .build();
+        }
+        EnvoyRlsRule rule = new EnvoyRlsRule();
+        rule.setDomain(DOMAIN);
+        rule.setDescriptors(resourceDescriptors);
+        EnvoyRlsRuleManager.loadRules(Collections.singletonList(rule));
+
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName).directExecutor()
+            .addService(new SentinelEnvoyRlsServiceImpl()).build().start();
+        channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+        stub = RateLimitServiceGrpc.newBlockingStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        EnvoyRlsRuleManager.loadRules(Collections.<EnvoyRlsRule>emptyList());
+    }
+
+    @Benchmark
+    public RateLimitResponse shouldRateLimit() {
+        RateLimitRequest.Builder builder = RateLimitRequest.newBuilder().setDomain(DOMAIN).setHitsAddend(1);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < descriptorsPerRequest; i++) {
+            builder.addDescriptors(descriptors[random.nextInt(rules)]);
+        }
+        return stub.shouldRateLimit(builder.build());
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.LogBase;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricWriter;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the query latency of {@link MetricSearcher} over 6 metric files of 50MB each (2000 resources
+ * per second), polled by concurrent readers like the dashboard and the Prometheus exporter. The metric files
+ * are generated once under {@code java.io.tmpdir} and reused by later runs.
+ *
+ * @since 1.8.8
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MetricSearcherBenchmark {
+
+    private static final String APP_NAME = "metric-benchmark";
+    private static final long SINGLE_FILE_SIZE = 50 * 1024 * 1024;
+    private static final int FILE_COUNT = 6;
+    private static final int RESOURCES = 2000;
+
+    @Param({"text", "binary"})
+    private String format;
+
+    private MetricSearcher searcher;
+    private long firstMs;
+    private long latestMs;
+    private String resource;
+
+    @Setup
+    public void setUp() throws Exception {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "sentinel-metric-benchmark-" + format);
+        // The writer of MetricTimerListener writes to the log directory, so it's resolved before the classes load.
+        System.setProperty(LogBase.LOG_DIR, dir.getAbsolutePath());
+        System.setProperty(SentinelConfig.APP_NAME_PROP_KEY, APP_NAME);
+        File marker = new File(dir, "range");
+        if (!marker.exists()) {
+            generate(dir, marker);
+        }
+        String[] range = new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8).split(",");
+        firstMs = Long.parseLong(range[0]);
+        latestMs = Long.parseLong(range[1]);
+        resource = resourceName(RESOURCES / 2);
+        searcher = new MetricSearcher(dir.getAbsolutePath(), MetricWriter.formMetricFileName(APP_NAME,
+            PidUtil.getPid()));
+    }
+
+    private void generate(File dir, File marker) throws Exception {
+        MetricWriter writer = new MetricWriter(SINGLE_FILE_SIZE, FILE_COUNT, format);
+        long first = (System.currentTimeMillis() / 1000 + 10) * 1000;
+        long time = first;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Fill the last file by half.
+        long totalSize = SINGLE_FILE_SIZE * FILE_COUNT - SINGLE_FILE_SIZE / 2;
+        while (directorySize(dir) < totalSize) {
+            for (int i = 0; i < 60; i++, time += 1000) {
+                List<MetricNode> nodes = new ArrayList<>(RESOURCES);
+                for (int r = 0; r < RESOURCES; r++) {
+                    MetricNode node = new MetricNode();
+                    node.setResource(resourceName(r));
+                    node.setPassQps(random.nextInt(1000));
+                    node.setSuccessQps(node.getPassQps());
+                    node.setBlockQps(random.nextInt(10));
+                    node.setRt(random.nextInt(100));
+                    node.setConcurrency(random.nextInt(20));
+                    nodes.add(node);
+                }
+                writer.write(time, nodes);
+            }
+        }
+        writer.close();
+        // The oldest file might have been removed, so the first second is the first one in the files.
+        List<MetricNode> firstNodes = new MetricSearcher(dir.getAbsolutePath(),
+            MetricWriter.formMetricFileName(APP_NAME, PidUtil.getPid())).find(first, 1);
+        Files.write(marker.toPath(), (firstNodes.get(0).getTimestamp() + "," + (time - 1000))
+            .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long directorySize(File dir) {
+        long size = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.getName().endsWith(MetricWriter.METRIC_FILE_INDEX_SUFFIX)) {
+                    size += file.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    private static String resourceName(int i) {
+        return "com.alibaba.csp.sentinel.demo.DemoService:sayHello" + i + "(java.lang.String)";
+    }
+
+    /**
+     * The dashboard fetches metrics of the latest seconds.
+     */
+    @Benchmark
+    public List<MetricNode> findLatestSeconds() throws Exception {
+        return searcher.findByTimeAndResource(latestMs - 2000, latestMs, null);
+    }
+
+    @Benchmark
+    public List<MetricNode> findResourceOfLatestMinute() throws Exception {
+        return searcher.findByTimeAndResource(latestMs - 60000, latestMs, resource);
+    }
+
+    @Benchmark
+    public List<MetricNode> findLinesFromRandomSecond() throws Exception {
+        long begin = firstMs + ThreadLocalRandom.current().nextLong((latestMs - firstMs) / 1000) * 1000;
+        return searcher.find(begin, 6000);
+    }
+}
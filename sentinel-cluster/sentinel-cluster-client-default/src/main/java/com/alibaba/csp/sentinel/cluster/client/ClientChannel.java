@@ -0,0 +1,230 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
+import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientHandler;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.util.concurrent.GenericFutureListener;
+
+/**
+ * A connection in the channel pool of {@link NettyTransportClient}. Every connection reconnects on its own
+ * when disconnected, and counts its in-flight requests for the least-in-flight selection. A connection is
+ * regarded as unhealthy after successive request timeouts, and will be closed and reconnected.
+ *
+ * @since 1.8.8
+ */
+final class ClientChannel {
+
+    static final int MAX_SUCCESSIVE_TIMEOUTS = 3;
+
+    private final String host;
+    private final int port;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile EventLoopGroup eventLoopGroup;
+    private volatile ClientTransportSupport transport;
+    private volatile Channel channel;
+    /**
+     * Batcher of the current channel, or null if batching is disabled.
+     */
+    private volatile ClusterRequestBatcher batcher;
+    private volatile TokenClientHandler clientHandler;
+
+    private final AtomicInteger currentState = new AtomicInteger(ClientConstants.CLIENT_STATUS_OFF);
+    private final AtomicInteger failConnectedTime = new AtomicInteger(0);
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger successiveTimeouts = new AtomicInteger(0);
+
+    private volatile boolean shouldRetry = false;
+
+    ClientChannel(String host, int port, ScheduledExecutorService scheduler) {
+        this.host = host;
+        this.port = port;
+        this.scheduler = scheduler;
+    }
+
+    void start(EventLoopGroup eventLoopGroup, ClientTransportSupport transport) {
+        this.eventLoopGroup = eventLoopGroup;
+        this.transport = transport;
+        this.shouldRetry = true;
+        connect();
+    }
+
+    private void connect() {
+        if (!currentState.compareAndSet(ClientConstants.CLIENT_STATUS_OFF, ClientConstants.CLIENT_STATUS_PENDING)) {
+            return;
+        }
+        ClientTransportSupport transport = this.transport;
+        Bootstrap b = new Bootstrap();
+        b.group(eventLoopGroup)
+            .channel(transport.channelClass())
+            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ClusterClientConfigManager.getConnectTimeout())
+            .handler(new ChannelInitializer<Channel>() {
+                @Override
+                public void initChannel(Channel ch) throws Exception {
+                    clientHandler = new TokenClientHandler(currentState, disconnectCallback);
+
+                    ChannelPipeline pipeline = ch.pipeline();
+                    pipeline.addLast(new LengthFieldBasedFrameDecoder(ClusterConstants.MAX_ENCODED_FRAME_LENGTH, 0, 2, 0, 2));
+                    pipeline.addLast(new NettyResponseDecoder());
+                    pipeline.addLast(new LengthFieldPrepender(2));
+                    pipeline.addLast(new NettyRequestEncoder());
+                    pipeline.addLast(clientHandler);
+                }
+            });
+        if (!transport.isDomainSocket()) {
+            b.option(ChannelOption.TCP_NODELAY, true);
+        }
+        b.connect(transport.remoteAddress(host, port)).addListener(new GenericFutureListener<ChannelFuture>() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (future.cause() != null) {
+                    RecordLog.warn(
+                        String.format("[NettyTransportClient] Could not connect to <%s:%d> after %d times",
+                            host, port, failConnectedTime.get()), future.cause());
+                    failConnectedTime.incrementAndGet();
+                    channel = null;
+                } else {
+                    failConnectedTime.set(0);
+                    successiveTimeouts.set(0);
+                    channel = future.channel();
+                    batcher = newBatcher(channel);
+                    RecordLog.info("[NettyTransportClient] Successfully connect to server <{}:{}>", host, port);
+                }
+            }
+        });
+    }
+
+    private ClusterRequestBatcher newBatcher(Channel channel) {
+        Integer batchWindowMs = ClusterClientStartUpConfig.getBatchWindowMs();
+        if (batchWindowMs == null) {
+            return null;
+        }
+        return new ClusterRequestBatcher(channel, batchWindowMs, ClusterClientStartUpConfig.getBatchMaxSize(),
+            ClusterClientStartUpConfig.getMaxParamByteSize());
+    }
+
+    private final Runnable disconnectCallback = new Runnable() {
+        @Override
+        public void run() {
+            if (!shouldRetry) {
+                return;
+            }
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (shouldRetry) {
+                        RecordLog.info("[NettyTransportClient] Reconnecting to server <{}:{}>", host, port);
+                        try {
+                            connect();
+                        } catch (Exception e) {
+                            RecordLog.warn("[NettyTransportClient] Failed to reconnect to server", e);
+                        }
+                    }
+                }
+            }, NettyTransportClient.RECONNECT_DELAY_MS * (failConnectedTime.get() + 1), TimeUnit.MILLISECONDS);
+            cleanUp();
+        }
+    };
+
+    private void cleanUp() {
+        Channel channel = this.channel;
+        if (channel != null) {
+            channel.close();
+            this.channel = null;
+        }
+        batcher = null;
+    }
+
+    void stop() {
+        // Stop retrying for connection.
+        shouldRetry = false;
+
+        while (currentState.get() == ClientConstants.CLIENT_STATUS_PENDING) {
+            try {
+                Thread.sleep(200);
+            } catch (Exception ex) {
+                // Ignore.
+            }
+        }
+
+        cleanUp();
+        failConnectedTime.set(0);
+    }
+
+    boolean isReady() {
+        TokenClientHandler clientHandler = this.clientHandler;
+        return channel != null && clientHandler != null && clientHandler.hasStarted();
+    }
+
+    boolean isHealthy() {
+        return successiveTimeouts.get() < MAX_SUCCESSIVE_TIMEOUTS;
+    }
+
+    Channel getChannel() {
+        return channel;
+    }
+
+    ClusterRequestBatcher getBatcher() {
+        return batcher;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    void onRequestStart() {
+        inFlight.incrementAndGet();
+    }
+
+    void onRequestComplete(boolean timeout) {
+        inFlight.decrementAndGet();
+        if (!timeout) {
+            successiveTimeouts.set(0);
+            return;
+        }
+        if (successiveTimeouts.incrementAndGet() == MAX_SUCCESSIVE_TIMEOUTS) {
+            Channel channel = this.channel;
+            if (channel != null) {
+                RecordLog.warn("[NettyTransportClient] {} successive requests timed out, reconnecting channel: {}",
+                    MAX_SUCCESSIVE_TIMEOUTS, channel);
+                // The channel will be reconnected when unregistered.
+                channel.close();
+            }
+        }
+    }
+}
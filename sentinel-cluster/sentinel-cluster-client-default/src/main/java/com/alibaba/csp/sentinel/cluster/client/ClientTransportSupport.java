@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+
+/**
+ * <p>
+ * Event loops and channels of the client connections for the configured transport type. The native epoll
+ * transports require {@code netty-transport-native-epoll} (an optional dependency) on Linux, otherwise
+ * the client falls back to NIO over TCP, connecting to the host and port of the token server.
+ * </p>
+ * <p>
+ * With the UDS transport, all connections go to the Unix domain socket of the token server, which is
+ * meant for a single token server running as a sidecar.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+final class ClientTransportSupport {
+
+    private final String transportType;
+    private final String udsPath;
+
+    private ClientTransportSupport(String transportType, String udsPath) {
+        this.transportType = transportType;
+        this.udsPath = udsPath;
+    }
+
+    /**
+     * Resolve the transport that will actually be used for the given transport type.
+     *
+     * @param transportType configured transport type
+     * @param udsPath       path of the Unix domain socket of the token server
+     * @return the transport support, which is NIO if the native transport is unavailable
+     */
+    static ClientTransportSupport resolve(String transportType, String udsPath) {
+        if (transportType == null || ClusterConstants.TRANSPORT_NIO.equals(transportType)) {
+            return nio();
+        }
+        if (!ClusterConstants.isValidTransportType(transportType)) {
+            RecordLog.warn("[NettyTransportClient] Unknown transport type <{}>, falling back to NIO", transportType);
+            return nio();
+        }
+        if (ClusterConstants.TRANSPORT_EPOLL_UDS.equals(transportType) && (udsPath == null || udsPath.isEmpty())) {
+            RecordLog.warn("[NettyTransportClient] No path for the Unix domain socket, falling back to NIO");
+            return nio();
+        }
+        Throwable cause = epollUnavailabilityCause();
+        if (cause != null) {
+            RecordLog.warn("[NettyTransportClient] Native epoll transport is unavailable, falling back to NIO", cause);
+            return nio();
+        }
+        return new ClientTransportSupport(transportType, udsPath);
+    }
+
+    private static ClientTransportSupport nio() {
+        return new ClientTransportSupport(ClusterConstants.TRANSPORT_NIO, null);
+    }
+
+    /**
+     * @return null if the native epoll transport is available, or the cause why it is unavailable
+     */
+    static Throwable epollUnavailabilityCause() {
+        try {
+            return EpollTransport.unavailabilityCause();
+        } catch (Throwable ex) {
+            // The native transport is absent from the classpath.
+            return ex;
+        }
+    }
+
+    String getTransportType() {
+        return transportType;
+    }
+
+    boolean isDomainSocket() {
+        return ClusterConstants.TRANSPORT_EPOLL_UDS.equals(transportType);
+    }
+
+    EventLoopGroup newEventLoopGroup(int threads) {
+        if (ClusterConstants.TRANSPORT_NIO.equals(transportType)) {
+            return new NioEventLoopGroup(threads);
+        }
+        return EpollTransport.newEventLoopGroup(threads);
+    }
+
+    Class<? extends Channel> channelClass() {
+        if (ClusterConstants.TRANSPORT_NIO.equals(transportType)) {
+            return NioSocketChannel.class;
+        }
+        return EpollTransport.channelClass(isDomainSocket());
+    }
+
+    SocketAddress remoteAddress(String host, int port) {
+        if (isDomainSocket()) {
+            return EpollTransport.domainSocketAddress(udsPath);
+        }
+        return InetSocketAddress.createUnresolved(host, port);
+    }
+
+    /**
+     * Classes of the native transport are only referenced here, so that the enclosing class
+     * can be loaded without the native transport on the classpath.
+     */
+    private static final class EpollTransport {
+
+        static Throwable unavailabilityCause() {
+            return Epoll.isAvailable() ? null : Epoll.unavailabilityCause();
+        }
+
+        static EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        static Class<? extends Channel> channelClass(boolean domainSocket) {
+            return domainSocket ? EpollDomainSocketChannel.class : EpollSocketChannel.class;
+        }
+
+        static SocketAddress domainSocketAddress(String path) {
+            return new DomainSocketAddress(path);
+        }
+    }
+}
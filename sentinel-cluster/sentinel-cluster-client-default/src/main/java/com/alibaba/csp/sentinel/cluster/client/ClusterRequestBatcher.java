@@ -0,0 +1,186 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.util.concurrent.GenericFutureListener;
+
+/**
+ * <p>
+ * Coalesces token requests issued in a short window into batch frames ({@link ClusterConstants#MSG_TYPE_BATCH}),
+ * so that concurrent requests share one frame and one flush. Every request keeps its own xid, so responses
+ * are still matched to the requests one by one.
+ * </p>
+ * <p>
+ * A batch holds at most {@code maxBatchSize} requests, and is cut when the frame would exceed
+ * {@link ClusterConstants#MAX_FRAME_LENGTH} (estimated with the upper bound of each request).
+ * </p>
+ *
+ * @since 1.8.8
+ */
+final class ClusterRequestBatcher {
+
+    /**
+     * xid (4) + type (1) + item count (2)
+     */
+    private static final int BATCH_HEAD_LENGTH = 7;
+    /**
+     * length (2) + xid (4) + type (1)
+     */
+    private static final int ITEM_HEAD_LENGTH = 7;
+    private static final int FLOW_DATA_LENGTH = 13;
+    private static final int FLOW_LEASE_DATA_LENGTH = 16;
+    private static final int PARAM_FLOW_DATA_HEAD_LENGTH = 16;
+    private static final int DEFAULT_MAX_PARAM_BYTE_SIZE = 1024;
+
+    private final Channel channel;
+    private final int windowMs;
+    private final int maxBatchSize;
+    private final int maxParamByteSize;
+
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    ClusterRequestBatcher(Channel channel, int windowMs, int maxBatchSize, Integer maxParamByteSize) {
+        this.channel = channel;
+        this.windowMs = windowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.maxParamByteSize = maxParamByteSize == null ? DEFAULT_MAX_PARAM_BYTE_SIZE : maxParamByteSize;
+    }
+
+    static boolean isBatchable(int type) {
+        return type == ClusterConstants.MSG_TYPE_FLOW || type == ClusterConstants.MSG_TYPE_PARAM_FLOW
+            || type == ClusterConstants.MSG_TYPE_FLOW_LEASE;
+    }
+
+    Channel getChannel() {
+        return channel;
+    }
+
+    void write(ClusterRequest request, GenericFutureListener<ChannelFuture> listener) {
+        pendingWrites.offer(new PendingWrite(request, listener));
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                if (windowMs > 0) {
+                    channel.eventLoop().schedule(flushTask, windowMs, TimeUnit.MILLISECONDS);
+                } else {
+                    channel.eventLoop().execute(flushTask);
+                }
+            } catch (RejectedExecutionException ex) {
+                // The event loop has been shut down, fail all pending writes.
+                flushScheduled.set(false);
+                PendingWrite write;
+                while ((write = pendingWrites.poll()) != null) {
+                    notifyListener(write.listener, channel.newFailedFuture(ex));
+                }
+            }
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<PendingWrite> batch = new ArrayList<>();
+        int batchLength = BATCH_HEAD_LENGTH;
+        PendingWrite write;
+        while ((write = pendingWrites.poll()) != null) {
+            int itemLength = estimateLength(write.request);
+            if (!batch.isEmpty() && (batch.size() >= maxBatchSize
+                || batchLength + itemLength > ClusterConstants.MAX_FRAME_LENGTH)) {
+                writeBatch(batch);
+                batch = new ArrayList<>();
+                batchLength = BATCH_HEAD_LENGTH;
+            }
+            batch.add(write);
+            batchLength += itemLength;
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+        channel.flush();
+    }
+
+    private void writeBatch(final List<PendingWrite> batch) {
+        if (batch.size() == 1) {
+            PendingWrite write = batch.get(0);
+            channel.write(write.request).addListener(write.listener);
+            return;
+        }
+        List<ClusterRequest> items = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            items.add(write.request);
+        }
+        // The xid of the batch frame itself is not used, as every item carries its own xid.
+        channel.write(new ClusterRequest<>(0, ClusterConstants.MSG_TYPE_BATCH, items))
+            .addListener(new GenericFutureListener<ChannelFuture>() {
+                @Override
+                public void operationComplete(ChannelFuture future) {
+                    for (PendingWrite write : batch) {
+                        notifyListener(write.listener, future);
+                    }
+                }
+            });
+    }
+
+    private int estimateLength(ClusterRequest request) {
+        switch (request.getType()) {
+            case ClusterConstants.MSG_TYPE_FLOW:
+                return ITEM_HEAD_LENGTH + FLOW_DATA_LENGTH;
+            case ClusterConstants.MSG_TYPE_FLOW_LEASE:
+                return ITEM_HEAD_LENGTH + FLOW_LEASE_DATA_LENGTH;
+            default:
+                // Parameters are truncated to maxParamByteSize by the writer.
+                return ITEM_HEAD_LENGTH + PARAM_FLOW_DATA_HEAD_LENGTH + maxParamByteSize;
+        }
+    }
+
+    private static void notifyListener(GenericFutureListener<ChannelFuture> listener, ChannelFuture future) {
+        try {
+            listener.operationComplete(future);
+        } catch (Throwable ex) {
+            RecordLog.warn("[ClusterRequestBatcher] Unexpected error in write listener", ex);
+        }
+    }
+
+    private static final class PendingWrite {
+
+        private final ClusterRequest request;
+        private final GenericFutureListener<ChannelFuture> listener;
+
+        PendingWrite(ClusterRequest request, GenericFutureListener<ChannelFuture> listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+    }
+}
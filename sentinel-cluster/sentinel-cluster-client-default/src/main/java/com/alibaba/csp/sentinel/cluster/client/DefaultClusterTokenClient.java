@@ -16,6 +16,9 @@
 package com.alibaba.csp.sentinel.cluster.client;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
@@ -29,12 +32,12 @@ import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager
 import com.alibaba.csp.sentinel.cluster.client.config.ServerChangeObserver;
 import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
 import com.alibaba.csp.sentinel.log.RecordLog;
-import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
  * Default implementation of {@link ClusterTokenClient}.
@@ -44,10 +47,13 @@ import com.alibaba.csp.sentinel.util.StringUtil;
  */
 public class DefaultClusterTokenClient implements ClusterTokenClient {
 
-    private ClusterTransportClient transportClient;
-    private TokenServerDescriptor serverDescriptor;
+    /**
+     * Router of the transport clients to assigned token servers.
+     */
+    private volatile TokenServerRouter router;
 
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
+    private final TokenLeaseManager leaseManager = new TokenLeaseManager(this::requestTokenLease);
 
     public DefaultClusterTokenClient() {
         ClusterClientConfigManager.addServerChangeObserver(new ServerChangeObserver() {
@@ -59,54 +65,78 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         initNewConnection();
     }
 
-    private boolean serverEqual(TokenServerDescriptor descriptor, ClusterClientAssignConfig config) {
-        if (descriptor == null || config == null) {
-            return false;
-        }
-        return descriptor.getHost().equals(config.getServerHost()) && descriptor.getPort() == config.getServerPort();
-    }
-
     private void initNewConnection() {
-        if (transportClient != null) {
+        if (router != null) {
             return;
         }
-        String host = ClusterClientConfigManager.getServerHost();
-        int port = ClusterClientConfigManager.getServerPort();
-        if (StringUtil.isBlank(host) || port <= 0) {
+        List<TokenServerDescriptor> servers = ClusterClientConfigManager.getServerList();
+        if (servers.isEmpty()) {
             return;
         }
 
         try {
-            this.transportClient = new NettyTransportClient(host, port);
-            this.serverDescriptor = new TokenServerDescriptor(host, port);
-            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
+            this.router = newRouter(servers, null);
+            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", servers);
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to initialize new token client", ex);
         }
     }
 
-    private void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
-        if (serverEqual(serverDescriptor, config)) {
+    private synchronized void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
+        List<TokenServerDescriptor> servers = ClusterClientConfigManager.resolveServerList(config);
+        final TokenServerRouter oldRouter = this.router;
+        if (oldRouter != null && ClusterClientConfigManager.sameServers(oldRouter.getServers(), servers)) {
             return;
         }
         try {
-            if (transportClient != null) {
-                transportClient.stop();
+            // Replace with new, even if new clients are not ready.
+            final TokenServerRouter newRouter = newRouter(servers, oldRouter);
+            this.router = newRouter;
+            if (oldRouter != null) {
+                for (int i = 0; i < oldRouter.getClients().length; i++) {
+                    if (newRouter.findClient(oldRouter.getServers().get(i)) == null) {
+                        oldRouter.getClients()[i].stop();
+                    }
+                }
+                // Leases granted by the former server of moved flows are dropped.
+                leaseManager.clear(flowId -> !oldRouter.serverOf(flowId).equals(newRouter.serverOf(flowId)));
             }
-            // Replace with new, even if the new client is not ready.
-            this.transportClient = new NettyTransportClient(config.getServerHost(), config.getServerPort());
-            this.serverDescriptor = new TokenServerDescriptor(config.getServerHost(), config.getServerPort());
-            startClientIfScheduled();
-            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
+            startClientIfScheduled(oldRouter);
+            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", servers);
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to change remote token server", ex);
         }
     }
 
-    private void startClientIfScheduled() throws Exception {
+    /**
+     * Create router for the servers. Transport clients of the servers in the former router are reused,
+     * so connections to unchanged servers are kept.
+     */
+    private TokenServerRouter newRouter(List<TokenServerDescriptor> servers, TokenServerRouter former) {
+        ClusterTransportClient[] clients = new ClusterTransportClient[servers.size()];
+        for (int i = 0; i < clients.length; i++) {
+            TokenServerDescriptor server = servers.get(i);
+            ClusterTransportClient client = former == null ? null : former.findClient(server);
+            clients[i] = client != null ? client : new NettyTransportClient(server.getHost(), server.getPort());
+        }
+        return new TokenServerRouter(servers, clients);
+    }
+
+    /**
+     * Start the transport clients if the token client has been started.
+     *
+     * @param former the former router, whose (reused) transport clients have been started
+     */
+    private void startClientIfScheduled(TokenServerRouter former) throws Exception {
         if (shouldStart.get()) {
-            if (transportClient != null) {
-                transportClient.start();
+            TokenServerRouter router = this.router;
+            if (router != null) {
+                for (int i = 0; i < router.getClients().length; i++) {
+                    ClusterTransportClient client = router.getClients()[i];
+                    if (former == null || former.findClient(router.getServers().get(i)) != client) {
+                        client.start();
+                    }
+                }
             } else {
                 RecordLog.warn("[DefaultClusterTokenClient] Cannot start transport client: client not created");
             }
@@ -115,8 +145,12 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
 
     private void stopClientIfStarted() throws Exception {
         if (shouldStart.compareAndSet(true, false)) {
-            if (transportClient != null) {
-                transportClient.stop();
+            leaseManager.clear();
+            TokenServerRouter router = this.router;
+            if (router != null) {
+                for (ClusterTransportClient client : router.getClients()) {
+                    client.stop();
+                }
             }
         }
     }
@@ -124,7 +158,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
     @Override
     public void start() throws Exception {
         if (shouldStart.compareAndSet(false, true)) {
-            startClientIfScheduled();
+            startClientIfScheduled(null);
         }
     }
 
@@ -133,17 +167,31 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         stopClientIfStarted();
     }
 
+    /**
+     * Get the state of the client. With multiple token servers, the client is started
+     * if any of the servers is connected, while requests routed to unavailable servers fail fast.
+     */
     @Override
     public int getState() {
-        if (transportClient == null) {
+        TokenServerRouter router = this.router;
+        if (router == null) {
             return ClientConstants.CLIENT_STATUS_OFF;
         }
-        return transportClient.isReady() ? ClientConstants.CLIENT_STATUS_STARTED : ClientConstants.CLIENT_STATUS_OFF;
+        for (ClusterTransportClient client : router.getClients()) {
+            if (client.isReady()) {
+                return ClientConstants.CLIENT_STATUS_STARTED;
+            }
+        }
+        return ClientConstants.CLIENT_STATUS_OFF;
     }
 
+    /**
+     * @return the (first) assigned token server
+     */
     @Override
     public TokenServerDescriptor currentServer() {
-        return serverDescriptor;
+        TokenServerRouter router = this.router;
+        return router == null ? null : router.getServers().get(0);
     }
 
     @Override
@@ -151,11 +199,15 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         if (notValidRequest(flowId, acquireCount)) {
             return badRequest();
         }
+        TokenResult leased = tryAcquireFromLease(flowId, acquireCount, prioritized);
+        if (leased != null) {
+            return leased;
+        }
         FlowRequestData data = new FlowRequestData().setCount(acquireCount)
             .setFlowId(flowId).setPriority(prioritized);
         ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(flowId, request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -173,7 +225,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
             .setFlowId(flowId).setParams(params);
         ClusterRequest<ParamFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(flowId, request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -182,6 +234,33 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    @Override
+    public CompletableFuture<TokenResult> requestTokenAsync(Long flowId, int acquireCount, boolean prioritized) {
+        if (notValidRequest(flowId, acquireCount)) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        TokenResult leased = tryAcquireFromLease(flowId, acquireCount, prioritized);
+        if (leased != null) {
+            return CompletableFuture.completedFuture(leased);
+        }
+        FlowRequestData data = new FlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setPriority(prioritized);
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+        return sendTokenRequestAsync(flowId, request);
+    }
+
+    @Override
+    public CompletableFuture<TokenResult> requestParamTokenAsync(Long flowId, int acquireCount,
+                                                                 Collection<Object> params) {
+        if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        ParamFlowRequestData data = new ParamFlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setParams(params);
+        ClusterRequest<ParamFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
+        return sendTokenRequestAsync(flowId, request);
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         return null;
@@ -191,6 +270,21 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
     public void releaseConcurrentToken(Long tokenId) {
     }
 
+    private TokenResult tryAcquireFromLease(long flowId, int acquireCount, boolean prioritized) {
+        int leaseMs = ClusterClientConfigManager.getTokenLeaseMs();
+        // Prioritized requests may occupy future tokens, so they always go to the token server.
+        if (leaseMs <= 0 || prioritized) {
+            return null;
+        }
+        return leaseManager.tryAcquire(flowId, acquireCount, leaseMs);
+    }
+
+    private CompletableFuture<TokenResult> requestTokenLease(long flowId, int count, int leaseMs) {
+        FlowLeaseRequestData data = new FlowLeaseRequestData().setFlowId(flowId)
+            .setCount(count).setLeaseMs(leaseMs);
+        return sendTokenRequestAsync(flowId, new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE, data));
+    }
+
     private void logForResult(TokenResult result) {
         switch (result.getStatus()) {
             case TokenResultStatus.NO_RULE_EXISTS:
@@ -203,13 +297,42 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
-    private TokenResult sendTokenRequest(ClusterRequest request) throws Exception {
+    private ClusterTransportClient transportClientOf(long flowId) {
+        TokenServerRouter router = this.router;
+        return router == null ? null : router.clientOf(flowId);
+    }
+
+    private TokenResult sendTokenRequest(long flowId, ClusterRequest request) throws Exception {
+        ClusterTransportClient transportClient = transportClientOf(flowId);
         if (transportClient == null) {
             RecordLog.warn(
                 "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
             return clientFail();
         }
         ClusterResponse response = transportClient.sendRequest(request);
+        return toTokenResult(response);
+    }
+
+    private CompletableFuture<TokenResult> sendTokenRequestAsync(long flowId, ClusterRequest request) {
+        ClusterTransportClient client = transportClientOf(flowId);
+        if (client == null) {
+            RecordLog.warn(
+                "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+            return CompletableFuture.completedFuture(clientFail());
+        }
+        return client.sendRequestAsync(request).handle((response, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                ClusterClientStatLogUtil.log(cause.getMessage());
+                return clientFail();
+            }
+            TokenResult result = toTokenResult(response);
+            logForResult(result);
+            return result;
+        });
+    }
+
+    private TokenResult toTokenResult(ClusterResponse response) {
         TokenResult result = new TokenResult(response.getStatus());
         if (response.getData() != null) {
             FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
@@ -15,19 +15,18 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
-import java.util.AbstractMap.SimpleEntry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
 import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
-import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
-import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
-import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientHandler;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientPromiseHolder;
 import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
@@ -37,23 +36,24 @@ import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
-import io.netty.bootstrap.Bootstrap;
-import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelInitializer;
-import io.netty.channel.ChannelOption;
-import io.netty.channel.ChannelPipeline;
-import io.netty.channel.ChannelPromise;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.channel.EventLoopGroup;
 import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
 
 /**
- * Netty transport client implementation for Sentinel cluster transport.
+ * <p>Netty transport client implementation for Sentinel cluster transport.</p>
+ * <p>
+ * The client holds a pool of connections to the token server (1 by default, see
+ * {@link ClusterClientStartUpConfig#getConnectionPoolSize()}), which are spread over event loops.
+ * Every request goes to the ready connection with the least in-flight requests,
+ * where unhealthy connections (with successive timeouts) are only used if no healthy one is ready.
+ * </p>
+ * <p>
+ * The connections run on the transport of {@link ClusterClientConfigManager#getTransportType()} at the time
+ * the client is started, i.e. NIO (by default), native epoll over TCP, or native epoll over a Unix domain socket.
+ * </p>
  *
  * @author Eric Zhao
  * @since 1.4.0
@@ -66,131 +66,52 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     public static final int RECONNECT_DELAY_MS = 2000;
 
-    private final String host;
-    private final int port;
-
-    private Channel channel;
-    private NioEventLoopGroup eventLoopGroup;
-    private TokenClientHandler clientHandler;
-
-    private final AtomicInteger idGenerator = new AtomicInteger(0);
-    private final AtomicInteger currentState = new AtomicInteger(ClientConstants.CLIENT_STATUS_OFF);
-    private final AtomicInteger failConnectedTime = new AtomicInteger(0);
-
-    private final AtomicBoolean shouldRetry = new AtomicBoolean(true);
+    private final ClientChannel[] channels;
+    private final AtomicInteger nextIndex = new AtomicInteger(0);
+    private EventLoopGroup eventLoopGroup;
 
     public NettyTransportClient(String host, int port) {
-        AssertUtil.assertNotBlank(host, "remote host cannot be blank");
-        AssertUtil.isTrue(port > 0, "port should be positive");
-        this.host = host;
-        this.port = port;
-    }
-
-    private Bootstrap initClientBootstrap() {
-        Bootstrap b = new Bootstrap();
-        eventLoopGroup = new NioEventLoopGroup();
-        b.group(eventLoopGroup)
-            .channel(NioSocketChannel.class)
-            .option(ChannelOption.TCP_NODELAY, true)
-            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
-            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ClusterClientConfigManager.getConnectTimeout())
-            .handler(new ChannelInitializer<SocketChannel>() {
-                @Override
-                public void initChannel(SocketChannel ch) throws Exception {
-                    clientHandler = new TokenClientHandler(currentState, disconnectCallback);
-
-                    ChannelPipeline pipeline = ch.pipeline();
-                    pipeline.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
-                    pipeline.addLast(new NettyResponseDecoder());
-                    pipeline.addLast(new LengthFieldPrepender(2));
-                    pipeline.addLast(new NettyRequestEncoder());
-                    pipeline.addLast(clientHandler);
-                }
-            });
-
-        return b;
+        this(host, port, ClusterClientStartUpConfig.getConnectionPoolSize());
     }
 
-    private void connect(Bootstrap b) {
-        if (currentState.compareAndSet(ClientConstants.CLIENT_STATUS_OFF, ClientConstants.CLIENT_STATUS_PENDING)) {
-            b.connect(host, port)
-                .addListener(new GenericFutureListener<ChannelFuture>() {
-                @Override
-                public void operationComplete(ChannelFuture future) {
-                    if (future.cause() != null) {
-                        RecordLog.warn(
-                            String.format("[NettyTransportClient] Could not connect to <%s:%d> after %d times",
-                                host, port, failConnectedTime.get()), future.cause());
-                        failConnectedTime.incrementAndGet();
-                        channel = null;
-                    } else {
-                        failConnectedTime.set(0);
-                        channel = future.channel();
-                        RecordLog.info("[NettyTransportClient] Successfully connect to server <{}:{}>", host, port);
-                    }
-                }
-            });
+    /**
+     * @param host     host of the token server
+     * @param port     port of the token server
+     * @param poolSize count of connections to the token server
+     * @since 1.8.8
+     */
+    public NettyTransportClient(String host, int port, int poolSize) {
+        AssertUtil.assertNotBlank(host, "remote host cannot be blank");
+        AssertUtil.isTrue(port > 0, "port should be positive");
+        AssertUtil.isTrue(poolSize > 0, "poolSize should be positive");
+        this.channels = new ClientChannel[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            channels[i] = new ClientChannel(host, port, SCHEDULER);
         }
     }
 
-    private Runnable disconnectCallback = new Runnable() {
-        @Override
-        public void run() {
-            if (!shouldRetry.get()) {
-                return;
-            }
-            SCHEDULER.schedule(new Runnable() {
-                @Override
-                public void run() {
-                    if (shouldRetry.get()) {
-                        RecordLog.info("[NettyTransportClient] Reconnecting to server <{}:{}>", host, port);
-                        try {
-                            startInternal();
-                        } catch (Exception e) {
-                            RecordLog.warn("[NettyTransportClient] Failed to reconnect to server", e);
-                        }
-                    }
-                }
-            }, RECONNECT_DELAY_MS * (failConnectedTime.get() + 1), TimeUnit.MILLISECONDS);
-            cleanUp();
-        }
-    };
-
     @Override
-    public void start() throws Exception {
-        shouldRetry.set(true);
-        startInternal();
-    }
-
-    private void startInternal() {
-        connect(initClientBootstrap());
-    }
-
-    private void cleanUp() {
-        if (channel != null) {
-            channel.close();
-            channel = null;
-        }
+    public synchronized void start() throws Exception {
         if (eventLoopGroup != null) {
-            eventLoopGroup.shutdownGracefully();
+            return;
+        }
+        ClientTransportSupport transport = ClientTransportSupport.resolve(
+            ClusterClientConfigManager.getTransportType(), ClusterClientConfigManager.getUdsPath());
+        eventLoopGroup = transport.newEventLoopGroup(channels.length);
+        for (ClientChannel channel : channels) {
+            channel.start(eventLoopGroup, transport);
         }
     }
 
     @Override
-    public void stop() throws Exception {
-        // Stop retrying for connection.
-        shouldRetry.set(false);
-
-        while (currentState.get() == ClientConstants.CLIENT_STATUS_PENDING) {
-            try {
-                Thread.sleep(200);
-            } catch (Exception ex) {
-                // Ignore.
-            }
+    public synchronized void stop() throws Exception {
+        for (ClientChannel channel : channels) {
+            channel.stop();
+        }
+        if (eventLoopGroup != null) {
+            eventLoopGroup.shutdownGracefully();
+            eventLoopGroup = null;
         }
-
-        cleanUp();
-        failConnectedTime.set(0);
 
         RecordLog.info("[NettyTransportClient] Cluster transport client stopped");
     }
@@ -201,72 +122,140 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     @Override
     public boolean isReady() {
-        return channel != null && clientHandler != null && clientHandler.hasStarted();
+        for (ClientChannel channel : channels) {
+            if (channel.isReady()) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    @Override
-    public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
-        if (!isReady()) {
-            throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
+    /**
+     * Select the ready connection with the least in-flight requests, preferring healthy ones. The scan starts
+     * from a rotating index, so that connections with equal in-flight requests are used in turn.
+     *
+     * @return the selected connection, or null if no connection is ready
+     */
+    private ClientChannel selectChannel() {
+        int size = channels.length;
+        if (size == 1) {
+            return channels[0].isReady() ? channels[0] : null;
         }
-        if (!validRequest(request)) {
-            throw new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST);
-        }
-        int xid = getCurrentId();
-        try {
-            request.setId(xid);
-
-            channel.writeAndFlush(request);
-
-            ChannelPromise promise = channel.newPromise();
-            TokenClientPromiseHolder.putPromise(xid, promise);
-
-            if (!promise.await(ClusterClientConfigManager.getRequestTimeout())) {
-                throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
+        int start = (nextIndex.getAndIncrement() & Integer.MAX_VALUE) % size;
+        ClientChannel selected = null;
+        boolean selectedHealthy = false;
+        for (int i = 0; i < size; i++) {
+            ClientChannel channel = channels[(start + i) % size];
+            if (!channel.isReady()) {
+                continue;
             }
+            boolean healthy = channel.isHealthy();
+            if (selected == null || (healthy && !selectedHealthy)
+                || (healthy == selectedHealthy && channel.getInFlight() < selected.getInFlight())) {
+                selected = channel;
+                selectedHealthy = healthy;
+            }
+        }
+        return selected;
+    }
 
-            SimpleEntry<ChannelPromise, ClusterResponse> entry = TokenClientPromiseHolder.getEntry(xid);
-            if (entry == null || entry.getValue() == null) {
+    @Override
+    public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
+        CompletableFuture<ClusterResponse> promise = writeRequest(request, false);
+        try {
+            ClusterResponse response = promise.get(ClusterClientConfigManager.getRequestTimeout(),
+                TimeUnit.MILLISECONDS);
+            if (response == null) {
                 // Should not go through here.
                 throw new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS);
             }
-            return entry.getValue();
+            return response;
+        } catch (TimeoutException ex) {
+            throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            throw cause instanceof Exception ? (Exception)cause : ex;
         } finally {
-            TokenClientPromiseHolder.remove(xid);
+            if (TokenClientPromiseHolder.remove(request.getId(), promise)) {
+                // Complete the abandoned promise, so that the connection is notified of the timeout.
+                promise.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT));
+            }
         }
     }
 
-    private int getCurrentId() {
-        int pre, next;
-        do {
-            pre = idGenerator.get();
-            next = pre >= MAX_ID ? MIN_ID : pre + 1;
-        } while (!idGenerator.compareAndSet(pre, next));
-        return next;
+    /**
+     * Send request without blocking the caller. Many requests can be in flight on the channel at the same time,
+     * and responses are matched to the requests by xid. The returned future will be completed exceptionally
+     * if the response is not received within the request timeout.
+     *
+     * @param request Sentinel cluster request
+     * @return future of the response from remote server
+     * @since 1.8.8
+     */
+    @Override
+    public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        try {
+            return writeRequest(request, true);
+        } catch (Exception ex) {
+            CompletableFuture<ClusterResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(ex);
+            return failed;
+        }
     }
 
-    /*public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
-        // Uncomment this when min target JDK is 1.8.
+    private CompletableFuture<ClusterResponse> writeRequest(ClusterRequest request, boolean scheduleTimeout) throws Exception {
+        final ClientChannel clientChannel = selectChannel();
+        Channel channel = clientChannel == null ? null : clientChannel.getChannel();
+        if (channel == null) {
+            throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
+        }
         if (!validRequest(request)) {
-            return CompletableFuture.failedFuture(new IllegalArgumentException("Bad request"));
+            throw new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST);
+        }
+        // The promise should be registered before writing, otherwise the response may arrive in advance.
+        final CompletableFuture<ClusterResponse> promise = new CompletableFuture<>();
+        final int xid = TokenClientPromiseHolder.register(promise);
+        if (xid < 0) {
+            throw new SentinelClusterException(ClusterErrorMessages.TOO_MANY_REQUESTS);
         }
-        int xid = getCurrentId();
         request.setId(xid);
+        clientChannel.onRequestStart();
+        promise.whenComplete((r, ex) -> clientChannel.onRequestComplete(isTimeout(ex)));
+
+        if (scheduleTimeout) {
+            final ScheduledFuture<?> timeoutTask = channel.eventLoop().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (TokenClientPromiseHolder.remove(xid, promise)) {
+                        promise.completeExceptionally(
+                            new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT));
+                    }
+                }
+            }, ClusterClientConfigManager.getRequestTimeout(), TimeUnit.MILLISECONDS);
+            promise.whenComplete((r, ex) -> timeoutTask.cancel(false));
+        }
 
-        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
-        channel.writeAndFlush(request)
-            .addListener(f -> {
-                if (f.isSuccess()) {
-                    future.complete(someResult);
-                } else if (f.cause() != null) {
-                    future.completeExceptionally(f.cause());
-                } else {
-                    future.cancel(false);
+        GenericFutureListener<ChannelFuture> writeListener = new GenericFutureListener<ChannelFuture>() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (!future.isSuccess() && TokenClientPromiseHolder.remove(xid, promise)) {
+                    promise.completeExceptionally(future.cause() != null ? future.cause()
+                        : new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS));
                 }
-            });
-        return future;
-    }*/
+            }
+        };
+        ClusterRequestBatcher batcher = clientChannel.getBatcher();
+        if (batcher != null && batcher.getChannel() == channel
+            && ClusterRequestBatcher.isBatchable(request.getType())) {
+            batcher.write(request, writeListener);
+        } else {
+            channel.writeAndFlush(request).addListener(writeListener);
+        }
+        return promise;
+    }
 
-    private static final int MIN_ID = 1;
-    private static final int MAX_ID = 999_999_999;
+    private static boolean isTimeout(Throwable ex) {
+        return ex instanceof SentinelClusterException
+            && ClusterErrorMessages.REQUEST_TIME_OUT.equals(ex.getMessage());
+    }
 }
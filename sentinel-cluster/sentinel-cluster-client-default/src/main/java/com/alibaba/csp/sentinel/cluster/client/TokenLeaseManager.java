@@ -0,0 +1,196 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>
+ * Holds token leases granted by the token server, so that cluster flow tokens could be consumed locally
+ * without a round trip to the token server for each request.
+ * </p>
+ * <p>
+ * A lease of a flow ID is refilled asynchronously when less than half of the granted tokens or half of the
+ * lease window is left. The expected lease size is estimated from the local demand of the last refill period,
+ * while the token server caps it with its own view of the global threshold. Requests that cannot be served
+ * from the lease fall back to regular token requests, so the behavior stays the same when the lease is
+ * exhausted or not granted.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+final class TokenLeaseManager {
+
+    private static final double REFILL_RATIO = 0.5d;
+
+    private final LeaseRequester requester;
+    private final Map<Long, TokenLease> leases = new ConcurrentHashMap<>();
+
+    TokenLeaseManager(LeaseRequester requester) {
+        this.requester = requester;
+    }
+
+    /**
+     * Try to acquire tokens from the local lease of provided flow ID.
+     *
+     * @param flowId       the flow ID
+     * @param acquireCount token count to acquire
+     * @param leaseMs      lease window in milliseconds
+     * @return a passed result if tokens are acquired from the lease, otherwise null
+     */
+    TokenResult tryAcquire(long flowId, int acquireCount, int leaseMs) {
+        TokenLease lease = leases.get(flowId);
+        if (lease == null) {
+            lease = leases.computeIfAbsent(flowId, TokenLease::new);
+        }
+        long now = TimeUtil.currentTimeMillis();
+        lease.demand.addAndGet(acquireCount);
+        int left = now < lease.expireAt ? lease.tryConsume(acquireCount) : -1;
+        if (lease.shouldRefill(now, leaseMs)) {
+            refill(lease, now, leaseMs);
+        }
+        if (left < 0) {
+            return null;
+        }
+        return new TokenResult(TokenResultStatus.OK)
+            .setRemaining(left)
+            .setWaitInMs(0);
+    }
+
+    void clear() {
+        leases.clear();
+    }
+
+    void clear(LongPredicate flowIdFilter) {
+        leases.keySet().removeIf(flowIdFilter::test);
+    }
+
+    int getAvailable(long flowId) {
+        TokenLease lease = leases.get(flowId);
+        return lease == null || TimeUtil.currentTimeMillis() >= lease.expireAt ? 0 : lease.available.get();
+    }
+
+    private void refill(final TokenLease lease, long now, final int leaseMs) {
+        int count = lease.nextLeaseCount(now, leaseMs);
+        CompletableFuture<TokenResult> future;
+        try {
+            future = requester.requestLease(lease.flowId, count, leaseMs);
+        } catch (Throwable ex) {
+            RecordLog.warn("[TokenLeaseManager] Failed to request token lease for flowId {}", lease.flowId, ex);
+            lease.onLeaseFailed(leaseMs);
+            return;
+        }
+        future.whenComplete((result, ex) -> {
+            if (ex == null && result != null && result.getStatus() == TokenResultStatus.OK
+                && result.getRemaining() > 0 && result.getWaitInMs() > 0) {
+                lease.onLeaseGranted(result.getRemaining(), result.getWaitInMs());
+            } else {
+                lease.onLeaseFailed(leaseMs);
+            }
+        });
+    }
+
+    interface LeaseRequester {
+        CompletableFuture<TokenResult> requestLease(long flowId, int count, int leaseMs);
+    }
+
+    private static final class TokenLease {
+
+        private final long flowId;
+        private final AtomicInteger available = new AtomicInteger(0);
+        private final AtomicBoolean refilling = new AtomicBoolean(false);
+        /**
+         * Token count demanded locally since the last refill.
+         */
+        private final AtomicLong demand = new AtomicLong(0);
+
+        private volatile long demandSince = TimeUtil.currentTimeMillis();
+        private volatile long expireAt = 0;
+        private volatile int lastGranted = 0;
+        /**
+         * No lease will be requested before this time, which avoids flooding the token server
+         * when leases cannot be granted.
+         */
+        private volatile long nextRefillAt = 0;
+
+        TokenLease(long flowId) {
+            this.flowId = flowId;
+        }
+
+        /**
+         * @return tokens left after acquiring, or -1 if tokens are not enough
+         */
+        int tryConsume(int acquireCount) {
+            while (true) {
+                int current = available.get();
+                int next = current - acquireCount;
+                if (next < 0) {
+                    return -1;
+                }
+                if (available.compareAndSet(current, next)) {
+                    return next;
+                }
+            }
+        }
+
+        boolean shouldRefill(long now, int leaseMs) {
+            if (now < nextRefillAt || refilling.get()) {
+                return false;
+            }
+            boolean needRefill = now >= expireAt
+                || available.get() < lastGranted * REFILL_RATIO
+                || expireAt - now < leaseMs * REFILL_RATIO;
+            return needRefill && refilling.compareAndSet(false, true);
+        }
+
+        int nextLeaseCount(long now, int leaseMs) {
+            long demanded = demand.getAndSet(0);
+            long elapsed = Math.max(now - demandSince, (long)(leaseMs * REFILL_RATIO));
+            demandSince = now;
+            long expected = (long)Math.ceil((double)demanded * leaseMs / Math.max(elapsed, 1));
+            return (int)Math.max(1, Math.min(expected, Integer.MAX_VALUE));
+        }
+
+        synchronized void onLeaseGranted(int grantedCount, int grantedLeaseMs) {
+            long now = TimeUtil.currentTimeMillis();
+            if (now >= expireAt) {
+                // Tokens left in an expired lease are dropped.
+                available.set(grantedCount);
+            } else {
+                available.addAndGet(grantedCount);
+            }
+            expireAt = now + grantedLeaseMs;
+            lastGranted = grantedCount;
+            refilling.set(false);
+        }
+
+        synchronized void onLeaseFailed(int leaseMs) {
+            nextRefillAt = TimeUtil.currentTimeMillis() + (long)(leaseMs * REFILL_RATIO);
+            refilling.set(false);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+
+/**
+ * <p>
+ * Router of token requests among multiple token servers. Each flowId is routed to one token server
+ * with rendezvous (highest random weight) hashing, so that all requests of a flow are counted by the same
+ * server, while flows of a namespace are spread across the servers.
+ * </p>
+ * <p>
+ * When a server is added or removed, only the flows routed to the changed server move
+ * (about {@code 1/n} of all flows), and the others stay where they were.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+final class TokenServerRouter {
+
+    private final List<TokenServerDescriptor> servers;
+    private final ClusterTransportClient[] clients;
+    private final long[] serverHashes;
+
+    TokenServerRouter(List<TokenServerDescriptor> servers, ClusterTransportClient[] clients) {
+        this.servers = servers;
+        this.clients = clients;
+        this.serverHashes = new long[servers.size()];
+        for (int i = 0; i < serverHashes.length; i++) {
+            serverHashes[i] = hashServer(servers.get(i));
+        }
+    }
+
+    int select(long flowId) {
+        if (serverHashes.length == 1) {
+            return 0;
+        }
+        long flowHash = mix(flowId);
+        int selected = 0;
+        long maxWeight = Long.MIN_VALUE;
+        for (int i = 0; i < serverHashes.length; i++) {
+            long weight = mix(flowHash ^ serverHashes[i]);
+            if (weight > maxWeight) {
+                maxWeight = weight;
+                selected = i;
+            }
+        }
+        return selected;
+    }
+
+    ClusterTransportClient clientOf(long flowId) {
+        return clients[select(flowId)];
+    }
+
+    TokenServerDescriptor serverOf(long flowId) {
+        return servers.get(select(flowId));
+    }
+
+    List<TokenServerDescriptor> getServers() {
+        return servers;
+    }
+
+    ClusterTransportClient[] getClients() {
+        return clients;
+    }
+
+    /**
+     * Find the transport client of given server.
+     *
+     * @return the transport client, or null if the server is not routed by this router
+     */
+    ClusterTransportClient findClient(TokenServerDescriptor server) {
+        for (int i = 0; i < clients.length; i++) {
+            if (servers.get(i).equals(server)) {
+                return clients[i];
+            }
+        }
+        return null;
+    }
+
+    private static long hashServer(TokenServerDescriptor server) {
+        // FNV-1a of the address.
+        long hash = 0xcbf29ce484222325L;
+        String address = server.getHost() + ':' + server.getPort();
+        for (int i = 0; i < address.length(); i++) {
+            hash ^= address.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The finalizer of MurmurHash3 (64-bit).
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.client.codec.ClientEntityCodecProvider;
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer for batch requests. Every item is a complete request entity (with its own xid and type),
+ * prefixed by its length:</p>
+ * <pre>
+ * +-----------+-----------+--------+---------+---------+-----+
+ * | count (2) | length(2) | xid(4) | type(1) | data... | ... |
+ * +-----------+-----------+--------+---------+---------+-----+
+ * </pre>
+ *
+ * @since 1.8.8
+ */
+public class BatchRequestDataWriter implements EntityWriter<List<ClusterRequest>, ByteBuf> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeTo(List<ClusterRequest> entity, ByteBuf target) {
+        RequestEntityWriter<ClusterRequest, ByteBuf> itemWriter = ClientEntityCodecProvider.getRequestEntityWriter();
+        target.writeShort(entity.size());
+        for (ClusterRequest item : entity) {
+            int lengthIndex = target.writerIndex();
+            target.writeShort(0);
+            itemWriter.writeTo(item, target);
+            target.setShort(lengthIndex, target.writerIndex() - lengthIndex - 2);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.client.codec.ClientEntityCodecProvider;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Decoder for batch responses. Every item is a complete response entity (with the xid of
+ * the matching request), prefixed by its length:</p>
+ * <pre>
+ * +-----------+-----------+--------+---------+-----------+---------+-----+
+ * | count (2) | length(2) | xid(4) | type(1) | status(1) | data... | ... |
+ * +-----------+-----------+--------+---------+-----------+---------+-----+
+ * </pre>
+ *
+ * @since 1.8.8
+ */
+public class BatchResponseDataDecoder implements EntityDecoder<ByteBuf, List<ClusterResponse>> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ClusterResponse> decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        ResponseEntityDecoder<ByteBuf, ClusterResponse> itemDecoder =
+            ClientEntityCodecProvider.getResponseEntityDecoder();
+        int count = source.readUnsignedShort();
+        List<ClusterResponse> items = new ArrayList<>(count);
+        for (int i = 0; i < count && source.readableBytes() >= 2; i++) {
+            int length = source.readUnsignedShort();
+            ClusterResponse item = itemDecoder.decode(source.readSlice(length));
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+}
@@ -15,24 +15,45 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.codec.data;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import io.netty.buffer.ByteBuf;
 
 /**
+ * <p>
+ * Writer for ping request data. The client ID and the highest supported protocol version are appended
+ * after the namespace (since 1.8.8), which are ignored by former token servers. The layout:
+ * </p>
+ * <pre>
+ * | namespace length (4) | namespace... | client ID length (4) | client ID... | protocol version (1) |
+ * </pre>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
-public class PingRequestDataWriter implements EntityWriter<String, ByteBuf> {
+public class PingRequestDataWriter implements EntityWriter<PingRequestData, ByteBuf> {
 
     @Override
-    public void writeTo(String entity, ByteBuf target) {
-        if (StringUtil.isBlank(entity) || target == null) {
+    public void writeTo(PingRequestData entity, ByteBuf target) {
+        if (entity == null || StringUtil.isBlank(entity.getNamespace()) || target == null) {
             return;
         }
-        byte[] bytes = entity.getBytes();
+        byte[] bytes = entity.getNamespace().getBytes();
         target.writeInt(bytes.length);
         target.writeBytes(bytes);
+        boolean withVersion = entity.getProtocolVersion() > ClusterConstants.PROTOCOL_VERSION_1;
+        if (StringUtil.isNotBlank(entity.getClientId())) {
+            byte[] clientId = entity.getClientId().getBytes();
+            target.writeInt(clientId.length);
+            target.writeBytes(clientId);
+        } else if (withVersion) {
+            target.writeInt(0);
+        }
+        if (withVersion) {
+            target.writeByte(entity.getProtocolVersion());
+        }
     }
 }
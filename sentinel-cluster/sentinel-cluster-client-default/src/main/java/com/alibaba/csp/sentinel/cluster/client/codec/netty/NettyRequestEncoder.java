@@ -15,7 +15,9 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.codec.netty;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.client.codec.ClientEntityCodecProvider;
+import com.alibaba.csp.sentinel.cluster.client.codec.v2.CompactRequestEntityWriter;
 import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityWriter;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.request.Request;
@@ -24,15 +26,35 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.AttributeKey;
 
 /**
+ * Encoder of request frames. Requests are written in protocol v2 once the token server has replied in
+ * protocol v2 on the channel (see {@link #PROTOCOL_VERSION}), otherwise in protocol v1. The encoder holds
+ * the parameter dictionary of its channel, so it should not be shared among channels.
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyRequestEncoder extends MessageToByteEncoder<ClusterRequest> {
 
+    /**
+     * Wire protocol version negotiated on the channel, absent for protocol v1.
+     *
+     * @since 1.8.8
+     */
+    public static final AttributeKey<Integer> PROTOCOL_VERSION = AttributeKey.valueOf(
+        "sentinel.cluster.client.protocolVersion");
+
+    private final CompactRequestEntityWriter compactWriter = new CompactRequestEntityWriter();
+
     @Override
     protected void encode(ChannelHandlerContext ctx, ClusterRequest request, ByteBuf out) throws Exception {
+        Integer version = ctx.channel().attr(PROTOCOL_VERSION).get();
+        if (version != null && version == ClusterConstants.PROTOCOL_VERSION_2) {
+            compactWriter.writeTo(request, out);
+            return;
+        }
         RequestEntityWriter<Request, ByteBuf> requestEntityWriter = ClientEntityCodecProvider.getRequestEntityWriter();
         if (requestEntityWriter == null) {
             RecordLog.warn("[NettyRequestEncoder] Cannot resolve the global request entity writer, dropping the request");
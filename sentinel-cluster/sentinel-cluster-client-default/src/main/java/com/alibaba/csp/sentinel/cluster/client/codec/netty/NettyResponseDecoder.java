@@ -17,9 +17,9 @@ package com.alibaba.csp.sentinel.cluster.client.codec.netty;
 
 import java.util.List;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.client.codec.ClientEntityCodecProvider;
-import com.alibaba.csp.sentinel.cluster.client.codec.registry.ResponseDataDecodeRegistry;
-import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.v2.CompactResponseEntityDecoder;
 import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityDecoder;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.Response;
@@ -30,13 +30,29 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 
 /**
+ * Decoder of response frames, in protocol v1 or v2 (told by the first byte of the frame). The first response
+ * in protocol v2 (i.e. the reply to the ping) indicates that the token server supports protocol v2,
+ * so later requests on the channel are written in protocol v2.
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyResponseDecoder extends ByteToMessageDecoder {
 
+    private final CompactResponseEntityDecoder compactDecoder = new CompactResponseEntityDecoder();
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (in.isReadable() && in.getUnsignedByte(in.readerIndex()) == ClusterConstants.PROTOCOL_V2_MAGIC) {
+            ctx.channel().attr(NettyRequestEncoder.PROTOCOL_VERSION).set(ClusterConstants.PROTOCOL_VERSION_2);
+            Response response = compactDecoder.decode(in);
+            // Drop the rest of a malformed frame.
+            in.skipBytes(in.readableBytes());
+            if (response != null) {
+                out.add(response);
+            }
+            return;
+        }
         ResponseEntityDecoder<ByteBuf, Response> responseDecoder = ClientEntityCodecProvider.getResponseEntityDecoder();
         if (responseDecoder == null) {
             RecordLog.warn("[NettyResponseDecoder] Cannot resolve the global response entity decoder, "
@@ -0,0 +1,228 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.v2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.ParamFlowRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.RequestDataWriterRegistry;
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer of request frames in protocol v2. The layout of a frame:</p>
+ * <pre>
+ * | magic (1) | xid (varint) | type (1) | data... |
+ * </pre>
+ * <p>Data of token requests (varint for non-negative fields, zig-zag varint for signed fields):</p>
+ * <pre>
+ * flow:       | flow ID (zig-zag) | count (varint) | priority flag (1) |
+ * flow lease: | flow ID (zig-zag) | count (varint) | lease ms (varint) |
+ * param flow: | flow ID (zig-zag) | count (varint) | param count (varint) | type (1) | value | ... |
+ * batch:      | count (varint) | length (2) | xid (varint) | type (1) | data... | ... |
+ * </pre>
+ * <p>
+ * Strings of parameters go through the parameter dictionary of the connection: the first occurrence defines
+ * the string with a dictionary ID, and later occurrences only carry the ID. When the dictionary is full, the
+ * oldest entry is replaced. Other request types keep the data layout of protocol v1.
+ * </p>
+ * <p>
+ * The writer holds the dictionary of one connection, so it should not be shared among connections.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public class CompactRequestEntityWriter implements RequestEntityWriter<ClusterRequest, ByteBuf> {
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final String[] dictionaryEntries = new String[ClusterConstants.PARAM_DICTIONARY_CAPACITY];
+    private int nextDictionaryId = 0;
+
+    @Override
+    public void writeTo(ClusterRequest request, ByteBuf target) {
+        if (!isCompactType(request.getType()) && RequestDataWriterRegistry.getWriter(request.getType()) == null) {
+            RecordLog.warn("[CompactRequestEntityWriter] Cannot find matching request writer for type <{}>,"
+                + " dropping the request", request.getType());
+            return;
+        }
+        int writerIndex = target.writerIndex();
+        try {
+            target.writeByte(ClusterConstants.PROTOCOL_V2_MAGIC);
+            writeItem(request, target);
+        } catch (RuntimeException ex) {
+            target.writerIndex(writerIndex);
+            // Strings defined in the failed frame never reach the server, so start over with an empty dictionary.
+            resetDictionary();
+            throw ex;
+        }
+    }
+
+    private boolean isCompactType(int type) {
+        return type == ClusterConstants.MSG_TYPE_FLOW || type == ClusterConstants.MSG_TYPE_FLOW_LEASE
+            || type == ClusterConstants.MSG_TYPE_PARAM_FLOW || type == ClusterConstants.MSG_TYPE_BATCH;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeItem(ClusterRequest request, ByteBuf target) {
+        VarInts.writeVarInt(target, request.getId());
+        target.writeByte(request.getType());
+        Object data = request.getData();
+        switch (request.getType()) {
+            case ClusterConstants.MSG_TYPE_FLOW:
+                writeFlow((FlowRequestData)data, target);
+                break;
+            case ClusterConstants.MSG_TYPE_FLOW_LEASE:
+                writeFlowLease((FlowLeaseRequestData)data, target);
+                break;
+            case ClusterConstants.MSG_TYPE_PARAM_FLOW:
+                writeParamFlow((ParamFlowRequestData)data, target);
+                break;
+            case ClusterConstants.MSG_TYPE_BATCH:
+                writeBatch((List<ClusterRequest>)data, target);
+                break;
+            default:
+                writeWithDataWriter(request.getType(), data, target);
+        }
+    }
+
+    private void writeFlow(FlowRequestData data, ByteBuf target) {
+        VarInts.writeSignedVarLong(target, data.getFlowId());
+        VarInts.writeVarInt(target, data.getCount());
+        target.writeBoolean(data.isPriority());
+    }
+
+    private void writeFlowLease(FlowLeaseRequestData data, ByteBuf target) {
+        VarInts.writeSignedVarLong(target, data.getFlowId());
+        VarInts.writeVarInt(target, data.getCount());
+        VarInts.writeVarInt(target, data.getLeaseMs());
+    }
+
+    private void writeParamFlow(ParamFlowRequestData data, ByteBuf target) {
+        Object writer = RequestDataWriterRegistry.getWriter(ClusterConstants.MSG_TYPE_PARAM_FLOW);
+        if (!(writer instanceof ParamFlowRequestDataWriter)) {
+            // Customized writer, keep its own layout.
+            writeWithDataWriter(ClusterConstants.MSG_TYPE_PARAM_FLOW, data, target);
+            return;
+        }
+        VarInts.writeSignedVarLong(target, data.getFlowId());
+        VarInts.writeVarInt(target, data.getCount());
+        Collection<Object> params = ((ParamFlowRequestDataWriter)writer).resolveValidParams(data.getParams());
+        VarInts.writeVarInt(target, params.size());
+        for (Object param : params) {
+            writeParam(param, target);
+        }
+    }
+
+    private void writeBatch(List<ClusterRequest> items, ByteBuf target) {
+        VarInts.writeVarInt(target, items.size());
+        for (ClusterRequest item : items) {
+            int lengthIndex = target.writerIndex();
+            target.writeShort(0);
+            writeItem(item, target);
+            target.setShort(lengthIndex, target.writerIndex() - lengthIndex - 2);
+        }
+    }
+
+    private void writeWithDataWriter(int type, Object data, ByteBuf target) {
+        EntityWriter<Object, ByteBuf> writer = RequestDataWriterRegistry.getWriter(type);
+        if (writer == null) {
+            RecordLog.warn("[CompactRequestEntityWriter] Cannot find matching request writer for type <{}>", type);
+            return;
+        }
+        writer.writeTo(data, target);
+    }
+
+    private void writeParam(Object param, ByteBuf target) {
+        if (param instanceof Integer) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_INTEGER);
+            VarInts.writeSignedVarInt(target, (Integer)param);
+        } else if (param instanceof String) {
+            writeString((String)param, target);
+        } else if (param instanceof Boolean) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_BOOLEAN);
+            target.writeBoolean((Boolean)param);
+        } else if (param instanceof Long) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_LONG);
+            VarInts.writeSignedVarLong(target, (Long)param);
+        } else if (param instanceof Double) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_DOUBLE);
+            target.writeDouble((Double)param);
+        } else if (param instanceof Float) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_FLOAT);
+            target.writeFloat((Float)param);
+        } else if (param instanceof Byte) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_BYTE);
+            target.writeByte((Byte)param);
+        } else if (param instanceof Short) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_SHORT);
+            VarInts.writeSignedVarInt(target, (Short)param);
+        }
+        // Unexpected types have been dropped when resolving valid params.
+    }
+
+    private void writeString(String param, ByteBuf target) {
+        Integer id = dictionary.get(param);
+        if (id != null) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_STRING_REF);
+            VarInts.writeVarInt(target, id);
+            return;
+        }
+        byte[] bytes = param.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= ClusterConstants.PARAM_DICTIONARY_MAX_STRING_LENGTH) {
+            target.writeByte(ClusterConstants.PARAM_TYPE_STRING_DEFINE);
+            VarInts.writeVarInt(target, define(param));
+        } else {
+            target.writeByte(ClusterConstants.PARAM_TYPE_STRING);
+        }
+        VarInts.writeVarInt(target, bytes.length);
+        target.writeBytes(bytes);
+    }
+
+    private int define(String param) {
+        int id = nextDictionaryId;
+        nextDictionaryId = (id + 1) % dictionaryEntries.length;
+        String replaced = dictionaryEntries[id];
+        if (replaced != null) {
+            dictionary.remove(replaced);
+        }
+        dictionaryEntries[id] = param;
+        dictionary.put(param, id);
+        return id;
+    }
+
+    private void resetDictionary() {
+        dictionary.clear();
+        Arrays.fill(dictionaryEntries, null);
+        nextDictionaryId = 0;
+    }
+
+    int dictionarySize() {
+        return dictionary.size();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.v2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.ResponseDataDecodeRegistry;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Decoder of response frames in protocol v2. The layout of a frame:</p>
+ * <pre>
+ * | magic (1) | xid (varint) | type (1) | status (1) | data... |
+ * </pre>
+ * <p>Data of token responses:</p>
+ * <pre>
+ * flow, param flow and flow lease: | remaining count (zig-zag) | wait in ms (zig-zag) |
+ * batch:                           | count (varint) | length (2) | xid (varint) | type (1) | status (1) | data... | ... |
+ * </pre>
+ * <p>Other response types keep the data layout of protocol v1.</p>
+ *
+ * @since 1.8.8
+ */
+public class CompactResponseEntityDecoder implements ResponseEntityDecoder<ByteBuf, ClusterResponse> {
+
+    @Override
+    public ClusterResponse decode(ByteBuf source) {
+        if (!source.isReadable() || source.readUnsignedByte() != ClusterConstants.PROTOCOL_V2_MAGIC) {
+            return null;
+        }
+        try {
+            return decodeItem(source);
+        } catch (RuntimeException ex) {
+            RecordLog.warn("[CompactResponseEntityDecoder] Failed to decode the response frame", ex);
+            return null;
+        }
+    }
+
+    private ClusterResponse decodeItem(ByteBuf source) {
+        int xid = VarInts.readVarInt(source);
+        int type = source.readByte();
+        int status = source.readByte();
+        if (!source.isReadable()) {
+            return new ClusterResponse<>(xid, type, status, null);
+        }
+        Object data;
+        switch (type) {
+            case ClusterConstants.MSG_TYPE_FLOW:
+            case ClusterConstants.MSG_TYPE_PARAM_FLOW:
+            case ClusterConstants.MSG_TYPE_FLOW_LEASE:
+                data = new FlowTokenResponseData()
+                    .setRemainingCount(VarInts.readSignedVarInt(source))
+                    .setWaitInMs(VarInts.readSignedVarInt(source));
+                break;
+            case ClusterConstants.MSG_TYPE_BATCH:
+                data = decodeBatch(source);
+                break;
+            default:
+                EntityDecoder<ByteBuf, ?> decoder = ResponseDataDecodeRegistry.getDecoder(type);
+                if (decoder == null) {
+                    RecordLog.warn("Unknown type of response data decoder: {}", type);
+                    return null;
+                }
+                data = decoder.decode(source);
+        }
+        return new ClusterResponse<>(xid, type, status, data);
+    }
+
+    private List<ClusterResponse> decodeBatch(ByteBuf source) {
+        int count = VarInts.readVarInt(source);
+        List<ClusterResponse> items = new ArrayList<>(Math.min(count, source.readableBytes() / 2));
+        for (int i = 0; i < count && source.readableBytes() >= 2; i++) {
+            int length = source.readUnsignedShort();
+            ClusterResponse item = decodeItem(source.readSlice(length));
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import java.util.List;
+
 /**
  * @author Eric Zhao
  * @since 1.4.1
@@ -23,6 +25,13 @@ public class ClusterClientAssignConfig {
 
     private String serverHost;
     private Integer serverPort;
+    /**
+     * Addresses ({@code host:port}) of multiple token servers. If present, cluster rules are sharded
+     * to the token servers by flowId, and {@code serverHost} and {@code serverPort} are ignored.
+     *
+     * @since 1.8.8
+     */
+    private List<String> serverList;
 
     public ClusterClientAssignConfig() {}
 
@@ -49,11 +58,21 @@ public class ClusterClientAssignConfig {
         return this;
     }
 
+    public List<String> getServerList() {
+        return serverList;
+    }
+
+    public ClusterClientAssignConfig setServerList(List<String> serverList) {
+        this.serverList = serverList;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientAssignConfig{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", serverList=" + serverList +
             '}';
     }
 }
@@ -22,6 +22,28 @@ package com.alibaba.csp.sentinel.cluster.client.config;
 public class ClusterClientConfig {
 
     private Integer requestTimeout;
+    /**
+     * Lease window (in milliseconds) of client-side token leasing. Leasing is disabled if absent or 0.
+     *
+     * @since 1.8.8
+     */
+    private Integer tokenLeaseMs;
+    /**
+     * Transport type of the client connections, NIO if absent. The new transport takes effect
+     * when the client is restarted.
+     *
+     * @see com.alibaba.csp.sentinel.cluster.ClusterConstants#TRANSPORT_NIO
+     * @see com.alibaba.csp.sentinel.cluster.ClusterConstants#TRANSPORT_EPOLL
+     * @see com.alibaba.csp.sentinel.cluster.ClusterConstants#TRANSPORT_EPOLL_UDS
+     * @since 1.8.8
+     */
+    private String transportType;
+    /**
+     * Path of the Unix domain socket of the token server, required by the UDS transport.
+     *
+     * @since 1.8.8
+     */
+    private String udsPath;
 
     public Integer getRequestTimeout() {
         return requestTimeout;
@@ -32,10 +54,40 @@ public class ClusterClientConfig {
         return this;
     }
 
+    public Integer getTokenLeaseMs() {
+        return tokenLeaseMs;
+    }
+
+    public ClusterClientConfig setTokenLeaseMs(Integer tokenLeaseMs) {
+        this.tokenLeaseMs = tokenLeaseMs;
+        return this;
+    }
+
+    public String getTransportType() {
+        return transportType;
+    }
+
+    public ClusterClientConfig setTransportType(String transportType) {
+        this.transportType = transportType;
+        return this;
+    }
+
+    public String getUdsPath() {
+        return udsPath;
+    }
+
+    public ClusterClientConfig setUdsPath(String udsPath) {
+        this.udsPath = udsPath;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientConfig{" +
             "requestTimeout=" + requestTimeout +
+            ", tokenLeaseMs=" + tokenLeaseMs +
+            ", transportType='" + transportType + '\'' +
+            ", udsPath='" + udsPath + '\'' +
             '}';
     }
 }
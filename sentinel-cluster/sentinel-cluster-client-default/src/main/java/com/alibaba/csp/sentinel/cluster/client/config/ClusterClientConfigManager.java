@@ -16,9 +16,11 @@
 package com.alibaba.csp.sentinel.cluster.client.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
@@ -37,9 +39,13 @@ public final class ClusterClientConfigManager {
      */
     private static volatile String serverHost = null;
     private static volatile int serverPort = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
+    private static volatile List<TokenServerDescriptor> serverList = Collections.emptyList();
 
     private static volatile int requestTimeout = ClusterConstants.DEFAULT_REQUEST_TIMEOUT;
     private static volatile int connectTimeout = ClusterConstants.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    private static volatile int tokenLeaseMs = 0;
+    private static volatile String transportType = ClusterConstants.TRANSPORT_NIO;
+    private static volatile String udsPath = null;
 
     private static final PropertyListener<ClusterClientConfig> CONFIG_PROPERTY_LISTENER
         = new ClientConfigPropertyListener();
@@ -127,7 +133,7 @@ public final class ClusterClientConfigManager {
                     "[ClusterClientConfigManager] Invalid cluster client assign config, ignoring: " + config);
                 return;
             }
-            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)) {
+            if (sameServers(serverList, resolveServerList(config))) {
                 return;
             }
 
@@ -170,28 +176,103 @@ public final class ClusterClientConfigManager {
         if (config.getRequestTimeout() != requestTimeout) {
             requestTimeout = config.getRequestTimeout();
         }
+        tokenLeaseMs = config.getTokenLeaseMs() == null ? 0 : config.getTokenLeaseMs();
+        transportType = config.getTransportType() == null ? ClusterConstants.TRANSPORT_NIO : config.getTransportType();
+        udsPath = config.getUdsPath();
     }
 
     private static void updateServerAssignment(/*@Valid*/ ClusterClientAssignConfig config) {
-        String host = config.getServerHost();
-        int port = config.getServerPort();
+        List<TokenServerDescriptor> servers = resolveServerList(config);
 
         for (ServerChangeObserver observer : SERVER_CHANGE_OBSERVERS) {
             observer.onRemoteServerChange(config);
         }
 
-        serverHost = host;
-        serverPort = port;
+        serverHost = servers.get(0).getHost();
+        serverPort = servers.get(0).getPort();
+        serverList = servers;
     }
 
     public static boolean isValidAssignConfig(ClusterClientAssignConfig config) {
-        return config != null && StringUtil.isNotBlank(config.getServerHost())
-            && config.getServerPort() > 0
-            && config.getServerPort() <= 65535;
+        if (config == null) {
+            return false;
+        }
+        if (config.getServerList() != null && !config.getServerList().isEmpty()) {
+            for (String address : config.getServerList()) {
+                if (parseServerAddress(address) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return isValidServer(config.getServerHost(), config.getServerPort());
+    }
+
+    /**
+     * Resolve token servers from the assign config. If the server list is present, servers in the list
+     * (with duplicates removed) are returned, otherwise the server of {@code serverHost} and {@code serverPort}.
+     *
+     * @param config valid assign config
+     * @return list of token servers, not empty
+     * @since 1.8.8
+     */
+    public static List<TokenServerDescriptor> resolveServerList(/*@Valid*/ ClusterClientAssignConfig config) {
+        if (config.getServerList() == null || config.getServerList().isEmpty()) {
+            return Collections.singletonList(new TokenServerDescriptor(config.getServerHost(),
+                config.getServerPort()));
+        }
+        List<TokenServerDescriptor> servers = new ArrayList<>(config.getServerList().size());
+        for (String address : config.getServerList()) {
+            TokenServerDescriptor server = parseServerAddress(address);
+            if (server != null && !servers.contains(server)) {
+                servers.add(server);
+            }
+        }
+        return Collections.unmodifiableList(servers);
+    }
+
+    private static TokenServerDescriptor parseServerAddress(String address) {
+        if (StringUtil.isBlank(address)) {
+            return null;
+        }
+        int index = address.lastIndexOf(':');
+        if (index <= 0) {
+            return null;
+        }
+        try {
+            String host = address.substring(0, index).trim();
+            int port = Integer.parseInt(address.substring(index + 1).trim());
+            return isValidServer(host, port) ? new TokenServerDescriptor(host, port) : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isValidServer(String host, Integer port) {
+        return StringUtil.isNotBlank(host) && port != null && port > 0 && port <= 65535;
+    }
+
+    /**
+     * Check whether the two lists have the same token servers in the same order.
+     *
+     * @since 1.8.8
+     */
+    public static boolean sameServers(List<TokenServerDescriptor> a, List<TokenServerDescriptor> b) {
+        return a != null && a.equals(b);
     }
 
     public static boolean isValidClientConfig(ClusterClientConfig config) {
-        return config != null && config.getRequestTimeout() > 0;
+        return config != null && config.getRequestTimeout() > 0
+            && (config.getTokenLeaseMs() == null || config.getTokenLeaseMs() >= 0)
+            && isValidTransport(config.getTransportType(), config.getUdsPath());
+    }
+
+    private static boolean isValidTransport(String transportType, String udsPath) {
+        if (transportType == null) {
+            return true;
+        }
+        return ClusterConstants.isValidTransportType(transportType)
+            && (!ClusterConstants.TRANSPORT_EPOLL_UDS.equals(transportType) || StringUtil.isNotBlank(udsPath));
     }
 
     public static String getServerHost() {
@@ -202,6 +283,14 @@ public final class ClusterClientConfigManager {
         return serverPort;
     }
 
+    /**
+     * @return assigned token servers, or empty list if not assigned
+     * @since 1.8.8
+     */
+    public static List<TokenServerDescriptor> getServerList() {
+        return serverList;
+    }
+
     public static int getRequestTimeout() {
         return requestTimeout;
     }
@@ -210,5 +299,29 @@ public final class ClusterClientConfigManager {
         return connectTimeout;
     }
 
+    /**
+     * @return lease window (in milliseconds) of client-side token leasing, or 0 if leasing is disabled
+     * @since 1.8.8
+     */
+    public static int getTokenLeaseMs() {
+        return tokenLeaseMs;
+    }
+
+    /**
+     * @return transport type of the client connections
+     * @since 1.8.8
+     */
+    public static String getTransportType() {
+        return transportType;
+    }
+
+    /**
+     * @return path of the Unix domain socket of the token server if the client runs on the UDS transport
+     * @since 1.8.8
+     */
+    public static String getUdsPath() {
+        return udsPath;
+    }
+
     private ClusterClientConfigManager() {}
 }
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
@@ -29,6 +30,16 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 public class ClusterClientStartUpConfig {
 
     private static final String MAX_PARAM_BYTE_SIZE = "csp.sentinel.cluster.max.param.byte.size";
+    private static final String BATCH_WINDOW_MS = "csp.sentinel.cluster.client.batch.window.ms";
+    private static final String BATCH_MAX_SIZE = "csp.sentinel.cluster.client.batch.max.size";
+    private static final String MAX_IN_FLIGHT_REQUESTS = "csp.sentinel.cluster.client.max.in.flight.requests";
+    private static final String CONNECTION_POOL_SIZE = "csp.sentinel.cluster.client.connection.pool.size";
+    private static final String PROTOCOL_VERSION = "csp.sentinel.cluster.client.protocol.version";
+
+    public static final int DEFAULT_BATCH_MAX_SIZE = 64;
+    public static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 4096;
+    public static final int DEFAULT_CONNECTION_POOL_SIZE = 1;
+    public static final int DEFAULT_PROTOCOL_VERSION = ClusterConstants.PROTOCOL_VERSION_2;
 
     /**
      * Get the max bytes params can be serialized
@@ -45,5 +56,95 @@ public class ClusterClientStartUpConfig {
         }
     }
 
+    /**
+     * Get the window (in milliseconds) in which token requests are coalesced into one batch frame.
+     * 0 indicates that requests issued before the pending write runs on the event loop are coalesced.
+     * The token server should support batch requests (since 1.8.8).
+     *
+     * @return the batch window in milliseconds, or null if batching is disabled
+     * @since 1.8.8
+     */
+    public static Integer getBatchWindowMs() {
+        String batchWindowMs = SentinelConfig.getConfig(BATCH_WINDOW_MS);
+        try {
+            Integer value = batchWindowMs == null ? null : Integer.valueOf(batchWindowMs);
+            return value == null || value < 0 ? null : value;
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse batchWindowMs: " + batchWindowMs);
+            return null;
+        }
+    }
+
+    /**
+     * Get the max count of requests in one batch frame.
+     *
+     * @return the max batch size
+     * @since 1.8.8
+     */
+    public static int getBatchMaxSize() {
+        String batchMaxSize = SentinelConfig.getConfig(BATCH_MAX_SIZE);
+        try {
+            int value = batchMaxSize == null ? DEFAULT_BATCH_MAX_SIZE : Integer.parseInt(batchMaxSize);
+            return value > 0 ? value : DEFAULT_BATCH_MAX_SIZE;
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse batchMaxSize: " + batchMaxSize);
+            return DEFAULT_BATCH_MAX_SIZE;
+        }
+    }
+
+    /**
+     * Get the max count of in-flight requests (waiting for responses) of the cluster client.
+     * The value will be rounded up to a power of two.
+     *
+     * @return the max count of in-flight requests
+     * @since 1.8.8
+     */
+    public static int getMaxInFlightRequests() {
+        String maxInFlightRequests = SentinelConfig.getConfig(MAX_IN_FLIGHT_REQUESTS);
+        try {
+            int value = maxInFlightRequests == null ? DEFAULT_MAX_IN_FLIGHT_REQUESTS
+                : Integer.parseInt(maxInFlightRequests);
+            return value > 0 ? value : DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse maxInFlightRequests: " + maxInFlightRequests);
+            return DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+        }
+    }
+
+    /**
+     * Get the count of connections from the cluster client to each token server.
+     *
+     * @return the count of connections
+     * @since 1.8.8
+     */
+    public static int getConnectionPoolSize() {
+        String connectionPoolSize = SentinelConfig.getConfig(CONNECTION_POOL_SIZE);
+        try {
+            int value = connectionPoolSize == null ? DEFAULT_CONNECTION_POOL_SIZE
+                : Integer.parseInt(connectionPoolSize);
+            return value > 0 ? value : DEFAULT_CONNECTION_POOL_SIZE;
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse connectionPoolSize: " + connectionPoolSize);
+            return DEFAULT_CONNECTION_POOL_SIZE;
+        }
+    }
 
+    /**
+     * Get the highest wire protocol version the client offers to token servers. Protocol v2 is only used
+     * if the token server supports it, and 1 disables protocol v2.
+     *
+     * @return the highest protocol version
+     * @since 1.8.8
+     */
+    public static int getProtocolVersion() {
+        String protocolVersion = SentinelConfig.getConfig(PROTOCOL_VERSION);
+        try {
+            int value = protocolVersion == null ? DEFAULT_PROTOCOL_VERSION : Integer.parseInt(protocolVersion);
+            return value == ClusterConstants.PROTOCOL_VERSION_1 || value == ClusterConstants.PROTOCOL_VERSION_2
+                ? value : DEFAULT_PROTOCOL_VERSION;
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse protocolVersion: " + protocolVersion);
+            return DEFAULT_PROTOCOL_VERSION;
+        }
+    }
 }
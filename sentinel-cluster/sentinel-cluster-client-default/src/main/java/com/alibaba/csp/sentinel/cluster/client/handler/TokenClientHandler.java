@@ -16,14 +16,21 @@
 package com.alibaba.csp.sentinel.cluster.client.handler;
 
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.HostNameUtil;
+import com.alibaba.csp.sentinel.util.PidUtil;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -36,6 +43,11 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
  */
 public class TokenClientHandler extends ChannelInboundHandlerAdapter {
 
+    /**
+     * Identity of this client process, shared by all connections to the token server.
+     */
+    private static final String CLIENT_ID = HostNameUtil.getIp() + "@" + PidUtil.getPid();
+
     private final AtomicInteger currentState;
     private final Runnable disconnectCallback;
 
@@ -61,23 +73,45 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
                 return;
             }
 
+            if (response.getType() == ClusterConstants.MSG_TYPE_BATCH) {
+                handleBatchResponse(ctx, response);
+                return;
+            }
+
             TokenClientPromiseHolder.completePromise(response.getId(), response);
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void handleBatchResponse(ChannelHandlerContext ctx, ClusterResponse<?> response) {
+        if (response.getStatus() != ClusterConstants.RESPONSE_STATUS_OK || response.getData() == null) {
+            RecordLog.warn("[TokenClientHandler] Batch request not supported by target server: {}",
+                getRemoteAddress(ctx));
+            return;
+        }
+        for (ClusterResponse<?> item : (List<ClusterResponse<?>>)response.getData()) {
+            TokenClientPromiseHolder.completePromise(item.getId(), item);
+        }
+    }
+
     private void fireClientPing(ChannelHandlerContext ctx) {
-        // Data body: namespace of the client.
-        ClusterRequest<String> ping = new ClusterRequest<String>().setId(0)
+        // Data body: namespace, identity and highest supported protocol version of the client.
+        ClusterRequest<PingRequestData> ping = new ClusterRequest<PingRequestData>().setId(0)
             .setType(ClusterConstants.MSG_TYPE_PING)
-            .setData(ConfigSupplierRegistry.getNamespaceSupplier().get());
+            .setData(new PingRequestData()
+                .setNamespace(ConfigSupplierRegistry.getNamespaceSupplier().get())
+                .setClientId(CLIENT_ID)
+                .setProtocolVersion(ClusterClientStartUpConfig.getProtocolVersion()));
         ctx.writeAndFlush(ping);
     }
 
     private void handlePingResponse(ChannelHandlerContext ctx, ClusterResponse response) {
         if (response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK) {
             int count = (int) response.getData();
-            RecordLog.info("[TokenClientHandler] Client ping OK (target server: {}, connected count: {})",
-                getRemoteAddress(ctx), count);
+            Integer version = ctx.channel().attr(NettyRequestEncoder.PROTOCOL_VERSION).get();
+            RecordLog.info("[TokenClientHandler] Client ping OK (target server: {}, connected count: {},"
+                    + " protocol version: {})", getRemoteAddress(ctx), count,
+                version == null ? ClusterConstants.PROTOCOL_VERSION_1 : version);
         } else {
             RecordLog.warn("[TokenClientHandler] Client ping failed (target server: {})", getRemoteAddress(ctx));
         }
@@ -105,7 +139,12 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
         if (ctx.channel().remoteAddress() == null) {
             return null;
         }
-        InetSocketAddress inetAddress = (InetSocketAddress) ctx.channel().remoteAddress();
+        SocketAddress address = ctx.channel().remoteAddress();
+        if (!(address instanceof InetSocketAddress)) {
+            // e.g. Unix domain socket address
+            return address.toString();
+        }
+        InetSocketAddress inetAddress = (InetSocketAddress) address;
         return inetAddress.getAddress().getHostAddress() + ":" + inetAddress.getPort();
     }
 
@@ -15,49 +15,142 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.handler;
 
-import java.util.AbstractMap.SimpleEntry;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 
-import io.netty.channel.ChannelPromise;
-
 /**
+ * <p>
+ * Holder of in-flight requests. Both synchronous and asynchronous requests are completed
+ * via the {@link CompletableFuture} registered with the request ID (xid).
+ * </p>
+ * <p>
+ * In-flight requests are kept in a preallocated ring of slots (the size is a power of two),
+ * and the slot of a request is indexed by its xid. Every slot carries the xid of its current request
+ * as the sequence stamp, so late or duplicate responses (whose xid doesn't match the stamp) are rejected.
+ * A slot is released by whoever first clears the stamp, so each promise is taken out exactly once.
+ * </p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public final class TokenClientPromiseHolder {
 
-    private static final Map<Integer, SimpleEntry<ChannelPromise, ClusterResponse>> PROMISE_MAP = new ConcurrentHashMap<>();
+    /**
+     * Stamp of free slots. Valid xid starts from {@link #MIN_ID}.
+     */
+    private static final int FREE = 0;
+    private static final int MIN_ID = 1;
+    private static final int MAX_ID = 999_999_999;
+
+    private static final int CAPACITY = ceilingPowerOfTwo(ClusterClientStartUpConfig.getMaxInFlightRequests());
+    private static final int MASK = CAPACITY - 1;
 
-    public static void putPromise(int xid, ChannelPromise promise) {
-        PROMISE_MAP.put(xid, new SimpleEntry<ChannelPromise, ClusterResponse>(promise, null));
+    private static final AtomicReferenceArray<CompletableFuture<ClusterResponse>> PROMISES
+        = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicIntegerArray STAMPS = new AtomicIntegerArray(CAPACITY);
+    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
+
+    /**
+     * Register the promise of a new request to a free slot.
+     *
+     * @param promise promise of the request
+     * @return xid of the request, or -1 if there are too many in-flight requests
+     * @since 1.8.8
+     */
+    public static int register(CompletableFuture<ClusterResponse> promise) {
+        for (int i = 0; i < CAPACITY; i++) {
+            int xid = nextId();
+            int index = xid & MASK;
+            // The promise is set ahead of the stamp, and the stamp is cleared ahead of the promise,
+            // so the promise is always valid for the stamp that has been read.
+            if (PROMISES.compareAndSet(index, null, promise)) {
+                STAMPS.set(index, xid);
+                return xid;
+            }
+        }
+        return -1;
     }
 
-    public static SimpleEntry<ChannelPromise, ClusterResponse> getEntry(int xid) {
-        return PROMISE_MAP.get(xid);
+    public static CompletableFuture<ClusterResponse> getPromise(int xid) {
+        int index = xid & MASK;
+        CompletableFuture<ClusterResponse> promise = PROMISES.get(index);
+        return STAMPS.get(index) == xid ? promise : null;
     }
 
     public static void remove(int xid) {
-        PROMISE_MAP.remove(xid);
+        take(xid, null);
+    }
+
+    /**
+     * Remove the promise only if it's still registered with the given xid.
+     *
+     * @param xid request ID
+     * @param promise the expected promise
+     * @return true if removed
+     */
+    public static boolean remove(int xid, CompletableFuture<ClusterResponse> promise) {
+        return take(xid, promise) != null;
     }
 
     public static <T> boolean completePromise(int xid, ClusterResponse<T> response) {
-        if (!PROMISE_MAP.containsKey(xid)) {
+        CompletableFuture<ClusterResponse> promise = take(xid, null);
+        if (promise == null) {
             return false;
         }
-        SimpleEntry<ChannelPromise, ClusterResponse> entry = PROMISE_MAP.get(xid);
-        if (entry != null) {
-            ChannelPromise promise = entry.getKey();
-            if (promise.isDone() || promise.isCancelled()) {
-                return false;
-            }
-            entry.setValue(response);
-            promise.setSuccess();
-            return true;
+        return promise.complete(response);
+    }
+
+    /**
+     * Take out the promise of given xid and release the slot.
+     *
+     * @param xid request ID
+     * @param expected the expected promise, or null for any promise
+     * @return the promise, or null if the xid is not in flight
+     */
+    private static CompletableFuture<ClusterResponse> take(int xid, CompletableFuture<ClusterResponse> expected) {
+        if (xid < MIN_ID) {
+            return null;
         }
-        return false;
+        int index = xid & MASK;
+        if (STAMPS.get(index) != xid) {
+            return null;
+        }
+        CompletableFuture<ClusterResponse> promise = PROMISES.get(index);
+        if (promise == null || (expected != null && promise != expected)) {
+            return null;
+        }
+        if (!STAMPS.compareAndSet(index, xid, FREE)) {
+            // Taken by others.
+            return null;
+        }
+        PROMISES.set(index, null);
+        return promise;
+    }
+
+    private static int nextId() {
+        int pre, next;
+        do {
+            pre = ID_GENERATOR.get();
+            next = pre >= MAX_ID ? MIN_ID : pre + 1;
+        } while (!ID_GENERATOR.compareAndSet(pre, next));
+        return next;
+    }
+
+    private static int ceilingPowerOfTwo(int n) {
+        int capacity = 1;
+        while (capacity < n && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int capacity() {
+        return CAPACITY;
     }
 
     private TokenClientPromiseHolder() {}
@@ -16,6 +16,9 @@
 package com.alibaba.csp.sentinel.cluster.client.init;
 
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.BatchRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.BatchResponseDataDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowLeaseRequestDataWriter;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowRequestDataWriter;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowResponseDataDecoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.ParamFlowRequestDataWriter;
@@ -43,6 +46,8 @@ public class DefaultClusterClientInitFunc implements InitFunc {
     private void initDefaultEntityWriters() {
         RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_PING, new PingRequestDataWriter());
         RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_FLOW, new FlowRequestDataWriter());
+        RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_FLOW_LEASE, new FlowLeaseRequestDataWriter());
+        RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_BATCH, new BatchRequestDataWriter());
         Integer maxParamByteSize = ClusterClientStartUpConfig.getMaxParamByteSize();
         if (maxParamByteSize == null) {
             RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_PARAM_FLOW, new ParamFlowRequestDataWriter());
@@ -55,5 +60,7 @@ public class DefaultClusterClientInitFunc implements InitFunc {
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_PING, new PingResponseDataDecoder());
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_FLOW, new FlowResponseDataDecoder());
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_PARAM_FLOW, new FlowResponseDataDecoder());
+        ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_FLOW_LEASE, new FlowResponseDataDecoder());
+        ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_BATCH, new BatchResponseDataDecoder());
     }
 }
@@ -0,0 +1,327 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionGroup;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link NettyTransportClient} against an in-process token server on loopback.
+ */
+public class NettyTransportClientTest {
+
+    private static final long FLOW_ID = 27001L;
+
+    private NettyTransportServer server;
+    private NettyTransportClient client;
+    private int port;
+
+    @Before
+    public void setUp() throws Exception {
+        // Register codecs of both the client and the server.
+        InitExecutor.doInit();
+        port = findFreePort();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000));
+
+        String namespace = ConfigSupplierRegistry.getNamespaceSupplier().get();
+        FlowRule rule = new FlowRule("cluster-resource").setCount(10).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        // Tokens passed in former cases should not be accounted.
+        ClusterMetricStatistics.removeMetric(FLOW_ID);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(rule));
+
+        server = new NettyTransportServer(port);
+        server.start();
+        client = new NettyTransportClient("127.0.0.1", port);
+        client.start();
+        awaitReady(client);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+        if (server != null) {
+            server.stop();
+        }
+        ClusterFlowRuleManager.loadRules(ConfigSupplierRegistry.getNamespaceSupplier().get(),
+            Collections.<FlowRule>emptyList());
+    }
+
+    @Test
+    public void testSendRequestAsyncWithManyRequestsInFlight() throws Exception {
+        int total = 100;
+        List<CompletableFuture<ClusterResponse>> futures = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            futures.add(client.sendRequestAsync(newFlowRequest()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        int passed = 0;
+        int blocked = 0;
+        for (CompletableFuture<ClusterResponse> future : futures) {
+            ClusterResponse response = future.get();
+            assertEquals(ClusterConstants.MSG_TYPE_FLOW, response.getType());
+            if (response.getStatus() == TokenResultStatus.OK) {
+                passed++;
+            } else if (response.getStatus() == TokenResultStatus.BLOCKED) {
+                blocked++;
+            }
+        }
+        assertEquals(total, passed + blocked);
+        assertTrue(passed > 0);
+        assertTrue(blocked > 0);
+    }
+
+    @Test
+    public void testSendBatchedRequests() throws Exception {
+        client.stop();
+        SentinelConfig.setConfig("csp.sentinel.cluster.client.batch.window.ms", "1");
+        try {
+            client = new NettyTransportClient("127.0.0.1", port);
+            client.start();
+            awaitReady(client);
+
+            int total = 100;
+            List<CompletableFuture<ClusterResponse>> futures = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                futures.add(client.sendRequestAsync(newFlowRequest()));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            int passed = 0;
+            for (CompletableFuture<ClusterResponse> future : futures) {
+                ClusterResponse response = future.get();
+                assertEquals(ClusterConstants.MSG_TYPE_FLOW, response.getType());
+                if (response.getStatus() == TokenResultStatus.OK) {
+                    passed++;
+                }
+            }
+            assertEquals(10, passed);
+            // Synchronous requests also go through the batcher.
+            assertEquals(TokenResultStatus.BLOCKED, client.sendRequest(newFlowRequest()).getStatus());
+        } finally {
+            SentinelConfig.removeConfig("csp.sentinel.cluster.client.batch.window.ms");
+        }
+    }
+
+    @Test
+    public void testShardedServer() throws Exception {
+        client.stop();
+        server.stop();
+        server = new NettyTransportServer(port, ClusterConstants.TRANSPORT_NIO, null, 4);
+        server.start();
+        SentinelConfig.setConfig("csp.sentinel.cluster.client.batch.window.ms", "1");
+        try {
+            client = new NettyTransportClient("127.0.0.1", port);
+            client.start();
+            awaitReady(client);
+
+            int total = 100;
+            List<CompletableFuture<ClusterResponse>> futures = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                futures.add(client.sendRequestAsync(newFlowRequest()));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            int passed = 0;
+            for (CompletableFuture<ClusterResponse> future : futures) {
+                if (future.get().getStatus() == TokenResultStatus.OK) {
+                    passed++;
+                }
+            }
+            // Requests of the flow are processed in one shard, so the threshold is never exceeded.
+            assertEquals(10, passed);
+        } finally {
+            SentinelConfig.removeConfig("csp.sentinel.cluster.client.batch.window.ms");
+        }
+    }
+
+    @Test
+    public void testSendRequestSync() throws Exception {
+        ClusterResponse response = client.sendRequest(newFlowRequest());
+        assertEquals(TokenResultStatus.OK, response.getStatus());
+    }
+
+    @Test
+    public void testProtocolV1Client() throws Exception {
+        client.stop();
+        SentinelConfig.setConfig("csp.sentinel.cluster.client.protocol.version", "1");
+        try {
+            client = new NettyTransportClient("127.0.0.1", port);
+            client.start();
+            awaitReady(client);
+            assertEquals(TokenResultStatus.OK, client.sendRequest(newFlowRequest()).getStatus());
+        } finally {
+            SentinelConfig.removeConfig("csp.sentinel.cluster.client.protocol.version");
+        }
+    }
+
+    @Test
+    public void testSendLeaseRequest() throws Exception {
+        FlowLeaseRequestData data = new FlowLeaseRequestData().setFlowId(FLOW_ID).setCount(5).setLeaseMs(200);
+        ClusterResponse response = client.sendRequest(
+            new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE, data));
+        assertEquals(TokenResultStatus.OK, response.getStatus());
+        FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
+        // 10% of the global threshold (10) is leased at most.
+        assertEquals(1, responseData.getRemainingCount());
+        assertEquals(200, responseData.getWaitInMs());
+    }
+
+    @Test
+    public void testSendRequestAsyncWhenNotReady() throws Exception {
+        client.stop();
+        CompletableFuture<ClusterResponse> future = client.sendRequestAsync(newFlowRequest());
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail("should fail when the client is not ready");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof SentinelClusterException);
+            assertEquals(ClusterErrorMessages.CLIENT_NOT_READY, ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testConnectionPoolCountedAsOneClient() throws Exception {
+        client.stop();
+        client = new NettyTransportClient("127.0.0.1", port, 4);
+        client.start();
+        awaitReady(client);
+
+        final String namespace = ConfigSupplierRegistry.getNamespaceSupplier().get();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (connectionCount(namespace) < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(4, connectionCount(namespace));
+        // All pooled connections carry the same client ID.
+        assertEquals(1, ConnectionManager.getConnectedCount(namespace));
+
+        int total = 100;
+        List<CompletableFuture<ClusterResponse>> futures = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            futures.add(client.sendRequestAsync(newFlowRequest()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        int passed = 0;
+        for (CompletableFuture<ClusterResponse> future : futures) {
+            if (future.get().getStatus() == TokenResultStatus.OK) {
+                passed++;
+            }
+        }
+        assertEquals(10, passed);
+    }
+
+    @Test
+    public void testNativeTransports() throws Exception {
+        Assume.assumeTrue("native epoll is unavailable", ClientTransportSupport.epollUnavailabilityCause() == null);
+        client.stop();
+        server.stop();
+
+        String udsPath = new File(System.getProperty("java.io.tmpdir"),
+            "sentinel-token-server-" + port + ".sock").getAbsolutePath();
+        for (String transportType : new String[] {ClusterConstants.TRANSPORT_EPOLL,
+            ClusterConstants.TRANSPORT_EPOLL_UDS}) {
+            ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000)
+                .setTransportType(transportType).setUdsPath(udsPath));
+            server = new NettyTransportServer(port, transportType, udsPath);
+            server.start();
+            client = new NettyTransportClient("127.0.0.1", port);
+            client.start();
+            awaitReady(client);
+
+            assertEquals(transportType, TokenResultStatus.OK, client.sendRequest(newFlowRequest()).getStatus());
+            client.stop();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testTransportFallbackToNio() {
+        assertEquals(ClusterConstants.TRANSPORT_NIO, ClientTransportSupport.resolve(null, null).getTransportType());
+        assertEquals(ClusterConstants.TRANSPORT_NIO,
+            ClientTransportSupport.resolve("kqueue", null).getTransportType());
+        // The UDS transport requires the path of the socket.
+        assertEquals(ClusterConstants.TRANSPORT_NIO,
+            ClientTransportSupport.resolve(ClusterConstants.TRANSPORT_EPOLL_UDS, null).getTransportType());
+        assertFalse(ClusterClientConfigManager.isValidClientConfig(new ClusterClientConfig().setRequestTimeout(20)
+            .setTransportType(ClusterConstants.TRANSPORT_EPOLL_UDS)));
+    }
+
+    private static int connectionCount(String namespace) {
+        ConnectionGroup group = ConnectionManager.getConnectionGroup(namespace);
+        return group == null ? 0 : group.getConnectionSet().size();
+    }
+
+    private ClusterRequest<FlowRequestData> newFlowRequest() {
+        FlowRequestData data = new FlowRequestData().setFlowId(FLOW_ID).setCount(1).setPriority(false);
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+    }
+
+    static void awaitReady(NettyTransportClient client) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!client.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue("client should be ready", client.isReady());
+    }
+
+    static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
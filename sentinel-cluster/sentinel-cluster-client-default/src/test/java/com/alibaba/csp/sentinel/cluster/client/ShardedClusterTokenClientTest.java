@@ -0,0 +1,158 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link DefaultClusterTokenClient} with flows sharded to several in-process token servers on loopback.
+ */
+public class ShardedClusterTokenClientTest {
+
+    private static final long FLOW_ID_BASE = 34000L;
+    private static final int FLOW_COUNT = 30;
+    private static final int SERVER_COUNT = 3;
+
+    private final List<NettyTransportServer> servers = new ArrayList<>();
+    private final List<String> addresses = new ArrayList<>();
+    private DefaultClusterTokenClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        InitExecutor.doInit();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000));
+
+        String namespace = ConfigSupplierRegistry.getNamespaceSupplier().get();
+        List<FlowRule> rules = new ArrayList<>();
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            rules.add(new FlowRule("sharded-resource-" + i).setCount(10000).setClusterMode(true)
+                .setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID_BASE + i)
+                    .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)));
+        }
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, rules);
+
+        for (int i = 0; i < SERVER_COUNT; i++) {
+            int port = findFreePort();
+            NettyTransportServer server = new NettyTransportServer(port);
+            server.start();
+            servers.add(server);
+            addresses.add("127.0.0.1:" + port);
+        }
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig().setServerList(addresses));
+        client = new DefaultClusterTokenClient();
+        client.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+        for (NettyTransportServer server : servers) {
+            server.stop();
+        }
+        ClusterFlowRuleManager.loadRules(ConfigSupplierRegistry.getNamespaceSupplier().get(),
+            new ArrayList<FlowRule>());
+    }
+
+    @Test
+    public void testRouteFlowsToShards() throws Exception {
+        List<TokenServerDescriptor> serverList = ClusterClientConfigManager.getServerList();
+        assertEquals(SERVER_COUNT, serverList.size());
+        TokenServerRouter router = new TokenServerRouter(serverList, new ClusterTransportClient[SERVER_COUNT]);
+        boolean[] used = new boolean[SERVER_COUNT];
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            used[router.select(FLOW_ID_BASE + i)] = true;
+        }
+        for (boolean u : used) {
+            assertTrue("flows should be spread across all servers", u);
+        }
+        awaitAllPass();
+
+        // Flows of the stopped server fail, while the other flows are not affected.
+        servers.get(0).stop();
+        TokenServerDescriptor stopped = serverList.get(0);
+        long deadline = System.currentTimeMillis() + 5000;
+        boolean failed = false;
+        while (!failed && System.currentTimeMillis() < deadline) {
+            failed = true;
+            for (int i = 0; i < FLOW_COUNT; i++) {
+                long flowId = FLOW_ID_BASE + i;
+                int status = client.requestToken(flowId, 1, false).getStatus();
+                if (router.serverOf(flowId).equals(stopped)) {
+                    failed &= status == TokenResultStatus.FAIL;
+                } else {
+                    assertEquals(TokenResultStatus.OK, status);
+                }
+            }
+            Thread.sleep(20);
+        }
+        assertTrue(failed);
+
+        // Flows of the removed server move to the other servers.
+        ClusterClientConfigManager.applyNewAssignConfig(
+            new ClusterClientAssignConfig().setServerList(addresses.subList(1, SERVER_COUNT)));
+        assertEquals(SERVER_COUNT - 1, ClusterClientConfigManager.getServerList().size());
+        for (int i = 0; i < FLOW_COUNT; i++) {
+            assertEquals(TokenResultStatus.OK, (int) client.requestToken(FLOW_ID_BASE + i, 1, false).getStatus());
+        }
+    }
+
+    private void awaitAllPass() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            boolean allPass = true;
+            for (int i = 0; i < FLOW_COUNT && allPass; i++) {
+                allPass = client.requestToken(FLOW_ID_BASE + i, 1, false).getStatus() == TokenResultStatus.OK;
+            }
+            if (allPass) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("token client cannot connect to all token servers");
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenLeaseManagerTest {
+
+    private static final long FLOW_ID = 28001L;
+    private static final int LEASE_MS = 1000;
+
+    @Test
+    public void testConsumeTokensFromLease() {
+        final AtomicInteger leaseRequests = new AtomicInteger();
+        TokenLeaseManager manager = new TokenLeaseManager((flowId, count, leaseMs) -> {
+            leaseRequests.incrementAndGet();
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK)
+                .setRemaining(Math.min(count, 50))
+                .setWaitInMs(leaseMs));
+        });
+
+        int total = 1000;
+        int fallback = 0;
+        for (int i = 0; i < total; i++) {
+            if (manager.tryAcquire(FLOW_ID, 1, LEASE_MS) == null) {
+                fallback++;
+            }
+        }
+        // Only the first request goes to the token server before the lease is granted.
+        assertEquals(1, fallback);
+        assertTrue("lease requests: " + leaseRequests.get(), leaseRequests.get() * 10 < total);
+    }
+
+    @Test
+    public void testLeaseNotGranted() {
+        final AtomicInteger leaseRequests = new AtomicInteger();
+        TokenLeaseManager manager = new TokenLeaseManager((flowId, count, leaseMs) -> {
+            leaseRequests.incrementAndGet();
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.BLOCKED));
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertNull(manager.tryAcquire(FLOW_ID, 1, LEASE_MS));
+        }
+        // Lease requests are backed off when not granted.
+        assertEquals(1, leaseRequests.get());
+        assertEquals(0, manager.getAvailable(FLOW_ID));
+    }
+
+    @Test
+    public void testClear() {
+        TokenLeaseManager manager = new TokenLeaseManager((flowId, count, leaseMs) ->
+            CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK)
+                .setRemaining(10)
+                .setWaitInMs(leaseMs)));
+        assertNull(manager.tryAcquire(FLOW_ID, 1, LEASE_MS));
+        assertEquals(10, manager.getAvailable(FLOW_ID));
+
+        manager.clear();
+        assertEquals(0, manager.getAvailable(FLOW_ID));
+    }
+}
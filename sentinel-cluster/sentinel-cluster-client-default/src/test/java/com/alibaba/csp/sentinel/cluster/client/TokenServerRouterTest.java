@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenServerRouterTest {
+
+    private static final int FLOW_COUNT = 10000;
+
+    @Test
+    public void testSpreadFlowsAcrossServers() {
+        TokenServerRouter router = newRouter(servers(3));
+        int[] counts = new int[3];
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            counts[router.select(flowId)]++;
+        }
+        for (int count : counts) {
+            // Each server should get about 1/3 of the flows.
+            assertTrue("unbalanced: " + Arrays.toString(counts), Math.abs(count - FLOW_COUNT / 3) < FLOW_COUNT / 15);
+        }
+    }
+
+    @Test
+    public void testOnlyFlowsOfChangedServerMove() {
+        List<TokenServerDescriptor> servers = servers(4);
+        TokenServerRouter router = newRouter(servers);
+        TokenServerRouter added = newRouter(servers(5));
+        TokenServerRouter removed = newRouter(servers.subList(1, 4));
+
+        int movedToNewServer = 0;
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            TokenServerDescriptor before = router.serverOf(flowId);
+            TokenServerDescriptor afterAdd = added.serverOf(flowId);
+            if (!before.equals(afterAdd)) {
+                // Flows could only move to the new server.
+                assertEquals(4, added.select(flowId));
+                movedToNewServer++;
+            }
+            TokenServerDescriptor afterRemove = removed.serverOf(flowId);
+            if (!before.equals(afterRemove)) {
+                // Flows could only move from the removed server.
+                assertEquals(servers.get(0), before);
+            }
+        }
+        assertTrue(Math.abs(movedToNewServer - FLOW_COUNT / 5) < FLOW_COUNT / 20);
+    }
+
+    private static List<TokenServerDescriptor> servers(int count) {
+        List<TokenServerDescriptor> servers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            servers.add(new TokenServerDescriptor("10.0.0." + (i + 1), 18730));
+        }
+        return servers;
+    }
+
+    private static TokenServerRouter newRouter(List<TokenServerDescriptor> servers) {
+        return new TokenServerRouter(servers, new ClusterTransportClient[servers.size()]);
+    }
+}
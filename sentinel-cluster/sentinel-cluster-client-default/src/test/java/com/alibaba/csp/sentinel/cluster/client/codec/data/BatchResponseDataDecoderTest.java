@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.BatchRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.BatchResponseDataWriter;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchResponseDataDecoderTest {
+
+    @BeforeClass
+    public static void registerCodecs() {
+        InitExecutor.doInit();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchRequestRoundTrip() {
+        ByteBuf buf = Unpooled.buffer();
+        ClusterRequest<FlowRequestData> flowRequest = new ClusterRequest<>(11, ClusterConstants.MSG_TYPE_FLOW,
+            new FlowRequestData().setFlowId(101L).setCount(2).setPriority(true));
+        ClusterRequest<ParamFlowRequestData> paramRequest = new ClusterRequest<>(12,
+            ClusterConstants.MSG_TYPE_PARAM_FLOW, new ParamFlowRequestData().setFlowId(102L).setCount(1)
+            .setParams(Arrays.<Object>asList("a", 3)));
+        new BatchRequestDataWriter().writeTo(Arrays.<ClusterRequest>asList(flowRequest, paramRequest), buf);
+
+        List<ClusterRequest> decoded = new BatchRequestDataDecoder().decode(buf);
+        assertThat(decoded).hasSize(2);
+        assertThat(decoded.get(0).getId()).isEqualTo(11);
+        FlowRequestData flowData = (FlowRequestData)decoded.get(0).getData();
+        assertThat(flowData.getFlowId()).isEqualTo(101L);
+        assertThat(flowData.isPriority()).isTrue();
+        assertThat(decoded.get(1).getId()).isEqualTo(12);
+        ParamFlowRequestData paramData = (ParamFlowRequestData)decoded.get(1).getData();
+        assertThat(paramData.getParams()).containsExactly("a", 3);
+
+        buf.release();
+    }
+
+    @Test
+    public void testBatchResponseRoundTrip() {
+        ByteBuf buf = Unpooled.buffer();
+        ClusterResponse<FlowTokenResponseData> ok = new ClusterResponse<>(21, ClusterConstants.MSG_TYPE_FLOW,
+            TokenResultStatus.OK, new FlowTokenResponseData().setRemainingCount(5).setWaitInMs(0));
+        ClusterResponse<Object> bad = new ClusterResponse<>(22, ClusterConstants.MSG_TYPE_PARAM_FLOW,
+            ClusterConstants.RESPONSE_STATUS_BAD, null);
+        new BatchResponseDataWriter().writeTo(Arrays.<ClusterResponse>asList(ok, bad), buf);
+
+        List<ClusterResponse> decoded = new BatchResponseDataDecoder().decode(buf);
+        assertThat(decoded).hasSize(2);
+        assertThat(decoded.get(0).getId()).isEqualTo(21);
+        assertThat(decoded.get(0).getStatus()).isEqualTo(TokenResultStatus.OK);
+        assertThat(decoded.get(0).getData()).isEqualTo(ok.getData());
+        assertThat(decoded.get(1).getId()).isEqualTo(22);
+        assertThat(decoded.get(1).getStatus()).isEqualTo(ClusterConstants.RESPONSE_STATUS_BAD);
+        assertThat(decoded.get(1).getData()).isNull();
+
+        buf.release();
+    }
+}
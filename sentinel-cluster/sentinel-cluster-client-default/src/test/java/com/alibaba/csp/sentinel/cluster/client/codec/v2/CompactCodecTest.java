@@ -0,0 +1,133 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.v2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.codec.DefaultRequestEntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.codec.v2.CompactRequestEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.v2.CompactResponseEntityWriter;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompactCodecTest {
+
+    @BeforeClass
+    public static void registerCodecs() {
+        InitExecutor.doInit();
+    }
+
+    @Test
+    public void testFlowRequestRoundTrip() {
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(1234, ClusterConstants.MSG_TYPE_FLOW,
+            new FlowRequestData().setFlowId(-42L).setCount(3).setPriority(true));
+        ByteBuf v1 = Unpooled.buffer();
+        new DefaultRequestEntityWriter().writeTo(request, v1);
+        ByteBuf v2 = Unpooled.buffer();
+        new CompactRequestEntityWriter().writeTo(request, v2);
+        // magic (1) + xid (2) + type (1) + flow ID (1) + count (1) + priority (1)
+        assertThat(v2.readableBytes()).isEqualTo(7).isLessThan(v1.readableBytes());
+
+        ClusterRequest decoded = new CompactRequestEntityDecoder().decode(v2);
+        assertThat(decoded.getId()).isEqualTo(1234);
+        assertThat(decoded.getType()).isEqualTo(ClusterConstants.MSG_TYPE_FLOW);
+        FlowRequestData data = (FlowRequestData)decoded.getData();
+        assertThat(data.getFlowId()).isEqualTo(-42L);
+        assertThat(data.getCount()).isEqualTo(3);
+        assertThat(data.isPriority()).isTrue();
+        v1.release();
+        v2.release();
+    }
+
+    @Test
+    public void testParamStringsGoThroughDictionary() {
+        CompactRequestEntityWriter writer = new CompactRequestEntityWriter();
+        CompactRequestEntityDecoder decoder = new CompactRequestEntityDecoder();
+        List<Object> params = Arrays.<Object>asList("user-0001", 7, -9L, (short)3, true, "user-0001");
+
+        ByteBuf first = Unpooled.buffer();
+        writer.writeTo(newParamRequest(1, params), first);
+        ByteBuf second = Unpooled.buffer();
+        writer.writeTo(newParamRequest(2, params), second);
+        // The string is only carried in the first frame.
+        assertThat(second.readableBytes()).isLessThan(first.readableBytes() - "user-0001".length());
+
+        assertThat(((ParamFlowRequestData)decoder.decode(first).getData()).getParams())
+            .containsExactly("user-0001", 7, -9L, (short)3, true, "user-0001");
+        assertThat(((ParamFlowRequestData)decoder.decode(second).getData()).getParams())
+            .containsExactly("user-0001", 7, -9L, (short)3, true, "user-0001");
+        first.release();
+        second.release();
+    }
+
+    @Test
+    public void testDictionaryEntriesReplacedWhenFull() {
+        CompactRequestEntityWriter writer = new CompactRequestEntityWriter();
+        CompactRequestEntityDecoder decoder = new CompactRequestEntityDecoder();
+        int total = ClusterConstants.PARAM_DICTIONARY_CAPACITY + 10;
+        for (int i = 0; i < total; i++) {
+            String param = "value-" + (i % (total - 5));
+            ByteBuf buf = Unpooled.buffer();
+            writer.writeTo(newParamRequest(i, Arrays.<Object>asList(param)), buf);
+            assertThat(((ParamFlowRequestData)decoder.decode(buf).getData()).getParams()).containsExactly(param);
+            buf.release();
+        }
+        assertThat(writer.dictionarySize()).isEqualTo(ClusterConstants.PARAM_DICTIONARY_CAPACITY);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchResponseRoundTrip() {
+        List<ClusterResponse> items = new ArrayList<>();
+        items.add(new ClusterResponse<>(21, ClusterConstants.MSG_TYPE_FLOW, TokenResultStatus.OK,
+            new FlowTokenResponseData().setRemainingCount(-1).setWaitInMs(300)));
+        items.add(new ClusterResponse<>(22, ClusterConstants.MSG_TYPE_PARAM_FLOW,
+            ClusterConstants.RESPONSE_STATUS_BAD, null));
+        ByteBuf buf = Unpooled.buffer();
+        new CompactResponseEntityWriter().writeTo(
+            new ClusterResponse<>(0, ClusterConstants.MSG_TYPE_BATCH, ClusterConstants.RESPONSE_STATUS_OK, items),
+            buf);
+
+        ClusterResponse decoded = new CompactResponseEntityDecoder().decode(buf);
+        List<ClusterResponse> decodedItems = (List<ClusterResponse>)decoded.getData();
+        assertThat(decodedItems).hasSize(2);
+        assertThat(decodedItems.get(0).getId()).isEqualTo(21);
+        assertThat(decodedItems.get(0).getData()).isEqualTo(items.get(0).getData());
+        assertThat(decodedItems.get(1).getStatus()).isEqualTo(ClusterConstants.RESPONSE_STATUS_BAD);
+        assertThat(decodedItems.get(1).getData()).isNull();
+        buf.release();
+    }
+
+    private ClusterRequest<ParamFlowRequestData> newParamRequest(int xid, List<Object> params) {
+        return new ClusterRequest<>(xid, ClusterConstants.MSG_TYPE_PARAM_FLOW,
+            new ParamFlowRequestData().setFlowId(1001L).setCount(1).setParams(params));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenClientPromiseHolderTest {
+
+    @Test
+    public void testCompletePromiseOnce() {
+        CompletableFuture<ClusterResponse> promise = new CompletableFuture<>();
+        int xid = TokenClientPromiseHolder.register(promise);
+        assertTrue(xid > 0);
+        assertSame(promise, TokenClientPromiseHolder.getPromise(xid));
+
+        ClusterResponse<Object> response = newResponse(xid);
+        assertTrue(TokenClientPromiseHolder.completePromise(xid, response));
+        assertSame(response, promise.join());
+        // Duplicate response should be rejected.
+        assertFalse(TokenClientPromiseHolder.completePromise(xid, newResponse(xid)));
+        assertNull(TokenClientPromiseHolder.getPromise(xid));
+    }
+
+    @Test
+    public void testRejectLateResponse() {
+        CompletableFuture<ClusterResponse> promise = new CompletableFuture<>();
+        int xid = TokenClientPromiseHolder.register(promise);
+        // e.g. request timed out.
+        assertTrue(TokenClientPromiseHolder.remove(xid, promise));
+        assertFalse(TokenClientPromiseHolder.remove(xid, promise));
+
+        assertFalse(TokenClientPromiseHolder.completePromise(xid, newResponse(xid)));
+        assertFalse(promise.isDone());
+    }
+
+    @Test
+    public void testRejectResponseOfStaleXidInSameSlot() {
+        CompletableFuture<ClusterResponse> promise = new CompletableFuture<>();
+        int xid = TokenClientPromiseHolder.register(promise);
+        int staleXid = xid - TokenClientPromiseHolder.capacity();
+        if (staleXid > 0) {
+            assertFalse(TokenClientPromiseHolder.completePromise(staleXid, newResponse(staleXid)));
+            assertFalse(promise.isDone());
+        }
+        assertFalse(TokenClientPromiseHolder.completePromise(0, newResponse(0)));
+        assertFalse(TokenClientPromiseHolder.remove(xid, new CompletableFuture<ClusterResponse>()));
+        assertTrue(TokenClientPromiseHolder.completePromise(xid, newResponse(xid)));
+        assertTrue(promise.isDone());
+    }
+
+    @Test
+    public void testRegisterWhenRingIsFull() {
+        int capacity = TokenClientPromiseHolder.capacity();
+        List<Integer> xids = new ArrayList<>(capacity);
+        try {
+            for (int i = 0; i < capacity; i++) {
+                int xid = TokenClientPromiseHolder.register(new CompletableFuture<ClusterResponse>());
+                assertTrue(xid > 0);
+                xids.add(xid);
+            }
+            assertEquals(-1, TokenClientPromiseHolder.register(new CompletableFuture<ClusterResponse>()));
+
+            TokenClientPromiseHolder.remove(xids.remove(0));
+            int xid = TokenClientPromiseHolder.register(new CompletableFuture<ClusterResponse>());
+            assertTrue(xid > 0);
+            xids.add(xid);
+        } finally {
+            for (int xid : xids) {
+                TokenClientPromiseHolder.remove(xid);
+            }
+        }
+    }
+
+    private static ClusterResponse<Object> newResponse(int xid) {
+        return new ClusterResponse<>(xid, ClusterConstants.MSG_TYPE_FLOW, ClusterConstants.RESPONSE_STATUS_OK, null);
+    }
+}
@@ -26,6 +26,9 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_PARAM_FLOW = 2;
     public static final int MSG_TYPE_CONCURRENT_FLOW_ACQUIRE = 3;
     public static final int MSG_TYPE_CONCURRENT_FLOW_RELEASE = 4;
+    public static final int MSG_TYPE_FLOW_LEASE = 5;
+    public static final int MSG_TYPE_BATCH = 6;
+    public static final int MSG_TYPE_REPLICATION = 7;
 
 
     public static final int RESPONSE_STATUS_BAD = -1;
@@ -39,10 +42,59 @@ public final class ClusterConstants {
     public static final int PARAM_TYPE_SHORT = 5;
     public static final int PARAM_TYPE_BOOLEAN = 6;
     public static final int PARAM_TYPE_STRING = 7;
+    /**
+     * Parameter types of strings in the parameter dictionary of a connection (protocol v2 only).
+     * A definition carries the dictionary ID and the string, and a reference carries the ID only.
+     */
+    public static final int PARAM_TYPE_STRING_DEFINE = 8;
+    public static final int PARAM_TYPE_STRING_REF = 9;
 
     public static final int DEFAULT_CLUSTER_SERVER_PORT = 18730;
     public static final int DEFAULT_REQUEST_TIMEOUT = 20;
     public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10 * 1000;
 
+    /**
+     * Max length of a frame, limited by the 2-byte length field.
+     */
+    public static final int MAX_FRAME_LENGTH = 0xFFFF;
+    /**
+     * Max length of a frame with its 2-byte length field, which is the max frame length of the frame decoder.
+     */
+    public static final int MAX_ENCODED_FRAME_LENGTH = MAX_FRAME_LENGTH + 2;
+
+    /**
+     * Versions of the cluster wire protocol. Protocol v1 writes fixed-width fields, while protocol v2 writes
+     * varint (and zig-zag) encoded fields, and strings of parameters via a per-connection dictionary.
+     * Protocol v2 is negotiated by the ping of the client, so that old clients and servers stay on v1.
+     */
+    public static final int PROTOCOL_VERSION_1 = 1;
+    public static final int PROTOCOL_VERSION_2 = 2;
+    /**
+     * The first byte of protocol v2 frames. The first byte of protocol v1 frames is the highest byte
+     * of the non-negative xid, which never collides with the magic.
+     */
+    public static final int PROTOCOL_V2_MAGIC = 0x82;
+    /**
+     * Max count of strings in the parameter dictionary of a connection.
+     */
+    public static final int PARAM_DICTIONARY_CAPACITY = 1024;
+    /**
+     * Max byte length of strings in the parameter dictionary. Longer strings are written inline.
+     */
+    public static final int PARAM_DICTIONARY_MAX_STRING_LENGTH = 256;
+
+    /**
+     * Transport types of the token server and client. Native epoll transports fall back to NIO
+     * if epoll is unavailable (e.g. on non-Linux platforms or without the native library).
+     */
+    public static final String TRANSPORT_NIO = "nio";
+    public static final String TRANSPORT_EPOLL = "epoll";
+    public static final String TRANSPORT_EPOLL_UDS = "epoll-uds";
+
+    public static boolean isValidTransportType(String transportType) {
+        return TRANSPORT_NIO.equals(transportType) || TRANSPORT_EPOLL.equals(transportType)
+            || TRANSPORT_EPOLL_UDS.equals(transportType);
+    }
+
     private ClusterConstants() {}
 }
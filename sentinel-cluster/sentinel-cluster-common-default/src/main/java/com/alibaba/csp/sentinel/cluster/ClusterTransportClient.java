@@ -15,11 +15,13 @@
  */
 package com.alibaba.csp.sentinel.cluster;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 
 /**
- * Synchronous transport client for distributed flow control.
+ * Transport client for distributed flow control.
  *
  * @author Eric Zhao
  * @since 1.4.0
@@ -49,6 +51,25 @@ public interface ClusterTransportClient {
      */
     ClusterResponse sendRequest(ClusterRequest request) throws Exception;
 
+    /**
+     * Send request to remote server asynchronously. Implementations should support multiple
+     * requests in flight at the same time. The default implementation simply delegates to
+     * {@link #sendRequest(ClusterRequest)}, which blocks the caller.
+     *
+     * @param request Sentinel cluster request
+     * @return future of the response from remote server
+     * @since 1.8.8
+     */
+    default CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
+        try {
+            future.complete(sendRequest(request));
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
     /**
      * Check whether the client has been started and ready for sending requests.
      *
@@ -0,0 +1,71 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+/**
+ * Request data of a token lease, i.e. a batch of tokens which can be consumed locally by the client
+ * during the lease window.
+ *
+ * @since 1.8.8
+ */
+public class FlowLeaseRequestData {
+
+    private long flowId;
+    /**
+     * Expected token count of the lease.
+     */
+    private int count;
+    /**
+     * Expected lease window in milliseconds.
+     */
+    private int leaseMs;
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public FlowLeaseRequestData setFlowId(long flowId) {
+        this.flowId = flowId;
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public FlowLeaseRequestData setCount(int count) {
+        this.count = count;
+        return this;
+    }
+
+    public int getLeaseMs() {
+        return leaseMs;
+    }
+
+    public FlowLeaseRequestData setLeaseMs(int leaseMs) {
+        this.leaseMs = leaseMs;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowLeaseRequestData{" +
+            "flowId=" + flowId +
+            ", count=" + count +
+            ", leaseMs=" + leaseMs +
+            '}';
+    }
+}
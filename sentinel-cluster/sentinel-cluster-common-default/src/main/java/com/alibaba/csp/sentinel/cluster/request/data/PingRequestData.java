@@ -0,0 +1,72 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+/**
+ * Request data of the ping from a client, which registers the connection with the namespace of the client.
+ * All connections of the same client carry the same client ID, so that the token server counts
+ * connected clients rather than connections.
+ *
+ * @since 1.8.8
+ */
+public class PingRequestData {
+
+    private String namespace;
+    /**
+     * Identity of the client, may be null for clients before 1.8.8.
+     */
+    private String clientId;
+    /**
+     * Highest wire protocol version supported by the client, 0 for clients before 1.8.8 (protocol v1 only).
+     */
+    private int protocolVersion;
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public PingRequestData setNamespace(String namespace) {
+        this.namespace = namespace;
+        return this;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public PingRequestData setClientId(String clientId) {
+        this.clientId = clientId;
+        return this;
+    }
+
+    public int getProtocolVersion() {
+        return protocolVersion;
+    }
+
+    public PingRequestData setProtocolVersion(int protocolVersion) {
+        this.protocolVersion = protocolVersion;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "PingRequestData{" +
+            "namespace='" + namespace + '\'' +
+            ", clientId='" + clientId + '\'' +
+            ", protocolVersion=" + protocolVersion +
+            '}';
+    }
+}
@@ -24,6 +24,7 @@ import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
+import com.alibaba.csp.sentinel.cluster.server.log.ClusterStatEvent;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 
@@ -64,13 +65,11 @@ final class ClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        double latestQps = metric.getAvg(ClusterFlowEvent.PASS);
         double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
-        double nextRemaining = globalThreshold - latestQps - acquireCount;
+        // Check and add pass count atomically, so that concurrent requests cannot exceed the threshold together.
+        double nextRemaining = metric.tryReservePass(acquireCount, globalThreshold);
 
         if (nextRemaining >= 0) {
-            // TODO: checking logic and metric operation should be separated.
-            metric.add(ClusterFlowEvent.PASS, acquireCount);
             metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
             if (prioritized) {
                 // Add prioritized pass.
@@ -88,7 +87,7 @@ final class ClusterFlowChecker {
                     int waitInMs = metric.tryOccupyNext(ClusterFlowEvent.PASS, acquireCount, globalThreshold);
                     // waitInMs > 0 indicates pre-occupy incoming buckets successfully.
                     if (waitInMs > 0) {
-                        ClusterServerStatLogUtil.log("flow|waiting|" + id);
+                        ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_WAITING, id, 1);
                         return new TokenResult(TokenResultStatus.SHOULD_WAIT)
                             .setRemaining(0)
                             .setWaitInMs(waitInMs);
@@ -99,18 +98,72 @@ final class ClusterFlowChecker {
             // Blocked.
             metric.add(ClusterFlowEvent.BLOCK, acquireCount);
             metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
-            ClusterServerStatLogUtil.log("flow|block|" + id, acquireCount);
-            ClusterServerStatLogUtil.log("flow|block_request|" + id, 1);
+            ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_BLOCK, id, acquireCount);
+            ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_BLOCK_REQUEST, id, 1);
             if (prioritized) {
                 // Add prioritized block.
                 metric.add(ClusterFlowEvent.OCCUPIED_BLOCK, acquireCount);
-                ClusterServerStatLogUtil.log("flow|occupied_block|" + id, 1);
+                ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_OCCUPIED_BLOCK, id, 1);
             }
 
             return blockedResult();
         }
     }
 
+    /**
+     * Grant a lease of tokens to the client. The leased tokens are accounted as passed immediately, so
+     * leasing never exceeds the global threshold in any statistic window, while a single lease can hold
+     * at most {@code maxLeaseRatio} of the threshold. When the remaining tokens are not enough for every
+     * connected client to get a full lease, each client gets an even share of the remaining tokens.
+     */
+    static TokenResult acquireClusterTokenLease(/*@Valid*/ FlowRule rule, int acquireCount, int leaseMs) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        String namespace = ClusterFlowRuleManager.getNamespace(id);
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        double remaining = globalThreshold - metric.getAvg(ClusterFlowEvent.PASS);
+
+        double maxLeaseCount = globalThreshold * getMaxLeaseRatio(namespace);
+        int connectedCount = Math.max(1, ClusterFlowRuleManager.getConnectedCount(id));
+        if (remaining < maxLeaseCount * connectedCount) {
+            maxLeaseCount = Math.max(1, remaining / connectedCount);
+        }
+        int grantedCount = (int) Math.min(Math.min(acquireCount, maxLeaseCount), remaining);
+        if (grantedCount <= 0) {
+            // Clients will fall back to regular token requests, where blocked requests are recorded.
+            return blockedResult();
+        }
+
+        if (metric.tryReservePass(grantedCount, globalThreshold) < 0) {
+            // Tokens have been taken by concurrent requests.
+            return blockedResult();
+        }
+        metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+        ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_LEASE, id, grantedCount);
+        return new TokenResult(TokenResultStatus.OK)
+            .setRemaining(grantedCount)
+            .setWaitInMs(Math.min(leaseMs, getIntervalMs(namespace)));
+    }
+
+    private static double getMaxLeaseRatio(String namespace) {
+        return namespace == null ? ClusterServerConfigManager.getMaxLeaseRatio()
+            : ClusterServerConfigManager.getMaxLeaseRatio(namespace);
+    }
+
+    private static int getIntervalMs(String namespace) {
+        return namespace == null ? ClusterServerConfigManager.getIntervalMs()
+            : ClusterServerConfigManager.getIntervalMs(namespace);
+    }
+
     private static TokenResult blockedResult() {
         return new TokenResult(TokenResultStatus.BLOCKED)
             .setRemaining(0)
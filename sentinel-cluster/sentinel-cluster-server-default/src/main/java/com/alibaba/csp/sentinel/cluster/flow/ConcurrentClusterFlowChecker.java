@@ -21,11 +21,16 @@ import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.CurrentConcurrencyManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNodeManager;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionListener;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
+import com.alibaba.csp.sentinel.cluster.server.log.ClusterStatEvent;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -33,6 +38,27 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 final public class ConcurrentClusterFlowChecker {
 
+    /**
+     * Cached global thresholds (flowId, threshold). A cached threshold is valid only for the same rule
+     * and the same version of connections, so it's refreshed when rules or connections change.
+     */
+    private static final Map<Long, CachedThreshold> THRESHOLD_CACHE = new ConcurrentHashMap<>();
+    private static final AtomicInteger CONNECTION_VERSION = new AtomicInteger();
+
+    static {
+        ConnectionManager.addListener(new ConnectionListener() {
+            @Override
+            public void onConnectionAdded(String namespace, String address) {
+                CONNECTION_VERSION.incrementAndGet();
+            }
+
+            @Override
+            public void onConnectionRemoved(String namespace, String address) {
+                CONNECTION_VERSION.incrementAndGet();
+            }
+        });
+    }
+
     public static double calcGlobalThreshold(FlowRule rule) {
         double count = rule.getCount();
         switch (rule.getClusterConfig().getThresholdType()) {
@@ -53,24 +79,18 @@ final public class ConcurrentClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        // check before enter the lock to improve the efficiency
-        if (nowCalls.get() + acquireCount > calcGlobalThreshold(rule)) {
-            ClusterServerStatLogUtil.log("concurrent|block|" + flowId, acquireCount);
-            return new TokenResult(TokenResultStatus.BLOCKED);
-        }
-
-        // ensure the atomicity of operations
-        // lock different nowCalls to improve the efficiency
-        synchronized (nowCalls) {
-            // check again whether the request can pass.
-            if (nowCalls.get() + acquireCount > calcGlobalThreshold(rule)) {
-                ClusterServerStatLogUtil.log("concurrent|block|" + flowId, acquireCount);
+        double threshold = getGlobalThreshold(flowId, rule);
+        while (true) {
+            int currentCalls = nowCalls.get();
+            if (currentCalls + acquireCount > threshold) {
+                ClusterServerStatLogUtil.log(ClusterStatEvent.CONCURRENT_BLOCK, flowId, acquireCount);
                 return new TokenResult(TokenResultStatus.BLOCKED);
-            } else {
-                nowCalls.getAndAdd(acquireCount);
+            }
+            if (nowCalls.compareAndSet(currentCalls, currentCalls + acquireCount)) {
+                break;
             }
         }
-        ClusterServerStatLogUtil.log("concurrent|pass|" + flowId, acquireCount);
+        ClusterServerStatLogUtil.log(ClusterStatEvent.CONCURRENT_PASS, flowId, acquireCount);
         TokenCacheNode node = TokenCacheNode.generateTokenCacheNode(rule, acquireCount, clientAddress);
         TokenCacheNodeManager.putTokenCacheNode(node.getTokenId(), node);
         TokenResult tokenResult = new TokenResult(TokenResultStatus.OK);
@@ -78,6 +98,17 @@ final public class ConcurrentClusterFlowChecker {
         return tokenResult;
     }
 
+    private static double getGlobalThreshold(long flowId, FlowRule rule) {
+        int version = CONNECTION_VERSION.get();
+        CachedThreshold cached = THRESHOLD_CACHE.get(flowId);
+        if (cached != null && cached.rule == rule && cached.version == version) {
+            return cached.threshold;
+        }
+        double threshold = calcGlobalThreshold(rule);
+        THRESHOLD_CACHE.put(flowId, new CachedThreshold(rule, version, threshold));
+        return threshold;
+    }
+
     public static TokenResult releaseConcurrentToken(/*@Valid*/ long tokenId) {
         TokenCacheNode node = TokenCacheNodeManager.getTokenCacheNode(tokenId);
         if (node == null) {
@@ -96,7 +127,20 @@ final public class ConcurrentClusterFlowChecker {
         int acquireCount = node.getAcquireCount();
         AtomicInteger nowCalls = CurrentConcurrencyManager.get(node.getFlowId());
         nowCalls.getAndAdd(-1 * acquireCount);
-        ClusterServerStatLogUtil.log("concurrent|release|" + rule.getClusterConfig().getFlowId(), acquireCount);
+        ClusterServerStatLogUtil.log(ClusterStatEvent.CONCURRENT_RELEASE, rule.getClusterConfig().getFlowId(), acquireCount);
         return new TokenResult(TokenResultStatus.RELEASE_OK);
     }
+
+    private static final class CachedThreshold {
+
+        private final FlowRule rule;
+        private final int version;
+        private final double threshold;
+
+        CachedThreshold(FlowRule rule, int version, double threshold) {
+            this.rule = rule;
+            this.version = version;
+            this.threshold = threshold;
+        }
+    }
 }
@@ -63,6 +63,20 @@ public class DefaultTokenService implements TokenService {
         return ClusterParamFlowChecker.acquireClusterToken(rule, acquireCount, params);
     }
 
+    @Override
+    public TokenResult requestTokenLease(Long ruleId, int acquireCount, int leaseMs) {
+        if (notValidRequest(ruleId, acquireCount) || leaseMs <= 0) {
+            return badRequest();
+        }
+        // The rule should be valid.
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+
+        return ClusterFlowChecker.acquireClusterTokenLease(rule, acquireCount, leaseMs);
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         if (notValidRequest(clientAddress, ruleId, acquireCount)) {
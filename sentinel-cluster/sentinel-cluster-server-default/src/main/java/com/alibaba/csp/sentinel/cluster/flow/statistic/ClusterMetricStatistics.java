@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -57,6 +58,14 @@ public final class ClusterMetricStatistics {
         return METRIC_MAP.get(id);
     }
 
+    /**
+     * @return IDs of the flows which have metric
+     * @since 1.8.8
+     */
+    public static Set<Long> getFlowIdSet() {
+        return Collections.unmodifiableSet(METRIC_MAP.keySet());
+    }
+
     public static void resetFlowMetrics() {
         Set<Long> keySet = METRIC_MAP.keySet();
         for (Long id : keySet) {
@@ -17,8 +17,6 @@ package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
 
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 
-import java.util.UUID;
-
 /**
  * We use TokenCacheNodeManager to store the tokenId, whose the underlying storage structure
  * is ConcurrentLinkedHashMap, Its storage node is TokenCacheNode. In order to operate the nowCalls value when
@@ -58,9 +56,7 @@ public class TokenCacheNode {
 
     public static TokenCacheNode generateTokenCacheNode(FlowRule rule, int acquireCount, String clientAddress) {
         TokenCacheNode node = new TokenCacheNode();
-        // getMostSignificantBits() returns the most significant 64 bits of this UUID's 128 bit value.
-        // The probability of collision is extremely low.
-        node.setTokenId(UUID.randomUUID().getMostSignificantBits());
+        node.setTokenId(TokenIdGenerator.nextId());
         node.setFlowId(rule.getClusterConfig().getFlowId());
         node.setClientTimeout(rule.getClusterConfig().getClientOfflineTime());
         node.setResourceTimeout(rule.getClusterConfig().getResourceTimeout());
@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
+
+/**
+ * Listener of the tokens put into or released from {@link TokenCacheNodeManager}.
+ *
+ * @since 1.8.8
+ */
+public interface TokenCacheNodeListener {
+
+    /**
+     * Called after a new token has been put into the cache.
+     *
+     * @param node the new token
+     */
+    void onTokenAdded(TokenCacheNode node);
+
+    /**
+     * Called after a token has been released by the client.
+     *
+     * @param node the released token
+     */
+    void onTokenRemoved(TokenCacheNode node);
+}
@@ -15,18 +15,24 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
 
-import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire.RegularExpireStrategy;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire.ExpireStrategy;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire.TimingWheelExpireStrategy;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import com.googlecode.concurrentlinkedhashmap.Weighers;
 
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author yunfeiyanggzq
  */
 public class TokenCacheNodeManager {
     private static ConcurrentLinkedHashMap<Long, TokenCacheNode> TOKEN_CACHE_NODE_MAP;
+    private static volatile ExpireStrategy EXPIRE_STRATEGY;
+    private static final List<TokenCacheNodeListener> LISTENERS = new CopyOnWriteArrayList<>();
 
 
     private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
@@ -34,6 +40,8 @@ public class TokenCacheNodeManager {
 
     static {
         prepare(DEFAULT_CONCURRENCY_LEVEL, DEFAULT_CAPACITY);
+        // Tokens held by offline clients are released on disconnection, rather than found by scanning.
+        ConnectionManager.addListener((namespace, address) -> EXPIRE_STRATEGY.onClientOffline(address));
     }
 
     public static void prepare(int concurrencyLevel, int maximumWeightedCapacity) {
@@ -46,11 +54,31 @@ public class TokenCacheNodeManager {
                 .weigher(Weighers.singleton())
                 .build();
         // Start the task of regularly clearing expired keys
-        RegularExpireStrategy strategy = new RegularExpireStrategy(TOKEN_CACHE_NODE_MAP);
+        ExpireStrategy strategy = new TimingWheelExpireStrategy(TOKEN_CACHE_NODE_MAP);
         strategy.startClearTaskRegularly();
+        EXPIRE_STRATEGY = strategy;
     }
 
 
+    /**
+     * Add a listener of the tokens put into or released from the cache.
+     *
+     * @param listener the listener
+     * @since 1.8.8
+     */
+    public static void addListener(TokenCacheNodeListener listener) {
+        AssertUtil.notNull(listener, "listener cannot be null");
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove
+     * @since 1.8.8
+     */
+    public static void removeListener(TokenCacheNodeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
     public static TokenCacheNode getTokenCacheNode(long tokenId) {
         //use getQuietly to prevent disorder
         return TOKEN_CACHE_NODE_MAP.getQuietly(tokenId);
@@ -58,6 +86,10 @@ public class TokenCacheNodeManager {
 
     public static void putTokenCacheNode(long tokenId, TokenCacheNode cacheNode) {
         TOKEN_CACHE_NODE_MAP.put(tokenId, cacheNode);
+        EXPIRE_STRATEGY.onTokenAdded(cacheNode);
+        for (TokenCacheNodeListener listener : LISTENERS) {
+            listener.onTokenAdded(cacheNode);
+        }
     }
 
     public static boolean isContainsTokenId(long tokenId) {
@@ -65,7 +97,14 @@ public class TokenCacheNodeManager {
     }
 
     public static TokenCacheNode removeTokenCacheNode(long tokenId) {
-        return TOKEN_CACHE_NODE_MAP.remove(tokenId);
+        TokenCacheNode node = TOKEN_CACHE_NODE_MAP.remove(tokenId);
+        if (node != null) {
+            EXPIRE_STRATEGY.onTokenRemoved(node);
+            for (TokenCacheNodeListener listener : LISTENERS) {
+                listener.onTokenRemoved(node);
+            }
+        }
+        return node;
     }
 
     public static int getSize() {
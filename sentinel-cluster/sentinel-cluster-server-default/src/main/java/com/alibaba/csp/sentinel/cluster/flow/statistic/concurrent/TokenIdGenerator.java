@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Generator of concurrent token IDs. The ID space is preallocated to a fixed number of stripes,
+ * and each thread takes IDs from the stripe of its own, so that generating IDs doesn't contend
+ * among threads (e.g. Netty workers) and doesn't rely on the (synchronized) secure random.
+ * </p>
+ * <p>
+ * The layout of a token ID (from high bits to low bits):
+ * </p>
+ * <pre>
+ * | 0 (1) | random prefix of the process (15) | stripe (8) | sequence in the stripe (40) |
+ * </pre>
+ * <p>
+ * The random prefix makes tokens issued before the token server restarts unlikely to be
+ * mistaken for new tokens. The ID is always positive, as 0 indicates no token.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public final class TokenIdGenerator {
+
+    private static final int STRIPE_BITS = 8;
+    private static final int SEQUENCE_BITS = 40;
+    private static final int PREFIX_BITS = 15;
+
+    private static final int STRIPE_COUNT = 1 << STRIPE_BITS;
+    private static final int STRIPE_MASK = STRIPE_COUNT - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    /**
+     * Sequences of different stripes are put into different cache lines (8 longs).
+     */
+    private static final int PADDING = 8;
+
+    private static final long PREFIX = (ThreadLocalRandom.current().nextLong() & ((1L << PREFIX_BITS) - 1))
+        << (STRIPE_BITS + SEQUENCE_BITS);
+    private static final AtomicLongArray SEQUENCES = new AtomicLongArray(STRIPE_COUNT * PADDING);
+
+    public static long nextId() {
+        int stripe = (int) (Thread.currentThread().getId() & STRIPE_MASK);
+        // Sequence starts from 1, so that the ID won't be 0 even if the prefix is 0.
+        long sequence = (SEQUENCES.incrementAndGet(stripe * PADDING) & SEQUENCE_MASK);
+        return PREFIX | ((long) stripe << SEQUENCE_BITS) | sequence;
+    }
+
+    private TokenIdGenerator() {}
+}
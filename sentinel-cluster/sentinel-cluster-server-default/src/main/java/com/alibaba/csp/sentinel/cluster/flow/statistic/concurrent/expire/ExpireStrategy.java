@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
 
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+
 /**
  * @author yunfeiyagnggzq
  */
@@ -23,4 +25,28 @@ public interface ExpireStrategy {
      * clean expired token regularly.
      */
     void startClearTaskRegularly();
+
+    /**
+     * Called after a new token has been put into the cache.
+     *
+     * @param node the new token
+     * @since 1.8.8
+     */
+    default void onTokenAdded(TokenCacheNode node) {}
+
+    /**
+     * Called after a token has been released (removed from the cache) by the client.
+     *
+     * @param node the released token
+     * @since 1.8.8
+     */
+    default void onTokenRemoved(TokenCacheNode node) {}
+
+    /**
+     * Called after the client has gone offline.
+     *
+     * @param address address of the client
+     * @since 1.8.8
+     */
+    default void onClientOffline(String address) {}
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <p>
+ * A hierarchical timing wheel. Each level has {@link #WHEEL_SIZE} buckets, and a bucket of level {@code n}
+ * spans {@code WHEEL_SIZE^n} ticks. Items are put into the bucket of their deadline at the lowest level
+ * that can hold them, and are cascaded to lower levels when the wheel turns to them,
+ * so advancing the wheel only touches the items that are (nearly) expired.
+ * </p>
+ * <p>
+ * Items can be scheduled from any thread, while the wheel should be advanced by a single thread.
+ * Scheduled items are handed over to the wheel via a concurrent queue on the next advance.
+ * </p>
+ *
+ * @param <T> type of the items
+ * @since 1.8.8
+ */
+final class HierarchicalTimingWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int MAX_LEVELS = 10;
+
+    private final long tickMs;
+    private final Queue<Entry<T>> pendingEntries = new ConcurrentLinkedQueue<>();
+    private final List<Level<T>> levels = new ArrayList<>();
+
+    private long currentTick;
+
+    HierarchicalTimingWheel(long tickMs, long startMs) {
+        this.tickMs = tickMs;
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Schedule the item to expire at given time. It's safe to be called from any thread.
+     *
+     * @param item       the item
+     * @param deadlineMs the time (in ms) after which the item expires
+     */
+    void schedule(T item, long deadlineMs) {
+        // Round up so that items never expire ahead of the deadline.
+        pendingEntries.offer(new Entry<>(item, (deadlineMs + tickMs - 1) / tickMs));
+    }
+
+    /**
+     * Advance the wheel to given time, and hand over the expired items to the handler.
+     * It should be called by a single thread.
+     *
+     * @param nowMs   current time in ms
+     * @param handler handler of expired items
+     * @return count of expired items
+     */
+    int advanceTo(long nowMs, ExpireHandler<T> handler) {
+        int expiredCount = 0;
+        Entry<T> entry;
+        while ((entry = pendingEntries.poll()) != null) {
+            expiredCount += place(entry, handler);
+        }
+        long nowTick = nowMs / tickMs;
+        while (currentTick < nowTick) {
+            currentTick++;
+            expiredCount += cascade(handler);
+            if (!levels.isEmpty()) {
+                List<Entry<T>> bucket = levels.get(0).take((int) (currentTick & WHEEL_MASK));
+                if (bucket != null) {
+                    for (Entry<T> e : bucket) {
+                        handler.onExpire(e.item);
+                    }
+                    expiredCount += bucket.size();
+                }
+            }
+        }
+        return expiredCount;
+    }
+
+    private int cascade(ExpireHandler<T> handler) {
+        int expiredCount = 0;
+        for (int level = 1; level < levels.size(); level++) {
+            // Higher levels turn only when all lower levels have turned a round.
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            List<Entry<T>> bucket = levels.get(level).take((int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK));
+            if (bucket != null) {
+                for (Entry<T> e : bucket) {
+                    expiredCount += place(e, handler);
+                }
+            }
+        }
+        return expiredCount;
+    }
+
+    private int place(Entry<T> entry, ExpireHandler<T> handler) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            handler.onExpire(entry.item);
+            return 1;
+        }
+        int level = 0;
+        while (level < MAX_LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        while (levels.size() <= level) {
+            levels.add(new Level<T>());
+        }
+        levels.get(level).add((int) ((entry.deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK), entry);
+        return 0;
+    }
+
+    interface ExpireHandler<T> {
+
+        void onExpire(T item);
+    }
+
+    private static final class Entry<T> {
+
+        private final T item;
+        private final long deadlineTick;
+
+        Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private static final class Level<T> {
+
+        private final Object[] buckets = new Object[WHEEL_SIZE];
+
+        @SuppressWarnings("unchecked")
+        void add(int index, Entry<T> entry) {
+            List<Entry<T>> bucket = (List<Entry<T>>) buckets[index];
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                buckets[index] = bucket;
+            }
+            bucket.add(entry);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Entry<T>> take(int index) {
+            List<Entry<T>> bucket = (List<Entry<T>>) buckets[index];
+            buckets[index] = null;
+            return bucket;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.CurrentConcurrencyManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * <p>
+ * Expire strategy driven by a {@link HierarchicalTimingWheel} keyed by token expiry, so that the cost of
+ * clearing tokens is proportional to the expired tokens rather than all tokens in the cache.
+ * </p>
+ * <p>
+ * Every token is scheduled when it's acquired, and will be deleted if it's still held after 2 times of
+ * the resource timeout (the same as {@link RegularExpireStrategy}). Tokens released by the client are
+ * skipped when their schedule comes. When a client goes offline (notified by {@link ConnectionManager}),
+ * all tokens held by the client are scheduled to be deleted after the client offline time,
+ * unless the client is online again by then.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public class TimingWheelExpireStrategy implements ExpireStrategy {
+
+    private static final long DEFAULT_TICK_MS = 50;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-cluster-token-expire-task", true));
+
+    private final ConcurrentLinkedHashMap<Long, TokenCacheNode> localCache;
+    private final long tickMs;
+    private final HierarchicalTimingWheel<ExpireTask> wheel;
+    /**
+     * Tokens held by each client (address, set of tokenId).
+     */
+    private final Map<String, Set<Long>> clientTokens = new ConcurrentHashMap<>();
+
+    public TimingWheelExpireStrategy(ConcurrentLinkedHashMap<Long, TokenCacheNode> localCache) {
+        this(localCache, DEFAULT_TICK_MS);
+    }
+
+    TimingWheelExpireStrategy(ConcurrentLinkedHashMap<Long, TokenCacheNode> localCache, long tickMs) {
+        AssertUtil.isTrue(localCache != null, " local cache can't be null");
+        AssertUtil.isTrue(tickMs > 0, "tickMs should be positive");
+        this.localCache = localCache;
+        this.tickMs = tickMs;
+        this.wheel = new HierarchicalTimingWheel<>(tickMs, System.currentTimeMillis());
+    }
+
+    @Override
+    public void startClearTaskRegularly() {
+        executor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    clearToken(System.currentTimeMillis());
+                } catch (Throwable e) {
+                    RecordLog.warn("[TimingWheelExpireStrategy] undefined throwable during clear token: ", e);
+                }
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onTokenAdded(TokenCacheNode node) {
+        // The same as RegularExpireStrategy: the token is determined to timeout
+        // if it's held for more than 2 times of the resource timeout.
+        long deadline = node.getResourceTimeout();
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(node.getFlowId());
+        if (rule != null) {
+            deadline += rule.getClusterConfig().getResourceTimeout();
+        }
+        wheel.schedule(new ExpireTask(node, false), deadline);
+
+        final Long tokenId = node.getTokenId();
+        String address = node.getClientAddress();
+        if (address != null) {
+            clientTokens.compute(address, (k, tokens) -> {
+                if (tokens == null) {
+                    tokens = ConcurrentHashMap.newKeySet();
+                }
+                tokens.add(tokenId);
+                return tokens;
+            });
+        }
+    }
+
+    @Override
+    public void onTokenRemoved(TokenCacheNode node) {
+        // The schedule of the token is skipped lazily when it comes.
+        untrackClientToken(node);
+    }
+
+    @Override
+    public void onClientOffline(String address) {
+        Set<Long> tokens = clientTokens.get(address);
+        if (tokens == null) {
+            return;
+        }
+        for (Long tokenId : tokens) {
+            TokenCacheNode node = localCache.getQuietly(tokenId);
+            if (node != null) {
+                wheel.schedule(new ExpireTask(node, true), node.getClientTimeout());
+            }
+        }
+    }
+
+    int clearToken(long now) {
+        return wheel.advanceTo(now, new HierarchicalTimingWheel.ExpireHandler<ExpireTask>() {
+            @Override
+            public void onExpire(ExpireTask task) {
+                expire(task);
+            }
+        });
+    }
+
+    private void expire(ExpireTask task) {
+        TokenCacheNode node = task.node;
+        if (localCache.getQuietly(node.getTokenId()) != node) {
+            // Already released.
+            return;
+        }
+        if (task.clientOffline) {
+            // The client may be online again.
+            if (ConnectionManager.isClientOnline(node.getClientAddress())) {
+                return;
+            }
+            if (removeToken(node)) {
+                RecordLog.info("[TimingWheelExpireStrategy] Delete the expired token<{}> because of client offline for ruleId<{}>", node.getTokenId(), node.getFlowId());
+            }
+        } else if (removeToken(node)) {
+            RecordLog.info("[TimingWheelExpireStrategy] Delete the expired token<{}> because of resource timeout for ruleId<{}>", node.getTokenId(), node.getFlowId());
+        }
+    }
+
+    private boolean removeToken(TokenCacheNode node) {
+        if (!localCache.remove(node.getTokenId(), node)) {
+            return false;
+        }
+        untrackClientToken(node);
+        AtomicInteger nowCalls = CurrentConcurrencyManager.get(node.getFlowId());
+        if (nowCalls != null) {
+            nowCalls.getAndAdd(node.getAcquireCount() * -1);
+        }
+        return true;
+    }
+
+    private void untrackClientToken(TokenCacheNode node) {
+        String address = node.getClientAddress();
+        if (address == null) {
+            return;
+        }
+        final Long tokenId = node.getTokenId();
+        clientTokens.computeIfPresent(address, (k, tokens) -> {
+            tokens.remove(tokenId);
+            return tokens.isEmpty() ? null : tokens;
+        });
+    }
+
+    private static final class ExpireTask {
+
+        private final TokenCacheNode node;
+        private final boolean clientOffline;
+
+        ExpireTask(TokenCacheNode node, boolean clientOffline) {
+            this.node = node;
+            this.clientOffline = clientOffline;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.data;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
@@ -24,6 +25,11 @@ import java.util.concurrent.atomic.LongAdder;
 public class ClusterMetricBucket {
 
     private final LongAdder[] counters;
+    /**
+     * Pass count is kept in an {@link AtomicLong} instead of a {@link LongAdder},
+     * so that pass tokens could be reserved with CAS.
+     */
+    private final AtomicLong passCounter = new AtomicLong();
 
     public ClusterMetricBucket() {
         ClusterFlowEvent[] events = ClusterFlowEvent.values();
@@ -37,14 +43,34 @@ public class ClusterMetricBucket {
         for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
             counters[event.ordinal()].reset();
         }
+        passCounter.set(0);
     }
 
     public long get(ClusterFlowEvent event) {
+        if (event == ClusterFlowEvent.PASS) {
+            return passCounter.get();
+        }
         return counters[event.ordinal()].sum();
     }
 
     public ClusterMetricBucket add(ClusterFlowEvent event, long count) {
-        counters[event.ordinal()].add(count);
+        if (event == ClusterFlowEvent.PASS) {
+            passCounter.addAndGet(count);
+        } else {
+            counters[event.ordinal()].add(count);
+        }
         return this;
     }
+
+    /**
+     * Atomically set the pass count to {@code update} if the current pass count equals {@code expect}.
+     *
+     * @param expect the expected pass count
+     * @param update the new pass count
+     * @return true if successful; false indicates the pass count has been changed by others
+     * @since 1.8.8
+     */
+    public boolean compareAndSetPass(long expect, long update) {
+        return passCounter.compareAndSet(expect, update);
+    }
 }
@@ -15,54 +15,75 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.limit;
 
-import java.util.List;
-import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
-import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
-import com.alibaba.csp.sentinel.slots.statistic.base.UnaryLeapArray;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
+ * <p>Sliding window counter of requests with max allowed QPS.</p>
+ * <p>
+ * The sum of the sliding window is maintained incrementally: buckets are subtracted from the sum when they
+ * slide out of the window (once per bucket, by the first request of the new bucket), so that checking
+ * the QPS costs no scan over the buckets and no allocation. {@link #tryPass()} checks and increments the sum
+ * in one CAS, so concurrent requests cannot exceed the max allowed QPS together.
+ * </p>
+ *
  * @author Eric Zhao
  * @since 1.4.1
  */
 public class RequestLimiter {
 
-    private double qpsAllowed;
+    private static final int DEFAULT_SAMPLE_COUNT = 10;
+    private static final int DEFAULT_INTERVAL_MS = 1000;
+
+    private volatile double qpsAllowed;
+
+    private final int sampleCount;
+    private final int windowLengthInMs;
+    private final double intervalInSecond;
 
-    private final LeapArray<LongAdder> data;
+    private final AtomicLongArray counts;
+    private final AtomicLong sum = new AtomicLong(0);
+    private final AtomicBoolean sliding = new AtomicBoolean(false);
+    private volatile long latestWindowStart;
 
     public RequestLimiter(double qpsAllowed) {
-        this(new UnaryLeapArray(10, 1000), qpsAllowed);
+        this(DEFAULT_SAMPLE_COUNT, DEFAULT_INTERVAL_MS, qpsAllowed);
     }
 
-    RequestLimiter(LeapArray<LongAdder> data, double qpsAllowed) {
+    RequestLimiter(int sampleCount, int intervalInMs, double qpsAllowed) {
         AssertUtil.isTrue(qpsAllowed >= 0, "max allowed QPS should > 0");
-        this.data = data;
+        AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
+        AssertUtil.isTrue(intervalInMs > 0 && intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        this.sampleCount = sampleCount;
+        this.windowLengthInMs = intervalInMs / sampleCount;
+        this.intervalInSecond = intervalInMs / 1000.0;
+        this.counts = new AtomicLongArray(sampleCount);
         this.qpsAllowed = qpsAllowed;
+        long now = TimeUtil.currentTimeMillis();
+        this.latestWindowStart = now - now % windowLengthInMs;
     }
 
     public void increment() {
-        data.currentWindow().value().increment();
+        add(1);
     }
 
     public void add(int x) {
-        data.currentWindow().value().add(x);
+        int idx = indexOf(currentWindowStart());
+        sum.addAndGet(x);
+        counts.addAndGet(idx, x);
     }
 
     public long getSum() {
-        data.currentWindow();
-        long success = 0;
-
-        List<LongAdder> list = data.values();
-        for (LongAdder window : list) {
-            success += window.sum();
-        }
-        return success;
+        currentWindowStart();
+        return sum.get();
     }
 
     public double getQps() {
-        return getSum() / data.getIntervalInSecond();
+        return getSum() / intervalInSecond;
     }
 
     public double getQpsAllowed() {
@@ -79,10 +100,57 @@ public class RequestLimiter {
     }
 
     public boolean tryPass() {
-        if (canPass()) {
-            add(1);
-            return true;
+        int idx = indexOf(currentWindowStart());
+        double maxCount = qpsAllowed * intervalInSecond;
+        while (true) {
+            long current = sum.get();
+            if (current + 1 > maxCount) {
+                return false;
+            }
+            if (sum.compareAndSet(current, current + 1)) {
+                counts.incrementAndGet(idx);
+                return true;
+            }
+        }
+    }
+
+    private int indexOf(long windowStart) {
+        return (int)((windowStart / windowLengthInMs) % sampleCount);
+    }
+
+    /**
+     * Slide the window to current time, where buckets that slide out of the window are subtracted from the sum
+     * and reset. Only one thread slides the window, while others wait for it (which happens at most once
+     * per bucket).
+     *
+     * @return start time of current bucket
+     */
+    private long currentWindowStart() {
+        long now = TimeUtil.currentTimeMillis();
+        long windowStart = now - now % windowLengthInMs;
+        long latest = latestWindowStart;
+        while (windowStart > latest) {
+            if (sliding.compareAndSet(false, true)) {
+                try {
+                    latest = latestWindowStart;
+                    if (windowStart > latest) {
+                        // Buckets of the new windows in (latest, windowStart] held the windows that slide out.
+                        long steps = Math.min((windowStart - latest) / windowLengthInMs, sampleCount);
+                        for (long i = 0; i < steps; i++) {
+                            int idx = indexOf(windowStart - i * windowLengthInMs);
+                            sum.addAndGet(-counts.getAndSet(idx, 0));
+                        }
+                        latestWindowStart = windowStart;
+                    }
+                } finally {
+                    sliding.set(false);
+                }
+            } else {
+                Thread.yield();
+            }
+            latest = latestWindowStart;
         }
-        return false;
+        // The clock may be read before another thread slides the window further, count into the latest bucket.
+        return latest;
     }
 }
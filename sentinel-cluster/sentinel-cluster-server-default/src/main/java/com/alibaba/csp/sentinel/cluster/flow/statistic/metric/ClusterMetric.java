@@ -19,6 +19,8 @@ import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
@@ -40,6 +42,45 @@ public class ClusterMetric {
         metric.currentWindow().value().add(event, count);
     }
 
+    /**
+     * Add count to the bucket of given time, if the bucket is still in the sliding window.
+     *
+     * @param timeMillis time of the bucket
+     * @param event      event to add
+     * @param count      count to add
+     * @return true if added; false if the bucket has slid out of the window
+     * @since 1.8.8
+     */
+    public boolean addAt(long timeMillis, ClusterFlowEvent event, long count) {
+        long now = TimeUtil.currentTimeMillis();
+        long windowStart = timeMillis - timeMillis % (metric.getIntervalInMs() / metric.getSampleCount());
+        // The slot of a bucket is reused once the bucket starts a whole interval ago.
+        if (timeMillis > now || now - windowStart >= metric.getIntervalInMs()) {
+            return false;
+        }
+        metric.currentWindow(timeMillis).value().add(event, count);
+        return true;
+    }
+
+    /**
+     * Get valid buckets of the sliding window.
+     *
+     * @return valid buckets with their start time
+     * @since 1.8.8
+     */
+    public List<WindowWrap<ClusterMetricBucket>> windows() {
+        metric.currentWindow();
+        return metric.list();
+    }
+
+    /**
+     * @return length of the sliding window (in ms)
+     * @since 1.8.8
+     */
+    public int getIntervalInMs() {
+        return metric.getIntervalInMs();
+    }
+
     public long getCurrentCount(ClusterFlowEvent event) {
         return metric.currentWindow().value().get(event);
     }
@@ -71,6 +112,56 @@ public class ClusterMetric {
         return getSum(event) / metric.getIntervalInSecond();
     }
 
+    /**
+     * <p>Try to reserve pass tokens atomically. The check against the threshold and the addition of pass count
+     * are done in one CAS on the pass counter of current bucket, so concurrent reservations for the same metric
+     * cannot exceed the threshold together (as check-then-add does).</p>
+     * <p>Previous buckets of the sliding window are summed only once, as they won't be written anymore
+     * except by callers that are still holding the stale window.</p>
+     *
+     * @param acquireCount count of tokens to reserve
+     * @param threshold    threshold (per second) of pass count
+     * @return remaining count (per second) after reservation; negative value indicates the reservation failed,
+     * where nothing is added
+     * @since 1.8.8
+     */
+    public double tryReservePass(int acquireCount, double threshold) {
+        return tryReservePass(TimeUtil.currentTimeMillis(), acquireCount, threshold);
+    }
+
+    /**
+     * Try to reserve pass tokens atomically in the bucket of given time, which should be the current time
+     * taken by the caller, so that the tokens could be given back to the same bucket later.
+     *
+     * @param timeMillis   current time
+     * @param acquireCount count of tokens to reserve
+     * @param threshold    threshold (per second) of pass count
+     * @return remaining count (per second) after reservation; negative value indicates the reservation failed
+     * @see #tryReservePass(int, double)
+     * @since 1.8.8
+     */
+    public double tryReservePass(long timeMillis, int acquireCount, double threshold) {
+        WindowWrap<ClusterMetricBucket> currentWindow = metric.currentWindow(timeMillis);
+        long previousPass = 0;
+        for (WindowWrap<ClusterMetricBucket> windowWrap : metric.list(timeMillis)) {
+            if (windowWrap != currentWindow) {
+                previousPass += windowWrap.value().get(ClusterFlowEvent.PASS);
+            }
+        }
+        ClusterMetricBucket bucket = currentWindow.value();
+        double intervalInSecond = metric.getIntervalInSecond();
+        while (true) {
+            long currentPass = bucket.get(ClusterFlowEvent.PASS);
+            double nextRemaining = threshold - (previousPass + currentPass) / intervalInSecond - acquireCount;
+            if (nextRemaining < 0) {
+                return nextRemaining;
+            }
+            if (bucket.compareAndSetPass(currentPass, currentPass + acquireCount)) {
+                return nextRemaining;
+            }
+        }
+    }
+
     /**
      * Try to pre-occupy upcoming buckets.
      *
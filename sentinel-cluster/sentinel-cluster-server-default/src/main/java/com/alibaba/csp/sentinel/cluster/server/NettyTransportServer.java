@@ -15,26 +15,29 @@
  */
 package com.alibaba.csp.sentinel.cluster.server;
 
+import java.io.IOException;
+import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyRequestDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyResponseEncoder;
 import com.alibaba.csp.sentinel.cluster.server.connection.Connection;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
+import com.alibaba.csp.sentinel.cluster.server.handler.RequestShardExecutor;
 import com.alibaba.csp.sentinel.cluster.server.handler.TokenServerHandler;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.EventLoopGroup;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.handler.logging.LogLevel;
@@ -45,6 +48,17 @@ import io.netty.util.internal.SystemPropertyUtil;
 import static com.alibaba.csp.sentinel.cluster.server.ServerConstants.*;
 
 /**
+ * <p>Netty transport server implementation for Sentinel cluster transport.</p>
+ * <p>
+ * The server runs on NIO over TCP by default. Native epoll over TCP or over a Unix domain socket
+ * (for token servers running as a sidecar of the clients) can be chosen by the transport type,
+ * which falls back to NIO over TCP if the native transport is unavailable.
+ * </p>
+ * <p>
+ * Token requests are processed on I/O workers by default. With processing shards, requests are processed
+ * in the shard of their flows, so that the statistics of every flow are only updated by one thread.
+ * </p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
@@ -56,9 +70,13 @@ public class NettyTransportServer implements ClusterTokenServer {
     private static final int RETRY_SLEEP_MS = 2000;
 
     private final int port;
+    private final String transportType;
+    private final String udsPath;
+    private final int processingShards;
 
-    private NioEventLoopGroup bossGroup;
-    private NioEventLoopGroup workerGroup;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private RequestShardExecutor shardExecutor;
 
     private final ConnectionPool connectionPool = new ConnectionPool();
 
@@ -66,7 +84,31 @@ public class NettyTransportServer implements ClusterTokenServer {
     private final AtomicInteger failedTimes = new AtomicInteger(0);
 
     public NettyTransportServer(int port) {
+        this(port, ClusterConstants.TRANSPORT_NIO, null);
+    }
+
+    /**
+     * @param port          port of the token server, used by TCP transports
+     * @param transportType transport type of the token server
+     * @param udsPath       path of the Unix domain socket, used by the UDS transport
+     * @since 1.8.8
+     */
+    public NettyTransportServer(int port, String transportType, String udsPath) {
+        this(port, transportType, udsPath, 0);
+    }
+
+    /**
+     * @param port             port of the token server, used by TCP transports
+     * @param transportType    transport type of the token server
+     * @param udsPath          path of the Unix domain socket, used by the UDS transport
+     * @param processingShards count of processing shards of token requests, or 0 to process requests on I/O workers
+     * @since 1.8.8
+     */
+    public NettyTransportServer(int port, String transportType, String udsPath, int processingShards) {
         this.port = port;
+        this.transportType = transportType;
+        this.udsPath = udsPath;
+        this.processingShards = processingShards;
     }
 
     @Override
@@ -75,37 +117,55 @@ public class NettyTransportServer implements ClusterTokenServer {
             return;
         }
 
+        final ServerTransportSupport transport = ServerTransportSupport.resolve(transportType, udsPath);
+        final SocketAddress bindAddress;
+        try {
+            bindAddress = transport.bindAddress(port, udsPath);
+        } catch (IOException ex) {
+            RecordLog.warn("[NettyTransportServer] Token server start failed", ex);
+            currentState.compareAndSet(SERVER_STATUS_STARTING, SERVER_STATUS_OFF);
+            return;
+        }
         ServerBootstrap b = new ServerBootstrap();
-        this.bossGroup = new NioEventLoopGroup(1);
-        this.workerGroup = new NioEventLoopGroup(DEFAULT_EVENT_LOOP_THREADS);
+        this.bossGroup = transport.newEventLoopGroup(1);
+        this.workerGroup = transport.newEventLoopGroup(DEFAULT_EVENT_LOOP_THREADS);
+        final RequestShardExecutor shardExecutor = processingShards > 0
+            ? new RequestShardExecutor(processingShards) : null;
+        this.shardExecutor = shardExecutor;
         b.group(bossGroup, workerGroup)
-            .channel(NioServerSocketChannel.class)
+            .channel(transport.serverChannelClass())
             .option(ChannelOption.SO_BACKLOG, 128)
             .handler(new LoggingHandler(LogLevel.INFO))
-            .childHandler(new ChannelInitializer<SocketChannel>() {
+            .childHandler(new ChannelInitializer<Channel>() {
                 @Override
-                public void initChannel(SocketChannel ch) throws Exception {
+                public void initChannel(Channel ch) throws Exception {
                     ChannelPipeline p = ch.pipeline();
-                    p.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
+                    p.addLast(new LengthFieldBasedFrameDecoder(ClusterConstants.MAX_ENCODED_FRAME_LENGTH, 0, 2, 0, 2));
                     p.addLast(new NettyRequestDecoder());
                     p.addLast(new LengthFieldPrepender(2));
                     p.addLast(new NettyResponseEncoder());
-                    p.addLast(new TokenServerHandler(connectionPool));
+                    p.addLast(new TokenServerHandler(connectionPool, shardExecutor));
                 }
             })
             .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
             .childOption(ChannelOption.SO_SNDBUF, 32 * 1024)
             .childOption(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
-            .childOption(ChannelOption.SO_TIMEOUT, 10)
-            .childOption(ChannelOption.TCP_NODELAY, true)
             .childOption(ChannelOption.SO_RCVBUF, 32 * 1024);
-        b.bind(port).addListener(new GenericFutureListener<ChannelFuture>() {
+        if (!transport.isDomainSocket()) {
+            b.childOption(ChannelOption.TCP_NODELAY, true);
+        }
+        if (ClusterConstants.TRANSPORT_NIO.equals(transport.getTransportType())) {
+            b.childOption(ChannelOption.SO_TIMEOUT, 10);
+        }
+        final String address = transport.isDomainSocket() ? udsPath : "port " + port;
+        b.bind(bindAddress).addListener(new GenericFutureListener<ChannelFuture>() {
             @Override
             public void operationComplete(ChannelFuture future) {
                 if (future.cause() != null) {
-                    RecordLog.info("[NettyTransportServer] Token server start failed (port=" + port + "), failedTimes: " + failedTimes.get(),
+                    RecordLog.info("[NettyTransportServer] Token server start failed (" + address + "), failedTimes: " + failedTimes.get(),
                         future.cause());
                     currentState.compareAndSet(SERVER_STATUS_STARTING, SERVER_STATUS_OFF);
+                    shutdownShards();
                     int failCount = failedTimes.incrementAndGet();
                     if (failCount > MAX_RETRY_TIMES) {
                         return;
@@ -118,7 +178,8 @@ public class NettyTransportServer implements ClusterTokenServer {
                         RecordLog.info("[NettyTransportServer] Failed to start token server when retrying", e);
                     }
                 } else {
-                    RecordLog.info("[NettyTransportServer] Token server started success at port {}", port);
+                    RecordLog.info("[NettyTransportServer] Token server started success at {} ({} transport, "
+                        + "processing shards: {})", address, transport.getTransportType(), processingShards);
                     currentState.compareAndSet(SERVER_STATUS_STARTING, SERVER_STATUS_STARTED);
                 }
             }
@@ -140,6 +201,7 @@ public class NettyTransportServer implements ClusterTokenServer {
             try {
                 bossGroup.shutdownGracefully();
                 workerGroup.shutdownGracefully();
+                shutdownShards();
                 connectionPool.shutdownAll();
 
                 failedTimes.set(0);
@@ -151,6 +213,13 @@ public class NettyTransportServer implements ClusterTokenServer {
         }
     }
 
+    private void shutdownShards() {
+        if (shardExecutor != null) {
+            shardExecutor.shutdown();
+            shardExecutor = null;
+        }
+    }
+
     public void refreshRunningServer() {
         connectionPool.refreshIdleTask();
     }
@@ -40,6 +40,9 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
 
     private ClusterTokenServer server;
     private int port;
+    private String transportType;
+    private String udsPath;
+    private int processingShards;
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
     static {
@@ -67,7 +70,10 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
         }
         int port = ClusterServerConfigManager.getPort();
         if (port > 0) {
-            this.server = new NettyTransportServer(port);
+            this.transportType = ClusterServerConfigManager.getTransportType();
+            this.udsPath = ClusterServerConfigManager.getUdsPath();
+            this.processingShards = ClusterServerConfigManager.getProcessingShards();
+            this.server = new NettyTransportServer(port, transportType, udsPath, processingShards);
             this.port = port;
         }
     }
@@ -77,15 +83,22 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
             return;
         }
         int newPort = config.getPort();
-        if (newPort == port) {
+        String newTransportType = ClusterServerConfigManager.getTransportType();
+        String newUdsPath = ClusterServerConfigManager.getUdsPath();
+        int newProcessingShards = ClusterServerConfigManager.getProcessingShards();
+        if (newPort == port && StringUtil.equals(newTransportType, transportType)
+            && StringUtil.equals(newUdsPath, udsPath) && newProcessingShards == processingShards) {
             return;
         }
         try {
             if (server != null) {
                 stopServer();
             }
-            this.server = new NettyTransportServer(newPort);
+            this.server = new NettyTransportServer(newPort, newTransportType, newUdsPath, newProcessingShards);
             this.port = newPort;
+            this.transportType = newTransportType;
+            this.udsPath = newUdsPath;
+            this.processingShards = newProcessingShards;
             startServerIfScheduled();
         } catch (Exception ex) {
             RecordLog.warn("[SentinelDefaultTokenServer] Failed to apply modification to token server", ex);
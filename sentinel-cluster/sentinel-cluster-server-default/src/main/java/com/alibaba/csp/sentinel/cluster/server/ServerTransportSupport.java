@@ -0,0 +1,192 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.channel.unix.Socket;
+
+/**
+ * <p>
+ * Event loops and channels of the token server for the configured transport type. The native epoll
+ * transports require {@code netty-transport-native-epoll} (an optional dependency) on Linux, otherwise
+ * the server falls back to NIO over TCP.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+final class ServerTransportSupport {
+
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    private final String transportType;
+
+    private ServerTransportSupport(String transportType) {
+        this.transportType = transportType;
+    }
+
+    /**
+     * Resolve the transport that will actually be used for the given transport type.
+     *
+     * @param transportType configured transport type
+     * @param udsPath       path of the Unix domain socket
+     * @return the transport support, which is NIO if the native transport is unavailable
+     */
+    static ServerTransportSupport resolve(String transportType, String udsPath) {
+        if (transportType == null || ClusterConstants.TRANSPORT_NIO.equals(transportType)) {
+            return new ServerTransportSupport(ClusterConstants.TRANSPORT_NIO);
+        }
+        if (!ClusterConstants.isValidTransportType(transportType)) {
+            RecordLog.warn("[NettyTransportServer] Unknown transport type <{}>, falling back to NIO", transportType);
+            return new ServerTransportSupport(ClusterConstants.TRANSPORT_NIO);
+        }
+        if (ClusterConstants.TRANSPORT_EPOLL_UDS.equals(transportType) && (udsPath == null || udsPath.isEmpty())) {
+            RecordLog.warn("[NettyTransportServer] No path for the Unix domain socket, falling back to NIO");
+            return new ServerTransportSupport(ClusterConstants.TRANSPORT_NIO);
+        }
+        Throwable cause = epollUnavailabilityCause();
+        if (cause != null) {
+            RecordLog.warn("[NettyTransportServer] Native epoll transport is unavailable, falling back to NIO", cause);
+            return new ServerTransportSupport(ClusterConstants.TRANSPORT_NIO);
+        }
+        return new ServerTransportSupport(transportType);
+    }
+
+    /**
+     * @return null if the native epoll transport is available, or the cause why it is unavailable
+     */
+    static Throwable epollUnavailabilityCause() {
+        try {
+            return EpollTransport.unavailabilityCause();
+        } catch (Throwable ex) {
+            // The native transport is absent from the classpath.
+            return ex;
+        }
+    }
+
+    String getTransportType() {
+        return transportType;
+    }
+
+    boolean isDomainSocket() {
+        return ClusterConstants.TRANSPORT_EPOLL_UDS.equals(transportType);
+    }
+
+    EventLoopGroup newEventLoopGroup(int threads) {
+        if (ClusterConstants.TRANSPORT_NIO.equals(transportType)) {
+            return new NioEventLoopGroup(threads);
+        }
+        return EpollTransport.newEventLoopGroup(threads);
+    }
+
+    Class<? extends ServerChannel> serverChannelClass() {
+        if (ClusterConstants.TRANSPORT_NIO.equals(transportType)) {
+            return NioServerSocketChannel.class;
+        }
+        return EpollTransport.serverChannelClass(isDomainSocket());
+    }
+
+    /**
+     * Get the local address to bind. A stale socket file left by a previous process is removed,
+     * as binding to an existing path fails.
+     *
+     * @throws IOException if the path of the Unix domain socket is taken by a file other than a stale socket
+     */
+    SocketAddress bindAddress(int port, String udsPath) throws IOException {
+        if (isDomainSocket()) {
+            removeStaleSocketFile(udsPath);
+            return EpollTransport.domainSocketAddress(udsPath);
+        }
+        return new InetSocketAddress(port);
+    }
+
+    /**
+     * Remove the file at the path only if it is a socket nobody listens on.
+     */
+    private static void removeStaleSocketFile(String udsPath) throws IOException {
+        Path path = Paths.get(udsPath);
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        int mode = (Integer)Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+        if ((mode & S_IFMT) != S_IFSOCK) {
+            throw new IOException("Path of the Unix domain socket is taken by a file which is not a socket: "
+                + udsPath);
+        }
+        if (!EpollTransport.isConnectionRefused(udsPath)) {
+            throw new IOException("Unix domain socket is still in use: " + udsPath);
+        }
+        Files.deleteIfExists(path);
+        RecordLog.info("[NettyTransportServer] Removed stale Unix domain socket: {}", udsPath);
+    }
+
+    /**
+     * Classes of the native transport are only referenced here, so that the enclosing class
+     * can be loaded without the native transport on the classpath.
+     */
+    private static final class EpollTransport {
+
+        static Throwable unavailabilityCause() {
+            return Epoll.isAvailable() ? null : Epoll.unavailabilityCause();
+        }
+
+        static EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        static Class<? extends ServerChannel> serverChannelClass(boolean domainSocket) {
+            return domainSocket ? EpollServerDomainSocketChannel.class : EpollServerSocketChannel.class;
+        }
+
+        static SocketAddress domainSocketAddress(String path) {
+            return new DomainSocketAddress(path);
+        }
+
+        static boolean isConnectionRefused(String path) throws IOException {
+            Socket socket = Socket.newSocketDomain();
+            try {
+                socket.connect(new DomainSocketAddress(path));
+                return false;
+            } catch (ConnectException ex) {
+                // Other failures such as a full backlog mean that a server is still listening.
+                String message = ex.getMessage();
+                return message != null && message.contains("refused");
+            } finally {
+                socket.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.server.codec.ServerEntityCodecProvider;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>
+ * Decoder for batch requests from {@code ByteBuf} stream. Every item is a complete request entity
+ * prefixed by its length. The layout:
+ * </p>
+ * <pre>
+ * | count (2) | length (2) | xid (4) | type (1) | data... | ... |
+ * </pre>
+ *
+ * @since 1.8.8
+ */
+public class BatchRequestDataDecoder implements EntityDecoder<ByteBuf, List<ClusterRequest>> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ClusterRequest> decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        RequestEntityDecoder<ByteBuf, ClusterRequest> itemDecoder = ServerEntityCodecProvider.getRequestEntityDecoder();
+        int count = source.readUnsignedShort();
+        List<ClusterRequest> items = new ArrayList<>(count);
+        for (int i = 0; i < count && source.readableBytes() >= 2; i++) {
+            int length = source.readUnsignedShort();
+            ClusterRequest item = itemDecoder.decode(source.readSlice(length));
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityWriter;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.ServerEntityCodecProvider;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>
+ * Writer for batch responses. Every item is a complete response entity prefixed by its length,
+ * while items without data (e.g. bad requests) only have the head part. The layout:
+ * </p>
+ * <pre>
+ * | count (2) | length (2) | xid (4) | type (1) | status (1) | data... | ... |
+ * </pre>
+ *
+ * @since 1.8.8
+ */
+public class BatchResponseDataWriter implements EntityWriter<List<ClusterResponse>, ByteBuf> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeTo(List<ClusterResponse> entity, ByteBuf out) {
+        ResponseEntityWriter<ClusterResponse, ByteBuf> itemWriter = ServerEntityCodecProvider.getResponseEntityWriter();
+        out.writeShort(entity.size());
+        for (ClusterResponse item : entity) {
+            int lengthIndex = out.writerIndex();
+            out.writeShort(0);
+            if (item.getData() == null) {
+                out.writeInt(item.getId());
+                out.writeByte(item.getType());
+                out.writeByte(item.getStatus());
+            } else {
+                itemWriter.writeTo(item, out);
+            }
+            out.setShort(lengthIndex, out.writerIndex() - lengthIndex - 2);
+        }
+    }
+}
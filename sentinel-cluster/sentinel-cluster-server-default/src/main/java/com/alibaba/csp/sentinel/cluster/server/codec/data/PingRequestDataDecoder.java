@@ -16,20 +16,35 @@
 package com.alibaba.csp.sentinel.cluster.server.codec.data;
 
 import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
 
 import io.netty.buffer.ByteBuf;
 
 /**
+ * Decoder for ping request data. The client ID and the protocol version are absent for clients before 1.8.8.
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
-public class PingRequestDataDecoder implements EntityDecoder<ByteBuf, String> {
+public class PingRequestDataDecoder implements EntityDecoder<ByteBuf, PingRequestData> {
 
     @Override
-    public String decode(ByteBuf source) {
+    public PingRequestData decode(ByteBuf source) {
+        String namespace = readString(source);
+        if (namespace == null) {
+            return null;
+        }
+        PingRequestData data = new PingRequestData().setNamespace(namespace).setClientId(readString(source));
+        if (source.isReadable()) {
+            data.setProtocolVersion(source.readUnsignedByte());
+        }
+        return data;
+    }
+
+    private String readString(ByteBuf source) {
         if (source.readableBytes() >= 4) {
             int length = source.readInt();
-            if (length > 0 && source.readableBytes() > 0) {
+            if (length > 0 && source.readableBytes() >= length) {
                 byte[] bytes = new byte[length];
                 source.readBytes(bytes);
                 return new String(bytes);
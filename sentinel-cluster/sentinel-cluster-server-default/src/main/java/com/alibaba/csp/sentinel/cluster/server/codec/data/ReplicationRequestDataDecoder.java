@@ -0,0 +1,99 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.server.replication.ReplicationData;
+import com.alibaba.csp.sentinel.cluster.server.replication.WindowDelta;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Decoder for {@link ReplicationData} from {@code ByteBuf} stream. See {@link ReplicationRequestDataWriter}
+ * for the layout.
+ *
+ * @since 1.8.8
+ */
+public class ReplicationRequestDataDecoder implements EntityDecoder<ByteBuf, ReplicationData> {
+
+    @Override
+    public ReplicationData decode(ByteBuf source) {
+        if (source.readableBytes() < ReplicationRequestDataWriter.HEAD_LENGTH) {
+            return null;
+        }
+        ReplicationData data = new ReplicationData().setSequence(source.readLong());
+        data.setReset((source.readUnsignedByte() & ReplicationRequestDataWriter.FLAG_RESET) != 0);
+
+        int windowCount = source.readUnsignedShort();
+        List<WindowDelta> deltas = new ArrayList<>(windowCount);
+        for (int i = 0; i < windowCount; i++) {
+            deltas.add(readWindowDelta(source));
+        }
+        data.setWindowDeltas(deltas);
+
+        int grantedCount = source.readUnsignedShort();
+        List<TokenCacheNode> grantedTokens = new ArrayList<>(grantedCount);
+        // Deadlines are absolute, while the setters of token node take relative timeout.
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < grantedCount; i++) {
+            grantedTokens.add(readGrantedToken(source, now));
+        }
+        data.setGrantedTokens(grantedTokens);
+
+        int releasedCount = source.readUnsignedShort();
+        List<Long> releasedTokens = new ArrayList<>(releasedCount);
+        for (int i = 0; i < releasedCount; i++) {
+            releasedTokens.add(source.readLong());
+        }
+        data.setReleasedTokens(releasedTokens);
+        return data;
+    }
+
+    private WindowDelta readWindowDelta(ByteBuf source) {
+        WindowDelta delta = new WindowDelta()
+            .setFlowId(source.readLong())
+            .setWindowStart(source.readLong());
+        int mask = source.readUnsignedByte();
+        for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
+            if ((mask & (1 << event.ordinal())) != 0) {
+                delta.setCount(event, source.readInt());
+            }
+        }
+        return delta;
+    }
+
+    private TokenCacheNode readGrantedToken(ByteBuf source, long now) {
+        TokenCacheNode node = new TokenCacheNode();
+        node.setTokenId(source.readLong());
+        node.setFlowId(source.readLong());
+        node.setAcquireCount(source.readInt());
+        node.setClientTimeout(source.readLong() - now);
+        node.setResourceTimeout(source.readLong() - now);
+        int addressLength = source.readUnsignedShort();
+        if (addressLength > 0) {
+            byte[] address = new byte[addressLength];
+            source.readBytes(address);
+            node.setClientAddress(new String(address, StandardCharsets.UTF_8));
+        }
+        return node;
+    }
+}
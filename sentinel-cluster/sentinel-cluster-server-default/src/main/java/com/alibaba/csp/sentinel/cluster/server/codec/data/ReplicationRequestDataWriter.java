@@ -0,0 +1,117 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.nio.charset.StandardCharsets;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.server.replication.ReplicationData;
+import com.alibaba.csp.sentinel.cluster.server.replication.WindowDelta;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>
+ * Writer for {@link ReplicationData}, which is sent from the primary token server to the standby.
+ * Only the events with non-zero delta are written for a bucket, marked by the bits of the event mask.
+ * Deadlines of the tokens are absolute timestamps. The reset flag marks the first frame of a full replication.
+ * The layout:
+ * </p>
+ * <pre>
+ * | sequence (8) | flags (1) | window count (2) | flow ID (8) | window start (8) | event mask (1) | delta (4)... | ... |
+ * | granted count (2) | token ID (8) | flow ID (8) | acquire count (4) | client deadline (8) |
+ * resource deadline (8) | address length (2) | address... | ... | released count (2) | token ID (8)... |
+ * </pre>
+ *
+ * @since 1.8.8
+ */
+public class ReplicationRequestDataWriter implements EntityWriter<ReplicationData, ByteBuf> {
+
+    /**
+     * sequence (8) + flags (1) + window count (2) + granted count (2) + released count (2)
+     */
+    public static final int HEAD_LENGTH = 15;
+    public static final int FLAG_RESET = 1;
+    public static final int MAX_WINDOW_DELTA_LENGTH = 17 + 4 * ClusterFlowEvent.values().length;
+    public static final int RELEASED_TOKEN_LENGTH = 8;
+    private static final int GRANTED_TOKEN_HEAD_LENGTH = 38;
+
+    @Override
+    public void writeTo(ReplicationData entity, ByteBuf target) {
+        if (entity == null || target == null) {
+            return;
+        }
+        target.writeLong(entity.getSequence());
+        target.writeByte(entity.isReset() ? FLAG_RESET : 0);
+
+        target.writeShort(entity.getWindowDeltas().size());
+        for (WindowDelta delta : entity.getWindowDeltas()) {
+            writeWindowDelta(delta, target);
+        }
+
+        target.writeShort(entity.getGrantedTokens().size());
+        for (TokenCacheNode node : entity.getGrantedTokens()) {
+            writeGrantedToken(node, target);
+        }
+
+        target.writeShort(entity.getReleasedTokens().size());
+        for (Long tokenId : entity.getReleasedTokens()) {
+            target.writeLong(tokenId);
+        }
+    }
+
+    private void writeWindowDelta(WindowDelta delta, ByteBuf target) {
+        target.writeLong(delta.getFlowId());
+        target.writeLong(delta.getWindowStart());
+        int maskIndex = target.writerIndex();
+        target.writeByte(0);
+        int mask = 0;
+        for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
+            long count = delta.getCount(event);
+            if (count != 0) {
+                mask |= 1 << event.ordinal();
+                target.writeInt((int)count);
+            }
+        }
+        target.setByte(maskIndex, mask);
+    }
+
+    private void writeGrantedToken(TokenCacheNode node, ByteBuf target) {
+        target.writeLong(node.getTokenId());
+        target.writeLong(node.getFlowId());
+        target.writeInt(node.getAcquireCount());
+        target.writeLong(node.getClientTimeout());
+        target.writeLong(node.getResourceTimeout());
+        if (node.getClientAddress() == null) {
+            target.writeShort(0);
+        } else {
+            byte[] address = node.getClientAddress().getBytes(StandardCharsets.UTF_8);
+            target.writeShort(address.length);
+            target.writeBytes(address);
+        }
+    }
+
+    /**
+     * @param node the granted token
+     * @return length of the token in the frame
+     */
+    public static int grantedTokenLength(TokenCacheNode node) {
+        String address = node.getClientAddress();
+        return GRANTED_TOKEN_HEAD_LENGTH + (address == null ? 0 : address.getBytes(StandardCharsets.UTF_8).length);
+    }
+}
@@ -17,9 +17,11 @@ package com.alibaba.csp.sentinel.cluster.server.codec.netty;
 
 import java.util.List;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityDecoder;
 import com.alibaba.csp.sentinel.cluster.request.Request;
 import com.alibaba.csp.sentinel.cluster.server.codec.ServerEntityCodecProvider;
+import com.alibaba.csp.sentinel.cluster.server.codec.v2.CompactRequestEntityDecoder;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.buffer.ByteBuf;
@@ -27,13 +29,28 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 
 /**
+ * Decoder of request frames. Once protocol v2 has been negotiated on the channel, frames may be in protocol v1
+ * (sent before the client learns about protocol v2) or v2, which are told by the first byte of the frame.
+ * The decoder holds the parameter dictionary of its channel, so it should not be shared among channels.
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyRequestDecoder extends ByteToMessageDecoder {
 
+    private final CompactRequestEntityDecoder compactDecoder = new CompactRequestEntityDecoder();
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (isProtocolV2Frame(ctx, in)) {
+            Request request = compactDecoder.decode(in);
+            // Drop the rest of a malformed frame.
+            in.skipBytes(in.readableBytes());
+            if (request != null) {
+                out.add(request);
+            }
+            return;
+        }
         RequestEntityDecoder<ByteBuf, Request> requestDecoder = ServerEntityCodecProvider.getRequestEntityDecoder();
         if (requestDecoder == null) {
             RecordLog.warn("[NettyRequestDecoder] Cannot resolve the global request entity decoder, "
@@ -47,4 +64,10 @@ public class NettyRequestDecoder extends ByteToMessageDecoder {
             out.add(request);
         }
     }
+
+    private boolean isProtocolV2Frame(ChannelHandlerContext ctx, ByteBuf in) {
+        Integer version = ctx.channel().attr(NettyResponseEncoder.PROTOCOL_VERSION).get();
+        return version != null && version == ClusterConstants.PROTOCOL_VERSION_2 && in.isReadable()
+            && in.getUnsignedByte(in.readerIndex()) == ClusterConstants.PROTOCOL_V2_MAGIC;
+    }
 }
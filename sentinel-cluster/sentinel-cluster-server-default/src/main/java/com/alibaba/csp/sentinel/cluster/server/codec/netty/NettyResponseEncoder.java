@@ -22,20 +22,40 @@ import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.Response;
 import com.alibaba.csp.sentinel.cluster.server.codec.ServerEntityCodecProvider;
 import com.alibaba.csp.sentinel.cluster.server.codec.registry.ResponseDataWriterRegistry;
+import com.alibaba.csp.sentinel.cluster.server.codec.v2.CompactResponseEntityWriter;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.AttributeKey;
 
 /**
+ * Encoder of response frames. Responses are written in protocol v2 once the client has offered protocol v2
+ * in its ping (see {@link #PROTOCOL_VERSION}), otherwise in protocol v1.
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyResponseEncoder extends MessageToByteEncoder<ClusterResponse> {
 
+    /**
+     * Wire protocol version negotiated on the channel, absent for protocol v1.
+     *
+     * @since 1.8.8
+     */
+    public static final AttributeKey<Integer> PROTOCOL_VERSION = AttributeKey.valueOf(
+        "sentinel.cluster.server.protocolVersion");
+
+    private final CompactResponseEntityWriter compactWriter = new CompactResponseEntityWriter();
+
     @Override
     protected void encode(ChannelHandlerContext ctx, ClusterResponse response, ByteBuf out) throws Exception {
+        Integer version = ctx.channel().attr(PROTOCOL_VERSION).get();
+        if (version != null && version == ClusterConstants.PROTOCOL_VERSION_2) {
+            compactWriter.writeTo(response, out);
+            return;
+        }
         ResponseEntityWriter<ClusterResponse, ByteBuf> responseEntityWriter = ServerEntityCodecProvider.getResponseEntityWriter();
         if (responseEntityWriter == null) {
             RecordLog.warn("[NettyResponseEncoder] Cannot resolve the global response entity writer, reply bad status");
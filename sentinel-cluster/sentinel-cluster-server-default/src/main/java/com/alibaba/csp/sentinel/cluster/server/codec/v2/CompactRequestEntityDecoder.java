@@ -0,0 +1,179 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.v2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.RequestDataDecodeRegistry;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>
+ * Decoder of request frames in protocol v2 (see {@code CompactRequestEntityWriter} of the client for the layout).
+ * Request types other than flow, flow lease, param flow and batch keep the data layout of protocol v1.
+ * </p>
+ * <p>
+ * The decoder holds the parameter dictionary of one connection, so it should not be shared among connections.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public class CompactRequestEntityDecoder implements RequestEntityDecoder<ByteBuf, ClusterRequest> {
+
+    private final String[] dictionary = new String[ClusterConstants.PARAM_DICTIONARY_CAPACITY];
+
+    @Override
+    public ClusterRequest decode(ByteBuf source) {
+        if (!source.isReadable() || source.readUnsignedByte() != ClusterConstants.PROTOCOL_V2_MAGIC) {
+            return null;
+        }
+        try {
+            return decodeItem(source);
+        } catch (RuntimeException ex) {
+            RecordLog.warn("[CompactRequestEntityDecoder] Failed to decode the request frame", ex);
+            return null;
+        }
+    }
+
+    private ClusterRequest decodeItem(ByteBuf source) {
+        int xid = VarInts.readVarInt(source);
+        int type = source.readByte();
+        if (!source.isReadable()) {
+            return new ClusterRequest<>(xid, type, null);
+        }
+        Object data;
+        switch (type) {
+            case ClusterConstants.MSG_TYPE_FLOW:
+                data = new FlowRequestData()
+                    .setFlowId(VarInts.readSignedVarLong(source))
+                    .setCount(VarInts.readVarInt(source))
+                    .setPriority(source.readBoolean());
+                break;
+            case ClusterConstants.MSG_TYPE_FLOW_LEASE:
+                data = new FlowLeaseRequestData()
+                    .setFlowId(VarInts.readSignedVarLong(source))
+                    .setCount(VarInts.readVarInt(source))
+                    .setLeaseMs(VarInts.readVarInt(source));
+                break;
+            case ClusterConstants.MSG_TYPE_PARAM_FLOW:
+                data = decodeParamFlow(source);
+                break;
+            case ClusterConstants.MSG_TYPE_BATCH:
+                data = decodeBatch(source);
+                break;
+            default:
+                EntityDecoder<ByteBuf, ?> decoder = RequestDataDecodeRegistry.getDecoder(type);
+                if (decoder == null) {
+                    RecordLog.warn("Unknown type of request data decoder: {}", type);
+                    return null;
+                }
+                data = decoder.decode(source);
+        }
+        return new ClusterRequest<>(xid, type, data);
+    }
+
+    private ParamFlowRequestData decodeParamFlow(ByteBuf source) {
+        ParamFlowRequestData requestData = new ParamFlowRequestData()
+            .setFlowId(VarInts.readSignedVarLong(source))
+            .setCount(VarInts.readVarInt(source));
+        int amount = VarInts.readVarInt(source);
+        if (amount <= 0) {
+            return null;
+        }
+        List<Object> params = new ArrayList<>(Math.min(amount, source.readableBytes()));
+        for (int i = 0; i < amount; i++) {
+            params.add(decodeParam(source));
+        }
+        return requestData.setParams(params);
+    }
+
+    private Object decodeParam(ByteBuf source) {
+        int paramType = source.readByte();
+        switch (paramType) {
+            case ClusterConstants.PARAM_TYPE_INTEGER:
+                return VarInts.readSignedVarInt(source);
+            case ClusterConstants.PARAM_TYPE_STRING:
+                return readString(source);
+            case ClusterConstants.PARAM_TYPE_STRING_DEFINE:
+                int id = readDictionaryId(source);
+                String value = readString(source);
+                dictionary[id] = value;
+                return value;
+            case ClusterConstants.PARAM_TYPE_STRING_REF:
+                String defined = dictionary[readDictionaryId(source)];
+                if (defined == null) {
+                    throw new IllegalStateException("Undefined string in parameter dictionary");
+                }
+                return defined;
+            case ClusterConstants.PARAM_TYPE_BOOLEAN:
+                return source.readBoolean();
+            case ClusterConstants.PARAM_TYPE_DOUBLE:
+                return source.readDouble();
+            case ClusterConstants.PARAM_TYPE_LONG:
+                return VarInts.readSignedVarLong(source);
+            case ClusterConstants.PARAM_TYPE_FLOAT:
+                return source.readFloat();
+            case ClusterConstants.PARAM_TYPE_BYTE:
+                return source.readByte();
+            case ClusterConstants.PARAM_TYPE_SHORT:
+                return (short)VarInts.readSignedVarInt(source);
+            default:
+                throw new IllegalArgumentException("Unknown parameter type: " + paramType);
+        }
+    }
+
+    private int readDictionaryId(ByteBuf source) {
+        int id = VarInts.readVarInt(source);
+        if (id < 0 || id >= dictionary.length) {
+            throw new IllegalArgumentException("Invalid parameter dictionary ID: " + id);
+        }
+        return id;
+    }
+
+    private String readString(ByteBuf source) {
+        int length = VarInts.readVarInt(source);
+        if (length < 0 || length > source.readableBytes()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+        String value = source.toString(source.readerIndex(), length, StandardCharsets.UTF_8);
+        source.skipBytes(length);
+        return value;
+    }
+
+    private List<ClusterRequest> decodeBatch(ByteBuf source) {
+        int count = VarInts.readVarInt(source);
+        List<ClusterRequest> items = new ArrayList<>(Math.min(count, source.readableBytes() / 2));
+        for (int i = 0; i < count && source.readableBytes() >= 2; i++) {
+            int length = source.readUnsignedShort();
+            ClusterRequest item = decodeItem(source.readSlice(length));
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.v2;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityWriter;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.ResponseDataWriterRegistry;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer of response frames in protocol v2 (see {@code CompactResponseEntityDecoder} of the client
+ * for the layout). Response types other than token responses and batch keep the data layout of protocol v1.</p>
+ *
+ * @since 1.8.8
+ */
+public class CompactResponseEntityWriter implements ResponseEntityWriter<ClusterResponse, ByteBuf> {
+
+    @Override
+    public void writeTo(ClusterResponse response, ByteBuf out) {
+        out.writeByte(ClusterConstants.PROTOCOL_V2_MAGIC);
+        writeItem(response, out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeItem(ClusterResponse response, ByteBuf out) {
+        int type = response.getType();
+        Object data = response.getData();
+        if (data == null) {
+            writeHead(response, out);
+            return;
+        }
+        switch (type) {
+            case ClusterConstants.MSG_TYPE_FLOW:
+            case ClusterConstants.MSG_TYPE_PARAM_FLOW:
+            case ClusterConstants.MSG_TYPE_FLOW_LEASE:
+                writeHead(response, out);
+                FlowTokenResponseData tokenData = (FlowTokenResponseData)data;
+                VarInts.writeSignedVarInt(out, tokenData.getRemainingCount());
+                VarInts.writeSignedVarInt(out, tokenData.getWaitInMs());
+                break;
+            case ClusterConstants.MSG_TYPE_BATCH:
+                writeHead(response, out);
+                writeBatch((List<ClusterResponse>)data, out);
+                break;
+            default:
+                EntityWriter<Object, ByteBuf> writer = ResponseDataWriterRegistry.getWriter(type);
+                if (writer == null) {
+                    writeHead(response.setStatus(ClusterConstants.RESPONSE_STATUS_BAD), out);
+                    RecordLog.warn("[CompactResponseEntityWriter] Cannot find matching writer for type <{}>", type);
+                    return;
+                }
+                writeHead(response, out);
+                writer.writeTo(data, out);
+        }
+    }
+
+    private void writeHead(ClusterResponse response, ByteBuf out) {
+        VarInts.writeVarInt(out, response.getId());
+        out.writeByte(response.getType());
+        out.writeByte(response.getStatus());
+    }
+
+    private void writeBatch(List<ClusterResponse> items, ByteBuf out) {
+        VarInts.writeVarInt(out, items.size());
+        for (ClusterResponse item : items) {
+            int lengthIndex = out.writerIndex();
+            out.writeShort(0);
+            writeItem(item, out);
+            out.setShort(lengthIndex, out.writerIndex() - lengthIndex - 2);
+        }
+    }
+}
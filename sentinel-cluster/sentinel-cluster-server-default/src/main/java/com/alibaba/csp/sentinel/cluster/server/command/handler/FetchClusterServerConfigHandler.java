@@ -45,6 +45,7 @@ public class FetchClusterServerConfigHandler implements CommandHandler<String> {
         ServerFlowConfig flowConfig = new ServerFlowConfig()
             .setExceedCount(ClusterServerConfigManager.getExceedCount(namespace))
             .setMaxOccupyRatio(ClusterServerConfigManager.getMaxOccupyRatio(namespace))
+            .setMaxLeaseRatio(ClusterServerConfigManager.getMaxLeaseRatio(namespace))
             .setIntervalMs(ClusterServerConfigManager.getIntervalMs(namespace))
             .setSampleCount(ClusterServerConfigManager.getSampleCount(namespace));
         JSONObject config = new JSONObject()
@@ -59,6 +60,7 @@ public class FetchClusterServerConfigHandler implements CommandHandler<String> {
         ServerFlowConfig flowConfig = new ServerFlowConfig()
             .setExceedCount(ClusterServerConfigManager.getExceedCount())
             .setMaxOccupyRatio(ClusterServerConfigManager.getMaxOccupyRatio())
+            .setMaxLeaseRatio(ClusterServerConfigManager.getMaxLeaseRatio())
             .setIntervalMs(ClusterServerConfigManager.getIntervalMs())
             .setSampleCount(ClusterServerConfigManager.getSampleCount());
         JSONObject config = new JSONObject()
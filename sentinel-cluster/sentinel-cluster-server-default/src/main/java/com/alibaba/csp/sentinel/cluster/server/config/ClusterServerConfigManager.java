@@ -37,6 +37,7 @@ import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleUtil;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
  * @author Eric Zhao
@@ -51,6 +52,9 @@ public final class ClusterServerConfigManager {
      */
     private static volatile int port = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
     private static volatile int idleSeconds = ServerTransportConfig.DEFAULT_IDLE_SECONDS;
+    private static volatile String transportType = ClusterConstants.TRANSPORT_NIO;
+    private static volatile String udsPath = null;
+    private static volatile int processingShards = 0;
     private static volatile Set<String> namespaceSet = Collections.singleton(ServerConstants.DEFAULT_NAMESPACE);
 
     /**
@@ -58,6 +62,7 @@ public final class ClusterServerConfigManager {
      */
     private static volatile double exceedCount = ServerFlowConfig.DEFAULT_EXCEED_COUNT;
     private static volatile double maxOccupyRatio = ServerFlowConfig.DEFAULT_MAX_OCCUPY_RATIO;
+    private static volatile double maxLeaseRatio = ServerFlowConfig.DEFAULT_MAX_LEASE_RATIO;
     private static volatile int intervalMs = ServerFlowConfig.DEFAULT_INTERVAL_MS;
     private static volatile int sampleCount = ServerFlowConfig.DEFAULT_SAMPLE_COUNT;
     private static volatile double maxAllowedQps = ServerFlowConfig.DEFAULT_MAX_ALLOWED_QPS;
@@ -290,10 +295,15 @@ public final class ClusterServerConfigManager {
     private static void updateTokenServer(ServerTransportConfig config) {
         int newPort = config.getPort();
         AssertUtil.isTrue(newPort > 0, "token server port should be valid (positive)");
-        if (newPort == port) {
+        String newTransportType = getTransportType(config);
+        if (newPort == port && newTransportType.equals(transportType)
+            && StringUtil.equals(config.getUdsPath(), udsPath) && config.getProcessingShards() == processingShards) {
             return;
         }
         ClusterServerConfigManager.port = newPort;
+        ClusterServerConfigManager.transportType = newTransportType;
+        ClusterServerConfigManager.udsPath = config.getUdsPath();
+        ClusterServerConfigManager.processingShards = config.getProcessingShards();
 
         for (ServerTransportConfigObserver observer : TRANSPORT_CONFIG_OBSERVERS) {
             observer.onTransportConfigChange(config);
@@ -325,6 +335,9 @@ public final class ClusterServerConfigManager {
             if (config.getMaxOccupyRatio() != maxOccupyRatio) {
                 maxOccupyRatio = config.getMaxOccupyRatio();
             }
+            if (config.getMaxLeaseRatio() != maxLeaseRatio) {
+                maxLeaseRatio = config.getMaxLeaseRatio();
+            }
             if (config.getMaxAllowedQps() != maxAllowedQps) {
                 maxAllowedQps = config.getMaxAllowedQps();
                 GlobalRequestLimiter.applyMaxQpsChange(maxAllowedQps);
@@ -346,12 +359,22 @@ public final class ClusterServerConfigManager {
     }
 
     public static boolean isValidTransportConfig(ServerTransportConfig config) {
-        return config != null && config.getPort() > 0 && config.getPort() <= 65535;
+        if (config == null || config.getPort() <= 0 || config.getPort() > 65535 || config.getProcessingShards() < 0) {
+            return false;
+        }
+        String transportType = getTransportType(config);
+        return ClusterConstants.isValidTransportType(transportType)
+            && (!ClusterConstants.TRANSPORT_EPOLL_UDS.equals(transportType) || StringUtil.isNotBlank(config.getUdsPath()));
+    }
+
+    private static String getTransportType(ServerTransportConfig config) {
+        return config.getTransportType() == null ? ClusterConstants.TRANSPORT_NIO : config.getTransportType();
     }
 
     public static boolean isValidFlowConfig(ServerFlowConfig config) {
         return config != null && config.getMaxOccupyRatio() >= 0 && config.getExceedCount() >= 0
             && config.getMaxAllowedQps() >= 0
+            && config.getMaxLeaseRatio() >= 0 && config.getMaxLeaseRatio() <= 1
             && FlowRuleUtil.isWindowConfigValid(config.getSampleCount(), config.getIntervalMs());
     }
 
@@ -373,6 +396,15 @@ public final class ClusterServerConfigManager {
         return maxOccupyRatio;
     }
 
+    public static double getMaxLeaseRatio(String namespace) {
+        AssertUtil.notEmpty(namespace, "namespace cannot be empty");
+        ServerFlowConfig config = NAMESPACE_CONF.get(namespace);
+        if (config != null) {
+            return config.getMaxLeaseRatio();
+        }
+        return maxLeaseRatio;
+    }
+
     public static int getIntervalMs(String namespace) {
         AssertUtil.notEmpty(namespace, "namespace cannot be empty");
         ServerFlowConfig config = NAMESPACE_CONF.get(namespace);
@@ -418,6 +450,10 @@ public final class ClusterServerConfigManager {
         return maxOccupyRatio;
     }
 
+    public static double getMaxLeaseRatio() {
+        return maxLeaseRatio;
+    }
+
     public static Set<String> getNamespaceSet() {
         return namespaceSet;
     }
@@ -430,6 +466,30 @@ public final class ClusterServerConfigManager {
         return idleSeconds;
     }
 
+    /**
+     * @return transport type of the token server
+     * @since 1.8.8
+     */
+    public static String getTransportType() {
+        return transportType;
+    }
+
+    /**
+     * @return path of the Unix domain socket if the token server runs on the UDS transport
+     * @since 1.8.8
+     */
+    public static String getUdsPath() {
+        return udsPath;
+    }
+
+    /**
+     * @return count of processing shards of token requests; 0 if requests are processed on I/O workers
+     * @since 1.8.8
+     */
+    public static int getProcessingShards() {
+        return processingShards;
+    }
+
     public static int getIntervalMs() {
         return intervalMs;
     }
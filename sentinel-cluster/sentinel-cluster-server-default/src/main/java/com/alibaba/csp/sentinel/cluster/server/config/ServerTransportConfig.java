@@ -27,6 +27,29 @@ public class ServerTransportConfig {
 
     private int port;
     private int idleSeconds;
+    /**
+     * Transport type of the token server, NIO by default.
+     *
+     * @see ClusterConstants#TRANSPORT_NIO
+     * @see ClusterConstants#TRANSPORT_EPOLL
+     * @see ClusterConstants#TRANSPORT_EPOLL_UDS
+     * @since 1.8.8
+     */
+    private String transportType = ClusterConstants.TRANSPORT_NIO;
+    /**
+     * Path of the Unix domain socket, required by the {@link ClusterConstants#TRANSPORT_EPOLL_UDS} transport.
+     *
+     * @since 1.8.8
+     */
+    private String udsPath;
+    /**
+     * Count of processing shards of token requests. Requests of the same flow are processed by the same shard,
+     * so that statistics of every flow are only updated by one thread. 0 (by default) disables sharding,
+     * where requests are processed on the I/O worker of the connection.
+     *
+     * @since 1.8.8
+     */
+    private int processingShards = 0;
 
     public ServerTransportConfig() {
         this(ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT, DEFAULT_IDLE_SECONDS);
@@ -55,11 +78,41 @@ public class ServerTransportConfig {
         return this;
     }
 
+    public String getTransportType() {
+        return transportType;
+    }
+
+    public ServerTransportConfig setTransportType(String transportType) {
+        this.transportType = transportType;
+        return this;
+    }
+
+    public String getUdsPath() {
+        return udsPath;
+    }
+
+    public ServerTransportConfig setUdsPath(String udsPath) {
+        this.udsPath = udsPath;
+        return this;
+    }
+
+    public int getProcessingShards() {
+        return processingShards;
+    }
+
+    public ServerTransportConfig setProcessingShards(int processingShards) {
+        this.processingShards = processingShards;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ServerTransportConfig{" +
             "port=" + port +
             ", idleSeconds=" + idleSeconds +
+            ", transportType='" + transportType + '\'' +
+            ", udsPath='" + udsPath + '\'' +
+            ", processingShards=" + processingShards +
             '}';
     }
 }
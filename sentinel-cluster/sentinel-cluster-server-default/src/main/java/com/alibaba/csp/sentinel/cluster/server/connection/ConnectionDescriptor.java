@@ -25,6 +25,7 @@ public class ConnectionDescriptor {
 
     private String address;
     private String host;
+    private String clientId;
 
     public String getAddress() {
         return address;
@@ -44,6 +45,15 @@ public class ConnectionDescriptor {
         return this;
     }
 
+    public String getClientId() {
+        return clientId;
+    }
+
+    public ConnectionDescriptor setClientId(String clientId) {
+        this.clientId = clientId;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -64,6 +74,7 @@ public class ConnectionDescriptor {
         return "ConnectionDescriptor{" +
             "address='" + address + '\'' +
             ", host='" + host + '\'' +
+            ", clientId='" + clientId + '\'' +
             '}';
     }
 }
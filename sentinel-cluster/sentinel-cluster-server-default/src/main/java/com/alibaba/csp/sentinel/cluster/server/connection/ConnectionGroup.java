@@ -17,13 +17,15 @@ package com.alibaba.csp.sentinel.cluster.server.connection;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
  * The connection group stores connection set for a specific namespace.
@@ -35,8 +37,16 @@ public class ConnectionGroup {
 
     private final String namespace;
 
-    private final Set<ConnectionDescriptor> connectionSet = new CopyOnWriteArraySet<>();
+    /**
+     * Descriptor of each connection (address, descriptor), which is updated within one {@code compute} on the
+     * address together with the connections of the client.
+     */
+    private final Map<String, ConnectionDescriptor> connections = new ConcurrentHashMap<>();
     private final AtomicInteger connectedCount = new AtomicInteger();
+    /**
+     * Connections of each client (client ID, set of address).
+     */
+    private final Map<String, Set<String>> clientConnections = new ConcurrentHashMap<>();
 
     public ConnectionGroup(String namespace) {
         AssertUtil.notEmpty(namespace, "namespace cannot be empty");
@@ -48,6 +58,19 @@ public class ConnectionGroup {
     }
 
     public ConnectionGroup addConnection(String address) {
+        return addConnection(address, null);
+    }
+
+    /**
+     * Add a connection of the client. The connected count is the count of distinct clients,
+     * as a client may hold multiple connections to the token server.
+     *
+     * @param address  remote address of the connection
+     * @param clientId identity of the client; the address is used if absent
+     * @return this group
+     * @since 1.8.8
+     */
+    public ConnectionGroup addConnection(String address, String clientId) {
         AssertUtil.notEmpty(address, "address cannot be empty");
 
         String[] ip = address.split(":");
@@ -57,10 +80,20 @@ public class ConnectionGroup {
         } else {
             host = address;
         }
-        boolean newAdded = connectionSet.add(new ConnectionDescriptor().setAddress(address).setHost(host));
-        if (newAdded) {
-            connectedCount.incrementAndGet();
-        }
+        final String id = idOf(address, clientId);
+        final ConnectionDescriptor descriptor = new ConnectionDescriptor().setAddress(address).setHost(host)
+            .setClientId(clientId);
+        // The former descriptor of the address is replaced, as the client may re-register with another ID.
+        connections.compute(address, (k, former) -> {
+            String formerId = former == null ? null : idOf(k, former.getClientId());
+            if (!id.equals(formerId)) {
+                if (formerId != null) {
+                    untrackConnection(formerId, k);
+                }
+                trackConnection(id, k);
+            }
+            return descriptor;
+        });
 
         return this;
     }
@@ -68,19 +101,49 @@ public class ConnectionGroup {
     public ConnectionGroup removeConnection(String address) {
         AssertUtil.notEmpty(address, "address cannot be empty");
 
-        if (connectionSet.remove(new ConnectionDescriptor().setAddress(address))) {
-            connectedCount.decrementAndGet();
-        }
+        connections.computeIfPresent(address, (k, former) -> {
+            untrackConnection(idOf(k, former.getClientId()), k);
+            return null;
+        });
 
         return this;
     }
 
+    private static String idOf(String address, String clientId) {
+        return StringUtil.isBlank(clientId) ? address : clientId;
+    }
+
+    private void trackConnection(String id, final String address) {
+        clientConnections.compute(id, (k, addresses) -> {
+            if (addresses == null) {
+                addresses = ConcurrentHashMap.newKeySet();
+                connectedCount.incrementAndGet();
+            }
+            addresses.add(address);
+            return addresses;
+        });
+    }
+
+    private void untrackConnection(String id, final String address) {
+        clientConnections.computeIfPresent(id, (k, addresses) -> {
+            addresses.remove(address);
+            if (addresses.isEmpty()) {
+                connectedCount.decrementAndGet();
+                return null;
+            }
+            return addresses;
+        });
+    }
+
     public String getNamespace() {
         return namespace;
     }
 
+    /**
+     * @return snapshot of the connections
+     */
     public Set<ConnectionDescriptor> getConnectionSet() {
-        return connectionSet;
+        return new HashSet<>(connections.values());
     }
 
     public int getConnectedCount() {
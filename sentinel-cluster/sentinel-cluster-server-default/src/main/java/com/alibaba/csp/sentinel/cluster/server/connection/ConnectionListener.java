@@ -0,0 +1,40 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.connection;
+
+/**
+ * Listener of connection changes in {@link ConnectionManager}.
+ *
+ * @since 1.8.8
+ */
+public interface ConnectionListener {
+
+    /**
+     * Called after a new connection of a client has been added.
+     *
+     * @param namespace namespace of the client
+     * @param address   address of the client
+     */
+    default void onConnectionAdded(String namespace, String address) {}
+
+    /**
+     * Called after the connection of a client has been removed, i.e. the client is offline.
+     *
+     * @param namespace namespace of the client, may be null if the client has not registered
+     * @param address   address of the client
+     */
+    void onConnectionRemoved(String namespace, String address);
+}
@@ -15,8 +15,10 @@
  */
 package com.alibaba.csp.sentinel.cluster.server.connection;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.AssertUtil;
@@ -38,6 +40,8 @@ public final class ConnectionManager {
      */
     private static final Map<String, String> NAMESPACE_MAP = new ConcurrentHashMap<>();
 
+    private static final List<ConnectionListener> LISTENERS = new CopyOnWriteArrayList<>();
+
     /**
      * Get connected count for specific namespace.
      *
@@ -76,6 +80,7 @@ public final class ConnectionManager {
             RecordLog.info("[ConnectionManager] Client <{}> disconnected and removed from namespace <{}>", address, namespace);
         }
         NAMESPACE_MAP.remove(address);
+        notifyConnectionRemoved(namespace, address);
     }
 
     public static void removeConnection(String namespace, String address) {
@@ -88,15 +93,30 @@ public final class ConnectionManager {
         group.removeConnection(address);
         NAMESPACE_MAP.remove(address);
         RecordLog.info("[ConnectionManager] Client <{}> disconnected and removed from namespace <{}>", address, namespace);
+        notifyConnectionRemoved(namespace, address);
     }
 
     public static ConnectionGroup addConnection(String namespace, String address) {
+        return addConnection(namespace, address, null);
+    }
+
+    /**
+     * Add a connection of the client. Connections with the same client ID are counted as one client.
+     *
+     * @param namespace namespace of the client
+     * @param address   remote address of the connection
+     * @param clientId  identity of the client; the address is used if absent
+     * @return the connection group of the namespace
+     * @since 1.8.8
+     */
+    public static ConnectionGroup addConnection(String namespace, String address, String clientId) {
         AssertUtil.assertNotBlank(namespace, "namespace should not be empty");
         AssertUtil.assertNotBlank(address, "address should not be empty");
         ConnectionGroup group = getOrCreateGroup(namespace);
-        group.addConnection(address);
+        group.addConnection(address, clientId);
         NAMESPACE_MAP.put(address, namespace);
         RecordLog.info("[ConnectionManager] Client <{}> registered with namespace <{}>", address, namespace);
+        notifyConnectionAdded(namespace, address);
         return group;
     }
 
@@ -115,6 +135,37 @@ public final class ConnectionManager {
     public static boolean isClientOnline(String address){
         return NAMESPACE_MAP.containsKey(address);
     }
+
+    /**
+     * Add a listener of connection changes.
+     *
+     * @param listener the listener
+     * @since 1.8.8
+     */
+    public static void addListener(ConnectionListener listener) {
+        AssertUtil.notNull(listener, "listener cannot be null");
+        LISTENERS.add(listener);
+    }
+
+    private static void notifyConnectionAdded(String namespace, String address) {
+        for (ConnectionListener listener : LISTENERS) {
+            try {
+                listener.onConnectionAdded(namespace, address);
+            } catch (Throwable ex) {
+                RecordLog.warn("[ConnectionManager] Error when notifying connection added: " + address, ex);
+            }
+        }
+    }
+
+    private static void notifyConnectionRemoved(String namespace, String address) {
+        for (ConnectionListener listener : LISTENERS) {
+            try {
+                listener.onConnectionRemoved(namespace, address);
+            } catch (Throwable ex) {
+                RecordLog.warn("[ConnectionManager] Error when notifying connection removed: " + address, ex);
+            }
+        }
+    }
     static void clear() {
         CONN_MAP.clear();
         NAMESPACE_MAP.clear();
@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.cluster.server.connection;
 
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +27,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.HostNameUtil;
 
 import io.netty.channel.Channel;
 
@@ -79,10 +81,39 @@ public class ConnectionPool {
      * @return formatted key
      */
     private String getConnectionKey(Channel channel) {
-        InetSocketAddress socketAddress = (InetSocketAddress)channel.remoteAddress();
-        String remoteIp = socketAddress.getAddress().getHostAddress();
-        int remotePort = socketAddress.getPort();
-        return remoteIp + ":" + remotePort;
+        return getRemoteIp(channel) + ":" + getRemotePort(channel);
+    }
+
+    /**
+     * Get the remote IP of the channel. Peers of Unix domain sockets are always on the local host,
+     * so the IP of the local host is used.
+     *
+     * @param channel channel
+     * @return remote IP of the channel
+     * @since 1.8.8
+     */
+    public static String getRemoteIp(Channel channel) {
+        SocketAddress address = channel.remoteAddress();
+        if (address instanceof InetSocketAddress) {
+            return ((InetSocketAddress)address).getAddress().getHostAddress();
+        }
+        return HostNameUtil.getIp();
+    }
+
+    /**
+     * Get the remote port of the channel. Peers of Unix domain sockets have no port, so a number derived
+     * from the channel id is used to tell the connections apart.
+     *
+     * @param channel channel
+     * @return remote port of the channel
+     * @since 1.8.8
+     */
+    public static int getRemotePort(Channel channel) {
+        SocketAddress address = channel.remoteAddress();
+        if (address instanceof InetSocketAddress) {
+            return ((InetSocketAddress)address).getPort();
+        }
+        return channel.id().hashCode() & Integer.MAX_VALUE;
     }
 
     private String getConnectionKey(String ip, int port) {
@@ -15,7 +15,6 @@
  */
 package com.alibaba.csp.sentinel.cluster.server.connection;
 
-import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 
 import io.netty.channel.Channel;
@@ -38,9 +37,8 @@ public class NettyConnection implements Connection {
         this.channel = channel;
         this.pool = pool;
 
-        InetSocketAddress socketAddress = (InetSocketAddress) channel.remoteAddress();
-        this.remoteIp = socketAddress.getAddress().getHostAddress();
-        this.remotePort = socketAddress.getPort();
+        this.remoteIp = ConnectionPool.getRemoteIp(channel);
+        this.remotePort = ConnectionPool.getRemotePort(channel);
         this.lastReadTime = System.currentTimeMillis();
     }
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * <p>
+ * Single-threaded processing shards of token requests. Requests of the same flow always go to the same shard,
+ * so the statistics of a flow are only updated by the thread of its shard, instead of by all the I/O workers
+ * that receive requests of the flow (which makes the cache lines of the statistics bounce between cores).
+ * </p>
+ * <p>
+ * Requests that do not carry a flow ID (e.g. ping) are not sharded, see {@link #shardOf(ClusterRequest)}.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public final class RequestShardExecutor {
+
+    public static final int NO_SHARD = -1;
+
+    private final EventExecutor[] shards;
+
+    public RequestShardExecutor(int shardCount) {
+        AssertUtil.isTrue(shardCount > 0, "shardCount should be positive");
+        NamedThreadFactory threadFactory = new NamedThreadFactory("sentinel-cluster-server-shard", true);
+        this.shards = new EventExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new DefaultEventExecutor(threadFactory);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param flowId flow ID of the request
+     * @return index of the shard that owns the flow
+     */
+    public int shardOf(long flowId) {
+        int h = (int)(flowId ^ (flowId >>> 32));
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % shards.length;
+    }
+
+    /**
+     * @param request token request
+     * @return index of the shard that owns the flow of the request, or {@link #NO_SHARD} if the request
+     * does not carry a flow ID
+     */
+    public int shardOf(ClusterRequest request) {
+        Object data = request.getData();
+        if (data == null) {
+            return NO_SHARD;
+        }
+        switch (request.getType()) {
+            case ClusterConstants.MSG_TYPE_FLOW:
+                return shardOf(((FlowRequestData)data).getFlowId());
+            case ClusterConstants.MSG_TYPE_PARAM_FLOW:
+                return shardOf(((ParamFlowRequestData)data).getFlowId());
+            case ClusterConstants.MSG_TYPE_FLOW_LEASE:
+                return shardOf(((FlowLeaseRequestData)data).getFlowId());
+            default:
+                return NO_SHARD;
+        }
+    }
+
+    /**
+     * Split items of a batch request by their shards. Items without flow ID go to the first shard.
+     *
+     * @param items items of a batch request
+     * @return items of every shard, where shards without items are null
+     */
+    public List<ClusterRequest>[] splitBatch(List<ClusterRequest> items) {
+        @SuppressWarnings("unchecked")
+        List<ClusterRequest>[] groups = new List[shards.length];
+        for (ClusterRequest item : items) {
+            int shard = Math.max(shardOf(item), 0);
+            if (groups[shard] == null) {
+                groups[shard] = new ArrayList<>();
+            }
+            groups[shard].add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * @param shard index of the shard
+     * @param task  task to run in the shard
+     * @throws RejectedExecutionException if the shard has been shut down
+     */
+    public void execute(int shard, Runnable task) {
+        shards[shard].execute(task);
+    }
+
+    public void shutdown() {
+        for (EventExecutor shard : shards) {
+            shard.shutdownGracefully();
+        }
+    }
+}
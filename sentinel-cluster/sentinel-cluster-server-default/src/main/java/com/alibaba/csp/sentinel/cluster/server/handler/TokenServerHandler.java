@@ -15,11 +15,14 @@
  */
 package com.alibaba.csp.sentinel.cluster.server.handler;
 
-import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyResponseEncoder;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessor;
@@ -31,7 +34,12 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 
 /**
- * Netty server handler for Sentinel token server.
+ * <p>Netty server handler for Sentinel token server.</p>
+ * <p>
+ * Requests are processed on the I/O worker of the connection by default. If processing shards are given,
+ * token requests are processed in the shards of their flows instead (batch requests are split by shards),
+ * and responses are written back through the connection that received the request.
+ * </p>
  *
  * @author Eric Zhao
  * @since 1.4.0
@@ -39,9 +47,20 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
 public class TokenServerHandler extends ChannelInboundHandlerAdapter {
 
     private final ConnectionPool globalConnectionPool;
+    private final RequestShardExecutor shardExecutor;
 
     public TokenServerHandler(ConnectionPool globalConnectionPool) {
+        this(globalConnectionPool, null);
+    }
+
+    /**
+     * @param globalConnectionPool connection pool of the token server
+     * @param shardExecutor        processing shards of token requests, or null to process requests on I/O workers
+     * @since 1.8.8
+     */
+    public TokenServerHandler(ConnectionPool globalConnectionPool, RequestShardExecutor shardExecutor) {
         this.globalConnectionPool = globalConnectionPool;
+        this.shardExecutor = shardExecutor;
     }
 
     @Override
@@ -69,14 +88,54 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
                 return;
             }
 
-            // Pick request processor for request type.
-            RequestProcessor<?, ?> processor = RequestProcessorProvider.getProcessor(request.getType());
-            if (processor == null) {
-                RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
-                writeBadResponse(ctx, request);
+            if (shardExecutor == null) {
+                processRequest(ctx, request);
+            } else if (request.getType() == ClusterConstants.MSG_TYPE_BATCH && request.getData() != null) {
+                dispatchBatchRequest(ctx, request);
             } else {
-                ClusterResponse<?> response = processor.processRequest(request);
-                writeResponse(ctx, response);
+                dispatchRequest(ctx, request, shardExecutor.shardOf(request));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void processRequest(ChannelHandlerContext ctx, ClusterRequest request) {
+        // Pick request processor for request type.
+        RequestProcessor<?, ?> processor = RequestProcessorProvider.getProcessor(request.getType());
+        if (processor == null) {
+            RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
+            writeBadResponse(ctx, request);
+        } else {
+            ClusterResponse<?> response = processor.processRequest(request);
+            writeResponse(ctx, response);
+        }
+    }
+
+    private void dispatchRequest(final ChannelHandlerContext ctx, final ClusterRequest request, int shard) {
+        if (shard == RequestShardExecutor.NO_SHARD) {
+            processRequest(ctx, request);
+            return;
+        }
+        try {
+            shardExecutor.execute(shard, new Runnable() {
+                @Override
+                public void run() {
+                    processRequest(ctx, request);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // The token server is stopping.
+            writeBadResponse(ctx, request);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatchBatchRequest(ChannelHandlerContext ctx, ClusterRequest request) {
+        // Items of every shard are replied in a batch response of their own, as items carry their own xid.
+        List<ClusterRequest>[] groups = shardExecutor.splitBatch((List<ClusterRequest>)request.getData());
+        for (int shard = 0; shard < groups.length; shard++) {
+            if (groups[shard] != null) {
+                dispatchRequest(ctx, new ClusterRequest<>(request.getId(), request.getType(), groups[shard]), shard);
             }
         }
     }
@@ -92,14 +151,20 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
     }
 
     private void handlePingRequest(ChannelHandlerContext ctx, ClusterRequest request) {
-        if (request.getData() == null || StringUtil.isBlank((String)request.getData())) {
+        PingRequestData data = (PingRequestData)request.getData();
+        if (data == null || StringUtil.isBlank(data.getNamespace())) {
             writeBadResponse(ctx, request);
             return;
         }
-        String namespace = (String)request.getData();
+        String namespace = data.getNamespace();
         String clientAddress = getRemoteAddress(ctx);
-        // Add the remote namespace to connection manager.
-        int curCount = ConnectionManager.addConnection(namespace, clientAddress).getConnectedCount();
+        // Add the remote namespace to connection manager. Connections of the same client are counted once.
+        int curCount = ConnectionManager.addConnection(namespace, clientAddress, data.getClientId())
+            .getConnectedCount();
+        if (data.getProtocolVersion() >= ClusterConstants.PROTOCOL_VERSION_2) {
+            // Reply in protocol v2 from now on, which tells the client to switch to protocol v2 as well.
+            ctx.channel().attr(NettyResponseEncoder.PROTOCOL_VERSION).set(ClusterConstants.PROTOCOL_VERSION_2);
+        }
         int status = ClusterConstants.RESPONSE_STATUS_OK;
         ClusterResponse<Integer> response = new ClusterResponse<>(request.getId(), request.getType(), status, curCount);
         writeResponse(ctx, response);
@@ -109,7 +174,6 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
         if (ctx.channel().remoteAddress() == null) {
             return null;
         }
-        InetSocketAddress inetAddress = (InetSocketAddress) ctx.channel().remoteAddress();
-        return inetAddress.getAddress().getHostAddress() + ":" + inetAddress.getPort();
+        return ConnectionPool.getRemoteIp(ctx.channel()) + ":" + ConnectionPool.getRemotePort(ctx.channel());
     }
 }
@@ -17,11 +17,15 @@ package com.alibaba.csp.sentinel.cluster.server.init;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.BatchRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.BatchResponseDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowLeaseRequestDataDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowRequestDataDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowResponseDataWriter;
 import com.alibaba.csp.sentinel.cluster.server.codec.data.ParamFlowRequestDataDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.data.PingRequestDataDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.data.PingResponseDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.ReplicationRequestDataDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.registry.RequestDataDecodeRegistry;
 import com.alibaba.csp.sentinel.cluster.server.codec.registry.ResponseDataWriterRegistry;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessorProvider;
@@ -51,12 +55,19 @@ public class DefaultClusterServerInitFunc implements InitFunc {
         ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_PING, new PingResponseDataWriter());
         ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW, new FlowResponseDataWriter());
         ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_PARAM_FLOW, new FlowResponseDataWriter());
+        ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW_LEASE, new FlowResponseDataWriter());
+        ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_BATCH, new BatchResponseDataWriter());
+        ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_REPLICATION, new PingResponseDataWriter());
     }
 
     private void initDefaultEntityDecoders() {
         RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_PING, new PingRequestDataDecoder());
         RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestDataDecoder());
         RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_PARAM_FLOW, new ParamFlowRequestDataDecoder());
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW_LEASE, new FlowLeaseRequestDataDecoder());
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_BATCH, new BatchRequestDataDecoder());
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_REPLICATION,
+            new ReplicationRequestDataDecoder());
     }
 
     private void initDefaultProcessors() {
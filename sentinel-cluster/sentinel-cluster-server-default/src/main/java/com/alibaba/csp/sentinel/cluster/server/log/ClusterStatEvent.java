@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.log;
+
+/**
+ * Per-flow events recorded in the stat log of the token server.
+ *
+ * @since 1.8.8
+ */
+public enum ClusterStatEvent {
+
+    FLOW_PASS("flow|pass"),
+    FLOW_PASS_REQUEST("flow|pass_request"),
+    FLOW_BLOCK("flow|block"),
+    FLOW_BLOCK_REQUEST("flow|block_request"),
+    FLOW_OCCUPIED_BLOCK("flow|occupied_block"),
+    FLOW_WAITING("flow|waiting"),
+    FLOW_LEASE("flow|lease"),
+    FLOW_RELEASE("flow|release"),
+    CONCURRENT_PASS("concurrent|pass"),
+    CONCURRENT_BLOCK("concurrent|block"),
+    CONCURRENT_RELEASE("concurrent|release");
+
+    private final String keyPrefix;
+
+    ClusterStatEvent(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * @return prefix of the stat key, which is followed by "|" and the flow ID
+     */
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+
+/**
+ * Processor of batch requests. All items of a batch are processed in one pass by the processors
+ * of their own types, and the results are returned in one response.
+ *
+ * @since 1.8.8
+ */
+@RequestType(ClusterConstants.MSG_TYPE_BATCH)
+public class BatchRequestProcessor implements RequestProcessor<List<ClusterRequest>, List<ClusterResponse>> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ClusterResponse<List<ClusterResponse>> processRequest(ClusterRequest<List<ClusterRequest>> request) {
+        List<ClusterRequest> items = request.getData();
+        List<ClusterResponse> responses = new ArrayList<>(items.size());
+        for (ClusterRequest item : items) {
+            RequestProcessor processor = isBatchable(item.getType())
+                ? RequestProcessorProvider.getProcessor(item.getType()) : null;
+            if (processor == null || item.getData() == null) {
+                responses.add(new ClusterResponse<>(item.getId(), item.getType(),
+                    ClusterConstants.RESPONSE_STATUS_BAD, null));
+            } else {
+                responses.add(processor.processRequest(item));
+            }
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+            responses);
+    }
+
+    private boolean isBatchable(int type) {
+        return type != ClusterConstants.MSG_TYPE_PING && type != ClusterConstants.MSG_TYPE_BATCH
+            && type != ClusterConstants.MSG_TYPE_REPLICATION;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.replication.ReplicationData;
+import com.alibaba.csp.sentinel.cluster.server.replication.ReplicationManager;
+import com.alibaba.csp.sentinel.cluster.server.replication.ReplicationStandby;
+
+/**
+ * Processor of replication frames from the primary token server. Frames are rejected if this token server
+ * is not a standby, or has taken over from the primary.
+ *
+ * @since 1.8.8
+ */
+@RequestType(ClusterConstants.MSG_TYPE_REPLICATION)
+public class ReplicationRequestProcessor implements RequestProcessor<ReplicationData, Integer> {
+
+    @Override
+    public ClusterResponse<Integer> processRequest(ClusterRequest<ReplicationData> request) {
+        ReplicationStandby standby = ReplicationManager.getStandby();
+        boolean applied = standby != null && request.getData() != null && standby.apply(request.getData());
+        int status = applied ? ClusterConstants.RESPONSE_STATUS_OK : ClusterConstants.RESPONSE_STATUS_BAD;
+        return new ClusterResponse<>(request.getId(), request.getType(), status, 0);
+    }
+}
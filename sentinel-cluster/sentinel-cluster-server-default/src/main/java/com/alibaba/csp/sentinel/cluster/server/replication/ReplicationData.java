@@ -0,0 +1,99 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+
+/**
+ * Replication frame from the primary token server to the standby. A frame without any
+ * delta or token serves as the heartbeat of the primary.
+ *
+ * @since 1.8.8
+ */
+public class ReplicationData {
+
+    private long sequence;
+    private boolean reset;
+    private List<WindowDelta> windowDeltas = new ArrayList<>();
+    private List<TokenCacheNode> grantedTokens = new ArrayList<>();
+    private List<Long> releasedTokens = new ArrayList<>();
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ReplicationData setSequence(long sequence) {
+        this.sequence = sequence;
+        return this;
+    }
+
+    /**
+     * @return true if the frame starts a full replication, where the replicated state should be reset
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    public ReplicationData setReset(boolean reset) {
+        this.reset = reset;
+        return this;
+    }
+
+    public List<WindowDelta> getWindowDeltas() {
+        return windowDeltas;
+    }
+
+    public ReplicationData setWindowDeltas(List<WindowDelta> windowDeltas) {
+        this.windowDeltas = windowDeltas;
+        return this;
+    }
+
+    public List<TokenCacheNode> getGrantedTokens() {
+        return grantedTokens;
+    }
+
+    public ReplicationData setGrantedTokens(List<TokenCacheNode> grantedTokens) {
+        this.grantedTokens = grantedTokens;
+        return this;
+    }
+
+    public List<Long> getReleasedTokens() {
+        return releasedTokens;
+    }
+
+    public ReplicationData setReleasedTokens(List<Long> releasedTokens) {
+        this.releasedTokens = releasedTokens;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return windowDeltas.isEmpty() && grantedTokens.isEmpty() && releasedTokens.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicationData{" +
+            "sequence=" + sequence +
+            ", reset=" + reset +
+            ", windowDeltas=" + windowDeltas.size() +
+            ", grantedTokens=" + grantedTokens.size() +
+            ", releasedTokens=" + releasedTokens.size() +
+            '}';
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>
+ * Manager of hot-standby replication between token servers. The primary token server replicates its state
+ * to the standby by {@link #startReplication(String, int)}, while the standby token server keeps the replica
+ * after {@link #startStandby()}, and takes over with the replicated state when the heartbeat of the primary
+ * fails. Clients are expected to be switched to the standby by the assign config afterwards.
+ * </p>
+ * <p>
+ * A token server could be the primary of one server and the standby of another at the same time.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public final class ReplicationManager {
+
+    public static final long DEFAULT_SYNC_INTERVAL_MS = 100;
+    public static final long DEFAULT_FAILOVER_TIMEOUT_MS = 3000;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-cluster-replication-monitor", true));
+
+    private static ReplicationSource source;
+    private static volatile ReplicationStandby standby;
+    private static ScheduledFuture<?> heartbeatCheckFuture;
+
+    /**
+     * Start replicating the state of this token server to the standby.
+     *
+     * @param host host of the standby token server
+     * @param port port of the standby token server
+     */
+    public static void startReplication(String host, int port) {
+        startReplication(host, port, DEFAULT_SYNC_INTERVAL_MS);
+    }
+
+    public static synchronized void startReplication(String host, int port, long syncIntervalMs) {
+        ReplicationSource newSource = new ReplicationSource(host, port, syncIntervalMs);
+        stopReplication();
+        newSource.start();
+        source = newSource;
+    }
+
+    public static synchronized void stopReplication() {
+        if (source != null) {
+            source.stop();
+            source = null;
+        }
+    }
+
+    public static synchronized ReplicationSource getSource() {
+        return source;
+    }
+
+    /**
+     * Start keeping the replica from the primary token server.
+     */
+    public static void startStandby() {
+        startStandby(DEFAULT_FAILOVER_TIMEOUT_MS);
+    }
+
+    public static synchronized void startStandby(long failoverTimeoutMs) {
+        final ReplicationStandby newStandby = new ReplicationStandby(failoverTimeoutMs);
+        stopStandby();
+        standby = newStandby;
+        long checkIntervalMs = Math.max(1, failoverTimeoutMs / 4);
+        heartbeatCheckFuture = SCHEDULER.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    newStandby.checkHeartbeat(System.currentTimeMillis());
+                } catch (Throwable e) {
+                    RecordLog.warn("[ReplicationManager] Unexpected error when checking heartbeat of primary", e);
+                }
+            }
+        }, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+        RecordLog.info("[ReplicationManager] Standby started, failover timeout: {} ms", failoverTimeoutMs);
+    }
+
+    public static synchronized void stopStandby() {
+        if (heartbeatCheckFuture != null) {
+            heartbeatCheckFuture.cancel(false);
+            heartbeatCheckFuture = null;
+        }
+        standby = null;
+    }
+
+    /**
+     * @return the standby replica, or null if this token server is not a standby
+     */
+    public static ReplicationStandby getStandby() {
+        return standby;
+    }
+
+    private ReplicationManager() {}
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNodeListener;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNodeManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.ReplicationRequestDataWriter;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.GenericFutureListener;
+
+/**
+ * <p>
+ * Replicates the state of this (primary) token server to a standby over the cluster transport.
+ * Every sync interval, the delta of cluster metric buckets since the last sync, and the tokens granted or
+ * released by {@link TokenCacheNodeManager} since then are sent to the standby as
+ * {@link ClusterConstants#MSG_TYPE_REPLICATION} frames. An empty frame is sent if nothing has changed,
+ * which serves as the heartbeat.
+ * </p>
+ * <p>
+ * The state is fully replicated again after (re)connecting to the standby: all buckets in the window and all
+ * tokens in the cache are sent in the first sync, whose first frame tells the standby to reset its replica. Changes during disconnection are dropped, and so are
+ * pending changes when the standby falls too far behind, after which the state is fully replicated again.
+ * Tokens removed by the expire strategy are not replicated, which are pruned by the standby on timeout.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public class ReplicationSource {
+
+    /**
+     * xid (4) + type (1)
+     */
+    private static final int FRAME_HEAD_LENGTH = 5;
+
+    static final int DEFAULT_MAX_PENDING_TOKEN_EVENTS = 65536;
+
+    private final String host;
+    private final int port;
+    private final long syncIntervalMs;
+    private final int maxPendingTokenEvents;
+
+    private final Queue<TokenEvent> tokenEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTokenEvents = new AtomicInteger();
+    /**
+     * Whether a standby is connected, token events are only kept then.
+     */
+    private volatile boolean attached = false;
+    /**
+     * Set when token events are dropped as too many are pending, which leads to a full sync.
+     */
+    private volatile boolean overflowed = false;
+    private final TokenCacheNodeListener tokenListener = new TokenCacheNodeListener() {
+        @Override
+        public void onTokenAdded(TokenCacheNode node) {
+            offerTokenEvent(node, true);
+        }
+
+        @Override
+        public void onTokenRemoved(TokenCacheNode node) {
+            offerTokenEvent(node, false);
+        }
+    };
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private NioEventLoopGroup eventLoopGroup;
+    private Bootstrap bootstrap;
+
+    /**
+     * The following fields are only accessed in the event loop.
+     */
+    private Channel channel;
+    private boolean connecting = false;
+    private boolean fullSync = true;
+    private long sequence = 0;
+    /**
+     * Counts of buckets that have been sent (flowId, (window start, counts indexed by event ordinal)).
+     */
+    private Map<Long, Map<Long, long[]>> sentWindows = new HashMap<>();
+
+    public ReplicationSource(String host, int port, long syncIntervalMs) {
+        this(host, port, syncIntervalMs, DEFAULT_MAX_PENDING_TOKEN_EVENTS);
+    }
+
+    ReplicationSource(String host, int port, long syncIntervalMs, int maxPendingTokenEvents) {
+        AssertUtil.assertNotBlank(host, "standby host cannot be blank");
+        AssertUtil.isTrue(port > 0, "port should be positive");
+        AssertUtil.isTrue(syncIntervalMs > 0, "syncIntervalMs should be positive");
+        AssertUtil.isTrue(maxPendingTokenEvents > 0, "maxPendingTokenEvents should be positive");
+        this.host = host;
+        this.port = port;
+        this.syncIntervalMs = syncIntervalMs;
+        this.maxPendingTokenEvents = maxPendingTokenEvents;
+    }
+
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        TokenCacheNodeManager.addListener(tokenListener);
+        eventLoopGroup = new NioEventLoopGroup(1, new NamedThreadFactory("sentinel-cluster-replication-source", true));
+        bootstrap = new Bootstrap()
+            .group(eventLoopGroup)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ClusterConstants.DEFAULT_CONNECT_TIMEOUT_MILLIS)
+            .handler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                public void initChannel(SocketChannel ch) {
+                    ChannelPipeline pipeline = ch.pipeline();
+                    pipeline.addLast(new LengthFieldBasedFrameDecoder(ClusterConstants.MAX_ENCODED_FRAME_LENGTH, 0, 2, 0, 2));
+                    pipeline.addLast(new LengthFieldPrepender(2));
+                    pipeline.addLast(new ReplicationRequestEncoder());
+                    pipeline.addLast(new ReplicationResponseHandler());
+                }
+            });
+        eventLoopGroup.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sync();
+                } catch (Throwable e) {
+                    RecordLog.warn("[ReplicationSource] Unexpected error when replicating to standby", e);
+                }
+            }
+        }, 0, syncIntervalMs, TimeUnit.MILLISECONDS);
+        RecordLog.info("[ReplicationSource] Replicating to standby <{}:{}> every {} ms", host, port, syncIntervalMs);
+    }
+
+    public void stop() {
+        if (!started.compareAndSet(true, false)) {
+            return;
+        }
+        TokenCacheNodeManager.removeListener(tokenListener);
+        eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS).syncUninterruptibly();
+        attached = false;
+        clearTokenEvents();
+        RecordLog.info("[ReplicationSource] Replication to standby <{}:{}> stopped", host, port);
+    }
+
+    public boolean isConnected() {
+        Channel channel = this.channel;
+        return channel != null && channel.isActive();
+    }
+
+    int getPendingTokenEventCount() {
+        return pendingTokenEvents.get();
+    }
+
+    private void offerTokenEvent(TokenCacheNode node, boolean granted) {
+        if (!attached || overflowed) {
+            return;
+        }
+        if (pendingTokenEvents.incrementAndGet() > maxPendingTokenEvents) {
+            // Pending events are dropped in the event loop, and the standby will be fully synced instead.
+            pendingTokenEvents.decrementAndGet();
+            overflowed = true;
+            return;
+        }
+        tokenEvents.offer(new TokenEvent(node, granted));
+    }
+
+    private TokenEvent pollTokenEvent() {
+        TokenEvent event = tokenEvents.poll();
+        if (event != null) {
+            pendingTokenEvents.decrementAndGet();
+        }
+        return event;
+    }
+
+    private void clearTokenEvents() {
+        while (pollTokenEvent() != null) {
+            // Drop all pending events.
+        }
+    }
+
+    private void sync() {
+        if (channel == null || !channel.isActive()) {
+            // Changes during disconnection are covered by the full sync after connected.
+            attached = false;
+            clearTokenEvents();
+            connect();
+            return;
+        }
+        if (overflowed) {
+            RecordLog.warn("[ReplicationSource] Too many pending token events for standby <{}:{}>, "
+                + "fully replicating instead", host, port);
+            clearTokenEvents();
+            fullSync = true;
+            overflowed = false;
+        }
+        if (!channel.isWritable()) {
+            // The standby falls behind, changes are kept until it catches up, or fully replicated if too many.
+            return;
+        }
+        List<TokenEvent> events = new ArrayList<>();
+        boolean reset = fullSync;
+        if (fullSync) {
+            fullSync = false;
+            sentWindows = new HashMap<>();
+            clearTokenEvents();
+            for (Long tokenId : TokenCacheNodeManager.getCacheKeySet()) {
+                TokenCacheNode node = TokenCacheNodeManager.getTokenCacheNode(tokenId);
+                if (node != null) {
+                    events.add(new TokenEvent(node, true));
+                }
+            }
+        }
+        TokenEvent event;
+        while ((event = pollTokenEvent()) != null) {
+            events.add(event);
+        }
+        for (ReplicationData data : buildFrames(collectWindowDeltas(), events, reset)) {
+            channel.write(new ClusterRequest<>((int)data.getSequence(), ClusterConstants.MSG_TYPE_REPLICATION, data));
+        }
+        channel.flush();
+    }
+
+    private void connect() {
+        if (connecting) {
+            return;
+        }
+        connecting = true;
+        bootstrap.connect(host, port).addListener(new GenericFutureListener<ChannelFuture>() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                connecting = false;
+                if (future.isSuccess()) {
+                    attached = true;
+                    fullSync = true;
+                    channel = future.channel();
+                    RecordLog.info("[ReplicationSource] Connected to standby <{}:{}>", host, port);
+                } else {
+                    RecordLog.warn("[ReplicationSource] Failed to connect to standby <{}:{}>: {}", host, port,
+                        String.valueOf(future.cause()));
+                }
+            }
+        });
+    }
+
+    private List<WindowDelta> collectWindowDeltas() {
+        List<WindowDelta> deltas = new ArrayList<>();
+        Map<Long, Map<Long, long[]>> nextSentWindows = new HashMap<>();
+        ClusterFlowEvent[] flowEvents = ClusterFlowEvent.values();
+        for (Long flowId : ClusterMetricStatistics.getFlowIdSet()) {
+            ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+            if (metric == null) {
+                continue;
+            }
+            Map<Long, long[]> sent = sentWindows.get(flowId);
+            Map<Long, long[]> nextSent = new HashMap<>();
+            for (WindowWrap<ClusterMetricBucket> windowWrap : metric.windows()) {
+                long[] counts = sent == null ? null : sent.get(windowWrap.windowStart());
+                if (counts == null) {
+                    counts = new long[flowEvents.length];
+                }
+                WindowDelta delta = null;
+                ClusterMetricBucket bucket = windowWrap.value();
+                for (ClusterFlowEvent flowEvent : flowEvents) {
+                    long count = bucket.get(flowEvent);
+                    // The delta is negative if the metric has been reset.
+                    long diff = count - counts[flowEvent.ordinal()];
+                    if (diff != 0) {
+                        if (delta == null) {
+                            delta = new WindowDelta().setFlowId(flowId).setWindowStart(windowWrap.windowStart());
+                        }
+                        delta.setCount(flowEvent, diff);
+                        counts[flowEvent.ordinal()] = count;
+                    }
+                }
+                if (delta != null) {
+                    deltas.add(delta);
+                }
+                nextSent.put(windowWrap.windowStart(), counts);
+            }
+            nextSentWindows.put(flowId, nextSent);
+        }
+        sentWindows = nextSentWindows;
+        return deltas;
+    }
+
+    private List<ReplicationData> buildFrames(List<WindowDelta> deltas, List<TokenEvent> events, boolean reset) {
+        List<ReplicationData> frames = new ArrayList<>();
+        ReplicationData frame = newFrame().setReset(reset);
+        int length = FRAME_HEAD_LENGTH + ReplicationRequestDataWriter.HEAD_LENGTH;
+        for (WindowDelta delta : deltas) {
+            if (length + ReplicationRequestDataWriter.MAX_WINDOW_DELTA_LENGTH > ClusterConstants.MAX_FRAME_LENGTH) {
+                frames.add(frame);
+                frame = newFrame();
+                length = FRAME_HEAD_LENGTH + ReplicationRequestDataWriter.HEAD_LENGTH;
+            }
+            frame.getWindowDeltas().add(delta);
+            length += ReplicationRequestDataWriter.MAX_WINDOW_DELTA_LENGTH;
+        }
+        for (TokenEvent event : events) {
+            int eventLength = event.granted ? ReplicationRequestDataWriter.grantedTokenLength(event.node)
+                : ReplicationRequestDataWriter.RELEASED_TOKEN_LENGTH;
+            // Events are kept in order across frames, so a release never goes before its grant.
+            if (length + eventLength > ClusterConstants.MAX_FRAME_LENGTH) {
+                frames.add(frame);
+                frame = newFrame();
+                length = FRAME_HEAD_LENGTH + ReplicationRequestDataWriter.HEAD_LENGTH;
+            }
+            if (event.granted) {
+                frame.getGrantedTokens().add(event.node);
+            } else {
+                frame.getReleasedTokens().add(event.node.getTokenId());
+            }
+            length += eventLength;
+        }
+        frames.add(frame);
+        return frames;
+    }
+
+    private ReplicationData newFrame() {
+        return new ReplicationData().setSequence(++sequence);
+    }
+
+    private static final class TokenEvent {
+
+        private final TokenCacheNode node;
+        private final boolean granted;
+
+        TokenEvent(TokenCacheNode node, boolean granted) {
+            this.node = node;
+            this.granted = granted;
+        }
+    }
+
+    private static final class ReplicationRequestEncoder extends MessageToByteEncoder<ClusterRequest> {
+
+        private final ReplicationRequestDataWriter dataWriter = new ReplicationRequestDataWriter();
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ClusterRequest request, ByteBuf out) {
+            out.writeInt(request.getId());
+            out.writeByte(request.getType());
+            dataWriter.writeTo((ReplicationData)request.getData(), out);
+        }
+    }
+
+    private final class ReplicationResponseHandler extends ChannelInboundHandlerAdapter {
+
+        private boolean rejected = false;
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            try {
+                ByteBuf buf = (ByteBuf)msg;
+                // | xid (4) | type (1) | status (1) | ...
+                if (buf.readableBytes() < 6) {
+                    return;
+                }
+                int status = buf.getByte(buf.readerIndex() + 5);
+                boolean nowRejected = status != ClusterConstants.RESPONSE_STATUS_OK;
+                if (nowRejected && !rejected) {
+                    RecordLog.warn("[ReplicationSource] Replication rejected by <{}:{}>, the standby may have "
+                        + "taken over", host, port);
+                }
+                rejected = nowRejected;
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            RecordLog.warn("[ReplicationSource] Replication channel error, closing: {}", String.valueOf(cause));
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.CurrentConcurrencyManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNodeManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * Replica of the primary token server kept by the standby. Window deltas and token grants replicated from
+ * the primary are kept aside (rather than applied to the statistics of the standby directly), and installed
+ * to {@link ClusterMetricStatistics} and {@link TokenCacheNodeManager} when the standby is promoted, i.e. no
+ * replication frame (including the heartbeat) has been received for the failover timeout.
+ * </p>
+ * <p>
+ * Buckets which have slid out of the window and tokens which have timed out are pruned from the replica.
+ * Clocks of the primary and the standby are assumed to be synchronized, as bucket start and token deadlines
+ * are replicated as absolute timestamps.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public class ReplicationStandby {
+
+    private final long failoverTimeoutMs;
+
+    /**
+     * Replicated buckets (flowId, (window start, counts indexed by event ordinal)).
+     */
+    private final Map<Long, Map<Long, long[]>> windows = new HashMap<>();
+    private final Map<Long, TokenCacheNode> tokens = new HashMap<>();
+
+    private long lastSequence = -1;
+    private volatile long lastReceivedTime = -1;
+    private volatile boolean promoted = false;
+
+    public ReplicationStandby(long failoverTimeoutMs) {
+        AssertUtil.isTrue(failoverTimeoutMs > 0, "failoverTimeoutMs should be positive");
+        this.failoverTimeoutMs = failoverTimeoutMs;
+    }
+
+    /**
+     * Apply a replication frame from the primary.
+     *
+     * @param data replication frame
+     * @return true if applied; false if the standby has been promoted
+     */
+    public synchronized boolean apply(ReplicationData data) {
+        if (promoted) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        lastReceivedTime = now;
+        if (data.isReset()) {
+            // The full state is replicated again, where counts of buckets are absolute rather than deltas.
+            RecordLog.info("[ReplicationStandby] Full replication started by primary, sequence: {}",
+                data.getSequence());
+            windows.clear();
+            tokens.clear();
+        } else if (data.getSequence() <= lastSequence) {
+            RecordLog.warn("[ReplicationStandby] Out-of-order replication frame from primary, sequence: {}",
+                data.getSequence());
+        }
+        lastSequence = data.getSequence();
+
+        for (WindowDelta delta : data.getWindowDeltas()) {
+            Map<Long, long[]> buckets = windows.get(delta.getFlowId());
+            if (buckets == null) {
+                buckets = new HashMap<>();
+                windows.put(delta.getFlowId(), buckets);
+            }
+            long[] counts = buckets.get(delta.getWindowStart());
+            if (counts == null) {
+                counts = new long[ClusterFlowEvent.values().length];
+                buckets.put(delta.getWindowStart(), counts);
+            }
+            for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
+                counts[event.ordinal()] += delta.getCount(event);
+            }
+        }
+        // Grants go before releases, as a token may be granted and released within the same frame.
+        for (TokenCacheNode node : data.getGrantedTokens()) {
+            tokens.put(node.getTokenId(), node);
+        }
+        for (Long tokenId : data.getReleasedTokens()) {
+            tokens.remove(tokenId);
+        }
+        prune(now);
+        return true;
+    }
+
+    /**
+     * Check the heartbeat of the primary, and promote the standby if the primary has failed.
+     *
+     * @param now current time
+     * @return true if the standby is promoted by this check
+     */
+    public boolean checkHeartbeat(long now) {
+        long lastReceived = lastReceivedTime;
+        if (promoted || lastReceived < 0 || now - lastReceived <= failoverTimeoutMs) {
+            return false;
+        }
+        RecordLog.warn("[ReplicationStandby] No replication from primary for {} ms, promoting the standby",
+            now - lastReceived);
+        return promote();
+    }
+
+    /**
+     * Take over with the replicated state: install replicated buckets and tokens to the token server.
+     *
+     * @return true if promoted; false if it has been promoted before
+     */
+    public synchronized boolean promote() {
+        if (promoted) {
+            return false;
+        }
+        promoted = true;
+        long now = System.currentTimeMillis();
+        prune(now);
+
+        int bucketCount = 0;
+        for (Map.Entry<Long, Map<Long, long[]>> entry : windows.entrySet()) {
+            ClusterMetric metric = ClusterMetricStatistics.getMetric(entry.getKey());
+            if (metric == null) {
+                continue;
+            }
+            for (Map.Entry<Long, long[]> bucket : entry.getValue().entrySet()) {
+                if (installBucket(metric, bucket.getKey(), bucket.getValue())) {
+                    bucketCount++;
+                }
+            }
+        }
+        int tokenCount = 0;
+        for (TokenCacheNode node : tokens.values()) {
+            if (TokenCacheNodeManager.isContainsTokenId(node.getTokenId())
+                || !CurrentConcurrencyManager.containsFlowId(node.getFlowId())) {
+                continue;
+            }
+            TokenCacheNodeManager.putTokenCacheNode(node.getTokenId(), node);
+            CurrentConcurrencyManager.addConcurrency(node.getFlowId(), node.getAcquireCount());
+            tokenCount++;
+        }
+        windows.clear();
+        tokens.clear();
+        RecordLog.info("[ReplicationStandby] Standby promoted with {} replicated buckets and {} tokens",
+            bucketCount, tokenCount);
+        return true;
+    }
+
+    private boolean installBucket(ClusterMetric metric, long windowStart, long[] counts) {
+        boolean installed = false;
+        for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
+            long count = counts[event.ordinal()];
+            if (count != 0) {
+                installed |= metric.addAt(windowStart, event, count);
+            }
+        }
+        return installed;
+    }
+
+    private void prune(long now) {
+        Iterator<Map.Entry<Long, Map<Long, long[]>>> flowIterator = windows.entrySet().iterator();
+        while (flowIterator.hasNext()) {
+            Map.Entry<Long, Map<Long, long[]>> entry = flowIterator.next();
+            ClusterMetric metric = ClusterMetricStatistics.getMetric(entry.getKey());
+            int intervalMs = metric == null ? ClusterServerConfigManager.getIntervalMs() : metric.getIntervalInMs();
+            Iterator<Long> bucketIterator = entry.getValue().keySet().iterator();
+            while (bucketIterator.hasNext()) {
+                if (now - bucketIterator.next() >= intervalMs) {
+                    bucketIterator.remove();
+                }
+            }
+            if (entry.getValue().isEmpty()) {
+                flowIterator.remove();
+            }
+        }
+        // The same as the expire strategy: a token times out after 2 times of the resource timeout.
+        Iterator<TokenCacheNode> tokenIterator = tokens.values().iterator();
+        while (tokenIterator.hasNext()) {
+            TokenCacheNode node = tokenIterator.next();
+            long deadline = node.getResourceTimeout();
+            FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(node.getFlowId());
+            if (rule != null) {
+                deadline += rule.getClusterConfig().getResourceTimeout();
+            }
+            if (deadline < now) {
+                tokenIterator.remove();
+            }
+        }
+    }
+
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    public long getLastReceivedTime() {
+        return lastReceivedTime;
+    }
+
+    public synchronized long getReplicatedCount(long flowId, ClusterFlowEvent event) {
+        Map<Long, long[]> buckets = windows.get(flowId);
+        if (buckets == null) {
+            return 0;
+        }
+        long sum = 0;
+        for (long[] counts : buckets.values()) {
+            sum += counts[event.ordinal()];
+        }
+        return sum;
+    }
+
+    public synchronized int getReplicatedTokenCount() {
+        return tokens.size();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+
+/**
+ * Counts added to a bucket of the cluster metric since the last replication.
+ *
+ * @since 1.8.8
+ */
+public class WindowDelta {
+
+    private long flowId;
+    private long windowStart;
+    /**
+     * Delta counts indexed by the ordinal of {@link ClusterFlowEvent}.
+     */
+    private long[] counts = new long[ClusterFlowEvent.values().length];
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public WindowDelta setFlowId(long flowId) {
+        this.flowId = flowId;
+        return this;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public WindowDelta setWindowStart(long windowStart) {
+        this.windowStart = windowStart;
+        return this;
+    }
+
+    public long getCount(ClusterFlowEvent event) {
+        return counts[event.ordinal()];
+    }
+
+    public WindowDelta setCount(ClusterFlowEvent event, long count) {
+        counts[event.ordinal()] = count;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowDelta{" +
+            "flowId=" + flowId +
+            ", windowStart=" + windowStart +
+            ", counts=" + Arrays.toString(counts) +
+            '}';
+    }
+}
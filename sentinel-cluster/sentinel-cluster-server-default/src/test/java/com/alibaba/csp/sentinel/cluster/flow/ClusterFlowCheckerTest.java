@@ -15,7 +15,11 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow;
 
+import java.util.Collections;
+
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
@@ -72,6 +76,37 @@ public class ClusterFlowCheckerTest {
         ClusterMetricStatistics.removeMetric(flowId);
     }
 
+    @Test
+    public void testAcquireClusterTokenLease() {
+        String namespace = "lease-test";
+        long flowId = 98766L;
+        FlowRule clusterRule = new FlowRule("lease")
+            .setCount(100)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(clusterRule));
+        try {
+            int granted = 0;
+            TokenResult result;
+            while ((result = ClusterFlowChecker.acquireClusterTokenLease(clusterRule, 1000, 500)).getStatus()
+                == TokenResultStatus.OK) {
+                // A single lease holds at most 10% (by default) of the threshold.
+                assertEquals(10, result.getRemaining());
+                assertEquals(500, result.getWaitInMs());
+                granted += result.getRemaining();
+            }
+            assertResultBlock(result);
+            assertEquals(100, granted);
+            // Leased tokens are accounted as passed.
+            assertResultBlock(tryAcquire(clusterRule, false));
+        } finally {
+            ClusterFlowRuleManager.loadRules(namespace, Collections.<FlowRule>emptyList());
+        }
+    }
+
     private TokenResult tryAcquire(FlowRule clusterRule, boolean occupy) {
         return ClusterFlowChecker.acquireClusterToken(clusterRule, 1, occupy);
     }
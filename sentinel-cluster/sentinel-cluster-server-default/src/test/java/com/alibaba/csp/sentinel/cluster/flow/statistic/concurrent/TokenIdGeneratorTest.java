@@ -0,0 +1,51 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenIdGeneratorTest {
+
+    @Test
+    public void testUniqueIdsAmongThreads() throws InterruptedException {
+        final int threadCount = 8;
+        final int idsPerThread = 10000;
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            pool.execute(() -> {
+                for (int j = 0; j < idsPerThread; j++) {
+                    long id = TokenIdGenerator.nextId();
+                    Assert.assertTrue(id > 0);
+                    ids.add(id);
+                }
+                latch.countDown();
+            });
+        }
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        Assert.assertEquals(threadCount * idsPerThread, ids.size());
+    }
+}
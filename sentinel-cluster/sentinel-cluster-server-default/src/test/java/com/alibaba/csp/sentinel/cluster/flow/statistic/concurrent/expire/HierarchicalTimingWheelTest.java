@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    @Test
+    public void testExpireInOrderAcrossLevels() {
+        long start = 1_000_000L;
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK_MS, start);
+        final Map<Long, Long> expiredAt = new HashMap<>();
+        final long[] now = {start};
+        HierarchicalTimingWheel.ExpireHandler<Long> handler = item -> expiredAt.put(item, now[0]);
+
+        // Deadlines at level 0, 1, 2 and 3 of the wheel (in ms after start).
+        long[] delays = {5, 100, 639, 641, 5_000, 40_961, 300_000, 3_000_000};
+        for (long delay : delays) {
+            wheel.schedule(delay, start + delay);
+        }
+        // Expired already.
+        wheel.schedule(-1L, start - 1);
+        assertEquals(1, wheel.advanceTo(now[0], handler));
+        assertEquals(Long.valueOf(start), expiredAt.get(-1L));
+
+        while (now[0] < start + 3_000_000 + TICK_MS) {
+            now[0] += 7;
+            wheel.advanceTo(now[0], handler);
+        }
+        for (long delay : delays) {
+            Long time = expiredAt.get(delay);
+            assertNotNull("not expired: " + delay, time);
+            assertTrue("expired too early: " + delay, time >= start + delay);
+            assertTrue("expired too late: " + delay, time < start + delay + TICK_MS + 7);
+        }
+    }
+
+    @Test
+    public void testRandomDeadlines() {
+        long start = System.currentTimeMillis();
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK_MS, start);
+        Random random = new Random(42);
+        final Map<Long, Long> expiredAt = new HashMap<>();
+        final long[] now = {start};
+        HierarchicalTimingWheel.ExpireHandler<Long> handler = item -> expiredAt.put(item, now[0]);
+
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long i = 0; i < 2000; i++) {
+            long deadline = now[0] + random.nextInt(600_000);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+            if (i % 10 == 0) {
+                now[0] += random.nextInt(200);
+                wheel.advanceTo(now[0], handler);
+            }
+        }
+        while (expiredAt.size() < deadlines.size() && now[0] < start + 700_000) {
+            now[0] += random.nextInt(200);
+            wheel.advanceTo(now[0], handler);
+        }
+        assertEquals(deadlines.size(), expiredAt.size());
+        for (Map.Entry<Long, Long> e : deadlines.entrySet()) {
+            long time = expiredAt.get(e.getKey());
+            assertTrue(time >= e.getValue());
+            assertTrue(time < e.getValue() + TICK_MS + 200);
+        }
+    }
+}
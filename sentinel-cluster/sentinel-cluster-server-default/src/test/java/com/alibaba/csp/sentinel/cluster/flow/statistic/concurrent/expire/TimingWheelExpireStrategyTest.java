@@ -0,0 +1,109 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.Weighers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelExpireStrategyTest {
+
+    private static final String NAMESPACE = "timing-wheel-test";
+    private static final String ADDRESS_A = "192.168.0.1:10001";
+    private static final String ADDRESS_B = "192.168.0.2:10002";
+
+    private ConcurrentLinkedHashMap<Long, TokenCacheNode> cache;
+    private TimingWheelExpireStrategy strategy;
+
+    @Before
+    public void setUp() {
+        cache = new ConcurrentLinkedHashMap.Builder<Long, TokenCacheNode>()
+            .maximumWeightedCapacity(Integer.MAX_VALUE)
+            .weigher(Weighers.singleton())
+            .build();
+        strategy = new TimingWheelExpireStrategy(cache, 10);
+        ConnectionManager.addConnection(NAMESPACE, ADDRESS_A);
+        ConnectionManager.addConnection(NAMESPACE, ADDRESS_B);
+    }
+
+    @After
+    public void tearDown() {
+        ConnectionManager.removeConnection(NAMESPACE, ADDRESS_A);
+        ConnectionManager.removeConnection(NAMESPACE, ADDRESS_B);
+    }
+
+    @Test
+    public void testExpireByResourceTimeout() {
+        long now = System.currentTimeMillis();
+        TokenCacheNode released = addToken(1L, ADDRESS_A, 500L, 60_000L);
+        addToken(2L, ADDRESS_A, 500L, 60_000L);
+        addToken(3L, ADDRESS_B, 5000L, 60_000L);
+
+        assertEquals(0, strategy.clearToken(now + 100));
+        // Released by the client, the schedule should be skipped.
+        cache.remove(released.getTokenId());
+        strategy.onTokenRemoved(released);
+
+        strategy.clearToken(now + 1000);
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get(3L));
+        strategy.clearToken(now + 6000);
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testExpireOnClientOffline() {
+        long now = System.currentTimeMillis();
+        for (long i = 1; i <= 3; i++) {
+            addToken(i, ADDRESS_A, 60_000L, 200L);
+        }
+        addToken(4L, ADDRESS_B, 60_000L, 200L);
+        // Clients are online, nothing is scanned.
+        strategy.clearToken(now + 1000);
+        assertEquals(4, cache.size());
+
+        ConnectionManager.removeConnection(NAMESPACE, ADDRESS_A);
+        strategy.onClientOffline(ADDRESS_A);
+        ConnectionManager.removeConnection(NAMESPACE, ADDRESS_B);
+        strategy.onClientOffline(ADDRESS_B);
+        // Client B is online again before the offline time.
+        ConnectionManager.addConnection(NAMESPACE, ADDRESS_B);
+
+        strategy.clearToken(now + 1100);
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get(4L));
+    }
+
+    private TokenCacheNode addToken(long tokenId, String address, long resourceTimeout, long clientTimeout) {
+        TokenCacheNode node = new TokenCacheNode();
+        node.setTokenId(tokenId);
+        node.setFlowId(Long.MAX_VALUE - tokenId);
+        node.setAcquireCount(1);
+        node.setResourceTimeout(resourceTimeout);
+        node.setClientTimeout(clientTimeout);
+        node.setClientAddress(address);
+        cache.put(tokenId, node);
+        strategy.onTokenAdded(node);
+        return node;
+    }
+}
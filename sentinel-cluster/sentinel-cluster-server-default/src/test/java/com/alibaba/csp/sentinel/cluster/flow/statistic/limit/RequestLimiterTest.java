@@ -15,6 +15,10 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.limit;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.alibaba.csp.sentinel.cluster.server.AbstractTimeBasedTest;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import org.junit.Test;
@@ -45,4 +49,56 @@ public class RequestLimiterTest extends AbstractTimeBasedTest {
             assertEquals(4, limiter.getSum());
         }
     }
+
+    @Test
+    public void testBucketsSlideOutOneByOne() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, 10000);
+            RequestLimiter limiter = new RequestLimiter(100);
+            limiter.add(5);
+            sleep(mocked, 500);
+            limiter.add(3);
+            assertEquals(8, limiter.getSum());
+            sleep(mocked, 499);
+            assertEquals(8, limiter.getSum());
+            // The first bucket slides out of the window.
+            sleep(mocked, 1);
+            assertEquals(3, limiter.getSum());
+            sleep(mocked, 500);
+            assertEquals(0, limiter.getSum());
+            // Clock going backwards counts into the latest bucket.
+            setCurrentMillis(mocked, 10000);
+            assertTrue(limiter.tryPass());
+            assertEquals(1, limiter.getSum());
+            setCurrentMillis(mocked, 12500);
+            assertEquals(0, limiter.getSum());
+        }
+    }
+
+    @Test
+    public void testConcurrentTryPassNeverExceedsThreshold() throws Exception {
+        long start = System.currentTimeMillis();
+        final RequestLimiter limiter = new RequestLimiter(5000);
+        final AtomicInteger passed = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 2000; i++) {
+                        if (limiter.tryPass()) {
+                            passed.incrementAndGet();
+                        }
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        // Nothing slides out of the window within the first interval.
+        if (System.currentTimeMillis() - start < 1000) {
+            assertEquals(5000, passed.get());
+        }
+        assertTrue(limiter.getSum() <= 5000);
+    }
 }
@@ -15,6 +15,12 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.server.AbstractTimeBasedTest;
 import com.alibaba.csp.sentinel.util.TimeUtil;
@@ -47,4 +53,63 @@ public class ClusterMetricTest extends AbstractTimeBasedTest {
             Assert.assertEquals(0, metric.tryOccupyNext(ClusterFlowEvent.PASS, 333, 900));
         }
     }
+
+    @Test
+    public void testTryReservePass() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, System.currentTimeMillis());
+            ClusterMetric metric = new ClusterMetric(5, 1000);
+            Assert.assertEquals(7, metric.tryReservePass(3, 10), 0.01);
+            Assert.assertEquals(0, metric.tryReservePass(7, 10), 0.01);
+            Assert.assertTrue(metric.tryReservePass(1, 10) < 0);
+            Assert.assertEquals(10, metric.getSum(ClusterFlowEvent.PASS));
+
+            sleep(mocked, 1000);
+            Assert.assertEquals(9, metric.tryReservePass(1, 10), 0.01);
+        }
+    }
+
+    @Test
+    public void testTryReservePassConcurrently() throws Exception {
+        // Buckets of the 10s sliding window won't expire during the test.
+        final ClusterMetric metric = new ClusterMetric(10, 10000);
+        final double threshold = 500;
+        final int threadCount = 16;
+        final int reservePerThread = 1000;
+        final AtomicInteger passCount = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch endLatch = new CountDownLatch(threadCount);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < reservePerThread; j++) {
+                            if (metric.tryReservePass(1, threshold) >= 0) {
+                                passCount.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        endLatch.countDown();
+                    }
+                }
+            });
+        }
+        startLatch.countDown();
+        Assert.assertTrue(endLatch.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        // Concurrent reservations should pass exactly as many tokens as sequential ones, with no overshoot.
+        ClusterMetric sequentialMetric = new ClusterMetric(10, 10000);
+        long maxPass = 0;
+        while (sequentialMetric.tryReservePass(1, threshold) >= 0) {
+            maxPass++;
+        }
+        Assert.assertEquals(maxPass, passCount.get());
+        Assert.assertEquals(maxPass, metric.getSum(ClusterFlowEvent.PASS));
+    }
 }
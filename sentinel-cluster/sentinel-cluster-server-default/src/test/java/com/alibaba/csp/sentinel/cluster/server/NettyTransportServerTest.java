@@ -0,0 +1,94 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class NettyTransportServerTest {
+
+    private NettyTransportServer server;
+    private int port;
+
+    @Before
+    public void setUp() throws Exception {
+        InitExecutor.doInit();
+        port = freePort();
+        server = new NettyTransportServer(port);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testAcceptFrameOfMaxLength() throws Exception {
+        // | xid (4) | type (1) | namespace length (4) | namespace... |, which fills the frame.
+        byte[] namespace = new byte[ClusterConstants.MAX_FRAME_LENGTH - 9];
+        Arrays.fill(namespace, (byte)'a');
+        try (Socket socket = connect()) {
+            socket.setSoTimeout(5000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeShort(ClusterConstants.MAX_FRAME_LENGTH);
+            out.writeInt(7);
+            out.writeByte(ClusterConstants.MSG_TYPE_PING);
+            out.writeInt(namespace.length);
+            out.write(namespace);
+            out.flush();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            in.readUnsignedShort();
+            assertEquals(7, in.readInt());
+            assertEquals(ClusterConstants.MSG_TYPE_PING, in.readByte());
+            assertEquals(ClusterConstants.RESPONSE_STATUS_OK, in.readByte());
+        }
+    }
+
+    private Socket connect() throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (true) {
+            try {
+                return new Socket("127.0.0.1", port);
+            } catch (IOException ex) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw ex;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.channel.unix.Socket;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class ServerTransportSupportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String udsPath;
+    private ServerTransportSupport transport;
+
+    @Before
+    public void setUp() {
+        assumeTrue(ServerTransportSupport.epollUnavailabilityCause() == null);
+        udsPath = new File(folder.getRoot(), "token-server.sock").getPath();
+        transport = ServerTransportSupport.resolve(ClusterConstants.TRANSPORT_EPOLL_UDS, udsPath);
+    }
+
+    @Test
+    public void testRemoveStaleSocket() throws Exception {
+        // A socket bound but not listening refuses connections, like one left by a crashed process.
+        Socket socket = Socket.newSocketDomain();
+        socket.bind(new DomainSocketAddress(udsPath));
+        socket.close();
+        assertTrue(new File(udsPath).exists());
+
+        assertEquals(new DomainSocketAddress(udsPath), transport.bindAddress(0, udsPath));
+        assertFalse(new File(udsPath).exists());
+    }
+
+    @Test
+    public void testKeepSocketInUse() throws Exception {
+        Socket socket = Socket.newSocketDomain();
+        try {
+            socket.bind(new DomainSocketAddress(udsPath));
+            socket.listen(1);
+
+            assertBindFails();
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testKeepFileOtherThanSocket() throws Exception {
+        assertTrue(new File(udsPath).createNewFile());
+
+        assertBindFails();
+    }
+
+    private void assertBindFails() {
+        try {
+            transport.bindAddress(0, udsPath);
+            fail("binding should fail if the path is taken");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage().contains(udsPath));
+        }
+        assertTrue(new File(udsPath).exists());
+    }
+}
@@ -31,4 +31,65 @@ public class ConnectionGroupTest {
         group.removeConnection(address3);
         assertEquals(1, group.getConnectedCount());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testConnectedCountByClientId() {
+        ConnectionGroup group = new ConnectionGroup("appB");
+
+        // Pooled connections of the same client.
+        group.addConnection("12.23.34.45:5566", "12.23.34.45@101");
+        group.addConnection("12.23.34.45:5567", "12.23.34.45@101");
+        group.addConnection("12.23.34.45:5568", "12.23.34.45@102");
+        assertEquals(2, group.getConnectedCount());
+        assertEquals(3, group.getConnectionSet().size());
+
+        group.removeConnection("12.23.34.45:5566");
+        assertEquals(2, group.getConnectedCount());
+        group.removeConnection("12.23.34.45:5567");
+        assertEquals(1, group.getConnectedCount());
+
+        // Connections without client ID are counted by address.
+        group.addConnection("192.168.0.22:32123");
+        group.addConnection("192.168.0.22:32124", null);
+        assertEquals(3, group.getConnectedCount());
+    }
+
+    @Test
+    public void testReRegisterWithChangedClientId() {
+        ConnectionGroup group = new ConnectionGroup("appC");
+        String address = "12.23.34.45:5566";
+
+        group.addConnection(address, "12.23.34.45@101");
+        group.addConnection(address, "12.23.34.45@102");
+        assertEquals(1, group.getConnectedCount());
+        assertEquals(1, group.getConnectionSet().size());
+        assertEquals("12.23.34.45@102", group.getConnectionSet().iterator().next().getClientId());
+
+        group.removeConnection(address);
+        assertEquals(0, group.getConnectedCount());
+        assertTrue(group.getConnectionSet().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentReRegister() throws Exception {
+        final ConnectionGroup group = new ConnectionGroup("appD");
+        final String address = "12.23.34.45:5566";
+        group.addConnection(address, "12.23.34.45@101");
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10000; i++) {
+                    group.addConnection(address, "12.23.34.45@" + (i % 2 + 101));
+                }
+            }
+        });
+        writer.start();
+        // The connection is always visible while being re-registered.
+        while (writer.isAlive()) {
+            assertEquals(1, group.getConnectionSet().size());
+        }
+        writer.join();
+        assertEquals(1, group.getConnectedCount());
+        assertEquals("12.23.34.45@102", group.getConnectionSet().iterator().next().getClientId());
+    }
+}
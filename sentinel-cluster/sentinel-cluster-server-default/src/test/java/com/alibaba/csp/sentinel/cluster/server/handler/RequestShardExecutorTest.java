@@ -0,0 +1,100 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.handler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.PingRequestData;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RequestShardExecutorTest {
+
+    private final RequestShardExecutor executor = new RequestShardExecutor(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testRequestsOfSameFlowGoToSameShard() {
+        for (long flowId = -100; flowId < 100; flowId++) {
+            int shard = executor.shardOf(flowId);
+            assertTrue(shard >= 0 && shard < 4);
+            assertEquals(shard, executor.shardOf(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW,
+                new FlowRequestData().setFlowId(flowId))));
+            assertEquals(shard, executor.shardOf(new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW,
+                new ParamFlowRequestData().setFlowId(flowId))));
+            assertEquals(shard, executor.shardOf(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+                new FlowLeaseRequestData().setFlowId(flowId))));
+        }
+        assertEquals(RequestShardExecutor.NO_SHARD, executor.shardOf(
+            new ClusterRequest<>(ClusterConstants.MSG_TYPE_PING, new PingRequestData().setNamespace("ns"))));
+    }
+
+    @Test
+    public void testSplitBatch() {
+        ClusterRequest flow1 = new ClusterRequest<>(1, ClusterConstants.MSG_TYPE_FLOW,
+            new FlowRequestData().setFlowId(1L));
+        ClusterRequest flow2 = new ClusterRequest<>(2, ClusterConstants.MSG_TYPE_FLOW,
+            new FlowRequestData().setFlowId(2L));
+        ClusterRequest flow1Again = new ClusterRequest<>(3, ClusterConstants.MSG_TYPE_FLOW_LEASE,
+            new FlowLeaseRequestData().setFlowId(1L));
+        List<ClusterRequest>[] groups = executor.splitBatch(Arrays.asList(flow1, flow2, flow1Again));
+
+        int total = 0;
+        for (List<ClusterRequest> group : groups) {
+            total += group == null ? 0 : group.size();
+        }
+        assertEquals(3, total);
+        assertTrue(groups[executor.shardOf(1L)].containsAll(Arrays.asList(flow1, flow1Again)));
+        assertTrue(groups[executor.shardOf(2L)].contains(flow2));
+    }
+
+    @Test
+    public void testShardRunsOnOneThread() throws Exception {
+        final int shard = executor.shardOf(42L);
+        final AtomicReference<Thread> first = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(100);
+        final boolean[] sameThread = {true};
+        for (int i = 0; i < 100; i++) {
+            executor.execute(shard, new Runnable() {
+                @Override
+                public void run() {
+                    first.compareAndSet(null, Thread.currentThread());
+                    sameThread[0] &= first.get() == Thread.currentThread();
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(sameThread[0]);
+        assertTrue(first.get().getName().startsWith("sentinel-cluster-server-shard"));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNodeManager;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReplicationSourceTest {
+
+    private static final long TOKEN_ID_BASE = 1900000L;
+    private static final int TOKEN_COUNT = 10;
+
+    private ReplicationSource source;
+
+    @After
+    public void tearDown() {
+        if (source != null) {
+            source.stop();
+        }
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            TokenCacheNodeManager.removeTokenCacheNode(TOKEN_ID_BASE + i);
+        }
+    }
+
+    @Test
+    public void testNoTokenEventsWithoutStandby() throws Exception {
+        source = new ReplicationSource("127.0.0.1", freePort(), 20);
+        source.start();
+
+        putTokens();
+        assertEquals(0, source.getPendingTokenEventCount());
+    }
+
+    @Test
+    public void testBoundPendingTokenEvents() throws Exception {
+        try (ServerSocket standby = new ServerSocket(0)) {
+            // Connected at the first sync, and then the pending events are only drained an hour later.
+            source = new ReplicationSource("127.0.0.1", standby.getLocalPort(), 3600 * 1000, 4);
+            source.start();
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!source.isConnected()) {
+                assertTrue("not connected in time", System.currentTimeMillis() < deadline);
+                Thread.sleep(20);
+            }
+
+            putTokens();
+            assertEquals(4, source.getPendingTokenEventCount());
+        }
+    }
+
+    private static void putTokens() {
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            TokenCacheNode node = new TokenCacheNode();
+            node.setTokenId(TOKEN_ID_BASE + i);
+            node.setFlowId(1L);
+            node.setAcquireCount(1);
+            node.setClientTimeout(10000L);
+            node.setResourceTimeout(10000L);
+            TokenCacheNodeManager.putTokenCacheNode(node.getTokenId(), node);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
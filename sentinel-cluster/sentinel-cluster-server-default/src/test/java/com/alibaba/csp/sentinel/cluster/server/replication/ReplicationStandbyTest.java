@@ -0,0 +1,141 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.ReplicationRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.ReplicationRequestDataWriter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReplicationStandbyTest {
+
+    @Test
+    public void testApplyDeltasAndTokens() {
+        ReplicationStandby standby = new ReplicationStandby(1000);
+        long windowStart = System.currentTimeMillis();
+        WindowDelta delta = new WindowDelta().setFlowId(1L).setWindowStart(windowStart)
+            .setCount(ClusterFlowEvent.PASS, 3);
+        TokenCacheNode token = newToken(11L, "127.0.0.1:30001");
+        assertTrue(standby.apply(new ReplicationData().setSequence(1)
+            .setWindowDeltas(Collections.singletonList(delta))
+            .setGrantedTokens(Collections.singletonList(token))));
+        assertTrue(standby.apply(new ReplicationData().setSequence(2)
+            .setWindowDeltas(Collections.singletonList(new WindowDelta().setFlowId(1L).setWindowStart(windowStart)
+                .setCount(ClusterFlowEvent.PASS, 2).setCount(ClusterFlowEvent.BLOCK, 1)))));
+
+        assertEquals(5, standby.getReplicatedCount(1L, ClusterFlowEvent.PASS));
+        assertEquals(1, standby.getReplicatedCount(1L, ClusterFlowEvent.BLOCK));
+        assertEquals(1, standby.getReplicatedTokenCount());
+
+        assertTrue(standby.apply(new ReplicationData().setSequence(3)
+            .setReleasedTokens(Collections.singletonList(11L))));
+        assertEquals(0, standby.getReplicatedTokenCount());
+    }
+
+    @Test
+    public void testResetOnFullReplication() {
+        ReplicationStandby standby = new ReplicationStandby(1000);
+        long windowStart = System.currentTimeMillis();
+        assertTrue(standby.apply(new ReplicationData().setSequence(1).setReset(true)
+            .setWindowDeltas(Collections.singletonList(new WindowDelta().setFlowId(1L).setWindowStart(windowStart)
+                .setCount(ClusterFlowEvent.PASS, 3)))
+            .setGrantedTokens(Collections.singletonList(newToken(11L, "127.0.0.1:30001")))));
+
+        // The primary reconnects and sends absolute counts, while the token has been released meanwhile.
+        assertTrue(standby.apply(new ReplicationData().setSequence(1).setReset(true)
+            .setWindowDeltas(Collections.singletonList(new WindowDelta().setFlowId(1L).setWindowStart(windowStart)
+                .setCount(ClusterFlowEvent.PASS, 4)))));
+        assertEquals(4, standby.getReplicatedCount(1L, ClusterFlowEvent.PASS));
+        assertEquals(0, standby.getReplicatedTokenCount());
+    }
+
+    @Test
+    public void testPromoteOnHeartbeatTimeout() {
+        ReplicationStandby standby = new ReplicationStandby(1000);
+        long now = System.currentTimeMillis();
+        // Never promoted before the first frame.
+        assertFalse(standby.checkHeartbeat(now + 5000));
+
+        assertTrue(standby.apply(new ReplicationData().setSequence(1)));
+        long lastReceived = standby.getLastReceivedTime();
+        assertFalse(standby.checkHeartbeat(lastReceived + 1000));
+        assertTrue(standby.checkHeartbeat(lastReceived + 1001));
+        assertTrue(standby.isPromoted());
+        assertFalse(standby.checkHeartbeat(lastReceived + 2000));
+
+        // Frames from the former primary are rejected after taking over.
+        assertFalse(standby.apply(new ReplicationData().setSequence(2)));
+    }
+
+    @Test
+    public void testFrameRoundTrip() {
+        long windowStart = System.currentTimeMillis();
+        TokenCacheNode token = newToken(21L, "127.0.0.1:30001");
+        TokenCacheNode anonymousToken = newToken(22L, null);
+        ReplicationData data = new ReplicationData().setSequence(7).setReset(true)
+            .setWindowDeltas(Collections.singletonList(new WindowDelta().setFlowId(2L).setWindowStart(windowStart)
+                .setCount(ClusterFlowEvent.PASS_REQUEST, 4).setCount(ClusterFlowEvent.WAITING, -1)))
+            .setReleasedTokens(Collections.singletonList(20L));
+        data.getGrantedTokens().add(token);
+        data.getGrantedTokens().add(anonymousToken);
+
+        ByteBuf buf = Unpooled.buffer();
+        new ReplicationRequestDataWriter().writeTo(data, buf);
+        ReplicationData decoded = new ReplicationRequestDataDecoder().decode(buf);
+
+        assertEquals(7, decoded.getSequence());
+        assertTrue(decoded.isReset());
+        WindowDelta delta = decoded.getWindowDeltas().get(0);
+        assertEquals(2L, delta.getFlowId());
+        assertEquals(windowStart, delta.getWindowStart());
+        assertEquals(4, delta.getCount(ClusterFlowEvent.PASS_REQUEST));
+        assertEquals(-1, delta.getCount(ClusterFlowEvent.WAITING));
+        assertEquals(0, delta.getCount(ClusterFlowEvent.PASS));
+        assertEquals(2, decoded.getGrantedTokens().size());
+        TokenCacheNode decodedToken = decoded.getGrantedTokens().get(0);
+        assertEquals(token.getTokenId(), decodedToken.getTokenId());
+        assertEquals(token.getFlowId(), decodedToken.getFlowId());
+        assertEquals(token.getAcquireCount(), decodedToken.getAcquireCount());
+        assertEquals("127.0.0.1:30001", decodedToken.getClientAddress());
+        assertTrue(Math.abs(token.getResourceTimeout() - decodedToken.getResourceTimeout()) <= 1);
+        assertNull(decoded.getGrantedTokens().get(1).getClientAddress());
+        assertEquals(Collections.singletonList(20L), decoded.getReleasedTokens());
+        assertEquals(0, buf.readableBytes());
+        buf.release();
+    }
+
+    private static TokenCacheNode newToken(long tokenId, String address) {
+        TokenCacheNode node = new TokenCacheNode();
+        node.setTokenId(tokenId);
+        node.setFlowId(1L);
+        node.setAcquireCount(2);
+        node.setClientTimeout(10000L);
+        node.setResourceTimeout(10000L);
+        node.setClientAddress(address);
+        return node;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.replication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.ConcurrentClusterFlowChecker;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.CurrentConcurrencyManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNodeManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replication between two token servers in one JVM on loopback. As the token server state is shared
+ * within the JVM, the crash of the primary is simulated by wiping the state after the replication stops.
+ */
+public class TokenServerReplicationTest {
+
+    private static final String NAMESPACE = "replication-test";
+    private static final long QPS_FLOW_ID = 1801L;
+    private static final long CONCURRENT_FLOW_ID = 1802L;
+
+    private NettyTransportServer primaryServer;
+    private NettyTransportServer standbyServer;
+    private int standbyPort;
+
+    @Before
+    public void setUp() throws Exception {
+        InitExecutor.doInit();
+        ClusterMetricStatistics.removeMetric(QPS_FLOW_ID);
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Arrays.asList(qpsRule(), concurrentRule()));
+        removeTokens(CONCURRENT_FLOW_ID);
+
+        primaryServer = new NettyTransportServer(freePort());
+        primaryServer.start();
+        standbyPort = freePort();
+        standbyServer = new NettyTransportServer(standbyPort);
+        standbyServer.start();
+        ReplicationManager.startStandby(500);
+        ReplicationManager.startReplication("127.0.0.1", standbyPort, 20);
+    }
+
+    @After
+    public void tearDown() {
+        ReplicationManager.stopReplication();
+        ReplicationManager.stopStandby();
+        primaryServer.stop();
+        standbyServer.stop();
+        removeTokens(CONCURRENT_FLOW_ID);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, new ArrayList<FlowRule>());
+    }
+
+    @Test
+    public void testTakeOverWithReplicatedState() throws Exception {
+        final ReplicationStandby standby = ReplicationManager.getStandby();
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(QPS_FLOW_ID);
+        metric.add(ClusterFlowEvent.PASS, 30);
+        metric.add(ClusterFlowEvent.BLOCK, 2);
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(CONCURRENT_FLOW_ID);
+        List<Long> tokenIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TokenResult result = ConcurrentClusterFlowChecker.acquireConcurrentToken("127.0.0.1:30001", rule, 1);
+            assertEquals(TokenResultStatus.OK, (int)result.getStatus());
+            tokenIds.add(result.getTokenId());
+        }
+        ConcurrentClusterFlowChecker.releaseConcurrentToken(tokenIds.get(0));
+
+        awaitTrue(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return standby.getReplicatedCount(QPS_FLOW_ID, ClusterFlowEvent.PASS) == 30
+                    && standby.getReplicatedTokenCount() == 2;
+            }
+        });
+        assertEquals(2, standby.getReplicatedCount(QPS_FLOW_ID, ClusterFlowEvent.BLOCK));
+
+        // Only the delta is replicated afterwards.
+        metric.add(ClusterFlowEvent.PASS, 5);
+        ConcurrentClusterFlowChecker.acquireConcurrentToken("127.0.0.1:30002", rule, 2);
+        awaitTrue(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return standby.getReplicatedCount(QPS_FLOW_ID, ClusterFlowEvent.PASS) == 35
+                    && standby.getReplicatedTokenCount() == 3;
+            }
+        });
+        assertFalse(standby.isPromoted());
+
+        // The primary crashes and its state is lost.
+        ReplicationManager.stopReplication();
+        primaryServer.stop();
+        ClusterMetricStatistics.putMetric(QPS_FLOW_ID, new ClusterMetric(10, 10000));
+        removeTokens(CONCURRENT_FLOW_ID);
+        CurrentConcurrencyManager.put(CONCURRENT_FLOW_ID, 0);
+
+        awaitTrue(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return standby.isPromoted();
+            }
+        });
+        ClusterMetric warmMetric = ClusterMetricStatistics.getMetric(QPS_FLOW_ID);
+        assertEquals(35, warmMetric.getSum(ClusterFlowEvent.PASS));
+        assertEquals(2, warmMetric.getSum(ClusterFlowEvent.BLOCK));
+        assertEquals(3, countTokens(CONCURRENT_FLOW_ID));
+        assertEquals(4, CurrentConcurrencyManager.get(CONCURRENT_FLOW_ID).get());
+        assertFalse(TokenCacheNodeManager.isContainsTokenId(tokenIds.get(0)));
+        assertTrue(TokenCacheNodeManager.isContainsTokenId(tokenIds.get(1)));
+    }
+
+    @Test
+    public void testFullReplicationAfterReconnect() throws Exception {
+        final ReplicationStandby standby = ReplicationManager.getStandby();
+        ClusterMetricStatistics.getMetric(QPS_FLOW_ID).add(ClusterFlowEvent.PASS, 30);
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(CONCURRENT_FLOW_ID);
+        List<Long> tokenIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            tokenIds.add(ConcurrentClusterFlowChecker.acquireConcurrentToken("127.0.0.1:30001", rule, 1)
+                .getTokenId());
+        }
+        awaitTrue(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return standby.getReplicatedCount(QPS_FLOW_ID, ClusterFlowEvent.PASS) == 30
+                    && standby.getReplicatedTokenCount() == 2;
+            }
+        });
+
+        // The release during disconnection is only covered by the full replication after reconnected.
+        ReplicationManager.stopReplication();
+        ConcurrentClusterFlowChecker.releaseConcurrentToken(tokenIds.get(0));
+        ReplicationManager.startReplication("127.0.0.1", standbyPort, 20);
+        awaitTrue(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return standby.getReplicatedTokenCount() == 1;
+            }
+        });
+        assertEquals(30, standby.getReplicatedCount(QPS_FLOW_ID, ClusterFlowEvent.PASS));
+    }
+
+    private static FlowRule qpsRule() {
+        ClusterFlowConfig config = new ClusterFlowConfig()
+            .setFlowId(QPS_FLOW_ID)
+            .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)
+            .setSampleCount(10)
+            .setWindowIntervalMs(10000);
+        return new FlowRule("replication-qps").setCount(1000).setClusterMode(true).setClusterConfig(config);
+    }
+
+    private static FlowRule concurrentRule() {
+        ClusterFlowConfig config = new ClusterFlowConfig()
+            .setFlowId(CONCURRENT_FLOW_ID)
+            .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL);
+        config.setResourceTimeout(10000);
+        config.setClientOfflineTime(10000);
+        return new FlowRule("replication-concurrent").setGrade(RuleConstant.FLOW_GRADE_THREAD).setCount(10)
+            .setClusterMode(true).setClusterConfig(config);
+    }
+
+    private static int countTokens(long flowId) {
+        int count = 0;
+        for (Long tokenId : TokenCacheNodeManager.getCacheKeySet()) {
+            TokenCacheNode node = TokenCacheNodeManager.getTokenCacheNode(tokenId);
+            if (node != null && node.getFlowId() == flowId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void removeTokens(long flowId) {
+        for (Long tokenId : TokenCacheNodeManager.getCacheKeySet()) {
+            TokenCacheNode node = TokenCacheNodeManager.getTokenCacheNode(tokenId);
+            if (node != null && node.getFlowId() == flowId) {
+                TokenCacheNodeManager.removeTokenCacheNode(tokenId);
+            }
+        }
+    }
+
+    private static void awaitTrue(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.call()) {
+            assertTrue("condition not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -20,10 +20,10 @@ import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
-import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow.SimpleClusterFlowChecker;
 import com.alibaba.csp.sentinel.cluster.server.envoy.rls.log.RlsAccessLogger;
-import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoySentinelRuleConverter;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsDescriptorTrie;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRuleManager;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.util.function.Tuple2;
 
@@ -39,8 +39,6 @@ import io.envoyproxy.envoy.service.ratelimit.v2.RateLimitResponse.RateLimit.Unit
 import io.envoyproxy.envoy.service.ratelimit.v2.RateLimitServiceGrpc;
 import io.grpc.stub.StreamObserver;
 
-import static com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoySentinelRuleConverter.SEPARATOR;
-
 /**
  * @author Eric Zhao
  * @since 1.7.0
@@ -62,8 +60,9 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
 
         String domain = request.getDomain();
         boolean blocked = false;
-        List<DescriptorStatus> statusList = new ArrayList<>(request.getDescriptorsCount());
-        for (RateLimitDescriptor descriptor : request.getDescriptorsList()) {
+        List<RateLimitDescriptor> descriptors = request.getDescriptorsList();
+        List<Tuple2<FlowRule, TokenResult>> results = new ArrayList<>(descriptors.size());
+        for (RateLimitDescriptor descriptor : descriptors) {
             Tuple2<FlowRule, TokenResult> t = checkToken(domain, descriptor, acquireCount);
             TokenResult r = t.r2;
 
@@ -77,7 +76,20 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
             if (!blocked && r.getStatus() != TokenResultStatus.OK) {
                 blocked = true;
             }
+            results.add(t);
+        }
+        if (blocked) {
+            // The request is rejected as a whole, so tokens taken by the passed descriptors are given back.
+            for (Tuple2<FlowRule, TokenResult> t : results) {
+                if (t.r1 != null && t.r2.getStatus() == TokenResultStatus.OK) {
+                    releaseToken(t.r1, t.r2, acquireCount);
+                }
+            }
+        }
 
+        List<DescriptorStatus> statusList = new ArrayList<>(results.size());
+        for (Tuple2<FlowRule, TokenResult> t : results) {
+            TokenResult r = t.r2;
             Code statusCode = r.getStatus() == TokenResultStatus.OK ? Code.OK : Code.OVER_LIMIT;
             DescriptorStatus.Builder descriptorStatusBuilder = DescriptorStatus.newBuilder()
                 .setCode(statusCode);
@@ -114,9 +126,7 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
     }
 
     protected Tuple2<FlowRule, TokenResult> checkToken(String domain, RateLimitDescriptor descriptor, int acquireCount) {
-        long ruleId = EnvoySentinelRuleConverter.generateFlowId(generateKey(domain, descriptor));
-
-        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        FlowRule rule = findRule(domain, descriptor);
         if (rule == null) {
             // Pass if the target rule is absent.
             return Tuple2.of(null, new TokenResult(TokenResultStatus.NO_RULE_EXISTS));
@@ -125,11 +135,22 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
         return Tuple2.of(rule, SimpleClusterFlowChecker.acquireClusterToken(rule, acquireCount));
     }
 
-    private String generateKey(String domain, RateLimitDescriptor descriptor) {
-        StringBuilder sb = new StringBuilder(domain);
-        for (Entry resource : descriptor.getEntriesList()) {
-            sb.append(SEPARATOR).append(resource.getKey()).append(SEPARATOR).append(resource.getValue());
+    /**
+     * Give back tokens acquired by {@link #checkToken(String, RateLimitDescriptor, int)}.
+     *
+     * @since 1.8.8
+     */
+    protected void releaseToken(FlowRule rule, TokenResult result, int acquireCount) {
+        SimpleClusterFlowChecker.releaseClusterToken(rule, result, acquireCount);
+    }
+
+    private FlowRule findRule(String domain, RateLimitDescriptor descriptor) {
+        // Match the descriptor entry by entry, so that no key needs to be built.
+        EnvoyRlsDescriptorTrie.Node node = EnvoyRlsRuleManager.getDomainNode(domain);
+        for (int i = 0; node != null && i < descriptor.getEntriesCount(); i++) {
+            Entry entry = descriptor.getEntries(i);
+            node = node.getChild(entry.getKey(), entry.getValue());
         }
-        return sb.toString();
+        return node == null ? null : node.getRule();
     }
 }
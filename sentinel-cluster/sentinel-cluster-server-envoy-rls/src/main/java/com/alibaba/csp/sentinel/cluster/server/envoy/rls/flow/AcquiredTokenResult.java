@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+
+/**
+ * Result of pass tokens acquired by {@link SimpleClusterFlowChecker}, with the time when they are taken,
+ * so that they could be given back to the bucket they are taken from.
+ *
+ * @since 1.8.8
+ */
+public class AcquiredTokenResult extends TokenResult {
+
+    private final long acquireTime;
+
+    public AcquiredTokenResult(Integer status, long acquireTime) {
+        super(status);
+        this.acquireTime = acquireTime;
+    }
+
+    public long getAcquireTime() {
+        return acquireTime;
+    }
+}
@@ -22,7 +22,9 @@ import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
 import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
+import com.alibaba.csp.sentinel.cluster.server.log.ClusterStatEvent;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * @author Eric Zhao
@@ -38,32 +40,61 @@ public final class SimpleClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        double latestQps = metric.getAvg(ClusterFlowEvent.PASS);
         double globalThreshold = rule.getCount() * ClusterServerConfigManager.getExceedCount();
-        double nextRemaining = globalThreshold - latestQps - acquireCount;
+        long acquireTime = TimeUtil.currentTimeMillis();
+        // Check and add pass count atomically, so that concurrent requests cannot exceed the threshold together.
+        double nextRemaining = metric.tryReservePass(acquireTime, acquireCount, globalThreshold);
 
         if (nextRemaining >= 0) {
-            metric.add(ClusterFlowEvent.PASS, acquireCount);
-            metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+            metric.addAt(acquireTime, ClusterFlowEvent.PASS_REQUEST, 1);
 
-            ClusterServerStatLogUtil.log("flow|pass|" + id, acquireCount);
-            ClusterServerStatLogUtil.log("flow|pass_request|" + id, 1);
+            ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_PASS, id, acquireCount);
+            ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_PASS_REQUEST, id, 1);
 
             // Remaining count is cut down to a smaller integer.
-            return new TokenResult(TokenResultStatus.OK)
+            return new AcquiredTokenResult(TokenResultStatus.OK, acquireTime)
                 .setRemaining((int) nextRemaining)
                 .setWaitInMs(0);
         } else {
             // Blocked.
             metric.add(ClusterFlowEvent.BLOCK, acquireCount);
             metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
-            ClusterServerStatLogUtil.log("flow|block|" + id, acquireCount);
-            ClusterServerStatLogUtil.log("flow|block_request|" + id, 1);
+            ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_BLOCK, id, acquireCount);
+            ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_BLOCK_REQUEST, id, 1);
 
             return blockedResult();
         }
     }
 
+    /**
+     * Give back pass tokens acquired by {@link #acquireClusterToken(FlowRule, int)}, e.g. when the request
+     * is blocked by another descriptor.
+     *
+     * <p>Tokens are given back to the bucket they were taken from, and nothing is given back once the bucket
+     * has slid out of the window, as the tokens have expired with it.</p>
+     *
+     * @param rule         the rule tokens were acquired from
+     * @param result       the result of acquiring tokens
+     * @param acquireCount count of acquired tokens
+     * @since 1.8.8
+     */
+    public static void releaseClusterToken(/*@Valid*/ FlowRule rule, TokenResult result, int acquireCount) {
+        if (!(result instanceof AcquiredTokenResult)) {
+            return;
+        }
+        Long id = rule.getClusterConfig().getFlowId();
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return;
+        }
+        long acquireTime = ((AcquiredTokenResult)result).getAcquireTime();
+        if (!metric.addAt(acquireTime, ClusterFlowEvent.PASS, -acquireCount)) {
+            return;
+        }
+        metric.addAt(acquireTime, ClusterFlowEvent.PASS_REQUEST, -1);
+        ClusterServerStatLogUtil.log(ClusterStatEvent.FLOW_RELEASE, id, acquireCount);
+    }
+
     private static TokenResult blockedResult() {
         return new TokenResult(TokenResultStatus.BLOCKED)
             .setRemaining(0)
@@ -0,0 +1,136 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * Index of the flow rules converted from Envoy RLS rules: domain → descriptor entries (key and value,
+ * in the order of the rule) → flow rule. Descriptors of requests are matched by walking the trie
+ * entry by entry, so no key string is built or hashed for every descriptor.
+ * </p>
+ * <p>
+ * The trie is immutable once built, and is replaced as a whole when rules are loaded.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public final class EnvoyRlsDescriptorTrie {
+
+    private static final EnvoyRlsDescriptorTrie EMPTY = new EnvoyRlsDescriptorTrie(
+        Collections.<String, Node>emptyMap());
+
+    private final Map<String, Node> domains;
+
+    private EnvoyRlsDescriptorTrie(Map<String, Node> domains) {
+        this.domains = domains;
+    }
+
+    public static EnvoyRlsDescriptorTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param domain domain of the request
+     * @return root node of the domain, or null if there are no rules for the domain
+     */
+    public Node getDomainNode(String domain) {
+        return domain == null ? null : domains.get(domain);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Node of the trie, which stands for the descriptor entries from the domain to the node.
+     */
+    public static final class Node {
+
+        private final Map<String, Map<String, Node>> children = new HashMap<>(4);
+        private FlowRule rule;
+
+        /**
+         * @param key   key of the next descriptor entry
+         * @param value value of the next descriptor entry
+         * @return child node of the entry, or null if no rule has the entry at this position
+         */
+        public Node getChild(String key, String value) {
+            Map<String, Node> valueMap = children.get(key);
+            return valueMap == null ? null : valueMap.get(value);
+        }
+
+        /**
+         * @return flow rule of the descriptor which ends at this node, or null if absent
+         */
+        public FlowRule getRule() {
+            return rule;
+        }
+
+        private Node getOrCreateChild(String key, String value) {
+            Map<String, Node> valueMap = children.get(key);
+            if (valueMap == null) {
+                valueMap = new HashMap<>(4);
+                children.put(key, valueMap);
+            }
+            Node child = valueMap.get(value);
+            if (child == null) {
+                child = new Node();
+                valueMap.put(value, child);
+            }
+            return child;
+        }
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Node> domains = new HashMap<>();
+
+        /**
+         * Add the flow rule converted from the descriptor of a valid Envoy RLS rule.
+         *
+         * @param domain     domain of the Envoy RLS rule
+         * @param descriptor descriptor of the Envoy RLS rule
+         * @param rule       converted flow rule of the descriptor
+         * @return this builder
+         */
+        public Builder add(String domain, EnvoyRlsRule.ResourceDescriptor descriptor, FlowRule rule) {
+            AssertUtil.assertNotBlank(domain, "domain cannot be blank");
+            AssertUtil.notNull(descriptor, "descriptor cannot be null");
+            AssertUtil.notNull(rule, "rule cannot be null");
+            Node node = domains.get(domain);
+            if (node == null) {
+                node = new Node();
+                domains.put(domain, node);
+            }
+            for (EnvoyRlsRule.KeyValueResource resource : descriptor.getResources()) {
+                node = node.getOrCreateChild(resource.getKey(), resource.getValue());
+            }
+            node.rule = rule;
+            return this;
+        }
+
+        public EnvoyRlsDescriptorTrie build() {
+            return new EnvoyRlsDescriptorTrie(new HashMap<>(domains));
+        }
+    }
+}
@@ -22,7 +22,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
 
 import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
@@ -43,6 +42,11 @@ public final class EnvoyRlsRuleManager {
 
     private static final ConcurrentMap<String, EnvoyRlsRule> RULE_MAP = new ConcurrentHashMap<>();
 
+    /**
+     * Index of converted flow rules by domain and descriptor entries, rebuilt when rules are loaded.
+     */
+    private static volatile EnvoyRlsDescriptorTrie descriptorTrie = EnvoyRlsDescriptorTrie.empty();
+
     private static final PropertyListener<List<EnvoyRlsRule>> PROPERTY_LISTENER = new EnvoyRlsRulePropertyListener();
     private static SentinelProperty<List<EnvoyRlsRule>> currentProperty = new DynamicSentinelProperty<>();
 
@@ -79,15 +83,33 @@ public final class EnvoyRlsRuleManager {
         return new ArrayList<>(RULE_MAP.values());
     }
 
+    /**
+     * Get the root node of converted flow rules of the domain, from which descriptors of requests
+     * can be matched entry by entry.
+     *
+     * @param domain domain of the request
+     * @return root node of the domain, or null if there are no rules for the domain
+     * @since 1.8.8
+     */
+    public static EnvoyRlsDescriptorTrie.Node getDomainNode(String domain) {
+        return descriptorTrie.getDomainNode(domain);
+    }
+
     static final class EnvoyRlsRulePropertyListener extends SimplePropertyListener<List<EnvoyRlsRule>> {
 
         @Override
         public synchronized void configUpdate(List<EnvoyRlsRule> conf) {
             Map<String, EnvoyRlsRule> ruleMap = generateRuleMap(conf);
 
-            List<FlowRule> flowRules = ruleMap.values().stream()
-                .flatMap(e -> EnvoySentinelRuleConverter.toSentinelFlowRules(e).stream())
-                .collect(Collectors.toList());
+            List<FlowRule> flowRules = new ArrayList<>();
+            EnvoyRlsDescriptorTrie.Builder trieBuilder = EnvoyRlsDescriptorTrie.newBuilder();
+            for (EnvoyRlsRule rule : ruleMap.values()) {
+                for (EnvoyRlsRule.ResourceDescriptor descriptor : rule.getDescriptors()) {
+                    FlowRule flowRule = EnvoySentinelRuleConverter.toSentinelFlowRule(rule.getDomain(), descriptor);
+                    flowRules.add(flowRule);
+                    trieBuilder.add(rule.getDomain(), descriptor, flowRule);
+                }
+            }
 
             RULE_MAP.clear();
             RULE_MAP.putAll(ruleMap);
@@ -95,6 +117,8 @@ public final class EnvoyRlsRuleManager {
 
             // Use the "default" namespace.
             ClusterFlowRuleManager.loadRules(ServerConstants.DEFAULT_NAMESPACE, flowRules);
+            // Metrics of the flow rules are ready, descriptors can be matched to the rules now.
+            descriptorTrie = trieBuilder.build();
         }
 
         Map<String, EnvoyRlsRule> generateRuleMap(List<EnvoyRlsRule> conf) {
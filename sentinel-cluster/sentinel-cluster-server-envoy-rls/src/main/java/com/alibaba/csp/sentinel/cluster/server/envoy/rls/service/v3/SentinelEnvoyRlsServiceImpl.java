@@ -2,10 +2,10 @@ package com.alibaba.csp.sentinel.cluster.server.envoy.rls.service.v3;
 
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
-import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow.SimpleClusterFlowChecker;
 import com.alibaba.csp.sentinel.cluster.server.envoy.rls.log.RlsAccessLogger;
-import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoySentinelRuleConverter;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsDescriptorTrie;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRuleManager;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.util.function.Tuple2;
 import com.google.protobuf.TextFormat;
@@ -21,8 +21,6 @@ import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
 import java.util.List;
 
-import static com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoySentinelRuleConverter.SEPARATOR;
-
 /**
  * gRPC限流入口，实现envoy rls v3 api
  *
@@ -45,8 +43,9 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
 
         String domain = request.getDomain();
         boolean blocked = false;
-        List<DescriptorStatus> statusList = new ArrayList<>(request.getDescriptorsCount());
-        for (RateLimitDescriptor descriptor : request.getDescriptorsList()) {
+        List<RateLimitDescriptor> descriptors = request.getDescriptorsList();
+        List<Tuple2<FlowRule, TokenResult>> results = new ArrayList<>(descriptors.size());
+        for (RateLimitDescriptor descriptor : descriptors) {
             Tuple2<FlowRule, TokenResult> t = checkToken(domain, descriptor, acquireCount);
             TokenResult r = t.r2;
 
@@ -60,7 +59,20 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
             if (!blocked && r.getStatus() != TokenResultStatus.OK) {
                 blocked = true;
             }
+            results.add(t);
+        }
+        if (blocked) {
+            // The request is rejected as a whole, so tokens taken by the passed descriptors are given back.
+            for (Tuple2<FlowRule, TokenResult> t : results) {
+                if (t.r1 != null && t.r2.getStatus() == TokenResultStatus.OK) {
+                    releaseToken(t.r1, t.r2, acquireCount);
+                }
+            }
+        }
 
+        List<DescriptorStatus> statusList = new ArrayList<>(results.size());
+        for (Tuple2<FlowRule, TokenResult> t : results) {
+            TokenResult r = t.r2;
             Code statusCode = r.getStatus() == TokenResultStatus.OK ? Code.OK : Code.OVER_LIMIT;
             DescriptorStatus.Builder descriptorStatusBuilder = DescriptorStatus.newBuilder()
                     .setCode(statusCode);
@@ -97,9 +109,7 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
     }
 
     protected Tuple2<FlowRule, TokenResult> checkToken(String domain, RateLimitDescriptor descriptor, int acquireCount) {
-        long ruleId = EnvoySentinelRuleConverter.generateFlowId(generateKey(domain, descriptor));
-
-        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        FlowRule rule = findRule(domain, descriptor);
         if (rule == null) {
             // Pass if the target rule is absent.
             return Tuple2.of(null, new TokenResult(TokenResultStatus.NO_RULE_EXISTS));
@@ -108,11 +118,22 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
         return Tuple2.of(rule, SimpleClusterFlowChecker.acquireClusterToken(rule, acquireCount));
     }
 
-    private String generateKey(String domain, RateLimitDescriptor descriptor) {
-        StringBuilder sb = new StringBuilder(domain);
-        for (RateLimitDescriptor.Entry resource : descriptor.getEntriesList()) {
-            sb.append(SEPARATOR).append(resource.getKey()).append(SEPARATOR).append(resource.getValue());
+    /**
+     * Give back tokens acquired by {@link #checkToken(String, RateLimitDescriptor, int)}.
+     *
+     * @since 1.8.8
+     */
+    protected void releaseToken(FlowRule rule, TokenResult result, int acquireCount) {
+        SimpleClusterFlowChecker.releaseClusterToken(rule, result, acquireCount);
+    }
+
+    private FlowRule findRule(String domain, RateLimitDescriptor descriptor) {
+        // Match the descriptor entry by entry, so that no key needs to be built.
+        EnvoyRlsDescriptorTrie.Node node = EnvoyRlsRuleManager.getDomainNode(domain);
+        for (int i = 0; node != null && i < descriptor.getEntriesCount(); i++) {
+            RateLimitDescriptor.Entry entry = descriptor.getEntries(i);
+            node = node.getChild(entry.getKey(), entry.getValue());
         }
-        return sb.toString();
+        return node == null ? null : node.getRule();
     }
 }
@@ -15,8 +15,17 @@
  */
 package com.alibaba.csp.sentinel.cluster.server.envoy.rls;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRule;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoySentinelRuleConverter;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.util.function.Tuple2;
 
@@ -116,4 +125,59 @@ public class SentinelEnvoyRlsServiceImplTest {
         assertFalse(response.getStatusesList().stream()
             .allMatch(e -> e.getCode().equals(Code.OVER_LIMIT)));
     }
+
+    @Test
+    public void testBlockedRequestGivesBackTokensOfOtherDescriptors() {
+        String domain = "testBlockedRequestGivesBackTokens";
+        EnvoyRlsRule.ResourceDescriptor strict = new EnvoyRlsRule.ResourceDescriptor(
+            new LinkedHashSet<>(Collections.singletonList(new EnvoyRlsRule.KeyValueResource("a1", "b1"))), 1d);
+        EnvoyRlsRule.ResourceDescriptor loose = new EnvoyRlsRule.ResourceDescriptor(new LinkedHashSet<>(Arrays.asList(
+            new EnvoyRlsRule.KeyValueResource("a2", "b2"), new EnvoyRlsRule.KeyValueResource("a3", "b3"))), 10d);
+        EnvoyRlsRule rule = new EnvoyRlsRule();
+        rule.setDomain(domain);
+        rule.setDescriptors(Arrays.asList(strict, loose));
+        EnvoyRlsRuleManager.loadRules(Collections.singletonList(rule));
+        try {
+            RateLimitRequest request = RateLimitRequest.newBuilder()
+                .setDomain(domain)
+                .addDescriptors(RateLimitDescriptor.newBuilder()
+                    .addEntries(RateLimitDescriptor.Entry.newBuilder().setKey("a1").setValue("b1").build())
+                    .build())
+                .addDescriptors(RateLimitDescriptor.newBuilder()
+                    .addEntries(RateLimitDescriptor.Entry.newBuilder().setKey("a2").setValue("b2").build())
+                    .addEntries(RateLimitDescriptor.Entry.newBuilder().setKey("a3").setValue("b3").build())
+                    .build())
+                .addDescriptors(RateLimitDescriptor.newBuilder()
+                    .addEntries(RateLimitDescriptor.Entry.newBuilder().setKey("a2").setValue("other").build())
+                    .build())
+                .build();
+            SentinelEnvoyRlsServiceImpl rlsService = new SentinelEnvoyRlsServiceImpl();
+
+            RateLimitResponse passed = shouldRateLimit(rlsService, request);
+            assertEquals(Code.OK, passed.getOverallCode());
+            // The descriptor without rule passes directly.
+            assertFalse(passed.getStatuses(2).hasCurrentLimit());
+
+            RateLimitResponse blocked = shouldRateLimit(rlsService, request);
+            assertEquals(Code.OVER_LIMIT, blocked.getOverallCode());
+            assertEquals(Code.OVER_LIMIT, blocked.getStatuses(0).getCode());
+            assertEquals(Code.OK, blocked.getStatuses(1).getCode());
+
+            // Only the passed request takes tokens of the loose descriptor.
+            long looseFlowId = EnvoySentinelRuleConverter.toSentinelFlowRule(domain, loose)
+                .getClusterConfig().getFlowId();
+            assertEquals(1, ClusterMetricStatistics.getMetric(looseFlowId).getSum(ClusterFlowEvent.PASS));
+        } finally {
+            EnvoyRlsRuleManager.loadRules(Collections.<EnvoyRlsRule>emptyList());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RateLimitResponse shouldRateLimit(SentinelEnvoyRlsServiceImpl rlsService, RateLimitRequest request) {
+        StreamObserver<RateLimitResponse> streamObserver = mock(StreamObserver.class);
+        ArgumentCaptor<RateLimitResponse> responseCapture = ArgumentCaptor.forClass(RateLimitResponse.class);
+        doNothing().when(streamObserver).onNext(responseCapture.capture());
+        rlsService.shouldRateLimit(request, streamObserver);
+        return responseCapture.getValue();
+    }
 }
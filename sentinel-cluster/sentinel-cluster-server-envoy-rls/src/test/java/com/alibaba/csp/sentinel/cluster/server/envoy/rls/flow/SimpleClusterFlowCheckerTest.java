@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+
+public class SimpleClusterFlowCheckerTest {
+
+    private static final long FLOW_ID = 2101L;
+
+    private MockedStatic<TimeUtil> mocked;
+    private FlowRule rule;
+    private ClusterMetric metric;
+
+    @Before
+    public void setUp() {
+        mocked = Mockito.mockStatic(TimeUtil.class);
+        setCurrentMillis(1000);
+        ClusterFlowConfig config = new ClusterFlowConfig()
+            .setFlowId(FLOW_ID)
+            .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)
+            .setSampleCount(2)
+            .setWindowIntervalMs(1000);
+        rule = new FlowRule("simple-cluster-flow-checker-test").setCount(10).setClusterMode(true)
+            .setClusterConfig(config);
+        metric = new ClusterMetric(2, 1000);
+        ClusterMetricStatistics.putMetric(FLOW_ID, metric);
+    }
+
+    @After
+    public void tearDown() {
+        ClusterMetricStatistics.removeMetric(FLOW_ID);
+        mocked.close();
+    }
+
+    @Test
+    public void testReleaseToAcquiredBucket() {
+        TokenResult result = SimpleClusterFlowChecker.acquireClusterToken(rule, 3);
+        assertEquals(TokenResultStatus.OK, (int)result.getStatus());
+        assertEquals(3, metric.getCurrentCount(ClusterFlowEvent.PASS));
+
+        // The window slides to the next bucket before the tokens are given back.
+        setCurrentMillis(1600);
+        SimpleClusterFlowChecker.releaseClusterToken(rule, result, 3);
+        assertEquals(0, metric.getCurrentCount(ClusterFlowEvent.PASS));
+        assertEquals(0, metric.getSum(ClusterFlowEvent.PASS));
+        assertEquals(0, metric.getSum(ClusterFlowEvent.PASS_REQUEST));
+    }
+
+    @Test
+    public void testSkipReleaseAfterBucketRotated() {
+        TokenResult result = SimpleClusterFlowChecker.acquireClusterToken(rule, 3);
+        assertEquals(TokenResultStatus.OK, (int)result.getStatus());
+
+        // The slot of the bucket has been reused by a new bucket.
+        setCurrentMillis(2100);
+        SimpleClusterFlowChecker.releaseClusterToken(rule, result, 3);
+        assertEquals(0, metric.getCurrentCount(ClusterFlowEvent.PASS));
+        assertEquals(0, metric.getSum(ClusterFlowEvent.PASS));
+        assertEquals(0, metric.getSum(ClusterFlowEvent.PASS_REQUEST));
+    }
+
+    private void setCurrentMillis(long currentMillis) {
+        mocked.when(TimeUtil::currentTimeMillis).thenReturn(currentMillis);
+    }
+}
@@ -50,6 +50,30 @@ public class TokenServerDescriptor {
         return this;
     }
 
+    /**
+     * Token servers are identified by the address, regardless of the type.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        TokenServerDescriptor that = (TokenServerDescriptor) o;
+
+        return port == that.port && (host != null ? host.equals(that.host) : that.host == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = host != null ? host.hashCode() : 0;
+        result = 31 * result + port;
+        return result;
+    }
+
     @Override
     public String toString() {
         return "TokenServerDescriptor{" +
@@ -45,6 +45,22 @@ public interface TokenService {
      */
     TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params);
 
+    /**
+     * Request a lease of tokens, which could be consumed locally by the client within the lease window.
+     * If the lease is granted, the status of the result is {@link TokenResultStatus#OK}, the granted token
+     * count is carried in {@link TokenResult#getRemaining()} and the granted lease window (in milliseconds)
+     * is carried in {@link TokenResult#getWaitInMs()}.
+     *
+     * @param ruleId the unique rule ID
+     * @param acquireCount expected token count of the lease
+     * @param leaseMs expected lease window in milliseconds
+     * @return result of the lease request
+     * @since 1.8.8
+     */
+    default TokenResult requestTokenLease(Long ruleId, int acquireCount, int leaseMs) {
+        return new TokenResult(TokenResultStatus.NOT_AVAILABLE);
+    }
+
     /**
      * Request acquire concurrent tokens from remote token server.
      *
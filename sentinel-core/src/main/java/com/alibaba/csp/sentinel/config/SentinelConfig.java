@@ -61,6 +61,7 @@ public final class SentinelConfig {
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
     public static final String METRIC_FLUSH_INTERVAL = "csp.sentinel.metric.flush.interval";
+    public static final String METRIC_FILE_FORMAT = "csp.sentinel.metric.file.format";
 
     public static final String DEFAULT_CHARSET = "UTF-8";
     public static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
@@ -68,6 +69,8 @@ public final class SentinelConfig {
     public static final int DEFAULT_COLD_FACTOR = 3;
     public static final int DEFAULT_STATISTIC_MAX_RT = 5000;
     public static final long DEFAULT_METRIC_FLUSH_INTERVAL = 1L;
+    public static final String METRIC_FILE_FORMAT_TEXT = "text";
+    public static final String METRIC_FILE_FORMAT_BINARY = "binary";
 
     static {
         try {
@@ -201,6 +204,23 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * Get the format of metric files, which is {@link #METRIC_FILE_FORMAT_TEXT} by default.
+     *
+     * @return {@link #METRIC_FILE_FORMAT_BINARY} or {@link #METRIC_FILE_FORMAT_TEXT}
+     * @since 1.8.8
+     */
+    public static String metricFileFormat() {
+        String format = getConfig(METRIC_FILE_FORMAT);
+        if (METRIC_FILE_FORMAT_BINARY.equalsIgnoreCase(format)) {
+            return METRIC_FILE_FORMAT_BINARY;
+        }
+        if (StringUtil.isNotBlank(format) && !METRIC_FILE_FORMAT_TEXT.equalsIgnoreCase(format)) {
+            RecordLog.warn("[SentinelConfig] Unknown metric file format: {}, using the default text format", format);
+        }
+        return METRIC_FILE_FORMAT_TEXT;
+    }
+
     public static long singleMetricFileSize() {
         try {
             return Long.parseLong(props.get(SINGLE_METRIC_FILE_SIZE));
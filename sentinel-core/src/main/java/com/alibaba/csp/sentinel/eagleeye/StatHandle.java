@@ -0,0 +1,74 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.eagleeye;
+
+/**
+ * <p>
+ * Pre-registered handle of a stat entry with count and sum, obtained by {@link StatLogger#handle(String)}.
+ * Counting through the handle is an increment of the slot of the handle in current rolling data, without
+ * building the keys or looking them up. The output is the same as counting through
+ * {@link StatLogger#stat(String)}.
+ * </p>
+ * <p>
+ * The same keys should not be counted through both a handle and {@link StatLogger#stat(String)},
+ * otherwise they may be written twice in a time slot.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public final class StatHandle {
+
+    private final StatLogger statLogger;
+    private final StatEntry entry;
+    /**
+     * Slot of the handle in rolling data, or -1 if the logger has no slot left.
+     */
+    private final int index;
+
+    StatHandle(StatLogger statLogger, StatEntry entry, int index) {
+        this.statLogger = statLogger;
+        this.entry = entry;
+        this.index = index;
+    }
+
+    public StatEntry getEntry() {
+        return entry;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    public void count() {
+        count(1);
+    }
+
+    public void count(long count) {
+        if (!statLogger.getRollingData().addHandleValues(index, count, 0)) {
+            entry.count(count);
+        }
+    }
+
+    public void countAndSum(long valueToSum) {
+        countAndSum(1, valueToSum);
+    }
+
+    public void countAndSum(long count, long valueToSum) {
+        if (!statLogger.getRollingData().addHandleValues(index, count, valueToSum)) {
+            entry.countAndSum(count, valueToSum);
+        }
+    }
+}
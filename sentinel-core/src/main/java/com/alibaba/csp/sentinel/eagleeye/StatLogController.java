@@ -32,6 +32,11 @@ class StatLogController {
 
     private static final int STAT_ENTRY_COOL_DOWN_MILLIS = 200;
 
+    /**
+     * Stat type of count-and-sum entries, see {@link StatEntryFuncCountAndSum#getStatType()}.
+     */
+    private static final int STAT_TYPE_COUNT_SUM = 1;
+
     private static final ScheduledThreadPoolExecutor rollerThreadPool =
         new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(
             "EagleEye-StatLogController-roller", true));
@@ -114,7 +119,7 @@ class StatLogController {
         }
     }
 
-    private static class StatLogWriteTask implements Runnable {
+    static class StatLogWriteTask implements Runnable {
 
         final StatRollingData statRollingData;
 
@@ -150,6 +155,24 @@ class StatLogController {
                     appender.append(buffer.toString());
                 }
 
+                // Handles are written as count-and-sum entries, where untouched handles are skipped.
+                final int handleCount = data.getHandleCount();
+                for (int i = 0; i < handleCount; i++) {
+                    long count = data.getHandleCountValue(i);
+                    long sum = data.getHandleSumValue(i);
+                    if (count == 0 && sum == 0) {
+                        continue;
+                    }
+                    buffer.delete(0, buffer.length());
+                    buffer.append(timeStr).append(entryDelimiter);
+                    buffer.append(STAT_TYPE_COUNT_SUM).append(entryDelimiter);
+                    data.getHandleEntry(i).appendTo(buffer, keyDelimiter);
+                    buffer.append(entryDelimiter);
+                    buffer.append(count).append(valueDelimiter).append(sum);
+                    buffer.append(EagleEyeCoreUtils.NEWLINE);
+                    appender.append(buffer.toString());
+                }
+
                 appender.flush();
             } catch (Throwable t) {
                 EagleEye.selfLog("[WARN] fail to write statLogger[" +
@@ -15,7 +15,10 @@
  */
 package com.alibaba.csp.sentinel.eagleeye;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -37,6 +40,14 @@ public final class StatLogger {
     private final char keyDelimiter;
     private final char valueDelimiter;
 
+    private final Map<StatEntry, StatHandle> handles = new ConcurrentHashMap<StatEntry, StatHandle>();
+    /**
+     * Entries of handles by their slots, where only the first {@code handleCount} entries are valid.
+     * Valid entries are never changed, so rolling data can keep the array without copying.
+     */
+    private volatile StatEntry[] handleEntries = new StatEntry[16];
+    private volatile int handleCount = 0;
+
     StatLogger(String loggerName, EagleEyeAppender appender, long intervalMillis, int maxEntryCount,
                char entryDelimiter, char keyDelimiter, char valueDelimiter) {
         this.loggerName = loggerName;
@@ -82,6 +93,17 @@ public final class StatLogger {
         return valueDelimiter;
     }
 
+    /**
+     * @return count of registered handles with slots; the count must be read before the entries
+     */
+    int getHandleCount() {
+        return handleCount;
+    }
+
+    StatEntry[] getHandleEntries() {
+        return handleEntries;
+    }
+
     StatRollingData rolling() {
         do {
             long now = System.currentTimeMillis();
@@ -98,6 +120,54 @@ public final class StatLogger {
         } while (true);
     }
 
+    /**
+     * Get the pre-registered handle of the keys, which is registered on the first call. Handles take
+     * at most {@code maxEntryCount} slots, beyond which handles count through the stat map.
+     *
+     * @param key the key
+     * @return handle of the key
+     * @since 1.8.8
+     */
+    public StatHandle handle(String key) {
+        return handle(new StatEntry(this, key));
+    }
+
+    /**
+     * @param keys the keys
+     * @return handle of the keys
+     * @since 1.8.8
+     * @see #handle(String)
+     */
+    public StatHandle handle(String[] keys) {
+        return handle(new StatEntry(this, keys));
+    }
+
+    private StatHandle handle(StatEntry entry) {
+        StatHandle handle = handles.get(entry);
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (handles) {
+            handle = handles.get(entry);
+            if (handle == null) {
+                int count = handleCount;
+                int index = count < maxEntryCount ? count : -1;
+                if (index >= 0) {
+                    StatEntry[] entries = handleEntries;
+                    if (index == entries.length) {
+                        entries = Arrays.copyOf(entries, Math.min(entries.length * 2, maxEntryCount));
+                        handleEntries = entries;
+                    }
+                    entries[index] = entry;
+                    handleCount = count + 1;
+                }
+                handle = new StatHandle(this, entry, index);
+                handles.put(entry, handle);
+            }
+        }
+        return handle;
+    }
+
     public StatEntry stat(String key) {
         return new StatEntry(this, key);
     }
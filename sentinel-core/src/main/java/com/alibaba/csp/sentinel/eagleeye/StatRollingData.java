@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -37,10 +38,23 @@ final class StatRollingData {
 
     private final Map<StatEntry, StatEntryFunc> statMap;
 
+    /**
+     * Count and sum of handles registered before the rolling, as (count, sum) pairs by slots of handles.
+     */
+    private final int handleCount;
+    private final StatEntry[] handleEntries;
+    private final AtomicLongArray handleValues;
+
     StatRollingData(StatLogger statLogger, int initialCapacity, long timeSlot, long rollingTimeMillis) {
-        this(statLogger, timeSlot, rollingTimeMillis,
-            new ConcurrentHashMap<StatEntry, StatEntryFunc>(
-                Math.min(initialCapacity, statLogger.getMaxEntryCount())));
+        this.statLogger = statLogger;
+        this.timeSlot = timeSlot;
+        this.rollingTimeMillis = rollingTimeMillis;
+        this.writeLock = new ReentrantLock();
+        this.statMap = new ConcurrentHashMap<StatEntry, StatEntryFunc>(
+            Math.min(initialCapacity, statLogger.getMaxEntryCount()));
+        this.handleCount = statLogger.getHandleCount();
+        this.handleEntries = statLogger.getHandleEntries();
+        this.handleValues = new AtomicLongArray(handleCount * 2);
     }
 
     private StatRollingData(StatLogger statLogger, long timeSlot, long rollingTimeMillis,
@@ -50,6 +64,42 @@ final class StatRollingData {
         this.rollingTimeMillis = rollingTimeMillis;
         this.writeLock = new ReentrantLock();
         this.statMap = statMap;
+        // Handles stay in the live rolling data.
+        this.handleCount = 0;
+        this.handleEntries = null;
+        this.handleValues = null;
+    }
+
+    /**
+     * Add count and sum to the slot of the handle.
+     *
+     * @return false if the handle has no slot in this rolling data (e.g. registered after the rolling)
+     */
+    boolean addHandleValues(int index, long count, long value) {
+        if (index < 0 || index >= handleCount) {
+            return false;
+        }
+        handleValues.getAndAdd(index * 2, count);
+        if (value != 0) {
+            handleValues.getAndAdd(index * 2 + 1, value);
+        }
+        return true;
+    }
+
+    int getHandleCount() {
+        return handleCount;
+    }
+
+    StatEntry getHandleEntry(int index) {
+        return handleEntries[index];
+    }
+
+    long getHandleCountValue(int index) {
+        return handleValues.get(index * 2);
+    }
+
+    long getHandleSumValue(int index) {
+        return handleValues.get(index * 2 + 1);
     }
 
     StatEntryFunc getStatEntryFunc(
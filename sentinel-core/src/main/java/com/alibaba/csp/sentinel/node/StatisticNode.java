@@ -21,6 +21,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
 
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricRowCollector;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
 import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
 import com.alibaba.csp.sentinel.util.TimeUtil;
@@ -100,7 +102,7 @@ public class StatisticNode implements Node {
      * Holds statistics of the recent 60 seconds. The windowLengthInMs is deliberately set to 1000 milliseconds,
      * meaning each bucket per second, in this way we can get accurate statistics of each second.
      */
-    private transient Metric rollingCounterInMinute = new ArrayMetric(60, 60 * 1000, false);
+    private transient ArrayMetric rollingCounterInMinute = new ArrayMetric(60, 60 * 1000, false);
 
     /**
      * The counter for thread count.
@@ -132,6 +134,68 @@ public class StatisticNode implements Node {
         return metrics;
     }
 
+    /**
+     * Fetch metrics like {@link #metrics()}, but write them into reusable rows of the collector instead
+     * of allocating metric nodes. Buckets of the seconds not fetched yet are read directly, and seconds
+     * without traffic are skipped.
+     *
+     * @param collector      collector of the rows
+     * @param resource       resource name of the rows
+     * @param classification resource type of the rows
+     * @since 1.8.8
+     */
+    public void fetchMetrics(MetricRowCollector collector, String resource, int classification) {
+        // The fetch operation is thread-safe under a single-thread scheduler pool.
+        lastFetchTime = fetchMetricsAfter(lastFetchTime, collector, resource, classification);
+    }
+
+    /**
+     * Fetch metrics of the completed seconds after {@code fetchedTime} into the collector, without
+     * touching the fetch progress of {@link #metrics()}. This is for readers keeping their own progress.
+     *
+     * @param fetchedTime    the last second fetched by the reader, or -1 if none
+     * @param collector      collector of the rows
+     * @param resource       resource name of the rows
+     * @param classification resource type of the rows
+     * @return the last second fetched, or {@code fetchedTime} if there is no new row
+     * @since 1.8.8
+     */
+    public long fetchMetricsAfter(long fetchedTime, MetricRowCollector collector, String resource,
+                                  int classification) {
+        long currentTime = TimeUtil.currentTimeMillis();
+        currentTime = currentTime - currentTime % 1000;
+        // Only buckets of the last minute are valid.
+        long time = Math.max(fetchedTime + 1000, currentTime - 59 * 1000);
+        for (; time < currentTime; time += 1000) {
+            MetricBucket bucket = rollingCounterInMinute.getWindowBucket(time);
+            if (bucket == null) {
+                continue;
+            }
+            long pass = bucket.pass();
+            long block = bucket.block();
+            long success = bucket.success();
+            long exception = bucket.exception();
+            long rt = bucket.rt();
+            long occupiedPass = bucket.occupiedPass();
+            if (pass <= 0 && block <= 0 && success <= 0 && exception <= 0 && rt <= 0 && occupiedPass <= 0) {
+                continue;
+            }
+            MetricNode row = collector.newRow(time);
+            row.setTimestamp(time);
+            row.setResource(resource);
+            row.setClassification(classification);
+            row.setPassQps(pass);
+            row.setBlockQps(block);
+            row.setSuccessQps(success);
+            row.setExceptionQps(exception);
+            row.setRt(success != 0 ? rt / success : rt);
+            row.setOccupiedPassQps(occupiedPass);
+            row.setConcurrency(0);
+            fetchedTime = time;
+        }
+        return fetchedTime;
+    }
+
     @Override
     public List<MetricNode> rawMetricsInMin(Predicate<Long> timePredicate) {
         return rollingCounterInMinute.detailsOnCondition(timePredicate);
@@ -0,0 +1,230 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads metrics from binary metric files (see {@link MetricBinaryFormat}). Files are memory-mapped and blocks
+ * are decoded in place; nodes of other resources are skipped without being materialized. Dictionaries of
+ * resource names are cached per file, so each block is scanned for names at most once. Thread-safe: names
+ * are collected under the lock of the dictionary, while decoding nodes is lock-free.
+ *
+ * @since 1.8.8
+ */
+final class BinaryMetricsReader {
+
+    private final Map<String, Dictionary> dictionaries = new ConcurrentHashMap<String, Dictionary>();
+
+    /**
+     * Drop cached dictionaries of files that are no longer present.
+     */
+    void retainFiles(List<String> fileNames) {
+        Iterator<String> it = dictionaries.keySet().iterator();
+        while (it.hasNext()) {
+            if (!fileNames.contains(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return if should continue read, return true, else false.
+     * @see MetricsReader#readMetricsInOneFileByEndTime(List, String, long, long, long, String)
+     */
+    boolean readMetricsInOneFileByEndTime(List<MetricNode> list, String fileName, long offset, long beginTimeMs,
+                                          long endTimeMs, String identity, int maxLines) throws Exception {
+        ByteBuffer buffer = map(fileName);
+        Dictionary dictionary = prepareDictionary(fileName, buffer, offset);
+        long beginSecond = beginTimeMs / 1000;
+        long endSecond = endTimeMs / 1000;
+        int position = blockStart(offset);
+        while (hasBlock(buffer, position)) {
+            int blockEnd = position + MetricBinaryFormat.BLOCK_LENGTH_SIZE + buffer.getInt(position);
+            buffer.position(position + MetricBinaryFormat.BLOCK_LENGTH_SIZE);
+            long timestamp = MetricBinaryFormat.readVarLong(buffer);
+            long currentSecond = timestamp / 1000;
+            // currentSecond should >= beginSecond, otherwise a wrong metric file must occur
+            if (currentSecond < beginSecond || currentSecond > endSecond) {
+                return false;
+            }
+            dictionary.readNames(buffer, position);
+            int nodeCount = (int)MetricBinaryFormat.readVarLong(buffer);
+            int id = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                id += (int)MetricBinaryFormat.readZigzag(buffer);
+                String name = dictionary.name(id);
+                if (identity == null || name.equals(identity)) {
+                    list.add(MetricBinaryFormat.readNode(buffer, timestamp, name));
+                    if (list.size() >= maxLines) {
+                        return false;
+                    }
+                } else {
+                    skipNode(buffer);
+                }
+            }
+            position = blockEnd;
+        }
+        return true;
+    }
+
+    /**
+     * @see MetricsReader#readMetricsInOneFile(List, String, long, int)
+     */
+    void readMetricsInOneFile(List<MetricNode> list, String fileName, long offset,
+                              int recommendLines) throws Exception {
+        long lastSecond = -1;
+        if (list.size() > 0) {
+            lastSecond = list.get(list.size() - 1).getTimestamp() / 1000;
+        }
+        ByteBuffer buffer = map(fileName);
+        Dictionary dictionary = prepareDictionary(fileName, buffer, offset);
+        int position = blockStart(offset);
+        while (hasBlock(buffer, position)) {
+            int blockEnd = position + MetricBinaryFormat.BLOCK_LENGTH_SIZE + buffer.getInt(position);
+            buffer.position(position + MetricBinaryFormat.BLOCK_LENGTH_SIZE);
+            long timestamp = MetricBinaryFormat.readVarLong(buffer);
+            long currentSecond = timestamp / 1000;
+            // The data of one second is never split.
+            if (list.size() >= recommendLines && currentSecond != lastSecond) {
+                return;
+            }
+            dictionary.readNames(buffer, position);
+            int nodeCount = (int)MetricBinaryFormat.readVarLong(buffer);
+            int id = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                id += (int)MetricBinaryFormat.readZigzag(buffer);
+                list.add(MetricBinaryFormat.readNode(buffer, timestamp, dictionary.name(id)));
+            }
+            lastSecond = currentSecond;
+            position = blockEnd;
+        }
+    }
+
+    private static ByteBuffer map(String fileName) throws Exception {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            // The mapping stays valid after the channel is closed.
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            file.close();
+        }
+    }
+
+    private static int blockStart(long offset) {
+        return (int)Math.max(offset, MetricBinaryFormat.MAGIC.length);
+    }
+
+    /**
+     * Blocks being written may be incomplete, which are treated as the end of the file.
+     */
+    private static boolean hasBlock(ByteBuffer buffer, int position) {
+        int limit = buffer.limit();
+        if (position + MetricBinaryFormat.BLOCK_LENGTH_SIZE > limit) {
+            return false;
+        }
+        int payloadLength = buffer.getInt(position);
+        return payloadLength > 0 && position + MetricBinaryFormat.BLOCK_LENGTH_SIZE + payloadLength <= limit;
+    }
+
+    private Dictionary prepareDictionary(String fileName, ByteBuffer buffer, long offset) {
+        Dictionary dictionary = dictionaries.get(fileName);
+        if (dictionary == null || dictionary.scannedTo > buffer.limit()) {
+            // New file, or the file has been recreated.
+            dictionary = new Dictionary();
+            dictionaries.put(fileName, dictionary);
+        }
+        // Collect names of blocks before the offset, without decoding nodes.
+        dictionary.scanTo(buffer.duplicate(), blockStart(offset));
+        return dictionary;
+    }
+
+    private static void skipNode(ByteBuffer buffer) {
+        // classification, pass, block, pass-success, exception, rt, occupiedPass, concurrency
+        for (int i = 0; i < 8; i++) {
+            MetricBinaryFormat.readVarLong(buffer);
+        }
+    }
+
+    /**
+     * Resource names of a file, collected from the blocks before {@code scannedTo}. Names are appended to
+     * the array before {@code scannedTo} is published, so names of scanned blocks are read without lock.
+     */
+    private static final class Dictionary {
+
+        private volatile String[] names = new String[64];
+        private int size = 0;
+        private volatile int scannedTo = MetricBinaryFormat.MAGIC.length;
+
+        String name(int id) {
+            return names[id];
+        }
+
+        synchronized void scanTo(ByteBuffer buffer, int target) {
+            int position = scannedTo;
+            while (position < target && hasBlock(buffer, position)) {
+                buffer.position(position + MetricBinaryFormat.BLOCK_LENGTH_SIZE);
+                MetricBinaryFormat.readVarLong(buffer);
+                collectNames(buffer, position);
+                position = scannedTo;
+            }
+        }
+
+        /**
+         * Read the new names of the block at the position, where the buffer is at the start of the names.
+         * Names of scanned blocks are skipped. The buffer is left at the start of the nodes.
+         */
+        void readNames(ByteBuffer buffer, int blockPosition) {
+            if (blockPosition >= scannedTo) {
+                synchronized (this) {
+                    if (blockPosition == scannedTo) {
+                        collectNames(buffer, blockPosition);
+                        return;
+                    }
+                }
+            }
+            int count = (int)MetricBinaryFormat.readVarLong(buffer);
+            for (int i = 0; i < count; i++) {
+                int length = (int)MetricBinaryFormat.readVarLong(buffer);
+                buffer.position(buffer.position() + length);
+            }
+        }
+
+        private void collectNames(ByteBuffer buffer, int blockPosition) {
+            int count = (int)MetricBinaryFormat.readVarLong(buffer);
+            String[] array = names;
+            if (size + count > array.length) {
+                array = Arrays.copyOf(array, Math.max(size + count, array.length * 2));
+            }
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[(int)MetricBinaryFormat.readVarLong(buffer)];
+                buffer.get(bytes);
+                array[size++] = new String(bytes, MetricBinaryFormat.NAME_CHARSET);
+            }
+            names = array;
+            scannedTo = blockPosition + MetricBinaryFormat.BLOCK_LENGTH_SIZE + buffer.getInt(blockPosition);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * <p>The binary metric file format, which is enabled by {@code csp.sentinel.metric.file.format=binary}.</p>
+ * <p>
+ * A binary metric file starts with the {@link #MAGIC} header, followed by one block for each write of
+ * {@link MetricWriter} (normally one block per second):
+ * </p>
+ * <pre>
+ * block := payloadLength(int32) timestamp(varlong) newNameCount(varint) newName* nodeCount(varint) node*
+ * newName := byteLength(varint) utf8Bytes
+ * node := nameIdDelta(zigzag) classification(zigzag) pass(zigzag) block(zigzag) pass-success(zigzag)
+ *         exception(zigzag) rt(zigzag) occupiedPass(zigzag) concurrency(zigzag)
+ * </pre>
+ * <p>
+ * Resource names are dictionary-encoded per file: a block only carries names that have not appeared in the
+ * file before, and a name is referred to by its position in the dictionary. The index file is the same as
+ * that of the text format, so the offset of a second points to the start of its block.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+final class MetricBinaryFormat {
+
+    static final Charset NAME_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * "SMB" and the format version. Text metric files always start with a digit.
+     */
+    static final byte[] MAGIC = {'S', 'M', 'B', 1};
+
+    static final int BLOCK_LENGTH_SIZE = 4;
+
+    static boolean isBinaryFile(String fileName) throws IOException {
+        FileInputStream in = new FileInputStream(fileName);
+        try {
+            byte[] header = new byte[MAGIC.length];
+            int read = 0;
+            while (read < header.length) {
+                int n = in.read(header, read, header.length - read);
+                if (n < 0) {
+                    return false;
+                }
+                read += n;
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header[i] != MAGIC[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.close();
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return the varlong read from current position of the buffer
+     * @throws IllegalStateException if the varlong is malformed
+     */
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long)(b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varlong in metric block");
+    }
+
+    static long readZigzag(ByteBuffer buffer) {
+        return unzigzag(readVarLong(buffer));
+    }
+
+    /**
+     * Read a node from current position of the buffer, see {@link MetricBlockEncoder} for the layout.
+     */
+    static MetricNode readNode(ByteBuffer buffer, long timestamp, String resource) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(resource);
+        node.setClassification((int)MetricBinaryFormat.readZigzag(buffer));
+        long passQps = MetricBinaryFormat.readZigzag(buffer);
+        node.setPassQps(passQps);
+        node.setBlockQps(MetricBinaryFormat.readZigzag(buffer));
+        node.setSuccessQps(passQps - MetricBinaryFormat.readZigzag(buffer));
+        node.setExceptionQps(MetricBinaryFormat.readZigzag(buffer));
+        node.setRt(MetricBinaryFormat.readZigzag(buffer));
+        node.setOccupiedPassQps(MetricBinaryFormat.readZigzag(buffer));
+        node.setConcurrency((int)MetricBinaryFormat.readZigzag(buffer));
+        return node;
+    }
+
+    private MetricBinaryFormat() {}
+}
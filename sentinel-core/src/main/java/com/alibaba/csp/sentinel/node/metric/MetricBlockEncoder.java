@@ -0,0 +1,134 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes metric nodes into blocks of the binary metric file format, see {@link MetricBinaryFormat}.
+ * The dictionary of resource names belongs to current file, so the encoder must be {@link #reset()}
+ * when a new file is created. Not thread-safe.
+ *
+ * @since 1.8.8
+ */
+final class MetricBlockEncoder {
+
+    private final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+
+    private byte[] buffer = new byte[4096];
+    private int length;
+
+    void reset() {
+        dictionary.clear();
+    }
+
+    /**
+     * Encode the nodes into a block, which is available from {@link #buffer()} with {@link #length()} bytes.
+     */
+    void encode(long time, List<MetricNode> nodes) {
+        length = MetricBinaryFormat.BLOCK_LENGTH_SIZE;
+        writeVarLong(time);
+
+        // Names seen for the first time in the file join the dictionary.
+        int[] ids = new int[nodes.size()];
+        int dictionarySize = dictionary.size();
+        for (int i = 0; i < ids.length; i++) {
+            String name = legalName(nodes.get(i));
+            Integer id = dictionary.get(name);
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.put(name, id);
+            }
+            ids[i] = id;
+        }
+        writeVarLong(dictionary.size() - dictionarySize);
+        // New ids are assigned in order of first occurrence, so names are written in order of their ids.
+        int nextNewId = dictionarySize;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == nextNewId) {
+                nextNewId++;
+                byte[] bytes = legalName(nodes.get(i)).getBytes(MetricBinaryFormat.NAME_CHARSET);
+                writeVarLong(bytes.length);
+                writeBytes(bytes);
+            }
+        }
+
+        writeVarLong(nodes.size());
+        int prevId = 0;
+        for (int i = 0; i < ids.length; i++) {
+            MetricNode node = nodes.get(i);
+            writeZigzag(ids[i] - prevId);
+            prevId = ids[i];
+            writeZigzag(node.getClassification());
+            writeZigzag(node.getPassQps());
+            writeZigzag(node.getBlockQps());
+            // Success mostly equals to pass, so the difference is smaller.
+            writeZigzag(node.getPassQps() - node.getSuccessQps());
+            writeZigzag(node.getExceptionQps());
+            writeZigzag(node.getRt());
+            writeZigzag(node.getOccupiedPassQps());
+            writeZigzag(node.getConcurrency());
+        }
+
+        int payloadLength = length - MetricBinaryFormat.BLOCK_LENGTH_SIZE;
+        buffer[0] = (byte)(payloadLength >>> 24);
+        buffer[1] = (byte)(payloadLength >>> 16);
+        buffer[2] = (byte)(payloadLength >>> 8);
+        buffer[3] = (byte)payloadLength;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int length() {
+        return length;
+    }
+
+    private static String legalName(MetricNode node) {
+        // Keep the same resource name as the text format.
+        String resource = node.getResource();
+        return resource.indexOf('|') < 0 ? resource : resource.replace('|', '_');
+    }
+
+    private void writeZigzag(long value) {
+        writeVarLong(MetricBinaryFormat.zigzag(value));
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(length + 10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte)value;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(length + bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A compact, delta-encoded representation of metric nodes for transferring them between processes,
+ * e.g. in responses of the {@code metric} command.</p>
+ * <p>
+ * The data starts with a magic header, followed by one block for each second, which is the same as the block
+ * of the binary metric file (see {@link MetricBinaryFormat}): resource names are dictionary-encoded, so each
+ * name is carried only once, and counters are written as varints.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public final class MetricDeltaCodec {
+
+    public static final String CONTENT_TYPE = "application/x-sentinel-metric-delta";
+
+    /**
+     * "SMD" and the format version.
+     */
+    private static final byte[] MAGIC = {'S', 'M', 'D', 1};
+
+    /**
+     * Encode the nodes, where nodes of the same second are expected to be adjacent.
+     *
+     * @param nodes metric nodes to encode
+     * @return encoded data
+     */
+    public static byte[] encode(List<MetricNode> nodes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(MAGIC.length + nodes.size() * 16);
+        out.write(MAGIC, 0, MAGIC.length);
+        // The dictionary of resource names is shared by all blocks of the data.
+        MetricBlockEncoder encoder = new MetricBlockEncoder();
+        int start = 0;
+        while (start < nodes.size()) {
+            long timestamp = nodes.get(start).getTimestamp();
+            int end = start + 1;
+            while (end < nodes.size() && nodes.get(end).getTimestamp() == timestamp) {
+                end++;
+            }
+            encoder.encode(timestamp, nodes.subList(start, end));
+            out.write(encoder.buffer(), 0, encoder.length());
+            start = end;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode nodes from data encoded by {@link #encode(List)}.
+     *
+     * @param data encoded data
+     * @return decoded nodes
+     * @throws IllegalArgumentException if the data is malformed
+     */
+    public static List<MetricNode> decode(byte[] data) {
+        if (!isEncoded(data)) {
+            throw new IllegalArgumentException("Not delta-encoded metric data");
+        }
+        List<MetricNode> nodes = new ArrayList<MetricNode>();
+        List<String> names = new ArrayList<String>();
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        buffer.position(MAGIC.length);
+        try {
+            while (buffer.hasRemaining()) {
+                int blockEnd = buffer.getInt();
+                blockEnd += buffer.position();
+                long timestamp = MetricBinaryFormat.readVarLong(buffer);
+                int newNameCount = (int)MetricBinaryFormat.readVarLong(buffer);
+                for (int i = 0; i < newNameCount; i++) {
+                    int length = (int)MetricBinaryFormat.readVarLong(buffer);
+                    names.add(new String(data, buffer.position(), length, MetricBinaryFormat.NAME_CHARSET));
+                    buffer.position(buffer.position() + length);
+                }
+                int nodeCount = (int)MetricBinaryFormat.readVarLong(buffer);
+                int id = 0;
+                for (int i = 0; i < nodeCount; i++) {
+                    id += (int)MetricBinaryFormat.readZigzag(buffer);
+                    nodes.add(MetricBinaryFormat.readNode(buffer, timestamp, names.get(id)));
+                }
+                if (buffer.position() != blockEnd) {
+                    throw new IllegalArgumentException("Malformed metric block at " + blockEnd);
+                }
+            }
+        } catch (BufferUnderflowException | IllegalStateException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed delta-encoded metric data", e);
+        }
+        return nodes;
+    }
+
+    /**
+     * @param data data to check
+     * @return whether the data starts with the header of delta-encoded metric data
+     */
+    public static boolean isEncoded(byte[] data) {
+        if (data == null || data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MetricDeltaCodec() {}
+}
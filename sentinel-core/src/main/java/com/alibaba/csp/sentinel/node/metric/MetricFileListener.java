@@ -0,0 +1,48 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+/**
+ * Listener of metric files written by {@link MetricWriter}, see {@link MetricWriter#addMetricFileListener}.
+ * Listeners are called in the writing thread, so they should return quickly.
+ *
+ * @since 1.8.8
+ */
+public interface MetricFileListener {
+
+    /**
+     * A new metric file and its index file have been created.
+     *
+     * @param fileName absolute path of the metric file
+     */
+    void onFileCreated(String fileName);
+
+    /**
+     * An entry of (second, offset) has been appended to the index file of the metric file.
+     *
+     * @param fileName absolute path of the metric file
+     * @param second   the second
+     * @param offset   offset of the first metric of the second in the metric file
+     */
+    void onIndexAppended(String fileName, long second, long offset);
+
+    /**
+     * The metric file and its index file have been removed.
+     *
+     * @param fileName absolute path of the metric file
+     */
+    void onFileRemoved(String fileName);
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>In-memory index of the metric files of one base file name, shared by all {@link MetricSearcher}s of it.</p>
+ * <p>
+ * The index is loaded from the files and index files on disk, and then updated incrementally through
+ * {@link MetricFileListener} by the {@link MetricWriter} in this process. Until the writer reports any change
+ * (e.g. files written by other processes), the index is reloaded from disk at most once per second.
+ * Readers never lock: updates are published through copy-on-write lists and immutable entry views.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+final class MetricIndex implements MetricFileListener {
+
+    private static final Map<String, MetricIndex> INDEXES = new ConcurrentHashMap<String, MetricIndex>();
+
+    /**
+     * Each index entry is a pair of second and offset, see {@link MetricWriter}.
+     */
+    static final int INDEX_ENTRY_SIZE = 16;
+
+    private static final long RELOAD_INTERVAL_MS = 1000;
+
+    private final String baseDir;
+    private final File baseDirFile;
+    private final String baseFileName;
+
+    /**
+     * Segments sorted by {@link MetricWriter#METRIC_FILE_NAME_CMP}, which are replaced as a whole.
+     */
+    private volatile List<Segment> segments = Collections.emptyList();
+    /**
+     * Whether the writer of the files is in this process, so that the index is kept up to date by events.
+     */
+    private volatile boolean attached = false;
+    private volatile boolean loaded = false;
+    private volatile long lastLoadTime;
+
+    static MetricIndex get(String baseDir, String baseFileName) {
+        String key = baseDir + baseFileName;
+        MetricIndex index = INDEXES.get(key);
+        if (index == null) {
+            synchronized (INDEXES) {
+                index = INDEXES.get(key);
+                if (index == null) {
+                    index = new MetricIndex(baseDir, baseFileName);
+                    MetricWriter.addMetricFileListener(index);
+                    INDEXES.put(key, index);
+                }
+            }
+        }
+        return index;
+    }
+
+    private MetricIndex(String baseDir, String baseFileName) {
+        this.baseDir = baseDir;
+        this.baseDirFile = new File(baseDir).getAbsoluteFile();
+        this.baseFileName = baseFileName;
+    }
+
+    /**
+     * @return current segments in order of file names
+     */
+    List<Segment> segments() throws Exception {
+        if (needsReload()) {
+            reload();
+        }
+        return segments;
+    }
+
+    /**
+     * Drop the index of the process and reload from disk in the next query, e.g. after files are removed
+     * by others.
+     */
+    void invalidate() {
+        attached = false;
+        loaded = false;
+    }
+
+    private boolean needsReload() {
+        // Files written before the writer of this process (e.g. by the last run) are only known from disk.
+        return !loaded || !attached && System.currentTimeMillis() - lastLoadTime >= RELOAD_INTERVAL_MS;
+    }
+
+    private synchronized void reload() throws Exception {
+        if (!needsReload()) {
+            return;
+        }
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
+        List<Segment> list = new ArrayList<Segment>(fileNames.size());
+        for (String fileName : fileNames) {
+            Segment segment = new Segment(fileName);
+            segment.load();
+            list.add(segment);
+        }
+        segments = Collections.unmodifiableList(list);
+        lastLoadTime = System.currentTimeMillis();
+        loaded = true;
+    }
+
+    @Override
+    public synchronized void onFileCreated(String fileName) {
+        if (isOwnFile(fileName)) {
+            attached = true;
+            getOrAddSegment(fileName);
+        }
+    }
+
+    @Override
+    public synchronized void onIndexAppended(String fileName, long second, long offset) {
+        if (isOwnFile(fileName)) {
+            attached = true;
+            getOrAddSegment(fileName).append(second, offset);
+        }
+    }
+
+    @Override
+    public synchronized void onFileRemoved(String fileName) {
+        if (isOwnFile(fileName)) {
+            attached = true;
+            List<Segment> list = new ArrayList<Segment>(segments);
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i).fileName.equals(fileName)) {
+                    list.remove(i);
+                    segments = Collections.unmodifiableList(list);
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean isOwnFile(String fileName) {
+        File file = new File(fileName);
+        return baseDirFile.equals(file.getAbsoluteFile().getParentFile())
+            && MetricWriter.fileNameMatches(file.getName(), baseFileName);
+    }
+
+    private Segment getOrAddSegment(String fileName) {
+        List<Segment> current = segments;
+        for (Segment segment : current) {
+            if (segment.fileName.equals(fileName)) {
+                return segment;
+            }
+        }
+        Segment segment = new Segment(fileName);
+        List<Segment> list = new ArrayList<Segment>(current.size() + 1);
+        list.addAll(current);
+        list.add(segment);
+        Collections.sort(list, (s1, s2) -> MetricWriter.METRIC_FILE_NAME_CMP.compare(s1.fileName, s2.fileName));
+        segments = Collections.unmodifiableList(list);
+        return segment;
+    }
+
+    /**
+     * Index entries of a metric file.
+     */
+    static final class Segment {
+
+        private final String fileName;
+        private volatile Entries entries = new Entries(new long[16], new long[16], 0);
+
+        Segment(String fileName) {
+            this.fileName = fileName;
+        }
+
+        String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * @return offset of the first second >= {@code second}, or -1 if absent
+         */
+        long findOffset(long second) {
+            Entries e = entries;
+            int low = 0;
+            int high = e.size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (e.seconds[mid] < second) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low < e.size ? e.offsets[low] : -1;
+        }
+
+        private void load() throws Exception {
+            String indexFileName = MetricWriter.formIndexFileName(fileName);
+            if (!new File(indexFileName).exists()) {
+                return;
+            }
+            RandomAccessFile file = new RandomAccessFile(indexFileName, "r");
+            try {
+                FileChannel channel = file.getChannel();
+                // The entry being written is excluded.
+                int count = (int)(channel.size() / INDEX_ENTRY_SIZE);
+                ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, (long)count * INDEX_ENTRY_SIZE);
+                for (int i = 0; i < count; i++) {
+                    append(buffer.getLong(), buffer.getLong());
+                }
+            } finally {
+                file.close();
+            }
+        }
+
+        /**
+         * Append an entry, where entries not later than the last one are ignored (e.g. those loaded from disk
+         * before the event arrives). Called with the lock of the index held.
+         */
+        private void append(long second, long offset) {
+            Entries e = entries;
+            if (e.size > 0 && second <= e.seconds[e.size - 1]) {
+                return;
+            }
+            long[] seconds = e.seconds;
+            long[] offsets = e.offsets;
+            if (e.size == seconds.length) {
+                seconds = Arrays.copyOf(seconds, seconds.length * 2);
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            // Slots beyond the size of published entries are never read, so they're written in place.
+            seconds[e.size] = second;
+            offsets[e.size] = offset;
+            entries = new Entries(seconds, offsets, e.size + 1);
+        }
+    }
+
+    private static final class Entries {
+
+        private final long[] seconds;
+        private final long[] offsets;
+        private final int size;
+
+        Entries(long[] seconds, long[] offsets, int size) {
+            this.seconds = seconds;
+            this.offsets = offsets;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Collects metric rows of every second, e.g. in one round of {@link MetricTimerListener}. Row buffers and the
+ * {@link MetricNode}s in them are reused across rounds, so a round allocates nothing once the buffers
+ * are large enough. Not thread-safe.
+ *
+ * @since 1.8.8
+ */
+public final class MetricRowCollector {
+
+    private SecondRows[] seconds = new SecondRows[4];
+    private int secondCount = 0;
+
+    /**
+     * Get a row to fill for the second. Every field of the row should be set, as the row may hold values
+     * of former rounds.
+     *
+     * @param timestamp the second in milliseconds
+     * @return a reusable row
+     */
+    public MetricNode newRow(long timestamp) {
+        return rowsOf(timestamp).newRow();
+    }
+
+    /**
+     * Hand rows of every second to the consumer in order of seconds, and then clear the rows.
+     *
+     * @param consumer consumer of the rows
+     */
+    public void flush(MetricRowsConsumer consumer) {
+        // Seconds are few (normally one per round), so insertion sort is fine.
+        for (int i = 1; i < secondCount; i++) {
+            SecondRows rows = seconds[i];
+            int j = i - 1;
+            while (j >= 0 && seconds[j].timestamp > rows.timestamp) {
+                seconds[j + 1] = seconds[j];
+                j--;
+            }
+            seconds[j + 1] = rows;
+        }
+        try {
+            for (int i = 0; i < secondCount; i++) {
+                consumer.accept(seconds[i].timestamp, seconds[i]);
+            }
+        } finally {
+            clear();
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < secondCount; i++) {
+            seconds[i].size = 0;
+        }
+        secondCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return secondCount == 0;
+    }
+
+    private SecondRows rowsOf(long timestamp) {
+        for (int i = secondCount - 1; i >= 0; i--) {
+            if (seconds[i].timestamp == timestamp) {
+                return seconds[i];
+            }
+        }
+        if (secondCount == seconds.length) {
+            seconds = Arrays.copyOf(seconds, secondCount * 2);
+        }
+        SecondRows rows = seconds[secondCount];
+        if (rows == null) {
+            rows = new SecondRows();
+            seconds[secondCount] = rows;
+        }
+        rows.timestamp = timestamp;
+        secondCount++;
+        return rows;
+    }
+
+    /**
+     * Reusable rows of a second, viewed as a list of the first {@code size} rows.
+     */
+    private static final class SecondRows extends AbstractList<MetricNode> implements RandomAccess {
+
+        private long timestamp;
+        private MetricNode[] rows = new MetricNode[16];
+        private int size = 0;
+
+        MetricNode newRow() {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            MetricNode row = rows[size];
+            if (row == null) {
+                row = new MetricNode();
+                rows[size] = row;
+            }
+            size++;
+            return row;
+        }
+
+        @Override
+        public MetricNode get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return rows[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
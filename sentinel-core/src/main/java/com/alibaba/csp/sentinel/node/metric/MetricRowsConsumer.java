@@ -0,0 +1,36 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.List;
+
+/**
+ * Consumer of the metric rows of each second, which are produced by {@link MetricTimerListener} and
+ * registered by {@link MetricTimerListener#addMetricRowsConsumer(MetricRowsConsumer)}.
+ *
+ * @since 1.8.8
+ */
+public interface MetricRowsConsumer {
+
+    /**
+     * Consume the rows of a second, called in the metric timer thread. Rows are reused in later rounds,
+     * so they must be copied if kept after the method returns.
+     *
+     * @param timestamp the second in milliseconds
+     * @param rows      rows of resources with traffic in the second
+     */
+    void accept(long timestamp, List<MetricNode> rows);
+}
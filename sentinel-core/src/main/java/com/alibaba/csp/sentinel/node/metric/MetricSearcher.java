@@ -15,19 +15,18 @@
  */
 package com.alibaba.csp.sentinel.node.metric;
 
-import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 
 /**
  * 从指定目录下找出所有的metric文件，并按照指定时间戳进行检索，参考{@link MetricSearcher#find(long, int)}。
- * 会借助索引以提高检索效率，参考{@link MetricWriter}；还会在内部缓存上一次检索的文件指针，以便下一次顺序检索时
- * 减少读盘次数。
+ * 会借助索引以提高检索效率，参考{@link MetricWriter}；索引常驻内存，由同一进程内的 {@link MetricWriter} 增量更新，
+ * 并由同一组metric文件的所有检索器共享，参考{@link MetricIndex}。检索不加锁，可以并发进行。
  *
  * @author leyou
  */
@@ -39,7 +38,7 @@ public class MetricSearcher {
     private String baseDir;
     private String baseFileName;
 
-    private Position lastPosition = new Position();
+    private final MetricIndex metricIndex;
 
     /**
      * @param baseDir      metric文件所在目录
@@ -70,6 +69,7 @@ public class MetricSearcher {
         }
         this.baseFileName = baseFileName;
         metricsReader = new MetricsReader(charset);
+        metricIndex = MetricIndex.get(this.baseDir, baseFileName);
     }
 
     /**
@@ -81,28 +81,14 @@ public class MetricSearcher {
      * @return
      * @throws Exception
      */
-    public synchronized List<MetricNode> find(long beginTimeMs, int recommendLines) throws Exception {
-        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
-        int i = 0;
-        long offsetInIndex = 0;
-        if (validPosition(beginTimeMs)) {
-            i = fileNames.indexOf(lastPosition.metricFileName);
-            if (i == -1) {
-                i = 0;
-            } else {
-                offsetInIndex = lastPosition.offsetInIndex;
-            }
-        }
-        for (; i < fileNames.size(); i++) {
-            String fileName = fileNames.get(i);
-            long offset = findOffset(beginTimeMs, fileName,
-                MetricWriter.formIndexFileName(fileName), offsetInIndex);
-            offsetInIndex = 0;
-            if (offset != -1) {
-                return metricsReader.readMetrics(fileNames, i, offset, recommendLines);
-            }
+    public List<MetricNode> find(long beginTimeMs, int recommendLines) throws Exception {
+        try {
+            return doFind(beginTimeMs, recommendLines);
+        } catch (FileNotFoundException ex) {
+            // Metric files have been removed by others.
+            metricIndex.invalidate();
+            return doFind(beginTimeMs, recommendLines);
         }
-        return null;
     }
 
     /**
@@ -110,114 +96,47 @@ public class MetricSearcher {
      * When identity is null, all metric between the time intervalMs will be read, otherwise, only the specific
      * identity will be read.
      */
-    public synchronized List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
+    public List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
         throws Exception {
-        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
-        //RecordLog.info("pid=" + pid + ", findByTimeAndResource([" + beginTimeMs + ", " + endTimeMs
-        //    + "], " + identity + ")");
-        int i = 0;
-        long offsetInIndex = 0;
-        if (validPosition(beginTimeMs)) {
-            i = fileNames.indexOf(lastPosition.metricFileName);
-            if (i == -1) {
-                i = 0;
-            } else {
-                offsetInIndex = lastPosition.offsetInIndex;
-            }
-        } else {
-            //RecordLog.info("lastPosition is invalidate, will re iterate all files, pid = " + pid);
+        try {
+            return doFindByTimeAndResource(beginTimeMs, endTimeMs, identity);
+        } catch (FileNotFoundException ex) {
+            metricIndex.invalidate();
+            return doFindByTimeAndResource(beginTimeMs, endTimeMs, identity);
         }
+    }
 
-        for (; i < fileNames.size(); i++) {
-            String fileName = fileNames.get(i);
-            long offset = findOffset(beginTimeMs, fileName,
-                    MetricWriter.formIndexFileName(fileName), offsetInIndex);
-            offsetInIndex = 0;
+    private List<MetricNode> doFind(long beginTimeMs, int recommendLines) throws Exception {
+        List<MetricIndex.Segment> segments = metricIndex.segments();
+        long beginSecond = beginTimeMs / 1000;
+        for (int i = 0; i < segments.size(); i++) {
+            long offset = segments.get(i).findOffset(beginSecond);
             if (offset != -1) {
-                return metricsReader.readMetricsByEndTime(fileNames, i, offset, beginTimeMs, endTimeMs, identity);
+                return metricsReader.readMetrics(fileNames(segments), i, offset, recommendLines);
             }
         }
         return null;
     }
 
-    /**
-     * 记录上一次读取的index文件位置和数值
-     */
-    private static final class Position {
-        String metricFileName;
-        String indexFileName;
-        /**
-         * 索引文件内的偏移
-         */
-        long offsetInIndex;
-        /**
-         * 索引文件中offsetInIndex位置上的数字，秒数。
-         */
-        long second;
-    }
-
-    /**
-     * The position we cached is useful only when {@code beginTimeMs} is >= {@code lastPosition.second}
-     * and the index file exists and the second we cached is same as in the index file.
-     */
-    private boolean validPosition(long beginTimeMs) {
-        if (beginTimeMs / 1000 < lastPosition.second) {
-            return false;
-        }
-        if (lastPosition.indexFileName == null) {
-            return false;
-        }
-        // index file dose not exits
-        if (!new File(lastPosition.indexFileName).exists()) {
-            return false;
-        }
-        FileInputStream in = null;
-        try {
-            in = new FileInputStream(lastPosition.indexFileName);
-            in.getChannel().position(lastPosition.offsetInIndex);
-            DataInputStream indexIn = new DataInputStream(in);
-            // timestamp(second) in the specific position == that we cached
-            return indexIn.readLong() == lastPosition.second;
-        } catch (Exception e) {
-            return false;
-        } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (Exception ignore) {
-                }
+    private List<MetricNode> doFindByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
+        throws Exception {
+        List<MetricIndex.Segment> segments = metricIndex.segments();
+        long beginSecond = beginTimeMs / 1000;
+        for (int i = 0; i < segments.size(); i++) {
+            long offset = segments.get(i).findOffset(beginSecond);
+            if (offset != -1) {
+                return metricsReader.readMetricsByEndTime(fileNames(segments), i, offset, beginTimeMs, endTimeMs,
+                    identity);
             }
         }
+        return null;
     }
 
-    private long findOffset(long beginTime, String metricFileName,
-                            String idxFileName, long offsetInIndex) throws Exception {
-        lastPosition.metricFileName = null;
-        lastPosition.indexFileName = null;
-        if (!new File(idxFileName).exists()) {
-            return -1;
-        }
-        long beginSecond = beginTime / 1000;
-        FileInputStream in = new FileInputStream(idxFileName);
-        in.getChannel().position(offsetInIndex);
-        DataInputStream indexIn = new DataInputStream(in);
-        long offset;
-        try {
-            long second;
-            lastPosition.offsetInIndex = in.getChannel().position();
-            while ((second = indexIn.readLong()) < beginSecond) {
-                offset = indexIn.readLong();
-                lastPosition.offsetInIndex = in.getChannel().position();
-            }
-            offset = indexIn.readLong();
-            lastPosition.metricFileName = metricFileName;
-            lastPosition.indexFileName = idxFileName;
-            lastPosition.second = second;
-            return offset;
-        } catch (EOFException ignore) {
-            return -1;
-        } finally {
-            indexIn.close();
+    private static List<String> fileNames(List<MetricIndex.Segment> segments) {
+        List<String> fileNames = new ArrayList<String>(segments.size());
+        for (MetricIndex.Segment segment : segments) {
+            fileNames.add(segment.getFileName());
         }
+        return fileNames;
     }
 }
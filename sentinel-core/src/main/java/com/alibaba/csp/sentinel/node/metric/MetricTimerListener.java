@@ -15,57 +15,76 @@
  */
 package com.alibaba.csp.sentinel.node.metric;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.ClusterNode;
-import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 /**
+ * Writes metrics of every second to the metric log and registered {@link MetricRowsConsumer}s. Rows of
+ * each second are read from bucket counters into reusable buffers, so a round allocates almost nothing,
+ * and resources without traffic in the seconds are skipped.
+ *
  * @author jialiang.linjl
  */
 public class MetricTimerListener implements Runnable {
 
     private static final MetricWriter metricWriter = new MetricWriter(SentinelConfig.singleMetricFileSize(),
-        SentinelConfig.totalMetricFileCount());
+        SentinelConfig.totalMetricFileCount(), SentinelConfig.metricFileFormat());
 
-    @Override
-    public void run() {
-        Map<Long, List<MetricNode>> maps = new TreeMap<>();
-        for (Entry<ResourceWrapper, ClusterNode> e : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
-            ClusterNode node = e.getValue();
-            Map<Long, MetricNode> metrics = node.metrics();
-            aggregate(maps, metrics, node);
-        }
-        aggregate(maps, Constants.ENTRY_NODE.metrics(), Constants.ENTRY_NODE);
-        if (!maps.isEmpty()) {
-            for (Entry<Long, List<MetricNode>> entry : maps.entrySet()) {
+    private static final List<MetricRowsConsumer> CONSUMERS = new CopyOnWriteArrayList<>();
+
+    private static final MetricRowsConsumer WRITER_CONSUMER = new MetricRowsConsumer() {
+        @Override
+        public void accept(long timestamp, List<MetricNode> rows) {
+            try {
+                metricWriter.write(timestamp, rows);
+            } catch (Exception e) {
+                RecordLog.warn("[MetricTimerListener] Write metric error", e);
+            }
+            for (MetricRowsConsumer consumer : CONSUMERS) {
                 try {
-                    metricWriter.write(entry.getKey(), entry.getValue());
-                } catch (Exception e) {
-                    RecordLog.warn("[MetricTimerListener] Write metric error", e);
+                    consumer.accept(timestamp, rows);
+                } catch (Throwable e) {
+                    RecordLog.warn("[MetricTimerListener] Metric rows consumer error: " + consumer, e);
                 }
             }
         }
+    };
+
+    private final MetricRowCollector collector = new MetricRowCollector();
+
+    /**
+     * Add a consumer of the metric rows of every second.
+     *
+     * @param consumer the consumer
+     * @since 1.8.8
+     */
+    public static void addMetricRowsConsumer(MetricRowsConsumer consumer) {
+        CONSUMERS.add(consumer);
     }
 
-    private void aggregate(Map<Long, List<MetricNode>> maps, Map<Long, MetricNode> metrics, ClusterNode node) {
-        for (Entry<Long, MetricNode> entry : metrics.entrySet()) {
-            long time = entry.getKey();
-            MetricNode metricNode = entry.getValue();
-            metricNode.setResource(node.getName());
-            metricNode.setClassification(node.getResourceType());
-            maps.computeIfAbsent(time, k -> new ArrayList<MetricNode>());
-            List<MetricNode> nodes = maps.get(time);
-            nodes.add(entry.getValue());
-        }
+    /**
+     * @param consumer the consumer
+     * @since 1.8.8
+     */
+    public static void removeMetricRowsConsumer(MetricRowsConsumer consumer) {
+        CONSUMERS.remove(consumer);
     }
 
+    @Override
+    public void run() {
+        for (ClusterNode node : ClusterBuilderSlot.getClusterNodeMap().values()) {
+            node.fetchMetrics(collector, node.getName(), node.getResourceType());
+        }
+        Constants.ENTRY_NODE.fetchMetrics(collector, Constants.ENTRY_NODE.getName(),
+            Constants.ENTRY_NODE.getResourceType());
+        if (!collector.isEmpty()) {
+            collector.flush(WRITER_CONSUMER);
+        }
+    }
 }
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.alibaba.csp.sentinel.log.LogBase;
 import com.alibaba.csp.sentinel.util.PidUtil;
@@ -40,6 +41,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
  * <li>file name is like: {@code ${appName}-metrics.log.pid${pid}.yyyy-MM-dd.[number]}</li>
  * <li>metric of different day should in different file;</li>
  * <li>every metric file is accompanied with an index file, which file name is {@code ${metricFileName}.idx}</li>
+ * <li>metric files are in text format, or in binary format (see {@link MetricBinaryFormat}) if configured.</li>
  * </ol>
  *
  * @author Carpenter Lee
@@ -58,6 +60,8 @@ public class MetricWriter {
     public static final String METRIC_FILE_INDEX_SUFFIX = ".idx";
     public static final Comparator<String> METRIC_FILE_NAME_CMP = new MetricFileNameComparator();
 
+    private static final List<MetricFileListener> FILE_LISTENERS = new CopyOnWriteArrayList<MetricFileListener>();
+
     private final DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     /**
      * 排除时差干扰
@@ -78,6 +82,10 @@ public class MetricWriter {
     private int totalFileCount;
     private boolean append = false;
     private final int pid = PidUtil.getPid();
+    /**
+     * Encoder of the binary format, or null for the text format.
+     */
+    private final MetricBlockEncoder blockEncoder;
 
     /**
      * 秒级统计，忽略毫秒数。
@@ -89,12 +97,25 @@ public class MetricWriter {
     }
 
     public MetricWriter(long singleFileSize, int totalFileCount) {
+        this(singleFileSize, totalFileCount, SentinelConfig.METRIC_FILE_FORMAT_TEXT);
+    }
+
+    /**
+     * @param format {@link SentinelConfig#METRIC_FILE_FORMAT_TEXT} or {@link SentinelConfig#METRIC_FILE_FORMAT_BINARY}
+     * @since 1.8.8
+     */
+    public MetricWriter(long singleFileSize, int totalFileCount, String format) {
+        this(METRIC_BASE_DIR, singleFileSize, totalFileCount, format);
+    }
+
+    MetricWriter(String baseDir, long singleFileSize, int totalFileCount, String format) {
         if (singleFileSize <= 0 || totalFileCount <= 0) {
             throw new IllegalArgumentException();
         }
-        RecordLog.info("[MetricWriter] Creating new MetricWriter, singleFileSize={}, totalFileCount={}",
-            singleFileSize, totalFileCount);
-        this.baseDir = METRIC_BASE_DIR;
+        RecordLog.info("[MetricWriter] Creating new MetricWriter, singleFileSize={}, totalFileCount={}, format={}",
+            singleFileSize, totalFileCount, format);
+        this.blockEncoder = SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(format) ? new MetricBlockEncoder() : null;
+        this.baseDir = baseDir;
         File dir = new File(baseDir);
         if (!dir.exists()) {
             dir.mkdirs();
@@ -142,9 +163,7 @@ public class MetricWriter {
         if (second < lastSecond) {
             // 时间靠前的直接忽略，不应该发生。
         } else if (second == lastSecond) {
-            for (MetricNode node : nodes) {
-                outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-            }
+            writeNodes(time, nodes);
             outMetricBuf.flush();
             if (!validSize()) {
                 closeAndNewFile(nextFileNameOfDay(time));
@@ -153,17 +172,13 @@ public class MetricWriter {
             writeIndex(second, outMetric.getChannel().position());
             if (isNewDay(lastSecond, second)) {
                 closeAndNewFile(nextFileNameOfDay(time));
-                for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-                }
+                writeNodes(time, nodes);
                 outMetricBuf.flush();
                 if (!validSize()) {
                     closeAndNewFile(nextFileNameOfDay(time));
                 }
             } else {
-                for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-                }
+                writeNodes(time, nodes);
                 outMetricBuf.flush();
                 if (!validSize()) {
                     closeAndNewFile(nextFileNameOfDay(time));
@@ -182,10 +197,43 @@ public class MetricWriter {
         }
     }
 
+    private void writeNodes(long time, List<MetricNode> nodes) throws Exception {
+        if (blockEncoder != null) {
+            blockEncoder.encode(time, nodes);
+            outMetricBuf.write(blockEncoder.buffer(), 0, blockEncoder.length());
+            return;
+        }
+        for (MetricNode node : nodes) {
+            outMetricBuf.write(node.toFatString().getBytes(CHARSET));
+        }
+    }
+
     private void writeIndex(long time, long offset) throws Exception {
         outIndex.writeLong(time);
         outIndex.writeLong(offset);
         outIndex.flush();
+        String fileName = curMetricFile.getAbsolutePath();
+        for (MetricFileListener listener : FILE_LISTENERS) {
+            listener.onIndexAppended(fileName, time, offset);
+        }
+    }
+
+    /**
+     * Add a listener of metric files written by all metric writers.
+     *
+     * @param listener the listener
+     * @since 1.8.8
+     */
+    public static void addMetricFileListener(MetricFileListener listener) {
+        FILE_LISTENERS.add(listener);
+    }
+
+    /**
+     * @param listener the listener
+     * @since 1.8.8
+     */
+    public static void removeMetricFileListener(MetricFileListener listener) {
+        FILE_LISTENERS.remove(listener);
     }
 
     private String nextFileNameOfDay(long time) {
@@ -330,6 +378,9 @@ public class MetricWriter {
             RecordLog.info("[MetricWriter] Removing metric file: {}", fileName);
             new File(indexFile).delete();
             RecordLog.info("[MetricWriter] Removing metric index file: {}", indexFile);
+            for (MetricFileListener listener : FILE_LISTENERS) {
+                listener.onFileRemoved(fileName);
+            }
         }
     }
 
@@ -347,8 +398,17 @@ public class MetricWriter {
         String idxFile = formIndexFileName(fileName);
         curMetricIndexFile = new File(idxFile);
         outIndex = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(idxFile, append)));
+        if (blockEncoder != null) {
+            // Resource names are dictionary-encoded per file.
+            blockEncoder.reset();
+            outMetricBuf.write(MetricBinaryFormat.MAGIC);
+            outMetricBuf.flush();
+        }
         RecordLog.info("[MetricWriter] New metric file created: {}", fileName);
         RecordLog.info("[MetricWriter] New metric index file created: {}", idxFile);
+        for (MetricFileListener listener : FILE_LISTENERS) {
+            listener.onFileCreated(curMetricFile.getAbsolutePath());
+        }
     }
 
     private boolean validSize() throws Exception {
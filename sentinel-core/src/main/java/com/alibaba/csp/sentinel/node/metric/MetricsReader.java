@@ -33,6 +33,7 @@ class MetricsReader {
     private static final int MAX_LINES_RETURN = 100000;
 
     private final Charset charset;
+    private final BinaryMetricsReader binaryReader = new BinaryMetricsReader();
 
     public MetricsReader(Charset charset) {
         this.charset = charset;
@@ -43,6 +44,10 @@ class MetricsReader {
      */
     boolean readMetricsInOneFileByEndTime(List<MetricNode> list, String fileName, long offset,
                                           long beginTimeMs, long endTimeMs, String identity) throws Exception {
+        if (MetricBinaryFormat.isBinaryFile(fileName)) {
+            return binaryReader.readMetricsInOneFileByEndTime(list, fileName, offset, beginTimeMs, endTimeMs,
+                identity, MAX_LINES_RETURN);
+        }
         FileInputStream in = null;
         long beginSecond = beginTimeMs / 1000;
         long endSecond = endTimeMs / 1000;
@@ -85,6 +90,10 @@ class MetricsReader {
         //if(list.size() >= recommendLines){
         //    return;
         //}
+        if (MetricBinaryFormat.isBinaryFile(fileName)) {
+            binaryReader.readMetricsInOneFile(list, fileName, offset, recommendLines);
+            return;
+        }
         long lastSecond = -1;
         if (list.size() > 0) {
             lastSecond = list.get(list.size() - 1).getTimestamp() / 1000;
@@ -121,6 +130,7 @@ class MetricsReader {
      */
     List<MetricNode> readMetricsByEndTime(List<String> fileNames, int pos, long offset,
                                           long beginTimeMs, long endTimeMs, String identity) throws Exception {
+        binaryReader.retainFiles(fileNames);
         List<MetricNode> list = new ArrayList<MetricNode>(1024);
         if (readMetricsInOneFileByEndTime(list, fileNames.get(pos++), offset, beginTimeMs, endTimeMs, identity)) {
             while (pos < fileNames.size()
@@ -132,6 +142,7 @@ class MetricsReader {
 
     List<MetricNode> readMetrics(List<String> fileNames, int pos,
                                  long offset, int recommendLines) throws Exception {
+        binaryReader.retainFiles(fileNames);
         List<MetricNode> list = new ArrayList<MetricNode>(recommendLines);
         readMetricsInOneFile(list, fileNames.get(pos++), offset, recommendLines);
         while (list.size() < recommendLines && pos < fileNames.size()) {
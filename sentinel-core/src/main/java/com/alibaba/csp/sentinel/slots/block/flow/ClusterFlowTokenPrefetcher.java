@@ -0,0 +1,154 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+
+/**
+ * <p>
+ * Acquires cluster flow tokens of a resource asynchronously, so that asynchronous callers
+ * (e.g. {@code AsyncEntry} users and the Reactor adapter) won't park a thread for the round trip
+ * to the token server. Typical usage:
+ * </p>
+ * <pre>
+ * ClusterFlowTokenPrefetcher.prefetch(resourceName, 1, false)
+ *     .thenAccept(tokens -&gt; tokens.runWith(() -&gt; {
+ *         AsyncEntry entry = SphU.asyncEntry(resourceName);
+ *         // ...
+ *     }));
+ * </pre>
+ * <p>
+ * The returned future is never completed exceptionally. Failures are represented as
+ * {@link TokenResultStatus#FAIL} results, which will go through the normal fallback logic
+ * of {@link FlowRuleChecker}. {@link TokenResultStatus#SHOULD_WAIT} results are delayed
+ * without blocking any thread.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public final class ClusterFlowTokenPrefetcher {
+
+    private static final CompletableFuture<PrefetchedClusterTokens> NOTHING_TO_PREFETCH =
+        CompletableFuture.completedFuture(PrefetchedClusterTokens.NONE);
+
+    private static volatile ScheduledExecutorService waitScheduler = null;
+
+    /**
+     * Request tokens of all cluster flow rules of the resource from the token server asynchronously.
+     * If current instance is not a cluster client, or there are no cluster flow rules for the resource,
+     * an already completed future will be returned.
+     *
+     * @param resource     resource name
+     * @param acquireCount token count to acquire
+     * @param prioritized  whether the request is prioritized
+     * @return future of the prefetched token results
+     */
+    public static CompletableFuture<PrefetchedClusterTokens> prefetch(String resource, int acquireCount,
+                                                                      boolean prioritized) {
+        if (resource == null || !ClusterStateManager.isClient()) {
+            return NOTHING_TO_PREFETCH;
+        }
+        List<FlowRule> rules = FlowRuleManager.getFlowRules(resource);
+        if (rules == null || rules.isEmpty()) {
+            return NOTHING_TO_PREFETCH;
+        }
+        ClusterTokenClient client = TokenClientProvider.getClient();
+        if (client == null) {
+            return NOTHING_TO_PREFETCH;
+        }
+        final Map<Long, CompletableFuture<TokenResult>> futures = new HashMap<>();
+        for (FlowRule rule : rules) {
+            if (!rule.isClusterMode() || rule.getLimitApp() == null || rule.getClusterConfig() == null) {
+                continue;
+            }
+            Long flowId = rule.getClusterConfig().getFlowId();
+            if (flowId != null && !futures.containsKey(flowId)) {
+                futures.put(flowId, requestToken(client, flowId, acquireCount, prioritized));
+            }
+        }
+        if (futures.isEmpty()) {
+            return NOTHING_TO_PREFETCH;
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+            .thenApply(v -> {
+                Map<Long, TokenResult> results = new HashMap<>(futures.size());
+                for (Map.Entry<Long, CompletableFuture<TokenResult>> e : futures.entrySet()) {
+                    results.put(e.getKey(), e.getValue().join());
+                }
+                return new PrefetchedClusterTokens(results);
+            });
+    }
+
+    private static CompletableFuture<TokenResult> requestToken(ClusterTokenClient client, Long flowId,
+                                                               int acquireCount, boolean prioritized) {
+        CompletableFuture<TokenResult> future;
+        try {
+            future = client.requestTokenAsync(flowId, acquireCount, prioritized);
+        } catch (Throwable ex) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+        }
+        return future.exceptionally(ex -> new TokenResult(TokenResultStatus.FAIL))
+            .thenCompose(ClusterFlowTokenPrefetcher::delayIfShouldWait);
+    }
+
+    private static CompletableFuture<TokenResult> delayIfShouldWait(TokenResult result) {
+        if (result == null) {
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.FAIL));
+        }
+        if (result.getStatus() != TokenResultStatus.SHOULD_WAIT || result.getWaitInMs() <= 0) {
+            return CompletableFuture.completedFuture(result);
+        }
+        // Wait for next tick without blocking, then the request is regarded as passed.
+        final CompletableFuture<TokenResult> delayed = new CompletableFuture<>();
+        getWaitScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                delayed.complete(new TokenResult(TokenResultStatus.OK));
+            }
+        }, result.getWaitInMs(), TimeUnit.MILLISECONDS);
+        return delayed;
+    }
+
+    private static ScheduledExecutorService getWaitScheduler() {
+        if (waitScheduler == null) {
+            synchronized (ClusterFlowTokenPrefetcher.class) {
+                if (waitScheduler == null) {
+                    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+                    ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(
+                        new NamedThreadFactory("sentinel-cluster-token-wait-scheduler", true));
+                    waitScheduler = s;
+                }
+            }
+        }
+        return waitScheduler;
+    }
+
+    private ClusterFlowTokenPrefetcher() {}
+}
@@ -152,7 +152,11 @@ public class FlowRuleChecker {
                 return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
             }
             long flowId = rule.getClusterConfig().getFlowId();
-            TokenResult result = clusterService.requestToken(flowId, acquireCount, prioritized);
+            // Use the token acquired asynchronously in advance if present.
+            TokenResult result = PrefetchedClusterTokens.take(flowId);
+            if (result == null) {
+                result = clusterService.requestToken(flowId, acquireCount, prioritized);
+            }
             return applyTokenResult(result, rule, context, node, acquireCount, prioritized);
             // If client is absent, then fallback to local mode.
         } catch (Throwable ex) {
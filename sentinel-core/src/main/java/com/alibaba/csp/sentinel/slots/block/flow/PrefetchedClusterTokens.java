@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+
+/**
+ * Cluster flow token results acquired in advance via {@link ClusterFlowTokenPrefetcher}.
+ * When an entry is performed within {@link #runWith(Runnable)}, {@link FlowRuleChecker} will
+ * use the prefetched results instead of requesting the token server synchronously.
+ * Each prefetched result can only be consumed once.
+ *
+ * @since 1.8.8
+ */
+public final class PrefetchedClusterTokens {
+
+    static final PrefetchedClusterTokens NONE = new PrefetchedClusterTokens(
+        Collections.<Long, TokenResult>emptyMap());
+
+    private static final ThreadLocal<PrefetchedClusterTokens> CURRENT = new ThreadLocal<>();
+
+    private final Map<Long, TokenResult> results;
+
+    PrefetchedClusterTokens(Map<Long, TokenResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Run the task (which usually performs the entry) with the prefetched token results.
+     *
+     * @param task the task to run
+     */
+    public void runWith(Runnable task) {
+        if (this == NONE) {
+            task.run();
+            return;
+        }
+        PrefetchedClusterTokens previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return results.isEmpty();
+    }
+
+    /**
+     * Take the prefetched result of the flow ID bound to current thread.
+     *
+     * @param flowId cluster flow ID
+     * @return prefetched token result, or null if absent
+     */
+    static TokenResult take(long flowId) {
+        PrefetchedClusterTokens current = CURRENT.get();
+        if (current == null) {
+            return null;
+        }
+        return current.results.remove(flowId);
+    }
+}
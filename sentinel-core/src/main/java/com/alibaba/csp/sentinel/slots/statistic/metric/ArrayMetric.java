@@ -311,6 +311,17 @@ public class ArrayMetric implements Metric {
         return getSum(event) / data.getIntervalInSecond();
     }
 
+    /**
+     * Get the bucket of the window at the given time.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @return the bucket of the window, or null if absent
+     * @since 1.8.8
+     */
+    public MetricBucket getWindowBucket(long timeMillis) {
+        return data.getWindowValue(timeMillis);
+    }
+
     @Override
     public long getWindowPass(long timeMillis) {
         MetricBucket bucket = data.getWindowValue(timeMillis);
@@ -0,0 +1,257 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * Measures the scheduling lag of event loops (e.g. Netty {@code EventLoop}s of reactive servers).
+ * A timestamped probe task is submitted to every registered event loop periodically, and the delay between
+ * submission and execution is recorded in a millisecond histogram. The 99th percentile lag of the last
+ * second is published as the current event loop lag, which is checked by {@link SystemRuleManager} when
+ * {@link SystemRule#getMaxEventLoopLag()} is set.
+ * </p>
+ * <p>
+ * Netty {@code EventLoopGroup} is an {@code Iterable} of {@code EventExecutor}s, which are also
+ * {@link Executor}s, so a whole group can be registered via {@link #registerAll(Iterable)} without any
+ * Netty dependency here. Probe tasks are only submitted when the event loop lag rule is enabled.
+ * </p>
+ *
+ * @since 1.8.8
+ */
+public final class EventLoopLagMonitor {
+
+    static final long PROBE_INTERVAL_MS = 50;
+    static final int PROBES_PER_WINDOW = (int)(1000 / PROBE_INTERVAL_MS);
+    /**
+     * Lags longer than this are accounted in the overflow bucket.
+     */
+    static final int MAX_TRACKED_LAG_MS = 1000;
+
+    private static final Map<Executor, LagProbe> PROBES = new ConcurrentHashMap<Executor, LagProbe>();
+
+    /**
+     * Cumulative histogram of probe lags. Bucket {@code i} counts lags in {@code [i, i + 1)} ms,
+     * and the last bucket counts lags of at least {@link #MAX_TRACKED_LAG_MS} ms.
+     */
+    private static final AtomicLongArray LAG_HISTOGRAM = new AtomicLongArray(MAX_TRACKED_LAG_MS + 1);
+    private static final long[] LAST_SNAPSHOT = new long[MAX_TRACKED_LAG_MS + 1];
+    private static final long[] WINDOW_DELTA = new long[MAX_TRACKED_LAG_MS + 1];
+
+    private static volatile boolean enabled = false;
+    private static volatile long currentLag = 0;
+
+    private static volatile ScheduledExecutorService scheduler = null;
+    private static int probeRound = 0;
+
+    /**
+     * Register an event loop to be probed. Registering the same event loop repeatedly is cheap and has no effect.
+     *
+     * @param eventLoop a single-threaded event loop
+     */
+    public static void register(Executor eventLoop) {
+        AssertUtil.notNull(eventLoop, "eventLoop cannot be null");
+        if (PROBES.containsKey(eventLoop)) {
+            return;
+        }
+        if (PROBES.put(eventLoop, new LagProbe(eventLoop)) == null) {
+            RecordLog.info("[EventLoopLagMonitor] Event loop registered: {}", eventLoop);
+        }
+        startSchedulerIfNecessary();
+    }
+
+    /**
+     * Register all event loops of a group, e.g. a Netty {@code EventLoopGroup}.
+     *
+     * @param eventLoops event loops to be probed
+     */
+    public static void registerAll(Iterable<? extends Executor> eventLoops) {
+        AssertUtil.notNull(eventLoops, "eventLoops cannot be null");
+        for (Executor eventLoop : eventLoops) {
+            register(eventLoop);
+        }
+    }
+
+    public static void unregister(Executor eventLoop) {
+        if (eventLoop != null) {
+            PROBES.remove(eventLoop);
+        }
+    }
+
+    public static boolean isRegistered(Executor eventLoop) {
+        return eventLoop != null && PROBES.containsKey(eventLoop);
+    }
+
+    /**
+     * @return whether the event loop lag is being measured, i.e. whether the event loop lag rule is set
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the 99th percentile event loop lag (in milliseconds) of the last second. Event loops that have not
+     * yet executed the pending probe task are also taken into account, so a stuck event loop is reported
+     * even if no probe could complete.
+     *
+     * @return current event loop lag in milliseconds, or 0 if not enabled
+     */
+    public static long getCurrentLag() {
+        return currentLag;
+    }
+
+    static void setEnabled(boolean enabled) {
+        EventLoopLagMonitor.enabled = enabled;
+        if (!enabled) {
+            currentLag = 0;
+        }
+    }
+
+    static void clearForTest() {
+        PROBES.clear();
+        currentLag = 0;
+    }
+
+    private static void startSchedulerIfNecessary() {
+        if (scheduler != null) {
+            return;
+        }
+        synchronized (EventLoopLagMonitor.class) {
+            if (scheduler == null) {
+                @SuppressWarnings("PMD.ThreadPoolCreationRule")
+                ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(
+                    new NamedThreadFactory("sentinel-event-loop-lag-probe", true));
+                s.scheduleAtFixedRate(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            probe();
+                        } catch (Throwable t) {
+                            RecordLog.warn("[EventLoopLagMonitor] Unexpected error when probing event loops", t);
+                        }
+                    }
+                }, PROBE_INTERVAL_MS, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                scheduler = s;
+            }
+        }
+    }
+
+    /**
+     * Only invoked in the single probe thread.
+     */
+    static void probe() {
+        if (!enabled) {
+            return;
+        }
+        for (LagProbe probe : PROBES.values()) {
+            probe.submit();
+        }
+        if (++probeRound >= PROBES_PER_WINDOW) {
+            probeRound = 0;
+            currentLag = enabled ? computeLag() : 0;
+        }
+    }
+
+    private static long computeLag() {
+        long total = 0;
+        int size = LAST_SNAPSHOT.length;
+        long[] delta = WINDOW_DELTA;
+        for (int i = 0; i < size; i++) {
+            long current = LAG_HISTOGRAM.get(i);
+            delta[i] = current - LAST_SNAPSHOT[i];
+            LAST_SNAPSHOT[i] = current;
+            total += delta[i];
+        }
+        long p99 = 0;
+        if (total > 0) {
+            long rank = (long)Math.ceil(total * 0.99d);
+            long seen = 0;
+            for (int i = 0; i < size; i++) {
+                seen += delta[i];
+                if (seen >= rank) {
+                    p99 = i;
+                    break;
+                }
+            }
+        }
+        long now = System.nanoTime();
+        long maxPending = 0;
+        for (LagProbe probe : PROBES.values()) {
+            maxPending = Math.max(maxPending, probe.pendingLagMs(now));
+        }
+        return Math.max(p99, maxPending);
+    }
+
+    static void recordLag(long lagNanos) {
+        long lagMs = TimeUnit.NANOSECONDS.toMillis(lagNanos);
+        LAG_HISTOGRAM.incrementAndGet((int)Math.max(0, Math.min(lagMs, MAX_TRACKED_LAG_MS)));
+    }
+
+    private static final class LagProbe implements Runnable {
+
+        private final Executor eventLoop;
+        /**
+         * Submission timestamp of the pending probe task, or -1 if there is no pending task.
+         */
+        private volatile long submitNanos = -1;
+
+        LagProbe(Executor eventLoop) {
+            this.eventLoop = eventLoop;
+        }
+
+        void submit() {
+            if (submitNanos != -1) {
+                // The previous probe has not been executed yet, don't pile up tasks on a stuck event loop.
+                return;
+            }
+            submitNanos = System.nanoTime();
+            try {
+                eventLoop.execute(this);
+            } catch (RejectedExecutionException ex) {
+                // The event loop has been shut down.
+                PROBES.remove(eventLoop);
+            }
+        }
+
+        long pendingLagMs(long now) {
+            long submitted = submitNanos;
+            return submitted == -1 ? 0 : TimeUnit.NANOSECONDS.toMillis(now - submitted);
+        }
+
+        @Override
+        public void run() {
+            long submitted = submitNanos;
+            if (submitted != -1) {
+                recordLag(System.nanoTime() - submitted);
+            }
+            submitNanos = -1;
+        }
+    }
+
+    private EventLoopLagMonitor() {}
+}
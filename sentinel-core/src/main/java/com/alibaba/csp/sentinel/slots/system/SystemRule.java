@@ -48,6 +48,10 @@ public class SystemRule extends AbstractRule {
     private double qps = -1;
     private long avgRt = -1;
     private long maxThread = -1;
+    /**
+     * max p99 event loop lag (in milliseconds), see {@link EventLoopLagMonitor}
+     */
+    private long maxEventLoopLag = -1;
 
     public double getQps() {
         return qps;
@@ -131,6 +135,26 @@ public class SystemRule extends AbstractRule {
         this.highestCpuUsage = highestCpuUsage;
     }
 
+    public long getMaxEventLoopLag() {
+        return maxEventLoopLag;
+    }
+
+    /**
+     * <p>
+     * Set max p99 scheduling lag (in milliseconds) of the registered event loops. Event loop lag is a much
+     * earlier overload signal than CPU usage for reactive (Netty-based) servers.
+     * </p>
+     * <p>
+     * Note that event loops need to be registered to {@link EventLoopLagMonitor} to make this threshold work,
+     * which is done automatically by the reactive adapters (e.g. Spring WebFlux, Spring Cloud Gateway and Zuul 2).
+     * </p>
+     *
+     * @param maxEventLoopLag max event loop lag, values < 0 are special for clearing the threshold.
+     */
+    public void setMaxEventLoopLag(long maxEventLoopLag) {
+        this.maxEventLoopLag = maxEventLoopLag;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -159,6 +183,9 @@ public class SystemRule extends AbstractRule {
         if (avgRt != that.avgRt) {
             return false;
         }
+        if (maxEventLoopLag != that.maxEventLoopLag) {
+            return false;
+        }
         return maxThread == that.maxThread;
     }
 
@@ -177,6 +204,7 @@ public class SystemRule extends AbstractRule {
 
         result = 31 * result + (int)(avgRt ^ (avgRt >>> 32));
         result = 31 * result + (int)(maxThread ^ (maxThread >>> 32));
+        result = 31 * result + (int)(maxEventLoopLag ^ (maxEventLoopLag >>> 32));
         return result;
     }
 
@@ -188,6 +216,7 @@ public class SystemRule extends AbstractRule {
             ", qps=" + qps +
             ", avgRt=" + avgRt +
             ", maxThread=" + maxThread +
+            ", maxEventLoopLag=" + maxEventLoopLag +
             "}";
     }
 }
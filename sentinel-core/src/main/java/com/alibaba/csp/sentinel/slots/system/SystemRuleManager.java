@@ -73,6 +73,7 @@ public final class SystemRuleManager {
     private static volatile double qps = Double.MAX_VALUE;
     private static volatile long maxRt = Long.MAX_VALUE;
     private static volatile long maxThread = Long.MAX_VALUE;
+    private static volatile long maxEventLoopLag = Long.MAX_VALUE;
     /**
      * mark whether the threshold are set by user.
      */
@@ -81,6 +82,7 @@ public final class SystemRuleManager {
     private static volatile boolean qpsIsSet = false;
     private static volatile boolean maxRtIsSet = false;
     private static volatile boolean maxThreadIsSet = false;
+    private static volatile boolean maxEventLoopLagIsSet = false;
 
     private static AtomicBoolean checkSystemStatus = new AtomicBoolean(false);
 
@@ -159,6 +161,12 @@ public final class SystemRuleManager {
             result.add(threadRule);
         }
 
+        if (maxEventLoopLagIsSet) {
+            SystemRule lagRule = new SystemRule();
+            lagRule.setMaxEventLoopLag(maxEventLoopLag);
+            result.add(lagRule);
+        }
+
         if (qpsIsSet) {
             SystemRule qpsRule = new SystemRule();
             qpsRule.setQps(qps);
@@ -180,6 +188,10 @@ public final class SystemRuleManager {
         return maxThread;
     }
 
+    public static long getEventLoopLagThreshold() {
+        return maxEventLoopLag;
+    }
+
     static class SystemPropertyListener extends SimplePropertyListener<List<SystemRule>> {
 
         @Override
@@ -199,12 +211,14 @@ public final class SystemRuleManager {
                     + "highestCpuUsage: %e, "
                     + "maxRt: %d, "
                     + "maxThread: %d, "
+                    + "maxEventLoopLag: %d, "
                     + "maxQps: %e",
                 checkSystemStatus.get(),
                 highestSystemLoad,
                 highestCpuUsage,
                 maxRt,
                 maxThread,
+                maxEventLoopLag,
                 qps));
         }
 
@@ -216,13 +230,16 @@ public final class SystemRuleManager {
             highestCpuUsage = Double.MAX_VALUE;
             maxRt = Long.MAX_VALUE;
             maxThread = Long.MAX_VALUE;
+            maxEventLoopLag = Long.MAX_VALUE;
             qps = Double.MAX_VALUE;
 
             highestSystemLoadIsSet = false;
             highestCpuUsageIsSet = false;
             maxRtIsSet = false;
             maxThreadIsSet = false;
+            maxEventLoopLagIsSet = false;
             qpsIsSet = false;
+            EventLoopLagMonitor.setEnabled(false);
         }
 
     }
@@ -271,6 +288,13 @@ public final class SystemRuleManager {
             checkStatus = true;
         }
 
+        if (rule.getMaxEventLoopLag() >= 0) {
+            maxEventLoopLag = Math.min(maxEventLoopLag, rule.getMaxEventLoopLag());
+            maxEventLoopLagIsSet = true;
+            EventLoopLagMonitor.setEnabled(true);
+            checkStatus = true;
+        }
+
         if (rule.getQps() >= 0) {
             qps = Math.min(qps, rule.getQps());
             qpsIsSet = true;
@@ -329,6 +353,11 @@ public final class SystemRuleManager {
         if (highestCpuUsageIsSet && getCurrentCpuUsage() > highestCpuUsage) {
             throw new SystemBlockException(resourceWrapper.getName(), "cpu");
         }
+
+        // p99 event loop lag
+        if (maxEventLoopLagIsSet && getCurrentEventLoopLag() > maxEventLoopLag) {
+            throw new SystemBlockException(resourceWrapper.getName(), "eventLoopLag");
+        }
     }
 
     private static boolean checkBbr(int currentThread) {
@@ -346,4 +375,8 @@ public final class SystemRuleManager {
     public static double getCurrentCpuUsage() {
         return statusListener.getCpuUsage();
     }
+
+    public static long getCurrentEventLoopLag() {
+        return EventLoopLagMonitor.getCurrentLag();
+    }
 }
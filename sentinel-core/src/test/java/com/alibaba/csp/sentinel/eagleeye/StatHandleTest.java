@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.eagleeye;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StatHandleTest {
+
+    private final List<String> lines = new ArrayList<String>();
+
+    private StatLogger newLogger(int maxEntryCount) {
+        EagleEyeAppender appender = new EagleEyeAppender() {
+            @Override
+            public void append(String log) {
+                lines.add(log);
+            }
+        };
+        return new StatLogger("test-stat-handle", appender, 60 * 1000, maxEntryCount, '|', ',', ',');
+    }
+
+    private void write(StatRollingData data) {
+        lines.clear();
+        new StatLogController.StatLogWriteTask(data).run();
+    }
+
+    @Test
+    public void testSameKeysGetSameHandle() {
+        StatLogger logger = newLogger(100);
+        StatHandle handle = logger.handle("flow|pass|1");
+
+        assertSame(handle, logger.handle("flow|pass|1"));
+        assertSame(handle, logger.handle(new String[] {"flow|pass|1"}));
+        assertNotSame(handle, logger.handle("flow|pass|2"));
+        assertEquals(0, handle.getIndex());
+    }
+
+    @Test
+    public void testHandleOutputSameAsStatEntry() {
+        StatLogger logger = newLogger(100);
+        StatHandle handle = logger.handle("flow|pass|1");
+        // Handles registered after the rolling take their slots from the next rolling.
+        logger.rolling();
+
+        handle.count(3);
+        handle.count();
+        handle.countAndSum(2, 10);
+        logger.stat("flow|block|1").count(2);
+        write(logger.rolling());
+
+        assertEquals(2, lines.size());
+        String blockLine = lines.get(0);
+        String passLine = lines.get(1);
+        assertTrue(blockLine.endsWith("|1|flow|block|1|2,0" + EagleEyeCoreUtils.NEWLINE));
+        assertTrue(passLine.endsWith("|1|flow|pass|1|6,10" + EagleEyeCoreUtils.NEWLINE));
+        // Same time prefix as the map entries.
+        assertEquals(blockLine.substring(0, blockLine.indexOf('|')), passLine.substring(0, passLine.indexOf('|')));
+
+        // Untouched handles are not written.
+        write(logger.rolling());
+        assertTrue(lines.isEmpty());
+    }
+
+    @Test
+    public void testHandleWithoutSlotFallsBackToStatMap() {
+        StatLogger logger = newLogger(100);
+        // Registered after the rolling, so current data has no slot for the handle.
+        StatHandle handle = logger.handle("flow|pass|1");
+        handle.count(2);
+        write(logger.rolling());
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("|1|flow|pass|1|2,0" + EagleEyeCoreUtils.NEWLINE));
+
+        StatLogger smallLogger = newLogger(1);
+        assertEquals(0, smallLogger.handle("a").getIndex());
+        StatHandle overflow = smallLogger.handle("b");
+        assertEquals(-1, overflow.getIndex());
+        smallLogger.rolling();
+        overflow.count(5);
+        write(smallLogger.rolling());
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("|1|b|5,0" + EagleEyeCoreUtils.NEWLINE));
+    }
+
+    @Test
+    public void testHandleEntriesGrowBeyondInitialCapacity() {
+        StatLogger logger = newLogger(1000);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, logger.handle("k" + i).getIndex());
+        }
+        logger.rolling();
+        for (int i = 0; i < 100; i++) {
+            logger.handle("k" + i).count(i + 1);
+        }
+        write(logger.rolling());
+        assertEquals(100, lines.size());
+        assertTrue(lines.get(99).endsWith("|1|k99|100,0" + EagleEyeCoreUtils.NEWLINE));
+    }
+}
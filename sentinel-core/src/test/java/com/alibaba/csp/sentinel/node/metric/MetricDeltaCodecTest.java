@@ -0,0 +1,94 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test cases for {@link MetricDeltaCodec}.
+ */
+public class MetricDeltaCodecTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        long timestamp = 1700000000000L;
+        List<MetricNode> nodes = new ArrayList<>();
+        for (int second = 0; second < 3; second++) {
+            for (int i = 0; i < 100; i++) {
+                nodes.add(newNode(timestamp + second * 1000, "resource-" + i, i * 100 + second));
+            }
+        }
+        nodes.add(newNode(timestamp + 5000, "a|b", -1));
+
+        StringBuilder text = new StringBuilder();
+        for (MetricNode node : nodes) {
+            text.append(node.toThinString()).append('\n');
+        }
+
+        byte[] data = MetricDeltaCodec.encode(nodes);
+        assertTrue(MetricDeltaCodec.isEncoded(data));
+        assertTrue(data.length < text.toString().getBytes(Charset.forName("UTF-8")).length / 3);
+
+        List<MetricNode> decoded = MetricDeltaCodec.decode(data);
+        assertEquals(nodes.size(), decoded.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(nodes.get(i).toThinString(), decoded.get(i).toThinString());
+        }
+        assertEquals("a_b", decoded.get(decoded.size() - 1).getResource());
+    }
+
+    @Test
+    public void testEncodeEmpty() {
+        byte[] data = MetricDeltaCodec.encode(Collections.<MetricNode>emptyList());
+        assertTrue(MetricDeltaCodec.decode(data).isEmpty());
+    }
+
+    @Test
+    public void testDecodeMalformed() {
+        assertFalse(MetricDeltaCodec.isEncoded("1700000000000|a|1|0|1|0|1|0|0|0\n".getBytes()));
+
+        byte[] data = MetricDeltaCodec.encode(Arrays.asList(newNode(1700000000000L, "a", 1)));
+        try {
+            MetricDeltaCodec.decode(Arrays.copyOf(data, data.length - 1));
+            fail("Truncated data should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static MetricNode newNode(long timestamp, String resource, long passQps) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(resource);
+        node.setPassQps(passQps);
+        node.setSuccessQps(passQps);
+        node.setBlockQps(passQps / 10);
+        node.setRt(passQps * 3);
+        node.setConcurrency(2);
+        node.setClassification(1);
+        return node;
+    }
+}
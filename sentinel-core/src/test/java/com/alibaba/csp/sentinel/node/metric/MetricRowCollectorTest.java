@@ -0,0 +1,141 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.node.StatisticNode;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MetricRowCollector}.
+ */
+public class MetricRowCollectorTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testFetchMetricsSameAsMetrics() {
+        try (MockedStatic<TimeUtil> mocked = mockTimeUtil()) {
+            setCurrentMillis(mocked, 100_000);
+            StatisticNode node = new StatisticNode();
+            StatisticNode expectedNode = new StatisticNode();
+            for (StatisticNode n : new StatisticNode[] {node, expectedNode}) {
+                n.addPassRequest(3);
+                n.increaseBlockQps(1);
+                n.addRtAndSuccess(20, 2);
+            }
+            // An idle second should be skipped.
+            sleepSecond(mocked, 2);
+            for (StatisticNode n : new StatisticNode[] {node, expectedNode}) {
+                n.addPassRequest(1);
+                n.increaseExceptionQps(1);
+            }
+            sleepSecond(mocked, 1);
+
+            MetricRowCollector collector = new MetricRowCollector();
+            node.fetchMetrics(collector, "abc", ResourceTypeConstants.COMMON_WEB);
+            Map<Long, MetricNode> expected = expectedNode.metrics();
+
+            List<MetricNode> rows = flush(collector);
+            assertEquals(2, rows.size());
+            assertEquals(expected.size(), rows.size());
+            for (MetricNode row : rows) {
+                MetricNode e = expected.get(row.getTimestamp());
+                assertNotNull(e);
+                assertEquals("abc", row.getResource());
+                assertEquals(ResourceTypeConstants.COMMON_WEB, row.getClassification());
+                assertEquals(e.getPassQps(), row.getPassQps());
+                assertEquals(e.getBlockQps(), row.getBlockQps());
+                assertEquals(e.getSuccessQps(), row.getSuccessQps());
+                assertEquals(e.getExceptionQps(), row.getExceptionQps());
+                assertEquals(e.getRt(), row.getRt());
+                assertEquals(e.getOccupiedPassQps(), row.getOccupiedPassQps());
+            }
+            assertEquals(100_000, rows.get(0).getTimestamp());
+            assertEquals(10, rows.get(0).getRt());
+            assertEquals(102_000, rows.get(1).getTimestamp());
+
+            // Fetched seconds are not fetched again.
+            node.fetchMetrics(collector, "abc", ResourceTypeConstants.COMMON_WEB);
+            assertTrue(collector.isEmpty());
+        }
+    }
+
+    @Test
+    public void testRowsReusedAndSortedBySecond() {
+        MetricRowCollector collector = new MetricRowCollector();
+        MetricNode a = collector.newRow(2000);
+        a.setResource("a");
+        MetricNode b = collector.newRow(1000);
+        b.setResource("b");
+        MetricNode c = collector.newRow(2000);
+        c.setResource("c");
+
+        final List<Long> timestamps = new ArrayList<>();
+        final List<String> resources = new ArrayList<>();
+        collector.flush(new MetricRowsConsumer() {
+            @Override
+            public void accept(long timestamp, List<MetricNode> rows) {
+                timestamps.add(timestamp);
+                for (MetricNode row : rows) {
+                    resources.add(row.getResource());
+                }
+            }
+        });
+        assertEquals(2, timestamps.size());
+        assertEquals(1000L, (long) timestamps.get(0));
+        assertEquals(2000L, (long) timestamps.get(1));
+        assertEquals("b", resources.get(0));
+        assertEquals("a", resources.get(1));
+        assertEquals("c", resources.get(2));
+        assertTrue(collector.isEmpty());
+
+        // Rows of the former round are reused.
+        MetricNode reused = collector.newRow(3000);
+        assertTrue(reused == a || reused == b);
+    }
+
+    private static List<MetricNode> flush(MetricRowCollector collector) {
+        final List<MetricNode> result = new ArrayList<>();
+        collector.flush(new MetricRowsConsumer() {
+            @Override
+            public void accept(long timestamp, List<MetricNode> rows) {
+                for (MetricNode row : rows) {
+                    MetricNode copy = new MetricNode();
+                    copy.setTimestamp(row.getTimestamp());
+                    copy.setResource(row.getResource());
+                    copy.setClassification(row.getClassification());
+                    copy.setPassQps(row.getPassQps());
+                    copy.setBlockQps(row.getBlockQps());
+                    copy.setSuccessQps(row.getSuccessQps());
+                    copy.setExceptionQps(row.getExceptionQps());
+                    copy.setRt(row.getRt());
+                    copy.setOccupiedPassQps(row.getOccupiedPassQps());
+                    result.add(copy);
+                }
+            }
+        });
+        return result;
+    }
+}
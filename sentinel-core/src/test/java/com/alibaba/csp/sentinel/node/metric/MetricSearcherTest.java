@@ -0,0 +1,215 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class MetricSearcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final long baseTime = (System.currentTimeMillis() / 1000 + 10) * 1000;
+
+    private String writeMetrics(String format) throws Exception {
+        String baseDir = folder.newFolder(format).getAbsolutePath() + File.separator;
+        MetricWriter writer = new MetricWriter(baseDir, 1024 * 1024, 6, format);
+        for (int i = 0; i < 5; i++) {
+            List<MetricNode> nodes = new ArrayList<MetricNode>();
+            nodes.add(node("res-a", i + 10, i));
+            nodes.add(node("res|b", i + 20, 0));
+            if (i >= 2) {
+                // A resource that appears later.
+                nodes.add(node("res-c", 1000000L * i, i));
+            }
+            writer.write(baseTime + i * 1000, nodes);
+        }
+        writer.close();
+        return baseDir;
+    }
+
+    private static MetricNode node(String resource, long pass, long block) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setPassQps(pass);
+        node.setBlockQps(block);
+        node.setSuccessQps(pass - 1);
+        node.setExceptionQps(1);
+        node.setRt(pass * 3);
+        node.setOccupiedPassQps(0);
+        node.setConcurrency(2);
+        node.setClassification(1);
+        return node;
+    }
+
+    private static MetricSearcher searcher(String baseDir) {
+        String appName = SentinelConfig.getAppName();
+        return new MetricSearcher(baseDir, MetricWriter.formMetricFileName(appName == null ? "" : appName,
+            PidUtil.getPid()));
+    }
+
+    private static List<String> thin(List<MetricNode> nodes) {
+        List<String> lines = new ArrayList<String>();
+        if (nodes != null) {
+            for (MetricNode node : nodes) {
+                lines.add(node.toThinString());
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void testBinaryFormat() throws Exception {
+        String baseDir = writeMetrics(SentinelConfig.METRIC_FILE_FORMAT_BINARY);
+        List<String> files = MetricWriter.listMetricFiles(baseDir,
+            MetricWriter.formMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid()));
+        assertFalse(files.isEmpty());
+        assertTrue(MetricBinaryFormat.isBinaryFile(files.get(0)));
+
+        MetricSearcher searcher = searcher(baseDir);
+        List<MetricNode> nodes = searcher.findByTimeAndResource(baseTime + 2000, baseTime + 3000, null);
+        assertEquals(6, nodes.size());
+        MetricNode first = nodes.get(0);
+        assertEquals(baseTime + 2000, first.getTimestamp());
+        assertEquals("res-a", first.getResource());
+        assertEquals(12, first.getPassQps());
+        assertEquals(2, first.getBlockQps());
+        assertEquals(11, first.getSuccessQps());
+        assertEquals(1, first.getExceptionQps());
+        assertEquals(36, first.getRt());
+        assertEquals(2, first.getConcurrency());
+        assertEquals(1, first.getClassification());
+        assertEquals("res_b", nodes.get(1).getResource());
+        assertEquals(2000000L, nodes.get(2).getPassQps());
+
+        nodes = searcher.findByTimeAndResource(baseTime, baseTime + 4000, "res-c");
+        assertEquals(3, nodes.size());
+        for (MetricNode node : nodes) {
+            assertEquals("res-c", node.getResource());
+        }
+
+        // Data of one second is never split.
+        nodes = searcher.find(baseTime + 1000, 3);
+        assertEquals(5, nodes.size());
+        assertEquals(baseTime + 2000, nodes.get(4).getTimestamp());
+    }
+
+    @Test
+    public void testBinaryFormatSameResultsAsText() throws Exception {
+        MetricSearcher text = searcher(writeMetrics(SentinelConfig.METRIC_FILE_FORMAT_TEXT));
+        MetricSearcher binary = searcher(writeMetrics(SentinelConfig.METRIC_FILE_FORMAT_BINARY));
+
+        for (String identity : Arrays.asList(null, "res-a", "res_b", "res-c", "absent")) {
+            for (int begin = 0; begin < 5; begin++) {
+                long beginTime = baseTime + begin * 1000;
+                // Sequential queries go through the cached position.
+                assertEquals(thin(text.findByTimeAndResource(beginTime, baseTime + 4000, identity)),
+                    thin(binary.findByTimeAndResource(beginTime, baseTime + 4000, identity)));
+            }
+        }
+        for (int lines = 1; lines < 15; lines++) {
+            assertEquals(thin(text.find(baseTime, lines)), thin(binary.find(baseTime, lines)));
+        }
+        assertNull(binary.find(baseTime + 5000, 10));
+    }
+
+    @Test
+    public void testIndexUpdatedByWriterOfProcess() throws Exception {
+        String baseDir = folder.newFolder().getAbsolutePath() + File.separator;
+        // Every write goes to a new file, and at most 3 files are kept.
+        MetricWriter writer = new MetricWriter(baseDir, 1, 3, SentinelConfig.METRIC_FILE_FORMAT_BINARY);
+        writer.write(baseTime, Arrays.asList(node("res-a", 1, 0)));
+        writer.write(baseTime + 1000, Arrays.asList(node("res-a", 2, 0)));
+        MetricSearcher searcher = searcher(baseDir);
+        assertEquals(2, searcher.findByTimeAndResource(baseTime, baseTime + 10000, null).size());
+
+        for (int i = 2; i < 6; i++) {
+            writer.write(baseTime + i * 1000, Arrays.asList(node("res-a", i + 1, 0)));
+            // Seen at once without reloading the directory.
+            List<MetricNode> nodes = searcher.findByTimeAndResource(baseTime, baseTime + 10000, null);
+            assertEquals(baseTime + i * 1000, nodes.get(nodes.size() - 1).getTimestamp());
+            assertEquals(i + 1, nodes.get(nodes.size() - 1).getPassQps());
+        }
+        // Removed files are gone from the index, where the last one of the 3 files is empty.
+        List<MetricNode> nodes = searcher.findByTimeAndResource(baseTime, baseTime + 10000, null);
+        assertEquals(2, nodes.size());
+        assertEquals(baseTime + 4000, nodes.get(0).getTimestamp());
+        writer.close();
+    }
+
+    @Test
+    public void testConcurrentReadersWithWriter() throws Exception {
+        final String baseDir = folder.newFolder().getAbsolutePath() + File.separator;
+        final MetricWriter writer = new MetricWriter(baseDir, 64 * 1024, 6, SentinelConfig.METRIC_FILE_FORMAT_BINARY);
+        writer.write(baseTime, Arrays.asList(node("res-a", 1, 0)));
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(new java.util.concurrent.Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        MetricSearcher searcher = searcher(baseDir);
+                        while (!stopped.get()) {
+                            List<MetricNode> nodes = searcher.findByTimeAndResource(baseTime, baseTime + 1000000,
+                                null);
+                            long last = 0;
+                            for (MetricNode node : nodes == null ? new ArrayList<MetricNode>() : nodes) {
+                                assertTrue(node.getTimestamp() >= last);
+                                last = node.getTimestamp();
+                                assertTrue(node.getResource().startsWith("res-"));
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (int i = 1; i < 300; i++) {
+                List<MetricNode> nodes = new ArrayList<MetricNode>();
+                for (int r = 0; r < 20; r++) {
+                    nodes.add(node("res-" + (i + r), i, 0));
+                }
+                writer.write(baseTime + i * 1000, nodes);
+            }
+            stopped.set(true);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            stopped.set(true);
+            pool.shutdownNow();
+            writer.close();
+        }
+    }
+}
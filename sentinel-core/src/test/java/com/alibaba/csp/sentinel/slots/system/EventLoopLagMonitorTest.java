@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EventLoopLagMonitorTest {
+
+    @After
+    public void tearDown() {
+        EventLoopLagMonitor.setEnabled(false);
+        EventLoopLagMonitor.clearForTest();
+    }
+
+    @Test
+    public void testRegisterAll() {
+        ExecutorService loop1 = Executors.newSingleThreadExecutor();
+        ExecutorService loop2 = Executors.newSingleThreadExecutor();
+        try {
+            EventLoopLagMonitor.registerAll(Arrays.asList(loop1, loop2));
+            assertTrue(EventLoopLagMonitor.isRegistered(loop1));
+            assertTrue(EventLoopLagMonitor.isRegistered(loop2));
+
+            EventLoopLagMonitor.unregister(loop1);
+            assertFalse(EventLoopLagMonitor.isRegistered(loop1));
+        } finally {
+            loop1.shutdownNow();
+            loop2.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIdleEventLoopHasNoLag() throws Exception {
+        EventLoopLagMonitor.setEnabled(true);
+        ExecutorService loop = Executors.newSingleThreadExecutor();
+        try {
+            EventLoopLagMonitor.register(loop);
+            Thread.sleep(1500);
+            assertTrue(EventLoopLagMonitor.getCurrentLag() < 50);
+        } finally {
+            loop.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testShutdownEventLoopIsUnregistered() throws Exception {
+        EventLoopLagMonitor.setEnabled(true);
+        ExecutorService loop = Executors.newSingleThreadExecutor();
+        EventLoopLagMonitor.register(loop);
+        loop.shutdownNow();
+
+        Thread.sleep(EventLoopLagMonitor.PROBE_INTERVAL_MS * 4);
+        assertFalse(EventLoopLagMonitor.isRegistered(loop));
+    }
+
+    @Test
+    public void testDisabledLagIsZero() {
+        EventLoopLagMonitor.setEnabled(false);
+        assertEquals(0, EventLoopLagMonitor.getCurrentLag());
+        assertFalse(EventLoopLagMonitor.isEnabled());
+    }
+}
@@ -19,6 +19,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
@@ -100,6 +102,45 @@ public class SystemRuleManagerTest {
         assertTrue("The entry should be blocked under SystemRule maxCpuUsage=0", blocked);
     }
 
+    @Test
+    public void testCheckEventLoopLag() throws Exception {
+        SystemRule rule = new SystemRule();
+        rule.setMaxEventLoopLag(50);
+        SystemRuleManager.loadRules(Collections.singletonList(rule));
+        assertEquals(50, SystemRuleManager.getEventLoopLagThreshold());
+        assertTrue(EventLoopLagMonitor.isEnabled());
+
+        ExecutorService eventLoop = Executors.newSingleThreadExecutor();
+        try {
+            EventLoopLagMonitor.register(eventLoop);
+            StringResourceWrapper resourceWrapper = new StringResourceWrapper("testCheckEventLoopLag", EntryType.IN);
+            // Block the event loop so that the pending probe task is delayed.
+            eventLoop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(2500);
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            });
+            Thread.sleep(2000);
+
+            assertTrue(SystemRuleManager.getCurrentEventLoopLag() > 50);
+            boolean blocked = false;
+            try {
+                SystemRuleManager.checkSystem(resourceWrapper, 1);
+            } catch (SystemBlockException ex) {
+                assertEquals("eventLoopLag", ex.getLimitType());
+                blocked = true;
+            }
+            assertTrue("The entry should be blocked when event loop lag exceeds the threshold", blocked);
+        } finally {
+            EventLoopLagMonitor.unregister(eventLoop);
+            eventLoop.shutdownNow();
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         SystemRuleManager.loadRules(new ArrayList<SystemRule>());
@@ -42,11 +42,16 @@ import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
 import com.alibaba.csp.sentinel.dashboard.discovery.AppInfo;
 import com.alibaba.csp.sentinel.dashboard.discovery.AppManagement;
 import com.alibaba.csp.sentinel.dashboard.discovery.MachineInfo;
+import com.alibaba.csp.sentinel.node.metric.MetricDeltaCodec;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import com.alibaba.csp.sentinel.dashboard.repository.metric.MetricsRepository;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.ContentType;
@@ -75,6 +80,10 @@ public class MetricFetcher {
     private static final long FETCH_INTERVAL_SECOND = 6;
     private static final Charset DEFAULT_CHARSET = Charset.forName(SentinelConfig.charset());
     private final static String METRIC_URL_PATH = "metric";
+    /**
+     * Clients which don't support the delta format respond with the text format, which is told by the content type.
+     */
+    private final static String METRIC_FORMAT_DELTA = "delta";
     private static Logger logger = LoggerFactory.getLogger(MetricFetcher.class);
     private final long intervalSecond = 1;
 
@@ -208,9 +217,11 @@ public class MetricFetcher {
                 continue;
             }
             final String url = "http://" + machine.getIp() + ":" + machine.getPort() + "/" + METRIC_URL_PATH
-                + "?startTime=" + startTime + "&endTime=" + endTime + "&refetch=" + false;
+                + "?startTime=" + startTime + "&endTime=" + endTime + "&refetch=" + false
+                + "&format=" + METRIC_FORMAT_DELTA;
             final HttpGet httpGet = new HttpGet(url);
             httpGet.setHeader(HTTP.CONN_DIRECTIVE, HTTP.CONN_CLOSE);
+            httpGet.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
             httpclient.execute(httpGet, new FutureCallback<HttpResponse>() {
                 @Override
                 public void completed(final HttpResponse response) {
@@ -295,16 +306,25 @@ public class MetricFetcher {
         if (code != HTTP_OK) {
             return;
         }
-        Charset charset = null;
+        ContentType contentType = null;
         try {
             String contentTypeStr = response.getFirstHeader("Content-type").getValue();
             if (StringUtil.isNotEmpty(contentTypeStr)) {
-                ContentType contentType = ContentType.parse(contentTypeStr);
-                charset = contentType.getCharset();
+                contentType = ContentType.parse(contentTypeStr);
             }
         } catch (Exception ignore) {
         }
-        String body = EntityUtils.toString(response.getEntity(), charset != null ? charset : DEFAULT_CHARSET);
+        HttpEntity entity = response.getEntity();
+        Header contentEncoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && "gzip".equalsIgnoreCase(contentEncoding.getValue())) {
+            entity = new GzipDecompressingEntity(entity);
+        }
+        if (contentType != null && MetricDeltaCodec.CONTENT_TYPE.equals(contentType.getMimeType())) {
+            handleNodes(MetricDeltaCodec.decode(EntityUtils.toByteArray(entity)), machine, metricMap);
+            return;
+        }
+        Charset charset = contentType != null ? contentType.getCharset() : null;
+        String body = EntityUtils.toString(entity, charset != null ? charset : DEFAULT_CHARSET);
         if (StringUtil.isEmpty(body) || body.startsWith(NO_METRICS)) {
             //logger.info(machine.getApp() + ":" + machine.getIp() + ":" + machine.getPort() + ", bodyStr is empty");
             return;
@@ -323,38 +343,47 @@ public class MetricFetcher {
 
         for (String line : lines) {
             try {
-                MetricNode node = MetricNode.fromThinString(line);
-                if (shouldFilterOut(node.getResource())) {
-                    continue;
-                }
-                /*
-                 * aggregation metrics by app_resource_timeSecond, ignore ip and port.
-                 */
-                String key = buildMetricKey(machine.getApp(), node.getResource(), node.getTimestamp());
-
-                MetricEntity metricEntity = map.computeIfAbsent(key, s -> {
-                    MetricEntity initMetricEntity = new MetricEntity();
-                    initMetricEntity.setApp(machine.getApp());
-                    initMetricEntity.setTimestamp(new Date(node.getTimestamp()));
-                    initMetricEntity.setPassQps(0L);
-                    initMetricEntity.setBlockQps(0L);
-                    initMetricEntity.setRtAndSuccessQps(0, 0L);
-                    initMetricEntity.setExceptionQps(0L);
-                    initMetricEntity.setCount(0);
-                    initMetricEntity.setResource(node.getResource());
-                    return initMetricEntity;
-                });
-                metricEntity.addPassQps(node.getPassQps());
-                metricEntity.addBlockQps(node.getBlockQps());
-                metricEntity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
-                metricEntity.addExceptionQps(node.getExceptionQps());
-                metricEntity.addCount(1);
+                handleNode(MetricNode.fromThinString(line), machine, map);
             } catch (Exception e) {
                 logger.warn("handleBody line exception, machine: {}, line: {}", machine.toLogString(), line);
             }
         }
     }
 
+    private void handleNodes(List<MetricNode> nodes, MachineInfo machine, Map<String, MetricEntity> map) {
+        for (MetricNode node : nodes) {
+            handleNode(node, machine, map);
+        }
+    }
+
+    private void handleNode(MetricNode node, MachineInfo machine, Map<String, MetricEntity> map) {
+        if (shouldFilterOut(node.getResource())) {
+            return;
+        }
+        /*
+         * aggregation metrics by app_resource_timeSecond, ignore ip and port.
+         */
+        String key = buildMetricKey(machine.getApp(), node.getResource(), node.getTimestamp());
+
+        MetricEntity metricEntity = map.computeIfAbsent(key, s -> {
+            MetricEntity initMetricEntity = new MetricEntity();
+            initMetricEntity.setApp(machine.getApp());
+            initMetricEntity.setTimestamp(new Date(node.getTimestamp()));
+            initMetricEntity.setPassQps(0L);
+            initMetricEntity.setBlockQps(0L);
+            initMetricEntity.setRtAndSuccessQps(0, 0L);
+            initMetricEntity.setExceptionQps(0L);
+            initMetricEntity.setCount(0);
+            initMetricEntity.setResource(node.getResource());
+            return initMetricEntity;
+        });
+        metricEntity.addPassQps(node.getPassQps());
+        metricEntity.addBlockQps(node.getBlockQps());
+        metricEntity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
+        metricEntity.addExceptionQps(node.getExceptionQps());
+        metricEntity.addCount(1);
+    }
+
     private String buildMetricKey(String app, String resource, long timestamp) {
         return app + "__" + resource + "__" + (timestamp / 1000);
     }
@@ -21,17 +21,20 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
  * Caches metrics data in a period of time in memory.
+ * <p>
+ * Metrics of each resource are kept in a ring indexed by second, which has a slot for each second of the
+ * period. A slot is taken over by the metric of a later second, so expired metrics are dropped without
+ * extra work, and a query only visits the seconds in its time range. Each ring has its own lock, so that
+ * saving metrics of different resources doesn't block each other or queries.
+ * </p>
  *
  * @author Carpenter Lee
  * @author Eric Zhao
@@ -41,33 +44,25 @@ public class InMemoryMetricsRepository implements MetricsRepository<MetricEntity
 
     private static final long MAX_METRIC_LIVE_TIME_MS = 1000 * 60 * 5;
 
+    private static final int RING_SIZE = (int) (MAX_METRIC_LIVE_TIME_MS / 1000);
+
     /**
-     * {@code app -> resource -> timestamp -> metric}
+     * {@code app -> resource -> metrics of each second}
      */
-    private Map<String, Map<String, LinkedHashMap<Long, MetricEntity>>> allMetrics = new ConcurrentHashMap<>();
-
-    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-
+    private final Map<String, Map<String, MetricRing>> allMetrics = new ConcurrentHashMap<>();
 
     @Override
     public void save(MetricEntity entity) {
-        if (entity == null || StringUtil.isBlank(entity.getApp())) {
+        if (entity == null || StringUtil.isBlank(entity.getApp()) || entity.getResource() == null) {
             return;
         }
-        readWriteLock.writeLock().lock();
-        try {
-            allMetrics.computeIfAbsent(entity.getApp(), e -> new HashMap<>(16))
-                    .computeIfAbsent(entity.getResource(), e -> new LinkedHashMap<Long, MetricEntity>() {
-                        @Override
-                        protected boolean removeEldestEntry(Entry<Long, MetricEntity> eldest) {
-                            // Metric older than {@link #MAX_METRIC_LIVE_TIME_MS} will be removed.
-                            return eldest.getKey() < TimeUtil.currentTimeMillis() - MAX_METRIC_LIVE_TIME_MS;
-                        }
-                    }).put(entity.getTimestamp().getTime(), entity);
-        } finally {
-            readWriteLock.writeLock().unlock();
+        if (entity.getTimestamp().getTime() < TimeUtil.currentTimeMillis() - MAX_METRIC_LIVE_TIME_MS) {
+            // Metric older than {@link #MAX_METRIC_LIVE_TIME_MS} is already expired.
+            return;
         }
-
+        allMetrics.computeIfAbsent(entity.getApp(), e -> new ConcurrentHashMap<>(16))
+                .computeIfAbsent(entity.getResource(), e -> new MetricRing())
+                .put(entity);
     }
 
     @Override
@@ -75,40 +70,27 @@ public class InMemoryMetricsRepository implements MetricsRepository<MetricEntity
         if (metrics == null) {
             return;
         }
-        readWriteLock.writeLock().lock();
-        try {
-            metrics.forEach(this::save);
-        } finally {
-            readWriteLock.writeLock().unlock();
-        }
+        metrics.forEach(this::save);
     }
 
     @Override
     public List<MetricEntity> queryByAppAndResourceBetween(String app, String resource,
                                                            long startTime, long endTime) {
         List<MetricEntity> results = new ArrayList<>();
-        if (StringUtil.isBlank(app)) {
+        if (StringUtil.isBlank(app) || resource == null) {
             return results;
         }
-        Map<String, LinkedHashMap<Long, MetricEntity>> resourceMap = allMetrics.get(app);
+        Map<String, MetricRing> resourceMap = allMetrics.get(app);
         if (resourceMap == null) {
             return results;
         }
-        LinkedHashMap<Long, MetricEntity> metricsMap = resourceMap.get(resource);
-        if (metricsMap == null) {
+        MetricRing ring = resourceMap.get(resource);
+        if (ring == null) {
             return results;
         }
-        readWriteLock.readLock().lock();
-        try {
-            for (Entry<Long, MetricEntity> entry : metricsMap.entrySet()) {
-                if (entry.getKey() >= startTime && entry.getKey() <= endTime) {
-                    results.add(entry.getValue());
-                }
-            }
-            return results;
-        } finally {
-            readWriteLock.readLock().unlock();
-        }
+        long minTimeMs = TimeUtil.currentTimeMillis() - MAX_METRIC_LIVE_TIME_MS;
+        ring.collect(Math.max(startTime, minTimeMs), endTime, results);
+        return results;
     }
 
     @Override
@@ -117,50 +99,94 @@ public class InMemoryMetricsRepository implements MetricsRepository<MetricEntity
         if (StringUtil.isBlank(app)) {
             return results;
         }
-        // resource -> timestamp -> metric
-        Map<String, LinkedHashMap<Long, MetricEntity>> resourceMap = allMetrics.get(app);
+        // resource -> metrics of each second
+        Map<String, MetricRing> resourceMap = allMetrics.get(app);
         if (resourceMap == null) {
             return results;
         }
         final long minTimeMs = System.currentTimeMillis() - 1000 * 60;
         Map<String, MetricEntity> resourceCount = new ConcurrentHashMap<>(32);
 
-        readWriteLock.readLock().lock();
-        try {
-            for (Entry<String, LinkedHashMap<Long, MetricEntity>> resourceMetrics : resourceMap.entrySet()) {
-                for (Entry<Long, MetricEntity> metrics : resourceMetrics.getValue().entrySet()) {
-                    if (metrics.getKey() < minTimeMs) {
-                        continue;
-                    }
-                    MetricEntity newEntity = metrics.getValue();
-                    if (resourceCount.containsKey(resourceMetrics.getKey())) {
-                        MetricEntity oldEntity = resourceCount.get(resourceMetrics.getKey());
-                        oldEntity.addPassQps(newEntity.getPassQps());
-                        oldEntity.addRtAndSuccessQps(newEntity.getRt(), newEntity.getSuccessQps());
-                        oldEntity.addBlockQps(newEntity.getBlockQps());
-                        oldEntity.addExceptionQps(newEntity.getExceptionQps());
-                        oldEntity.addCount(1);
-                    } else {
-                        resourceCount.put(resourceMetrics.getKey(), MetricEntity.copyOf(newEntity));
+        for (Entry<String, MetricRing> resourceMetrics : resourceMap.entrySet()) {
+            MetricEntity entity = resourceMetrics.getValue().aggregateSince(minTimeMs);
+            if (entity != null) {
+                resourceCount.put(resourceMetrics.getKey(), entity);
+            }
+        }
+        // Order by last minute b_qps DESC.
+        return resourceCount.entrySet()
+                .stream()
+                .sorted((o1, o2) -> {
+                    MetricEntity e1 = o1.getValue();
+                    MetricEntity e2 = o2.getValue();
+                    int t = e2.getBlockQps().compareTo(e1.getBlockQps());
+                    if (t != 0) {
+                        return t;
                     }
+                    return e2.getPassQps().compareTo(e1.getPassQps());
+                })
+                .map(Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Metrics of a resource, where the metric of a second is kept in slot {@code second % RING_SIZE}.
+     */
+    private static final class MetricRing {
+
+        private final MetricEntity[] slots = new MetricEntity[RING_SIZE];
+
+        private long latestSecond = -1;
+
+        synchronized void put(MetricEntity entity) {
+            long second = entity.getTimestamp().getTime() / 1000;
+            int index = (int) (second % RING_SIZE);
+            MetricEntity old = slots[index];
+            if (old != null && old.getTimestamp().getTime() / 1000 > second) {
+                // The slot has been taken over by a later second.
+                return;
+            }
+            slots[index] = entity;
+            latestSecond = Math.max(latestSecond, second);
+        }
+
+        /**
+         * Collect metrics in {@code [startTime, endTime]} in order of time.
+         */
+        synchronized void collect(long startTime, long endTime, List<MetricEntity> results) {
+            long toSecond = Math.min(endTime / 1000, latestSecond);
+            long fromSecond = Math.max(Math.max(startTime / 1000, latestSecond - RING_SIZE + 1), 0);
+            for (long second = fromSecond; second <= toSecond; second++) {
+                MetricEntity entity = slots[(int) (second % RING_SIZE)];
+                if (entity == null) {
+                    continue;
+                }
+                long timestamp = entity.getTimestamp().getTime();
+                if (timestamp / 1000 == second && timestamp >= startTime && timestamp <= endTime) {
+                    results.add(entity);
+                }
+            }
+        }
+
+        /**
+         * @return sum of metrics since {@code minTimeMs}, or null if absent
+         */
+        MetricEntity aggregateSince(long minTimeMs) {
+            List<MetricEntity> entities = new ArrayList<>();
+            collect(minTimeMs, Long.MAX_VALUE, entities);
+            MetricEntity result = null;
+            for (MetricEntity newEntity : entities) {
+                if (result == null) {
+                    result = MetricEntity.copyOf(newEntity);
+                } else {
+                    result.addPassQps(newEntity.getPassQps());
+                    result.addRtAndSuccessQps(newEntity.getRt(), newEntity.getSuccessQps());
+                    result.addBlockQps(newEntity.getBlockQps());
+                    result.addExceptionQps(newEntity.getExceptionQps());
+                    result.addCount(1);
                 }
             }
-            // Order by last minute b_qps DESC.
-            return resourceCount.entrySet()
-                    .stream()
-                    .sorted((o1, o2) -> {
-                        MetricEntity e1 = o1.getValue();
-                        MetricEntity e2 = o2.getValue();
-                        int t = e2.getBlockQps().compareTo(e1.getBlockQps());
-                        if (t != 0) {
-                            return t;
-                        }
-                        return e2.getPassQps().compareTo(e1.getPassQps());
-                    })
-                    .map(Entry::getKey)
-                    .collect(Collectors.toList());
-        } finally {
-            readWriteLock.readLock().unlock();
+            return result;
         }
     }
 }
@@ -132,6 +132,39 @@ public class InMemoryMetricsRepositoryTest {
     }
 
 
+    @Test
+    public void testQueryByTimeRange() {
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        for (int i = 10; i >= 0; i--) {
+            inMemoryMetricsRepository.save(newEntity(now - i * 1000L));
+        }
+
+        List<MetricEntity> list = inMemoryMetricsRepository.queryByAppAndResourceBetween(
+                DEFAULT_APP, DEFAULT_RESOURCE, now - 5000, now - 2000);
+
+        assertEquals(4, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(now - 5000 + i * 1000L, list.get(i).getTimestamp().getTime());
+        }
+        assertTrue(inMemoryMetricsRepository.queryByAppAndResourceBetween(
+                DEFAULT_APP, "otherResource", now - 5000, now).isEmpty());
+    }
+
+    @Test
+    public void testQueryRangeBeyondLiveTime() {
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        for (int i = 0; i < 10; i++) {
+            inMemoryMetricsRepository.save(newEntity(now - i * 1000L));
+        }
+
+        List<MetricEntity> list = inMemoryMetricsRepository.queryByAppAndResourceBetween(
+                DEFAULT_APP, DEFAULT_RESOURCE, 0, Long.MAX_VALUE);
+
+        assertEquals(10, list.size());
+        assertEquals(now - 9000, list.get(0).getTimestamp().getTime());
+        assertEquals(now, list.get(9).getTimestamp().getTime());
+    }
+
     @Test
     public void testConcurrentPutAndGet() {
 
@@ -176,6 +209,18 @@ public class InMemoryMetricsRepositoryTest {
         }
     }
 
+    private MetricEntity newEntity(long timestamp) {
+        MetricEntity entry = new MetricEntity();
+        entry.setApp(DEFAULT_APP);
+        entry.setResource(DEFAULT_RESOURCE);
+        entry.setTimestamp(new Date(timestamp));
+        entry.setPassQps(1L);
+        entry.setExceptionQps(1L);
+        entry.setBlockQps(0L);
+        entry.setSuccessQps(1L);
+        return entry;
+    }
+
     private void batchSave() {
         for (int i = 0; i < 100; i++) {
             MetricEntity entry = new MetricEntity();
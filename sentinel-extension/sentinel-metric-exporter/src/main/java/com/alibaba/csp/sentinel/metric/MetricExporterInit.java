@@ -22,6 +22,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.metric.collector.MetricCollector;
 import com.alibaba.csp.sentinel.metric.exporter.MetricExporter;
 import com.alibaba.csp.sentinel.metric.exporter.jmx.JMXMetricExporter;
+import com.alibaba.csp.sentinel.metric.exporter.push.PushMetricExporter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -46,6 +47,7 @@ public class MetricExporterInit implements InitFunc {
     static {
         // now we use this simple way to load MetricExporter.
         metricExporters.add(new JMXMetricExporter());
+        metricExporters.add(new PushMetricExporter());
     }
     
     @Override
@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.exporter.push;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+
+/**
+ * Sink of metric batches pushed by {@link PushMetricExporter}. Sinks are loaded via SPI and picked by
+ * their alias names in {@link PushMetricExporterConfig#PUSH_SINKS}.
+ *
+ * @since 1.8.8
+ */
+public interface MetricSink {
+
+    /**
+     * Start the sink, e.g. open files or connections.
+     *
+     * @throws Exception start exception
+     */
+    void start() throws Exception;
+
+    /**
+     * Send a batch of metric rows. Calls are never concurrent. The batch is reused after the method
+     * returns, so it must not be kept.
+     *
+     * @param batch rows of resources ordered by time
+     * @throws Exception send exception, the batch is dropped for this sink
+     */
+    void send(List<MetricNode> batch) throws Exception;
+
+    /**
+     * Close the sink.
+     *
+     * @throws Exception close exception
+     */
+    void close() throws Exception;
+}
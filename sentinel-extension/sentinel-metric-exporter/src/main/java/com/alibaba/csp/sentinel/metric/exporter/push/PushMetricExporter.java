@@ -0,0 +1,242 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.exporter.push;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.metric.exporter.MetricExporter;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricRowsConsumer;
+import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
+import com.alibaba.csp.sentinel.spi.SpiLoader;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * Pushes metric rows of every second to {@link MetricSink}s in batches. Rows are taken from
+ * {@link MetricTimerListener} into a bounded queue, and a batch is sent when it's full or its oldest row
+ * has waited for the max delay. When sinks are slower than rows coming in, the oldest rows in the queue
+ * are dropped, so the metric timer is never blocked.
+ *
+ * @since 1.8.8
+ */
+public class PushMetricExporter implements MetricExporter {
+
+    private final List<MetricSink> sinks;
+    private final BlockingQueue<MetricNode> queue;
+    private final int batchSize;
+    private final long batchDelayMs;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Rows to send, guarded by itself.
+     */
+    private final List<MetricNode> batch;
+    private long batchDeadline;
+
+    private final MetricRowsConsumer rowsConsumer = new MetricRowsConsumer() {
+        @Override
+        public void accept(long timestamp, List<MetricNode> rows) {
+            for (int i = 0; i < rows.size(); i++) {
+                offer(copyOf(rows.get(i)));
+            }
+        }
+    };
+
+    private ExecutorService pushExecutor;
+    private volatile boolean running = false;
+
+    public PushMetricExporter() {
+        this(loadSinks(), PushMetricExporterConfig.getQueueSize(), PushMetricExporterConfig.getBatchSize(),
+            PushMetricExporterConfig.getBatchDelayMs());
+    }
+
+    PushMetricExporter(List<MetricSink> sinks, int queueSize, int batchSize, long batchDelayMs) {
+        AssertUtil.notNull(sinks, "sinks cannot be null");
+        AssertUtil.isTrue(queueSize > 0, "queueSize should be positive");
+        AssertUtil.isTrue(batchSize > 0, "batchSize should be positive");
+        AssertUtil.isTrue(batchDelayMs > 0, "batchDelayMs should be positive");
+        this.sinks = sinks;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.batchDelayMs = batchDelayMs;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public synchronized void start() throws Exception {
+        if (running) {
+            return;
+        }
+        if (sinks.isEmpty()) {
+            RecordLog.info("[PushMetricExporter] No metric sink configured, will not push metrics");
+            return;
+        }
+        for (MetricSink sink : sinks) {
+            sink.start();
+        }
+        running = true;
+        pushExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+            new NamedThreadFactory("sentinel-metrics-push-exporter-task", true));
+        pushExecutor.submit(new PushTask());
+        MetricTimerListener.addMetricRowsConsumer(rowsConsumer);
+        RecordLog.info("[PushMetricExporter] Metric push started, sinks: {}", sinks);
+    }
+
+    /**
+     * Send all queued rows immediately.
+     */
+    @Override
+    public void export() throws Exception {
+        synchronized (batch) {
+            while (queue.drainTo(batch, batchSize - batch.size()) > 0 || !batch.isEmpty()) {
+                sendBatch();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() throws Exception {
+        if (!running) {
+            return;
+        }
+        running = false;
+        MetricTimerListener.removeMetricRowsConsumer(rowsConsumer);
+        pushExecutor.shutdown();
+        pushExecutor.awaitTermination(batchDelayMs + 1000, TimeUnit.MILLISECONDS);
+        export();
+        for (MetricSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (Exception e) {
+                RecordLog.warn("[PushMetricExporter] Failed to close metric sink: " + sink, e);
+            }
+        }
+    }
+
+    /**
+     * Add a row to the queue, dropping the oldest rows if the queue is full.
+     */
+    void offer(MetricNode row) {
+        while (!queue.offer(row)) {
+            if (queue.poll() != null) {
+                long dropped = droppedCount.incrementAndGet();
+                if ((dropped & 1023) == 1) {
+                    RecordLog.warn("[PushMetricExporter] Metric sinks are too slow, {} oldest rows dropped in total",
+                        dropped);
+                }
+            }
+        }
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Take rows from the queue into the batch, and send the batch if it's full or due.
+     *
+     * @return milliseconds to wait for more rows
+     */
+    private long pollAndSend(MetricNode first) {
+        synchronized (batch) {
+            long now = System.currentTimeMillis();
+            if (first != null) {
+                if (batch.isEmpty()) {
+                    batchDeadline = now + batchDelayMs;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (batch.size() >= batchSize || (!batch.isEmpty() && now >= batchDeadline)) {
+                sendBatch();
+                if (!queue.isEmpty()) {
+                    // Rows left are sent in the next batch without waiting.
+                    batchDeadline = now;
+                    return 0;
+                }
+            }
+            return batch.isEmpty() ? batchDelayMs : Math.max(1, batchDeadline - now);
+        }
+    }
+
+    private void sendBatch() {
+        for (MetricSink sink : sinks) {
+            try {
+                sink.send(batch);
+            } catch (Throwable e) {
+                RecordLog.warn("[PushMetricExporter] Failed to push metrics to sink: " + sink, e);
+            }
+        }
+        batch.clear();
+    }
+
+    private static List<MetricSink> loadSinks() {
+        List<MetricSink> sinks = new ArrayList<>();
+        for (String alias : PushMetricExporterConfig.getSinks()) {
+            try {
+                sinks.add(SpiLoader.of(MetricSink.class).loadInstance(alias));
+            } catch (Throwable e) {
+                RecordLog.warn("[PushMetricExporter] Failed to load metric sink: " + alias, e);
+            }
+        }
+        return sinks;
+    }
+
+    private static MetricNode copyOf(MetricNode row) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(row.getTimestamp());
+        node.setResource(row.getResource());
+        node.setClassification(row.getClassification());
+        node.setPassQps(row.getPassQps());
+        node.setBlockQps(row.getBlockQps());
+        node.setSuccessQps(row.getSuccessQps());
+        node.setExceptionQps(row.getExceptionQps());
+        node.setRt(row.getRt());
+        node.setOccupiedPassQps(row.getOccupiedPassQps());
+        node.setConcurrency(row.getConcurrency());
+        return node;
+    }
+
+    private class PushTask implements Runnable {
+
+        @Override
+        public void run() {
+            long waitMs = batchDelayMs;
+            while (running) {
+                try {
+                    MetricNode first = waitMs > 0 ? queue.poll(waitMs, TimeUnit.MILLISECONDS) : queue.poll();
+                    waitMs = pollAndSend(first);
+                } catch (InterruptedException e) {
+                    break;
+                } catch (Throwable e) {
+                    RecordLog.warn("[PushMetricExporter] Unexpected error when pushing metrics", e);
+                    waitMs = batchDelayMs;
+                }
+            }
+        }
+    }
+}
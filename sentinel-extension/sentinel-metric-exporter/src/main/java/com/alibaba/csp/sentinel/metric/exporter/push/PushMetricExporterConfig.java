@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.exporter.push;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * The config for push metric exporter.
+ *
+ * @since 1.8.8
+ */
+public final class PushMetricExporterConfig {
+
+    /**
+     * Alias names of the enabled sinks, separated by ",", e.g. "line,otlp". No rows are pushed if absent.
+     */
+    public static final String PUSH_SINKS = "csp.sentinel.metric.push.sinks";
+
+    public static final String PUSH_QUEUE_SIZE = "csp.sentinel.metric.push.queue.size";
+    public static final int DEFAULT_PUSH_QUEUE_SIZE = 10000;
+
+    public static final String PUSH_BATCH_SIZE = "csp.sentinel.metric.push.batch.size";
+    public static final int DEFAULT_PUSH_BATCH_SIZE = 500;
+
+    /**
+     * Max time (in milliseconds) a row waits in a batch before the batch is sent.
+     */
+    public static final String PUSH_BATCH_DELAY_MS = "csp.sentinel.metric.push.batch.delay.ms";
+    public static final int DEFAULT_PUSH_BATCH_DELAY_MS = 1000;
+
+    /**
+     * Target of the line protocol sink: a file path, or {@code udp://host:port}.
+     */
+    public static final String PUSH_LINE_TARGET = "csp.sentinel.metric.push.line.target";
+
+    public static final String PUSH_OTLP_ENDPOINT = "csp.sentinel.metric.push.otlp.endpoint";
+    public static final String DEFAULT_PUSH_OTLP_ENDPOINT = "http://localhost:4318/v1/metrics";
+
+    public static final String PUSH_OTLP_TIMEOUT_MS = "csp.sentinel.metric.push.otlp.timeout.ms";
+    public static final int DEFAULT_PUSH_OTLP_TIMEOUT_MS = 3000;
+
+    public static List<String> getSinks() {
+        List<String> sinks = new ArrayList<>();
+        String config = SentinelConfig.getConfig(PUSH_SINKS);
+        if (StringUtil.isBlank(config)) {
+            return sinks;
+        }
+        for (String sink : config.split(",")) {
+            if (StringUtil.isNotBlank(sink)) {
+                sinks.add(sink.trim());
+            }
+        }
+        return sinks;
+    }
+
+    public static int getQueueSize() {
+        return getPositiveInt(PUSH_QUEUE_SIZE, DEFAULT_PUSH_QUEUE_SIZE);
+    }
+
+    public static int getBatchSize() {
+        return getPositiveInt(PUSH_BATCH_SIZE, DEFAULT_PUSH_BATCH_SIZE);
+    }
+
+    public static int getBatchDelayMs() {
+        return getPositiveInt(PUSH_BATCH_DELAY_MS, DEFAULT_PUSH_BATCH_DELAY_MS);
+    }
+
+    public static String getLineTarget() {
+        return SentinelConfig.getConfig(PUSH_LINE_TARGET);
+    }
+
+    public static String getOtlpEndpoint() {
+        String config = SentinelConfig.getConfig(PUSH_OTLP_ENDPOINT);
+        return StringUtil.isNotBlank(config) ? config : DEFAULT_PUSH_OTLP_ENDPOINT;
+    }
+
+    public static int getOtlpTimeoutMs() {
+        return getPositiveInt(PUSH_OTLP_TIMEOUT_MS, DEFAULT_PUSH_OTLP_TIMEOUT_MS);
+    }
+
+    private static int getPositiveInt(String key, int defaultValue) {
+        String config = SentinelConfig.getConfig(key);
+        if (StringUtil.isBlank(config)) {
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(config.trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException ignore) {
+        }
+        RecordLog.warn("[PushMetricExporterConfig] Invalid {}: {}, using default {}", key, config, defaultValue);
+        return defaultValue;
+    }
+
+    private PushMetricExporterConfig() {}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.exporter.push.line;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.metric.exporter.push.MetricSink;
+import com.alibaba.csp.sentinel.metric.exporter.push.PushMetricExporterConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * Writes metric rows in the InfluxDB line protocol to a file or a UDP endpoint, e.g.
+ * <pre>
+ * sentinel,app=demo,resource=/hello,classification=1 pass=3i,block=0i,success=3i,...,concurrency=0i 1564382218000000000
+ * </pre>
+ * The target is configured by {@link PushMetricExporterConfig#PUSH_LINE_TARGET}, either a file path or
+ * {@code udp://host:port}. For UDP, lines are packed into datagrams of at most {@link #MAX_DATAGRAM_SIZE}
+ * bytes.
+ *
+ * @since 1.8.8
+ */
+@Spi("line")
+public class LineProtocolMetricSink implements MetricSink {
+
+    public static final String MEASUREMENT = "sentinel";
+    public static final String UDP_PREFIX = "udp://";
+
+    /**
+     * Max datagram size, which fits a common MTU.
+     */
+    static final int MAX_DATAGRAM_SIZE = 1400;
+
+    private final String target;
+    private final String appName;
+
+    private OutputStream fileOut;
+    private DatagramSocket socket;
+    private InetSocketAddress address;
+
+    private final StringBuilder line = new StringBuilder(256);
+    private final StringBuilder buffer = new StringBuilder(MAX_DATAGRAM_SIZE * 2);
+
+    public LineProtocolMetricSink() {
+        this(PushMetricExporterConfig.getLineTarget(), SentinelConfig.getAppName());
+    }
+
+    LineProtocolMetricSink(String target, String appName) {
+        this.target = target;
+        this.appName = appName;
+    }
+
+    @Override
+    public void start() throws Exception {
+        AssertUtil.assertNotBlank(target, PushMetricExporterConfig.PUSH_LINE_TARGET + " cannot be blank");
+        if (target.startsWith(UDP_PREFIX)) {
+            String hostAndPort = target.substring(UDP_PREFIX.length());
+            int index = hostAndPort.lastIndexOf(':');
+            AssertUtil.isTrue(index > 0, "Invalid UDP target: " + target);
+            address = new InetSocketAddress(hostAndPort.substring(0, index),
+                Integer.parseInt(hostAndPort.substring(index + 1)));
+            socket = new DatagramSocket();
+        } else {
+            File file = new File(target);
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Failed to create directory: " + dir);
+            }
+            fileOut = new FileOutputStream(file, true);
+        }
+    }
+
+    @Override
+    public void send(List<MetricNode> batch) throws Exception {
+        buffer.setLength(0);
+        for (int i = 0; i < batch.size(); i++) {
+            line.setLength(0);
+            appendLine(line, batch.get(i), appName);
+            if (socket != null && buffer.length() > 0 && buffer.length() + line.length() > MAX_DATAGRAM_SIZE) {
+                flush();
+            }
+            buffer.append(line);
+        }
+        flush();
+    }
+
+    private void flush() throws IOException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.setLength(0);
+        if (socket != null) {
+            socket.send(new DatagramPacket(bytes, bytes.length, address));
+        } else {
+            fileOut.write(bytes);
+            fileOut.flush();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (socket != null) {
+            socket.close();
+        }
+        if (fileOut != null) {
+            fileOut.close();
+        }
+    }
+
+    /**
+     * Append a row in the line protocol, ended with a line break.
+     */
+    static StringBuilder appendLine(StringBuilder sb, MetricNode node, String appName) {
+        sb.append(MEASUREMENT);
+        appendTag(sb, "app", appName);
+        appendTag(sb, "resource", node.getResource());
+        sb.append(",classification=").append(node.getClassification())
+            .append(" pass=").append(node.getPassQps())
+            .append("i,block=").append(node.getBlockQps())
+            .append("i,success=").append(node.getSuccessQps())
+            .append("i,exception=").append(node.getExceptionQps())
+            .append("i,rt=").append(node.getRt())
+            .append("i,occupied_pass=").append(node.getOccupiedPassQps())
+            .append("i,concurrency=").append(node.getConcurrency())
+            .append("i ").append(node.getTimestamp()).append("000000\n");
+        return sb;
+    }
+
+    private static void appendTag(StringBuilder sb, String key, String value) {
+        if (StringUtil.isEmpty(value)) {
+            // Empty tag values are not allowed.
+            return;
+        }
+        sb.append(',').append(key).append('=');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r') {
+                c = ' ';
+            }
+            if (c == ',' || c == '=' || c == ' ') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LineProtocolMetricSink{target='" + target + "'}";
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.exporter.push.otlp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.metric.exporter.push.MetricSink;
+import com.alibaba.csp.sentinel.metric.exporter.push.PushMetricExporterConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * Posts metric rows to an OpenTelemetry collector with OTLP/HTTP in JSON encoding. Counts of each second
+ * are exported as delta sums ({@code sentinel.pass}, {@code sentinel.block}, {@code sentinel.success},
+ * {@code sentinel.exception}, {@code sentinel.occupied_pass}), and average RT and concurrency as gauges
+ * ({@code sentinel.rt}, {@code sentinel.concurrency}). Data points are labeled by {@code resource} and
+ * {@code classification}, and the app name is the {@code service.name} of the OTLP resource.
+ *
+ * @since 1.8.8
+ */
+@Spi("otlp")
+public class OtlpHttpMetricSink implements MetricSink {
+
+    public static final String CONTENT_TYPE = "application/json";
+
+    private static final String[] SUM_METRICS = {"sentinel.pass", "sentinel.block", "sentinel.success",
+        "sentinel.exception", "sentinel.occupied_pass"};
+    private static final String[] GAUGE_METRICS = {"sentinel.rt", "sentinel.concurrency"};
+    private static final String[] GAUGE_UNITS = {"ms", "{request}"};
+
+    /**
+     * OTLP aggregation temporality of delta.
+     */
+    private static final int AGGREGATION_TEMPORALITY_DELTA = 1;
+
+    private final String endpoint;
+    private final int timeoutMs;
+    private final String appName;
+
+    private URL url;
+    private final StringBuilder body = new StringBuilder(4096);
+
+    public OtlpHttpMetricSink() {
+        this(PushMetricExporterConfig.getOtlpEndpoint(), PushMetricExporterConfig.getOtlpTimeoutMs(),
+            SentinelConfig.getAppName());
+    }
+
+    OtlpHttpMetricSink(String endpoint, int timeoutMs, String appName) {
+        this.endpoint = endpoint;
+        this.timeoutMs = timeoutMs;
+        this.appName = appName;
+    }
+
+    @Override
+    public void start() throws Exception {
+        AssertUtil.assertNotBlank(endpoint, PushMetricExporterConfig.PUSH_OTLP_ENDPOINT + " cannot be blank");
+        url = new URL(endpoint);
+    }
+
+    @Override
+    public void send(List<MetricNode> batch) throws Exception {
+        if (batch.isEmpty()) {
+            return;
+        }
+        body.setLength(0);
+        appendRequest(body, batch, appName);
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        try {
+            conn.setRequestMethod("POST");
+            conn.setConnectTimeout(timeoutMs);
+            conn.setReadTimeout(timeoutMs);
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", CONTENT_TYPE);
+            conn.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(bytes);
+            }
+            int status = conn.getResponseCode();
+            // Drain the response so that the connection can be reused.
+            InputStream in = status < 400 ? conn.getInputStream() : conn.getErrorStream();
+            if (in != null) {
+                byte[] discard = new byte[512];
+                while (in.read(discard) >= 0) {
+                    // Discard.
+                }
+                in.close();
+            }
+            if (status / 100 != 2) {
+                throw new IOException("OTLP endpoint " + endpoint + " responded with status " + status);
+            }
+        } catch (IOException e) {
+            conn.disconnect();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {}
+
+    /**
+     * Append an OTLP {@code ExportMetricsServiceRequest} of the rows in JSON.
+     */
+    static StringBuilder appendRequest(StringBuilder sb, List<MetricNode> batch, String appName) {
+        sb.append("{\"resourceMetrics\":[{\"resource\":{\"attributes\":[");
+        if (appName != null) {
+            sb.append("{\"key\":\"service.name\",\"value\":{\"stringValue\":");
+            appendString(sb, appName);
+            sb.append("}}");
+        }
+        sb.append("]},\"scopeMetrics\":[{\"scope\":{\"name\":\"com.alibaba.csp.sentinel\"},\"metrics\":[");
+        for (int m = 0; m < SUM_METRICS.length; m++) {
+            if (m > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"name\":\"").append(SUM_METRICS[m]).append("\",\"unit\":\"{request}\",\"sum\":{")
+                .append("\"aggregationTemporality\":").append(AGGREGATION_TEMPORALITY_DELTA)
+                .append(",\"isMonotonic\":true,\"dataPoints\":[");
+            appendDataPoints(sb, batch, m, true);
+            sb.append("]}}");
+        }
+        for (int m = 0; m < GAUGE_METRICS.length; m++) {
+            sb.append(",{\"name\":\"").append(GAUGE_METRICS[m]).append("\",\"unit\":\"").append(GAUGE_UNITS[m])
+                .append("\",\"gauge\":{\"dataPoints\":[");
+            appendDataPoints(sb, batch, SUM_METRICS.length + m, false);
+            sb.append("]}}");
+        }
+        return sb.append("]}]}]}");
+    }
+
+    private static void appendDataPoints(StringBuilder sb, List<MetricNode> batch, int metric, boolean withStart) {
+        for (int i = 0; i < batch.size(); i++) {
+            MetricNode node = batch.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"attributes\":[{\"key\":\"resource\",\"value\":{\"stringValue\":");
+            appendString(sb, node.getResource());
+            sb.append("}},{\"key\":\"classification\",\"value\":{\"intValue\":\"")
+                .append(node.getClassification()).append("\"}}],");
+            // Values of each second are reported at the end of the second.
+            if (withStart) {
+                sb.append("\"startTimeUnixNano\":\"").append(node.getTimestamp()).append("000000\",");
+            }
+            sb.append("\"timeUnixNano\":\"").append(node.getTimestamp() + 1000).append("000000\",")
+                .append("\"asInt\":\"").append(valueOf(node, metric)).append("\"}");
+        }
+    }
+
+    private static long valueOf(MetricNode node, int metric) {
+        switch (metric) {
+            case 0:
+                return node.getPassQps();
+            case 1:
+                return node.getBlockQps();
+            case 2:
+                return node.getSuccessQps();
+            case 3:
+                return node.getExceptionQps();
+            case 4:
+                return node.getOccupiedPassQps();
+            case 5:
+                return node.getRt();
+            default:
+                return node.getConcurrency();
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        sb.append("\\\"");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return "OtlpHttpMetricSink{endpoint='" + endpoint + "'}";
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.exporter.push;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PushMetricExporterTest {
+
+    @Test
+    public void testDropOldestWhenQueueIsFull() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        PushMetricExporter exporter = new PushMetricExporter(Collections.<MetricSink>singletonList(sink),
+            4, 100, 1000);
+        for (int i = 0; i < 6; i++) {
+            exporter.offer(row(i));
+        }
+        Assert.assertEquals(2, exporter.getDroppedCount());
+
+        exporter.export();
+        Assert.assertEquals(1, sink.batches.size());
+        Assert.assertEquals(4, sink.batches.get(0).size());
+        Assert.assertEquals(2000, sink.batches.get(0).get(0).getTimestamp());
+        Assert.assertEquals(5000, sink.batches.get(0).get(3).getTimestamp());
+    }
+
+    @Test
+    public void testBatchBySizeAndTime() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        PushMetricExporter exporter = new PushMetricExporter(Collections.<MetricSink>singletonList(sink),
+            100, 2, 200);
+        exporter.start();
+        try {
+            for (int i = 0; i < 5; i++) {
+                exporter.offer(row(i));
+            }
+            // Two full batches are sent at once, and the last row is sent when it's due.
+            waitForRows(sink, 5, 2000);
+            Assert.assertEquals(3, sink.batches.size());
+            Assert.assertEquals(2, sink.batches.get(0).size());
+            Assert.assertEquals(2, sink.batches.get(1).size());
+            Assert.assertEquals(1, sink.batches.get(2).size());
+            Assert.assertEquals(4000, sink.batches.get(2).get(0).getTimestamp());
+        } finally {
+            exporter.shutdown();
+        }
+        Assert.assertTrue(sink.closed);
+    }
+
+    @Test
+    public void testSinkErrorNotBlockOthers() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        MetricSink failingSink = new RecordingSink() {
+            @Override
+            public void send(List<MetricNode> batch) throws Exception {
+                throw new IllegalStateException("down");
+            }
+        };
+        List<MetricSink> sinks = new ArrayList<>();
+        sinks.add(failingSink);
+        sinks.add(sink);
+        PushMetricExporter exporter = new PushMetricExporter(sinks, 10, 10, 1000);
+        exporter.offer(row(1));
+        exporter.export();
+        Assert.assertEquals(1, sink.batches.size());
+    }
+
+    private static void waitForRows(RecordingSink sink, int count, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (sink.rowCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static MetricNode row(int i) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(i * 1000L);
+        node.setResource("res" + i);
+        node.setPassQps(i);
+        return node;
+    }
+
+    private static class RecordingSink implements MetricSink {
+
+        final List<List<MetricNode>> batches = new CopyOnWriteArrayList<>();
+        volatile boolean closed;
+
+        @Override
+        public void start() {}
+
+        @Override
+        public void send(List<MetricNode> batch) throws Exception {
+            batches.add(new ArrayList<>(batch));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        int rowCount() {
+            int count = 0;
+            for (List<MetricNode> batch : batches) {
+                count += batch.size();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.exporter.push.line;
+
+import java.io.File;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LineProtocolMetricSinkTest {
+
+    @Test
+    public void testAppendLine() {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(1564382218000L);
+        node.setResource("GET /foo,bar=1");
+        node.setClassification(1);
+        node.setPassQps(3);
+        node.setSuccessQps(2);
+        node.setRt(5);
+        String line = LineProtocolMetricSink.appendLine(new StringBuilder(), node, "demo").toString();
+        Assert.assertEquals("sentinel,app=demo,resource=GET\\ /foo\\,bar\\=1,classification=1 "
+            + "pass=3i,block=0i,success=2i,exception=0i,rt=5i,occupied_pass=0i,concurrency=0i "
+            + "1564382218000000000\n", line);
+    }
+
+    @Test
+    public void testSendToFile() throws Exception {
+        File file = File.createTempFile("sentinel-line-sink", ".txt");
+        file.deleteOnExit();
+        LineProtocolMetricSink sink = new LineProtocolMetricSink(file.getAbsolutePath(), "demo");
+        sink.start();
+        try {
+            sink.send(Arrays.asList(row("a"), row("b")));
+            sink.send(Arrays.asList(row("c")));
+        } finally {
+            sink.close();
+        }
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(3, lines.size());
+        Assert.assertTrue(lines.get(2).startsWith("sentinel,app=demo,resource=c,"));
+    }
+
+    @Test
+    public void testSendToUdp() throws Exception {
+        try (DatagramSocket server = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(3000);
+            LineProtocolMetricSink sink = new LineProtocolMetricSink(
+                "udp://127.0.0.1:" + server.getLocalPort(), "demo");
+            sink.start();
+            List<MetricNode> batch = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                batch.add(row("resource-" + i));
+            }
+            try {
+                sink.send(batch);
+            } finally {
+                sink.close();
+            }
+
+            int lines = 0;
+            byte[] buf = new byte[LineProtocolMetricSink.MAX_DATAGRAM_SIZE * 2];
+            while (lines < batch.size()) {
+                DatagramPacket packet = new DatagramPacket(buf, buf.length);
+                server.receive(packet);
+                Assert.assertTrue(packet.getLength() <= LineProtocolMetricSink.MAX_DATAGRAM_SIZE);
+                String text = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
+                Assert.assertTrue(text.endsWith("\n"));
+                lines += text.split("\n").length;
+            }
+            Assert.assertEquals(batch.size(), lines);
+        }
+    }
+
+    private static MetricNode row(String resource) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(1000);
+        node.setResource(resource);
+        node.setPassQps(1);
+        return node;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.exporter.push.otlp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OtlpHttpMetricSinkTest {
+
+    private HttpServer server;
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> contentTypes = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/metrics", exchange -> {
+            contentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+            bodies.add(read(exchange.getRequestBody()));
+            byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testSend() throws Exception {
+        OtlpHttpMetricSink sink = new OtlpHttpMetricSink(endpoint(), 3000, "demo");
+        sink.start();
+        MetricNode node = new MetricNode();
+        node.setTimestamp(1564382218000L);
+        node.setResource("GET \"/foo\"");
+        node.setClassification(1);
+        node.setPassQps(3);
+        node.setRt(7);
+        sink.send(Collections.singletonList(node));
+
+        Assert.assertEquals(1, bodies.size());
+        Assert.assertEquals(OtlpHttpMetricSink.CONTENT_TYPE, contentTypes.get(0));
+        String body = bodies.get(0);
+        Assert.assertTrue(body.contains("{\"key\":\"service.name\",\"value\":{\"stringValue\":\"demo\"}}"));
+        Assert.assertTrue(body.contains("\"name\":\"sentinel.pass\",\"unit\":\"{request}\",\"sum\":"
+            + "{\"aggregationTemporality\":1,\"isMonotonic\":true,\"dataPoints\":[{\"attributes\":"
+            + "[{\"key\":\"resource\",\"value\":{\"stringValue\":\"GET \\\"/foo\\\"\"}},"
+            + "{\"key\":\"classification\",\"value\":{\"intValue\":\"1\"}}],"
+            + "\"startTimeUnixNano\":\"1564382218000000000\",\"timeUnixNano\":\"1564382219000000000\","
+            + "\"asInt\":\"3\"}]"));
+        Assert.assertTrue(body.contains("\"name\":\"sentinel.rt\",\"unit\":\"ms\",\"gauge\""));
+        Assert.assertTrue(body.contains("\"asInt\":\"7\""));
+    }
+
+    @Test
+    public void testSendFailed() throws Exception {
+        status = 503;
+        OtlpHttpMetricSink sink = new OtlpHttpMetricSink(endpoint(), 3000, "demo");
+        sink.start();
+        MetricNode node = new MetricNode();
+        node.setResource("foo");
+        try {
+            sink.send(Collections.singletonList(node));
+            Assert.fail("Should fail on error status");
+        } catch (Exception e) {
+            Assert.assertTrue(e.getMessage().contains("503"));
+        }
+    }
+
+    private String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/metrics";
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = in.read(buf)) >= 0) {
+            out.write(buf, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -46,6 +46,23 @@ public final class MetricConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    /**
+     * Suffixes of the metric names exported from node statistics, prefixed by the app name.
+     */
+    public static final String PASS_TOTAL_SUFFIX = "_pass_total";
+
+    public static final String BLOCK_TOTAL_SUFFIX = "_block_total";
+
+    public static final String SUCCESS_TOTAL_SUFFIX = "_success_total";
+
+    public static final String EXCEPTION_TOTAL_SUFFIX = "_exception_total";
+
+    public static final String OCC_PASS_TOTAL_SUFFIX = "_occupied_pass_total";
+
+    public static final String CONCURRENCY_SUFFIX = "_concurrency";
+
+    public static final String RT_SUFFIX = "_rt_milliseconds";
+
     private MetricConstants() {
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.prom.collector;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RT histogram of a resource. Each bucket counts the RTs falling into it (not cumulative), so recording
+ * an RT only touches one bucket.
+ *
+ * @since 1.8.8
+ */
+final class RtHistogram {
+
+    private final double[] bounds;
+    /**
+     * Buckets for the bounds, and the last one for RTs above all the bounds.
+     */
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+
+    RtHistogram(double[] bounds) {
+        this.bounds = bounds;
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long rt) {
+        buckets[bucketOf(rt)].increment();
+        sum.add(rt);
+    }
+
+    private int bucketOf(long rt) {
+        int low = 0;
+        int high = bounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rt <= bounds[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the cumulative counts of the buckets, as Prometheus expects.
+     *
+     * @param counts array to fill, whose length should be the count of bounds plus one
+     * @return count of all RTs
+     */
+    long cumulativeCounts(long[] counts) {
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+        return total;
+    }
+
+    long sum() {
+        return sum.sum();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.prom.collector;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.metric.extension.MetricExtension;
+import com.alibaba.csp.sentinel.metric.prom.config.PrometheusGlobalConfig;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * Records RTs of every resource into histograms for {@link SentinelNodeCollector}, since node statistics
+ * only keep the sum of RTs. Registered via SPI, while RTs are only recorded once a {@link SentinelNodeCollector}
+ * is created.
+ *
+ * @since 1.8.8
+ */
+public class RtHistogramExtension implements MetricExtension {
+
+    static final double[] BOUNDS = PrometheusGlobalConfig.getPromRtBuckets();
+
+    private static final Map<String, RtHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = false;
+
+    static void enable() {
+        enabled = true;
+    }
+
+    static RtHistogram getHistogram(String resource) {
+        return HISTOGRAMS.get(resource);
+    }
+
+    @Override
+    public void addRt(String resource, long rt, Object... args) {
+        if (!enabled) {
+            return;
+        }
+        RtHistogram histogram = HISTOGRAMS.get(resource);
+        if (histogram == null) {
+            // Resources are bounded in the same way as slot chains.
+            if (HISTOGRAMS.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
+                return;
+            }
+            histogram = HISTOGRAMS.computeIfAbsent(resource, k -> new RtHistogram(BOUNDS));
+        }
+        histogram.record(rt);
+    }
+
+    @Override
+    public void addPass(String resource, int n, Object... args) {}
+
+    @Override
+    public void addBlock(String resource, int n, String origin, BlockException blockException, Object... args) {}
+
+    @Override
+    public void addSuccess(String resource, int n, Object... args) {}
+
+    @Override
+    public void addException(String resource, int n, Throwable throwable) {}
+
+    @Override
+    public void increaseThreadNum(String resource, Object... args) {}
+
+    @Override
+    public void decreaseThreadNum(String resource, Object... args) {}
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.prom.collector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.metric.prom.MetricConstants;
+import com.alibaba.csp.sentinel.metric.prom.config.PrometheusGlobalConfig;
+import com.alibaba.csp.sentinel.metric.prom.types.CounterMetricFamily;
+import com.alibaba.csp.sentinel.metric.prom.types.GaugeMetricFamily;
+import com.alibaba.csp.sentinel.metric.prom.types.HistogramMetricFamily;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricRowCollector;
+import com.alibaba.csp.sentinel.node.metric.MetricRowsConsumer;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import io.prometheus.client.Collector;
+
+/**
+ * Collector for prometheus exporter that reads live statistics of cluster nodes instead of metric logs,
+ * so a scrape reads no file and its cost only depends on the count of resources.
+ * <p>
+ * Counters are accumulated from per-second buckets of each node, which are kept for one minute, so
+ * the scrape interval should be less than one minute. RTs are exported as histograms recorded by
+ * {@link RtHistogramExtension}. Label values are cached per resource.
+ *
+ * @since 1.8.8
+ */
+public class SentinelNodeCollector extends Collector {
+
+    private static final List<String> LABEL_NAMES = Collections.unmodifiableList(
+        Arrays.asList(MetricConstants.RESOURCE, MetricConstants.CLASSIFICATION));
+
+    private static final String[] LE_VALUES = leValues(RtHistogramExtension.BOUNDS);
+
+    private final String appName;
+    private final String identify;
+    private final int fetchSize;
+
+    private final boolean exportPass;
+    private final boolean exportBlock;
+    private final boolean exportSuccess;
+    private final boolean exportException;
+    private final boolean exportOccupiedPass;
+    private final boolean exportConcurrency;
+    private final boolean exportRt;
+
+    /**
+     * Cumulative statistics of resources, guarded by the collector.
+     */
+    private final Map<String, ResourceStat> stats = new HashMap<>();
+    private final MetricRowCollector rows = new MetricRowCollector();
+    private final long[] bucketCounts = new long[LE_VALUES.length];
+
+    private ResourceStat current;
+    private final MetricRowsConsumer accumulator = new MetricRowsConsumer() {
+        @Override
+        public void accept(long timestamp, List<MetricNode> rows) {
+            for (int i = 0; i < rows.size(); i++) {
+                current.add(rows.get(i));
+            }
+        }
+    };
+
+    public SentinelNodeCollector() {
+        this(PrometheusGlobalConfig.getPromFetchApp(), PrometheusGlobalConfig.getPromFetchTypes(),
+            PrometheusGlobalConfig.getPromFetchIdentify(), PrometheusGlobalConfig.getPromFetchSize());
+    }
+
+    SentinelNodeCollector(String appName, String[] types, String identify, int fetchSize) {
+        this.appName = appName;
+        this.identify = identify;
+        this.fetchSize = fetchSize;
+        List<String> typeList = Arrays.asList(types);
+        this.exportPass = typeList.contains(MetricConstants.PASS_QPS);
+        this.exportBlock = typeList.contains(MetricConstants.BLOCK_QPS);
+        this.exportSuccess = typeList.contains(MetricConstants.SUCCESS_QPS);
+        this.exportException = typeList.contains(MetricConstants.EXCEPTION_QPS);
+        this.exportOccupiedPass = typeList.contains(MetricConstants.OCC_PASS_QPS);
+        this.exportConcurrency = typeList.contains(MetricConstants.CONCURRENCY);
+        this.exportRt = typeList.contains(MetricConstants.RT);
+        if (exportRt) {
+            RtHistogramExtension.enable();
+        }
+    }
+
+    @Override
+    public synchronized List<MetricFamilySamples> collect() {
+        CounterMetricFamily pass = exportPass ? counter(MetricConstants.PASS_TOTAL_SUFFIX) : null;
+        CounterMetricFamily block = exportBlock ? counter(MetricConstants.BLOCK_TOTAL_SUFFIX) : null;
+        CounterMetricFamily success = exportSuccess ? counter(MetricConstants.SUCCESS_TOTAL_SUFFIX) : null;
+        CounterMetricFamily exception = exportException ? counter(MetricConstants.EXCEPTION_TOTAL_SUFFIX) : null;
+        CounterMetricFamily occupiedPass = exportOccupiedPass ? counter(MetricConstants.OCC_PASS_TOTAL_SUFFIX) : null;
+        GaugeMetricFamily concurrency = exportConcurrency ? new GaugeMetricFamily(
+            appName + MetricConstants.CONCURRENCY_SUFFIX, MetricConstants.METRIC_HELP, LABEL_NAMES) : null;
+        HistogramMetricFamily rt = exportRt ? new HistogramMetricFamily(
+            appName + MetricConstants.RT_SUFFIX, MetricConstants.METRIC_HELP, LABEL_NAMES) : null;
+
+        try {
+            List<ClusterNode> nodes = new ArrayList<>(ClusterBuilderSlot.getClusterNodeMap().values());
+            nodes.add(Constants.ENTRY_NODE);
+            int count = 0;
+            for (ClusterNode node : nodes) {
+                if (count >= fetchSize) {
+                    break;
+                }
+                if (StringUtil.isNotBlank(identify) && !identify.equals(node.getName())) {
+                    continue;
+                }
+                count++;
+                ResourceStat stat = fetch(node);
+                List<String> labelValues = stat.labelValues;
+                if (pass != null) {
+                    pass.addMetric(labelValues, stat.pass);
+                }
+                if (block != null) {
+                    block.addMetric(labelValues, stat.block);
+                }
+                if (success != null) {
+                    success.addMetric(labelValues, stat.success);
+                }
+                if (exception != null) {
+                    exception.addMetric(labelValues, stat.exception);
+                }
+                if (occupiedPass != null) {
+                    occupiedPass.addMetric(labelValues, stat.occupiedPass);
+                }
+                if (concurrency != null) {
+                    concurrency.addMetric(labelValues, node.curThreadNum());
+                }
+                RtHistogram histogram;
+                if (rt != null && (histogram = RtHistogramExtension.getHistogram(node.getName())) != null) {
+                    histogram.cumulativeCounts(bucketCounts);
+                    rt.addMetric(labelValues, stat.bucketLabelValues(), bucketCounts, histogram.sum());
+                }
+            }
+        } catch (Exception e) {
+            RecordLog.warn("[SentinelNodeCollector] failed to collect sentinel metrics with exception:", e);
+        }
+
+        List<MetricFamilySamples> list = new ArrayList<>(7);
+        for (MetricFamilySamples family : new MetricFamilySamples[] {pass, block, success, exception,
+            occupiedPass, concurrency, rt}) {
+            if (family != null) {
+                list.add(family);
+            }
+        }
+        return list;
+    }
+
+    private CounterMetricFamily counter(String suffix) {
+        return new CounterMetricFamily(appName + suffix, MetricConstants.METRIC_HELP, LABEL_NAMES);
+    }
+
+    /**
+     * Add counters of the seconds not fetched yet to the statistics of the node.
+     */
+    private ResourceStat fetch(ClusterNode node) {
+        String resource = node.getName();
+        ResourceStat stat = stats.get(resource);
+        if (stat == null) {
+            stat = new ResourceStat(resource, node.getResourceType());
+            stats.put(resource, stat);
+        }
+        stat.fetchedTime = node.fetchMetricsAfter(stat.fetchedTime, rows, resource, node.getResourceType());
+        current = stat;
+        try {
+            rows.flush(accumulator);
+        } finally {
+            current = null;
+        }
+        return stat;
+    }
+
+    private static String[] leValues(double[] bounds) {
+        String[] values = new String[bounds.length + 1];
+        for (int i = 0; i < bounds.length; i++) {
+            values[i] = doubleToGoString(bounds[i]);
+        }
+        values[bounds.length] = "+Inf";
+        return values;
+    }
+
+    private static final class ResourceStat {
+
+        private final List<String> labelValues;
+        private List<List<String>> bucketLabelValues;
+
+        private long fetchedTime = -1;
+        private long pass;
+        private long block;
+        private long success;
+        private long exception;
+        private long occupiedPass;
+
+        ResourceStat(String resource, int classification) {
+            this.labelValues = Collections.unmodifiableList(
+                Arrays.asList(resource, String.valueOf(classification)));
+        }
+
+        void add(MetricNode row) {
+            pass += row.getPassQps();
+            block += row.getBlockQps();
+            success += row.getSuccessQps();
+            exception += row.getExceptionQps();
+            occupiedPass += row.getOccupiedPassQps();
+        }
+
+        List<List<String>> bucketLabelValues() {
+            if (bucketLabelValues == null) {
+                List<List<String>> values = new ArrayList<>(LE_VALUES.length);
+                for (String le : LE_VALUES) {
+                    values.add(Collections.unmodifiableList(
+                        Arrays.asList(labelValues.get(0), labelValues.get(1), le)));
+                }
+                bucketLabelValues = values;
+            }
+            return bucketLabelValues;
+        }
+    }
+}
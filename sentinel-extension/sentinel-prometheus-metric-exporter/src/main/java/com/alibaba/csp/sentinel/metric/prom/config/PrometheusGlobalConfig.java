@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.metric.prom.config;
 
 import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
@@ -44,6 +45,24 @@ public class PrometheusGlobalConfig {
     public static final String PROM_APP = "csp.sentinel.prometheus.app";
     public static final String DEFAULT_PROM_APP = "SENTINEL_APP";
 
+    /**
+     * Where metrics are read from on scrapes: metric log files ({@code log}, by default) or live node
+     * statistics ({@code node}, opt-in as the exported metric families differ).
+     *
+     * @since 1.8.8
+     */
+    public static final String PROM_FETCH_SOURCE = "csp.sentinel.prometheus.fetch.source";
+    public static final String PROM_FETCH_SOURCE_NODE = "node";
+    public static final String PROM_FETCH_SOURCE_LOG = "log";
+
+    /**
+     * Upper bounds (in milliseconds) of the RT histogram buckets.
+     *
+     * @since 1.8.8
+     */
+    public static final String PROM_RT_BUCKETS = "csp.sentinel.prometheus.rt.buckets";
+    public static final String DEFAULT_PROM_RT_BUCKETS = "5|10|25|50|100|250|500|1000|2500|5000|10000";
+
     public static int getPromFetchPort() {
         String config = SentinelConfig.getConfig(PROM_FETCH_PORT);
         config = StringUtil.isNotBlank(config) ? config : DEFAULT_PROM_FETCH_PORT;
@@ -76,6 +95,34 @@ public class PrometheusGlobalConfig {
         }
     }
 
+    public static String getPromFetchSource() {
+        String config = SentinelConfig.getConfig(PROM_FETCH_SOURCE);
+        return PROM_FETCH_SOURCE_NODE.equalsIgnoreCase(config) ? PROM_FETCH_SOURCE_NODE : PROM_FETCH_SOURCE_LOG;
+    }
+
+    public static double[] getPromRtBuckets() {
+        String config = SentinelConfig.getConfig(PROM_RT_BUCKETS);
+        config = StringUtil.isNotBlank(config) ? config : DEFAULT_PROM_RT_BUCKETS;
+        try {
+            return parseBuckets(config);
+        } catch (Throwable e) {
+            RecordLog.warn("[PrometheusGlobalConfig] Invalid RT buckets: {}, using default", config);
+            return parseBuckets(DEFAULT_PROM_RT_BUCKETS);
+        }
+    }
+
+    private static double[] parseBuckets(String config) {
+        String[] items = config.split("\\|");
+        double[] buckets = new double[items.length];
+        for (int i = 0; i < items.length; i++) {
+            buckets[i] = Double.parseDouble(items[i].trim());
+            if (i > 0 && buckets[i] <= buckets[i - 1]) {
+                throw new IllegalArgumentException("Buckets should be in increasing order");
+            }
+        }
+        return buckets;
+    }
+
     public static String getPromFetchApp() {
         String appName = SentinelConfig.getConfig(PROM_APP);
         if (appName == null) {
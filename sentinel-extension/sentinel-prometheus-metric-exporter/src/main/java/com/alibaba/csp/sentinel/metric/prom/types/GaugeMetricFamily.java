@@ -48,6 +48,17 @@ public class GaugeMetricFamily extends Collector.MetricFamilySamples {
         this.labelNames = labelNames;
     }
 
+    /**
+     * @since 1.8.8
+     */
+    public GaugeMetricFamily addMetric(List<String> labelValues, double value) {
+        if (labelValues.size() != labelNames.size()) {
+            throw new IllegalArgumentException("Incorrect number of labels.");
+        }
+        samples.add(new Sample(name, labelNames, labelValues, value));
+        return this;
+    }
+
     public GaugeMetricFamily addMetric(List<String> labelValues, double value, long timestampMs) {
         if (labelValues.size() != labelNames.size()) {
             throw new IllegalArgumentException("Incorrect number of labels.");
@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.prom.types;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.prometheus.client.Collector;
+
+/**
+ * Histogram samples for prometheus exporter, i.e. {@code _bucket} samples with the {@code le} label
+ * and the {@code _count} and {@code _sum} samples. Label values are kept as given, so callers can
+ * cache them.
+ *
+ * @since 1.8.8
+ */
+public class HistogramMetricFamily extends Collector.MetricFamilySamples {
+
+    public static final String LE = "le";
+
+    private final List<String> labelNames;
+    private final List<String> bucketLabelNames;
+
+    public HistogramMetricFamily(String name, String help, List<String> labelNames) {
+        super(name, Collector.Type.HISTOGRAM, help, new ArrayList<Sample>());
+        this.labelNames = labelNames;
+        List<String> names = new ArrayList<>(labelNames);
+        names.add(LE);
+        this.bucketLabelNames = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Add samples of a histogram.
+     *
+     * @param labelValues       label values of the histogram
+     * @param bucketLabelValues label values of each bucket, i.e. {@code labelValues} followed by the
+     *                          upper bound of the bucket, where the last bucket is {@code +Inf}
+     * @param cumulativeCounts  cumulative counts of each bucket
+     * @param sum               sum of all observed values
+     * @return this family
+     */
+    public HistogramMetricFamily addMetric(List<String> labelValues, List<List<String>> bucketLabelValues,
+                                           long[] cumulativeCounts, double sum) {
+        if (labelValues.size() != labelNames.size()) {
+            throw new IllegalArgumentException("Incorrect number of labels.");
+        }
+        if (bucketLabelValues.size() != cumulativeCounts.length) {
+            throw new IllegalArgumentException("Incorrect number of buckets.");
+        }
+        for (int i = 0; i < cumulativeCounts.length; i++) {
+            samples.add(new Sample(name + "_bucket", bucketLabelNames, bucketLabelValues.get(i),
+                cumulativeCounts[i]));
+        }
+        samples.add(new Sample(name + "_count", labelNames, labelValues,
+            cumulativeCounts[cumulativeCounts.length - 1]));
+        samples.add(new Sample(name + "_sum", labelNames, labelValues, sum));
+        return this;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.metric.prom.collector;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SentinelNodeCollectorTest {
+
+    private static final String RESOURCE = "testSentinelNodeCollector";
+
+    @Test
+    public void testCollectFromNodes() throws Exception {
+        SentinelNodeCollector collector = new SentinelNodeCollector("app",
+            new String[] {"passQps", "blockQps", "rt", "concurrency"}, RESOURCE, 1024);
+        pass(3);
+        waitForCompletedSecond();
+
+        List<MetricFamilySamples> families = collector.collect();
+        Assert.assertEquals(4, families.size());
+        Assert.assertEquals(3, value(families, "app_pass_total"), 1e-4);
+        Assert.assertEquals(0, value(families, "app_block_total"), 1e-4);
+        Assert.assertEquals(0, value(families, "app_concurrency"), 1e-4);
+        Assert.assertEquals(3, value(families, "app_rt_milliseconds_count"), 1e-4);
+        Sample inf = sample(families, "app_rt_milliseconds_bucket", "+Inf");
+        Assert.assertEquals(3, inf.value, 1e-4);
+        Assert.assertEquals(RESOURCE, inf.labelValues.get(0));
+
+        // Seconds already collected are not counted again.
+        Assert.assertEquals(3, value(collector.collect(), "app_pass_total"), 1e-4);
+
+        pass(2);
+        waitForCompletedSecond();
+        families = collector.collect();
+        Assert.assertEquals(5, value(families, "app_pass_total"), 1e-4);
+        Assert.assertEquals(5, value(families, "app_rt_milliseconds_count"), 1e-4);
+    }
+
+    @Test
+    public void testRtHistogram() {
+        RtHistogram histogram = new RtHistogram(new double[] {5, 10, 50});
+        histogram.record(1);
+        histogram.record(5);
+        histogram.record(6);
+        histogram.record(100);
+        long[] counts = new long[4];
+        Assert.assertEquals(4, histogram.cumulativeCounts(counts));
+        Assert.assertArrayEquals(new long[] {2, 3, 3, 4}, counts);
+        Assert.assertEquals(112, histogram.sum());
+    }
+
+    private static void pass(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            Entry entry = SphU.entry(RESOURCE);
+            entry.exit();
+        }
+    }
+
+    private static void waitForCompletedSecond() throws InterruptedException {
+        Thread.sleep(2000 - System.currentTimeMillis() % 1000);
+    }
+
+    private static double value(List<MetricFamilySamples> families, String name) {
+        return sample(families, name, null).value;
+    }
+
+    private static Sample sample(List<MetricFamilySamples> families, String name, String le) {
+        for (MetricFamilySamples family : families) {
+            for (Sample sample : family.samples) {
+                if (sample.name.equals(name) && RESOURCE.equals(sample.labelValues.get(0))
+                    && (le == null || le.equals(sample.labelValues.get(2)))) {
+                    return sample;
+                }
+            }
+        }
+        throw new AssertionError("Sample not found: " + name);
+    }
+}
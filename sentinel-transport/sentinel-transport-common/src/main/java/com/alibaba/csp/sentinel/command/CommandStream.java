@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command;
+
+/**
+ * A long-lived response stream of the command center, provided by transports supporting
+ * {@link StreamingCommandResult}.
+ *
+ * @since 1.8.8
+ */
+public interface CommandStream {
+
+    /**
+     * Write data to the stream without blocking. Data may be dropped if the peer cannot keep up.
+     *
+     * @param data data to write
+     * @return false if the stream has been closed
+     */
+    boolean write(byte[] data);
+
+    /**
+     * Close the stream.
+     */
+    void close();
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command;
+
+/**
+ * The result of a command which is encoded by the command handler itself rather than as plain text.
+ * Transports which are unaware of it respond with {@link Object#toString()} of the result instead, so
+ * the result should also provide a plain text representation there.
+ *
+ * @since 1.8.8
+ */
+public interface EncodedCommandResult {
+
+    /**
+     * @return content type of the encoded data
+     */
+    String getContentType();
+
+    /**
+     * @return the encoded data
+     */
+    byte[] getBytes();
+}
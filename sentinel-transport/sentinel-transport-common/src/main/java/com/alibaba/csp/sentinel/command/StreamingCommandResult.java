@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command;
+
+/**
+ * Result of a command that keeps pushing data to the peer instead of responding once. Transports
+ * supporting streaming write the response head with the content type, and then start the stream
+ * on the same connection. Other transports respond with {@link Object#toString()} of the result.
+ *
+ * @since 1.8.8
+ */
+public interface StreamingCommandResult {
+
+    /**
+     * @return content type of the stream, without charset
+     */
+    String getContentType();
+
+    /**
+     * Start pushing data to the stream, called after the response head has been written.
+     *
+     * @param stream the response stream
+     */
+    void start(CommandStream stream);
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.CommandStream;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricRowsConsumer;
+import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * Streams metrics of every second as server-sent events once {@link MetricTimerListener} produces them,
+ * so that the dashboard can keep one connection instead of polling {@code metric} every second. Each
+ * event holds the metric lines of a second in the same format as {@code metric}:
+ * <pre>
+ * id: 1564382218000
+ * event: metric
+ * data: 1564382218000|/foo|10|0|10|0|3|0|0|1
+ * data: ...
+ * </pre>
+ * The command only works with transports supporting {@link StreamingCommandResult}.
+ *
+ * @since 1.8.8
+ */
+@CommandMapping(name = "metricStream", desc = "subscribe metrics of every second as server-sent events, "
+    + "accept param: identity={resourceName}")
+public class MetricStreamCommandHandler implements CommandHandler<StreamingCommandResult> {
+
+    public static final String CONTENT_TYPE = "text/event-stream";
+
+    static final int MAX_SUBSCRIBERS = 16;
+
+    /**
+     * Comments are sent to idle streams, so that closed connections can be found.
+     */
+    private static final long KEEP_ALIVE_INTERVAL_SEC = 10;
+    private static final byte[] KEEP_ALIVE = ":\n\n".getBytes(Charset.forName("US-ASCII"));
+
+    private static final List<Subscription> SUBSCRIPTIONS = new CopyOnWriteArrayList<>();
+
+    private static volatile ScheduledExecutorService keepAliveScheduler;
+
+    private static final MetricRowsConsumer PUBLISHER = new MetricRowsConsumer() {
+        @Override
+        public void accept(long timestamp, List<MetricNode> rows) {
+            publish(timestamp, rows);
+        }
+    };
+
+    @Override
+    public CommandResponse<StreamingCommandResult> handle(CommandRequest request) {
+        if (SUBSCRIPTIONS.size() >= MAX_SUBSCRIBERS) {
+            return CommandResponse.ofFailure(new IllegalStateException("Too many metric stream subscribers"));
+        }
+        String identity = request.getParam("identity");
+        return CommandResponse.<StreamingCommandResult>ofSuccess(
+            new MetricStream(StringUtil.isBlank(identity) ? null : identity));
+    }
+
+    static void publish(long timestamp, List<MetricNode> rows) {
+        if (SUBSCRIPTIONS.isEmpty()) {
+            return;
+        }
+        byte[] allEvent = null;
+        for (Subscription subscription : SUBSCRIPTIONS) {
+            byte[] event;
+            if (subscription.identity == null) {
+                if (allEvent == null) {
+                    allEvent = encodeEvent(timestamp, rows, null);
+                }
+                event = allEvent;
+            } else {
+                event = encodeEvent(timestamp, rows, subscription.identity);
+            }
+            if (event != null) {
+                subscription.write(event);
+            }
+        }
+    }
+
+    /**
+     * Encode rows of a second as an event, with the system load and CPU usage if not filtered by resource.
+     *
+     * @return the event, or null if no row is matched
+     */
+    static byte[] encodeEvent(long timestamp, List<MetricNode> rows, String identity) {
+        StringBuilder sb = new StringBuilder(64 + rows.size() * 64);
+        sb.append("id: ").append(timestamp).append("\nevent: metric\n");
+        boolean matched = false;
+        for (int i = 0; i < rows.size(); i++) {
+            MetricNode node = rows.get(i);
+            if (identity == null || identity.equals(node.getResource())) {
+                sb.append("data: ").append(node.toThinString()).append('\n');
+                matched = true;
+            }
+        }
+        if (identity == null) {
+            List<MetricNode> systemNodes = new ArrayList<>(2);
+            SendMetricCommandHandler.addCpuUsageAndLoad(systemNodes, timestamp);
+            for (MetricNode node : systemNodes) {
+                sb.append("data: ").append(node.toThinString()).append('\n');
+                matched = true;
+            }
+        }
+        if (!matched) {
+            return null;
+        }
+        return sb.append('\n').toString().getBytes(Charset.forName(SentinelConfig.charset()));
+    }
+
+    static int getSubscriberCount() {
+        return SUBSCRIPTIONS.size();
+    }
+
+    private static void subscribe(Subscription subscription) {
+        if (keepAliveScheduler == null) {
+            synchronized (MetricStreamCommandHandler.class) {
+                if (keepAliveScheduler == null) {
+                    MetricTimerListener.addMetricRowsConsumer(PUBLISHER);
+                    ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1,
+                        new NamedThreadFactory("sentinel-metric-stream-keep-alive", true));
+                    scheduler.scheduleAtFixedRate(new Runnable() {
+                        @Override
+                        public void run() {
+                            for (Subscription s : SUBSCRIPTIONS) {
+                                s.write(KEEP_ALIVE);
+                            }
+                        }
+                    }, KEEP_ALIVE_INTERVAL_SEC, KEEP_ALIVE_INTERVAL_SEC, TimeUnit.SECONDS);
+                    keepAliveScheduler = scheduler;
+                }
+            }
+        }
+        SUBSCRIPTIONS.add(subscription);
+    }
+
+    private static final class Subscription {
+
+        private final String identity;
+        private final CommandStream stream;
+
+        Subscription(String identity, CommandStream stream) {
+            this.identity = identity;
+            this.stream = stream;
+        }
+
+        void write(byte[] data) {
+            if (!stream.write(data)) {
+                SUBSCRIPTIONS.remove(this);
+            }
+        }
+    }
+
+    private static final class MetricStream implements StreamingCommandResult {
+
+        private final String identity;
+
+        MetricStream(String identity) {
+            this.identity = identity;
+        }
+
+        @Override
+        public String getContentType() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public void start(CommandStream stream) {
+            subscribe(new Subscription(identity, stream));
+        }
+
+        @Override
+        public String toString() {
+            return "metricStream is not supported by current transport, use metric instead";
+        }
+    }
+}
@@ -22,8 +22,10 @@ import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.EncodedCommandResult;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricDeltaCodec;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
 import com.alibaba.csp.sentinel.node.metric.MetricWriter;
@@ -33,21 +35,24 @@ import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
- * Retrieve and aggregate {@link MetricNode} metrics.
+ * Retrieve and aggregate {@link MetricNode} metrics. Metrics are responded as lines of
+ * {@link MetricNode#toThinString()} by default, or in {@link MetricDeltaCodec} format with {@code format=delta}.
  *
  * @author leyou
  * @author Eric Zhao
  */
 @CommandMapping(name = "metric", desc = "get and aggregate metrics, accept param: "
-    + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}")
-public class SendMetricCommandHandler implements CommandHandler<String> {
+    + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}&format={text|delta}")
+public class SendMetricCommandHandler implements CommandHandler<Object> {
+
+    public static final String FORMAT_DELTA = "delta";
 
     private volatile MetricSearcher searcher;
 
     private final Object lock = new Object();
 
     @Override
-    public CommandResponse<String> handle(CommandRequest request) {
+    public CommandResponse<Object> handle(CommandRequest request) {
         // Note: not thread-safe.
         if (searcher == null) {
             synchronized (lock) {
@@ -70,7 +75,7 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         if (StringUtil.isNotBlank(startTimeStr)) {
             startTime = Long.parseLong(startTimeStr);
         } else {
-            return CommandResponse.ofSuccess("");
+            return CommandResponse.<Object>ofSuccess("");
         }
         List<MetricNode> list;
         try {
@@ -92,22 +97,29 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
             list = new ArrayList<>();
         }
         if (StringUtil.isBlank(identity)) {
-            addCpuUsageAndLoad(list);
+            addCpuUsageAndLoad(list, TimeUtil.currentTimeMillis() / 1000 * 1000);
+        }
+        if (FORMAT_DELTA.equals(request.getParam("format"))) {
+            return CommandResponse.<Object>ofSuccess(new DeltaEncodedMetrics(list));
         }
+        return CommandResponse.<Object>ofSuccess(toThinString(list));
+    }
+
+    private static String toThinString(List<MetricNode> list) {
         StringBuilder sb = new StringBuilder();
         for (MetricNode node : list) {
             sb.append(node.toThinString()).append("\n");
         }
-        return CommandResponse.ofSuccess(sb.toString());
+        return sb.toString();
     }
 
     /**
      * add current cpu usage and load to the metric list.
      *
      * @param list metric list, should not be null
+     * @param time timestamp of the metrics
      */
-    private void addCpuUsageAndLoad(List<MetricNode> list) {
-        long time = TimeUtil.currentTimeMillis() / 1000 * 1000;
+    static void addCpuUsageAndLoad(List<MetricNode> list, long time) {
         double load = SystemRuleManager.getCurrentSystemAvgLoad();
         double usage = SystemRuleManager.getCurrentCpuUsage();
         if (load > 0) {
@@ -132,11 +144,36 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
      * @param resource resource name.
      * @return a MetricNode represents the value.
      */
-    private MetricNode toNode(double value, long ts, String resource) {
+    private static MetricNode toNode(double value, long ts, String resource) {
         MetricNode node = new MetricNode();
         node.setPassQps((long)(value * 10000));
         node.setTimestamp(ts);
         node.setResource(resource);
         return node;
     }
+
+    static final class DeltaEncodedMetrics implements EncodedCommandResult {
+
+        private final List<MetricNode> nodes;
+
+        DeltaEncodedMetrics(List<MetricNode> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public String getContentType() {
+            return MetricDeltaCodec.CONTENT_TYPE;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return MetricDeltaCodec.encode(nodes);
+        }
+
+        @Override
+        public String toString() {
+            // Falls back to the text format for transports that only support plain text.
+            return toThinString(nodes);
+        }
+    }
 }
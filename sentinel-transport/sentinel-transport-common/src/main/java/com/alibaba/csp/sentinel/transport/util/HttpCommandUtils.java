@@ -15,6 +15,10 @@
  */
 package com.alibaba.csp.sentinel.transport.util;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
 import com.alibaba.csp.sentinel.command.CommandRequest;
 
 /**
@@ -26,6 +30,11 @@ public final class HttpCommandUtils {
 
     public static final String REQUEST_TARGET = "command-target";
 
+    /**
+     * Smaller responses are not compressed, as the gain can hardly pay for the overhead.
+     */
+    public static final int GZIP_MIN_LENGTH = 1024;
+
     public static String getTarget(CommandRequest request) {
         if (request == null) {
             throw new IllegalArgumentException("Request cannot be null");
@@ -33,5 +42,48 @@ public final class HttpCommandUtils {
         return request.getMetadata().get(REQUEST_TARGET);
     }
 
+    /**
+     * @param acceptEncoding value of the {@code Accept-Encoding} header, may be null
+     * @return whether gzip is acceptable by the client
+     * @since 1.8.8
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param body response body
+     * @return whether the body should be compressed by gzip for clients accepting it
+     * @since 1.8.8
+     */
+    public static boolean shouldGzip(byte[] body) {
+        return body != null && body.length >= GZIP_MIN_LENGTH;
+    }
+
+    /**
+     * @param data data to compress
+     * @return data compressed by gzip
+     * @since 1.8.8
+     */
+    public static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        GZIPOutputStream gzipOut = new GZIPOutputStream(out);
+        try {
+            gzipOut.write(data);
+        } finally {
+            gzipOut.close();
+        }
+        return out.toByteArray();
+    }
+
     private HttpCommandUtils() {}
 }
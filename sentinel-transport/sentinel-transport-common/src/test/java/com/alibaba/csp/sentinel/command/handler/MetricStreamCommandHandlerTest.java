@@ -0,0 +1,158 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.CommandStream;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link MetricStreamCommandHandler}.
+ */
+public class MetricStreamCommandHandlerTest {
+
+    private final MetricStreamCommandHandler handler = new MetricStreamCommandHandler();
+
+    @Test
+    public void testEncodeEventFilteredByIdentity() {
+        long timestamp = 1700000000000L;
+        List<MetricNode> rows = Arrays.asList(newNode(timestamp, "a", 10), newNode(timestamp, "b", 20));
+
+        String event = toString(MetricStreamCommandHandler.encodeEvent(timestamp, rows, "b"));
+        assertEquals("id: " + timestamp + "\nevent: metric\ndata: " + rows.get(1).toThinString() + "\n\n", event);
+
+        assertNull(MetricStreamCommandHandler.encodeEvent(timestamp, rows, "c"));
+
+        String allEvent = toString(MetricStreamCommandHandler.encodeEvent(timestamp, rows, null));
+        assertTrue(allEvent.startsWith("id: " + timestamp + "\nevent: metric\n"));
+        assertTrue(allEvent.contains("data: " + rows.get(0).toThinString() + "\n"));
+        assertTrue(allEvent.contains("data: " + rows.get(1).toThinString() + "\n"));
+        assertTrue(allEvent.endsWith("\n\n"));
+    }
+
+    @Test
+    public void testPublishToSubscribers() {
+        RecordingStream allStream = subscribe(null);
+        RecordingStream filteredStream = subscribe("a");
+        assertEquals(2, MetricStreamCommandHandler.getSubscriberCount());
+
+        long timestamp = 1700000001000L;
+        MetricStreamCommandHandler.publish(timestamp, Arrays.asList(newNode(timestamp, "a", 1)));
+        MetricStreamCommandHandler.publish(timestamp + 1000, Arrays.asList(newNode(timestamp + 1000, "b", 1)));
+
+        assertEquals(2, allStream.countEventsOf(timestamp, timestamp + 1000));
+        assertEquals(1, filteredStream.events.size());
+        assertTrue(filteredStream.events.get(0).contains("|a|"));
+
+        // Closed streams are removed when written.
+        allStream.closed = true;
+        filteredStream.closed = true;
+        MetricStreamCommandHandler.publish(timestamp + 2000, Arrays.asList(newNode(timestamp + 2000, "a", 1)));
+        assertEquals(0, MetricStreamCommandHandler.getSubscriberCount());
+        assertEquals(0, allStream.countEventsOf(timestamp + 2000, timestamp + 2000));
+    }
+
+    @Test
+    public void testTooManySubscribers() {
+        List<RecordingStream> streams = new ArrayList<>();
+        for (int i = 0; i < MetricStreamCommandHandler.MAX_SUBSCRIBERS; i++) {
+            streams.add(subscribe(null));
+        }
+        CommandResponse<StreamingCommandResult> response = handler.handle(new CommandRequest());
+        assertFalse(response.isSuccess());
+
+        for (RecordingStream stream : streams) {
+            stream.closed = true;
+        }
+        MetricStreamCommandHandler.publish(1700000000000L, Arrays.asList(newNode(1700000000000L, "a", 1)));
+        assertEquals(0, MetricStreamCommandHandler.getSubscriberCount());
+    }
+
+    private RecordingStream subscribe(String identity) {
+        CommandRequest request = new CommandRequest();
+        if (identity != null) {
+            request.addParam("identity", identity);
+        }
+        CommandResponse<StreamingCommandResult> response = handler.handle(request);
+        assertTrue(response.isSuccess());
+        assertEquals(MetricStreamCommandHandler.CONTENT_TYPE, response.getResult().getContentType());
+        RecordingStream stream = new RecordingStream();
+        response.getResult().start(stream);
+        return stream;
+    }
+
+    private static MetricNode newNode(long timestamp, String resource, long passQps) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(resource);
+        node.setPassQps(passQps);
+        return node;
+    }
+
+    private static String toString(byte[] data) {
+        return new String(data, Charset.forName(SentinelConfig.charset()));
+    }
+
+    private static class RecordingStream implements CommandStream {
+
+        private final List<String> events = new ArrayList<>();
+        private volatile boolean closed = false;
+
+        @Override
+        public synchronized boolean write(byte[] data) {
+            if (closed) {
+                return false;
+            }
+            events.add(MetricStreamCommandHandlerTest.toString(data));
+            return true;
+        }
+
+        /**
+         * Rows of real resources may be published by the metric timer as well, so only test events are counted.
+         */
+        synchronized int countEventsOf(long fromTimestamp, long toTimestamp) {
+            int count = 0;
+            for (String event : events) {
+                for (long t = fromTimestamp; t <= toTimestamp; t += 1000) {
+                    if (event.startsWith("id: " + t + "\n")) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -24,6 +24,8 @@ import java.util.Map.Entry;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.EncodedCommandResult;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
 import com.alibaba.csp.sentinel.transport.command.codec.CodecRegistry;
@@ -36,11 +38,13 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
@@ -79,7 +83,9 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
                 writeErrorResponse(BAD_REQUEST.code(), "Invalid command", ctx);
                 return;
             }
-            handleRequest(request, ctx, HttpUtil.isKeepAlive(httpRequest));
+            boolean acceptsGzip = HttpCommandUtils.acceptsGzip(
+                httpRequest.headers().get(HttpHeaderNames.ACCEPT_ENCODING));
+            handleRequest(request, ctx, HttpUtil.isKeepAlive(httpRequest), acceptsGzip);
 
         } catch (Exception ex) {
             writeErrorResponse(INTERNAL_SERVER_ERROR.code(), SERVER_ERROR_MESSAGE, ctx);
@@ -87,14 +93,18 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         }
     }
 
-    private void handleRequest(CommandRequest request, ChannelHandlerContext ctx, boolean keepAlive)
-        throws Exception {
+    private void handleRequest(CommandRequest request, ChannelHandlerContext ctx, boolean keepAlive,
+                               boolean acceptsGzip) throws Exception {
         String commandName = HttpCommandUtils.getTarget(request);
         // Find the matching command handler.
         CommandHandler<?> commandHandler = getHandler(commandName);
         if (commandHandler != null) {
             CommandResponse<?> response = commandHandler.handle(request);
-            writeResponse(response, ctx, keepAlive);
+            if (response.isSuccess() && response.getResult() instanceof StreamingCommandResult) {
+                writeStreamingResponse((StreamingCommandResult)response.getResult(), ctx);
+            } else {
+                writeResponse(response, ctx, keepAlive, acceptsGzip);
+            }
         } else {
             // No matching command handler.
             writeErrorResponse(BAD_REQUEST.code(), String.format("Unknown command \"%s\"", commandName), ctx);
@@ -124,12 +134,17 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
     }
 
-    private void writeResponse(CommandResponse response, ChannelHandlerContext ctx, boolean keepAlive)
-        throws Exception {
+    private void writeResponse(CommandResponse response, ChannelHandlerContext ctx, boolean keepAlive,
+                               boolean acceptsGzip) throws Exception {
         byte[] body;
+        String contentType = "text/plain; charset=" + SentinelConfig.charset();
         if (response.isSuccess()) {
             if (response.getResult() == null) {
                 body = new byte[] {};
+            } else if (response.getResult() instanceof EncodedCommandResult) {
+                EncodedCommandResult result = (EncodedCommandResult)response.getResult();
+                body = result.getBytes();
+                contentType = result.getContentType();
             } else {
                 Encoder encoder = pickEncoder(response.getResult().getClass());
                 if (encoder == null) {
@@ -145,11 +160,18 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         }
 
         HttpResponseStatus status = response.isSuccess() ? OK : BAD_REQUEST;
+        boolean gzip = acceptsGzip && HttpCommandUtils.shouldGzip(body);
+        if (gzip) {
+            body = HttpCommandUtils.gzip(body);
+        }
 
         FullHttpResponse httpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
             Unpooled.copiedBuffer(body));
 
-        httpResponse.headers().set("Content-Type", "text/plain; charset=" + SentinelConfig.charset());
+        httpResponse.headers().set("Content-Type", contentType);
+        if (gzip) {
+            httpResponse.headers().set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+        }
 
         //if (keepAlive) {
         //    httpResponse.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, httpResponse.content().readableBytes());
@@ -165,6 +187,16 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
     }
 
+    private void writeStreamingResponse(StreamingCommandResult result, ChannelHandlerContext ctx) {
+        HttpResponse httpResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, OK);
+        httpResponse.headers().set("Content-Type", result.getContentType() + "; charset=" + SentinelConfig.charset());
+        httpResponse.headers().set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE);
+        HttpUtil.setTransferEncodingChunked(httpResponse, true);
+        ctx.writeAndFlush(httpResponse);
+        // The connection is kept open, data is written as chunks until either side closes it.
+        result.start(new NettyCommandStream(ctx.channel()));
+    }
+
     private CommandRequest parseRequest(FullHttpRequest request) {
         QueryStringDecoder queryStringDecoder = new QueryStringDecoder(request.uri());
         CommandRequest serverRequest = new CommandRequest();
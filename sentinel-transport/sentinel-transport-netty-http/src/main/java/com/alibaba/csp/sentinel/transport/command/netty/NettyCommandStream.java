@@ -0,0 +1,57 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.netty;
+
+import com.alibaba.csp.sentinel.command.CommandStream;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * A {@link CommandStream} writing HTTP chunks to a Netty channel. Data is dropped rather than queued
+ * when the channel is not writable, so that a slow peer cannot exhaust the memory.
+ *
+ * @since 1.8.8
+ */
+class NettyCommandStream implements CommandStream {
+
+    private final Channel channel;
+
+    NettyCommandStream(Channel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public boolean write(byte[] data) {
+        if (!channel.isActive()) {
+            return false;
+        }
+        if (channel.isWritable()) {
+            channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(data)));
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (channel.isActive()) {
+            channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+}
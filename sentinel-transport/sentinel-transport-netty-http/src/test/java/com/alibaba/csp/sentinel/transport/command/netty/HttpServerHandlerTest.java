@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.transport.command.netty;
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.node.metric.MetricDeltaCodec;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
@@ -33,16 +34,21 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test cases for {@link HttpServerHandler}.
@@ -189,6 +195,75 @@ public class HttpServerHandlerTest {
         processSuccess(httpRequestStr, expectedBody);
     }
 
+    @Test
+    public void testGzipResponse() throws Exception {
+        List<FlowRule> rules = new ArrayList<FlowRule>();
+        for (int i = 0; i < 20; i++) {
+            rules.add(new FlowRule("resource-" + i).setCount(i + 1));
+        }
+        FlowRuleManager.loadRules(rules);
+        String expectedBody = JSON.toJSONString(FlowRuleManager.getRules());
+
+        String httpRequestStr = "GET /getRules?type=flow HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + "Accept-Encoding: gzip, deflate" + CRLF
+                              + CRLF;
+        byte[] response = processRawResponse(httpRequestStr);
+        int headEnd = indexOf(response, (CRLF + CRLF).getBytes(SENTINEL_CHARSET));
+        String head = new String(response, 0, headEnd, SENTINEL_CHARSET);
+        assertTrue(head.contains("content-encoding: gzip"));
+
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response, headEnd + 4,
+            response.length - headEnd - 4));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            body.write(buf, 0, n);
+        }
+        assertEquals(expectedBody, new String(body.toByteArray(), SENTINEL_CHARSET));
+    }
+
+    /**
+     * {@link com.alibaba.csp.sentinel.command.handler.SendMetricCommandHandler}
+     */
+    @Test
+    public void testDeltaEncodedMetricCommand() {
+        String httpRequestStr = "GET /metric?startTime=1000&endTime=2000&identity=none&format=delta HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + CRLF;
+        byte[] response = processRawResponse(httpRequestStr);
+        int headEnd = indexOf(response, (CRLF + CRLF).getBytes(SENTINEL_CHARSET));
+        String head = new String(response, 0, headEnd, SENTINEL_CHARSET);
+        assertTrue(head.contains("Content-Type: " + MetricDeltaCodec.CONTENT_TYPE));
+
+        byte[] body = Arrays.copyOfRange(response, headEnd + 4, response.length);
+        assertTrue(MetricDeltaCodec.decode(body).isEmpty());
+    }
+
+    /**
+     * {@link com.alibaba.csp.sentinel.command.handler.MetricStreamCommandHandler}
+     */
+    @Test
+    public void testMetricStreamCommand() {
+        String httpRequestStr = "GET /metricStream HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + CRLF;
+        String httpResponseStr = processResponse(httpRequestStr);
+
+        StringBuilder text = new StringBuilder();
+        text.append(HttpVersion.HTTP_1_1.toString()).append(' ').append(OK.toString()).append(CRLF);
+        text.append("Content-Type: text/event-stream; charset=").append(SENTINEL_CHARSET_NAME).append(CRLF);
+        text.append("cache-control: no-cache").append(CRLF);
+        text.append("transfer-encoding: chunked").append(CRLF);
+        text.append(CRLF);
+        assertEquals(text.toString(), httpResponseStr);
+        // The connection is kept open for the following events.
+        assertTrue(embeddedChannel.isActive());
+
+        embeddedChannel.close();
+    }
+
     private void processError(String httpRequestStr, String expectedBody) {
         processError(httpRequestStr, BAD_REQUEST, expectedBody);
     }
@@ -224,6 +299,28 @@ public class HttpServerHandlerTest {
         return sb.toString();
     }
 
+    private byte[] processRawResponse(String httpRequestStr) {
+        embeddedChannel.writeInbound(Unpooled.wrappedBuffer(httpRequestStr.getBytes(SENTINEL_CHARSET)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuf byteBuf;
+        while ((byteBuf = embeddedChannel.readOutbound()) != null) {
+            byte[] bytes = new byte[byteBuf.readableBytes()];
+            byteBuf.readBytes(bytes);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOf(byte[] data, byte[] target) {
+        for (int i = 0; i + target.length <= data.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(data, i, i + target.length), target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private void assertErrorStatusAndBody(HttpResponseStatus status, String expectedBody, String httpResponseStr) {
         StringBuilder text = new StringBuilder();
         text.append(HttpVersion.HTTP_1_1.toString()).append(' ').append(status.toString()).append(CRLF);
@@ -18,6 +18,8 @@ package com.alibaba.csp.sentinel.transport.command.http;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.EncodedCommandResult;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
 import com.alibaba.csp.sentinel.transport.command.SimpleHttpCommandCenter;
@@ -56,6 +58,8 @@ public class HttpEventTask implements Runnable {
 
     private boolean writtenHead = false;
 
+    private boolean streaming = false;
+
     public HttpEventTask(Socket socket) {
         this.socket = socket;
     }
@@ -84,10 +88,11 @@ public class HttpEventTask implements Runnable {
             CommandCenterLog.info("[SimpleHttpCommandCenter] Socket income: " + firstLine
                 + ", addr: " + socket.getInetAddress());
             CommandRequest request = processQueryString(firstLine);
+            Map<String, String> headerMap = parsePostHeaders(inputStream);
 
             if (firstLine.length() > 4 && StringUtil.equalsIgnoreCase("POST", firstLine.substring(0, 4))) {
                 // Deal with post method
-                processPostRequest(inputStream, request);
+                processPostRequest(inputStream, request, headerMap);
             }
 
             // Validate the target command.
@@ -101,7 +106,12 @@ public class HttpEventTask implements Runnable {
             CommandHandler<?> commandHandler = SimpleHttpCommandCenter.getHandler(commandName);
             if (commandHandler != null) {
                 CommandResponse<?> response = commandHandler.handle(request);
-                handleResponse(response, printWriter);
+                if (response.isSuccess() && response.getResult() instanceof StreamingCommandResult) {
+                    startStreaming((StreamingCommandResult)response.getResult(), printWriter, outputStream);
+                } else {
+                    handleResponse(response, printWriter, outputStream,
+                        HttpCommandUtils.acceptsGzip(headerMap.get("accept-encoding")));
+                }
             } else {
                 // No matching command handler.
                 writeResponse(printWriter, StatusCode.BAD_REQUEST, "Unknown command `" + commandName + '`');
@@ -129,9 +139,11 @@ public class HttpEventTask implements Runnable {
                 CommandCenterLog.warn("Failed to write error response", e1);
             }
         } finally {
-            closeResource(inputStream);
-            closeResource(printWriter);
-            closeResource(socket);
+            if (!streaming) {
+                closeResource(inputStream);
+                closeResource(printWriter);
+                closeResource(socket);
+            }
         }
     }
 
@@ -165,8 +177,11 @@ public class HttpEventTask implements Runnable {
      */
     protected static void processPostRequest(InputStream in, CommandRequest request)
         throws RequestException, IOException {
-        Map<String, String> headerMap = parsePostHeaders(in);
+        processPostRequest(in, request, parsePostHeaders(in));
+    }
 
+    private static void processPostRequest(InputStream in, CommandRequest request, Map<String, String> headerMap)
+        throws RequestException, IOException {
         if (headerMap == null) {
             // illegal request
             CommandCenterLog.warn("Illegal request read: null headerMap");
@@ -302,14 +317,25 @@ public class HttpEventTask implements Runnable {
         }
     }
 
-    private <T> void handleResponse(CommandResponse<T> response, final PrintWriter printWriter) throws Exception {
+    private <T> void handleResponse(CommandResponse<T> response, final PrintWriter printWriter,
+                                    OutputStream outputStream, boolean acceptsGzip) throws Exception {
         if (response.isSuccess()) {
             if (response.getResult() == null) {
                 writeResponse(printWriter, StatusCode.OK, null);
                 return;
             }
+            if (response.getResult() instanceof EncodedCommandResult) {
+                EncodedCommandResult result = (EncodedCommandResult)response.getResult();
+                writeBytesResponse(printWriter, outputStream, result.getContentType(), result.getBytes(),
+                    acceptsGzip);
+                return;
+            }
             // Here we directly use `toString` to encode the result to plain text.
             byte[] buffer = response.getResult().toString().getBytes(SentinelConfig.charset());
+            if (acceptsGzip && HttpCommandUtils.shouldGzip(buffer)) {
+                writeBytesResponse(printWriter, outputStream, null, buffer, true);
+                return;
+            }
             writeResponse(printWriter, StatusCode.OK, new String(buffer));
         } else {
             String msg = SERVER_ERROR_MESSAGE;
@@ -320,6 +346,38 @@ public class HttpEventTask implements Runnable {
         }
     }
 
+    private void startStreaming(StreamingCommandResult result, PrintWriter out, OutputStream outputStream) {
+        // No Content-Length, the body lasts until the connection is closed.
+        out.print("HTTP/1.0 " + StatusCode.OK.toString() + "\r\n"
+            + "Content-Type: " + result.getContentType() + "; charset=" + SentinelConfig.charset() + "\r\n"
+            + "Cache-Control: no-cache\r\n"
+            + "Connection: close\r\n\r\n");
+        out.flush();
+        writtenHead = true;
+
+        SocketCommandStream stream = new SocketCommandStream(socket, outputStream);
+        stream.start();
+        streaming = true;
+        result.start(stream);
+    }
+
+    private void writeBytesResponse(PrintWriter out, OutputStream outputStream, String contentType, byte[] body,
+                                    boolean acceptsGzip) throws IOException {
+        boolean gzip = acceptsGzip && HttpCommandUtils.shouldGzip(body);
+        if (gzip) {
+            body = HttpCommandUtils.gzip(body);
+        }
+        out.print("HTTP/1.0 " + StatusCode.OK.toString() + "\r\n"
+            + (contentType == null ? "" : "Content-Type: " + contentType + "\r\n")
+            + (gzip ? "Content-Encoding: gzip\r\n" : "")
+            + "Content-Length: " + body.length + "\r\n"
+            + "Connection: close\r\n\r\n");
+        out.flush();
+        writtenHead = true;
+        outputStream.write(body);
+        outputStream.flush();
+    }
+
     private void writeResponse(PrintWriter out, StatusCode statusCode, String message) {
         out.print("HTTP/1.0 " + statusCode.toString() + "\r\n"
             + "Content-Length: " + (message == null ? 0 : message.getBytes().length) + "\r\n"
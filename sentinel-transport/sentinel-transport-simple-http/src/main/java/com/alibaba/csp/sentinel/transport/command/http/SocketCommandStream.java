@@ -0,0 +1,100 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.command.CommandStream;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
+
+/**
+ * A {@link CommandStream} over a plain socket. Data is written by a dedicated thread, so that the worker
+ * threads of command center are not occupied by long-lived connections. When the peer cannot keep up,
+ * the oldest pending data is dropped.
+ *
+ * @since 1.8.8
+ */
+class SocketCommandStream implements CommandStream, Runnable {
+
+    private static final int MAX_PENDING = 16;
+
+    private static final NamedThreadFactory WRITER_THREAD_FACTORY = new NamedThreadFactory(
+        "sentinel-command-stream-writer", true);
+
+    private final Socket socket;
+    private final OutputStream outputStream;
+    private final BlockingQueue<byte[]> pending = new ArrayBlockingQueue<>(MAX_PENDING);
+
+    private volatile boolean closed = false;
+
+    SocketCommandStream(Socket socket, OutputStream outputStream) {
+        this.socket = socket;
+        this.outputStream = outputStream;
+    }
+
+    void start() {
+        WRITER_THREAD_FACTORY.newThread(this).start();
+    }
+
+    @Override
+    public boolean write(byte[] data) {
+        if (closed) {
+            return false;
+        }
+        while (!pending.offer(data)) {
+            pending.poll();
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            CommandCenterLog.warn("[SimpleHttpCommandCenter] Close stream socket failed", e);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed) {
+                byte[] data = pending.poll(1, TimeUnit.SECONDS);
+                if (data != null) {
+                    outputStream.write(data);
+                    outputStream.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The peer has closed the connection.
+        } finally {
+            close();
+        }
+    }
+}
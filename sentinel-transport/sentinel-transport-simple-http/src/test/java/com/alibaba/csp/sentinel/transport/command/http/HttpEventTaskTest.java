@@ -23,17 +23,97 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.node.metric.MetricDeltaCodec;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.transport.command.SimpleHttpCommandCenter;
 import com.alibaba.csp.sentinel.transport.command.exception.RequestException;
+import com.alibaba.fastjson.JSON;
 
 public class HttpEventTaskTest {
+
+    @BeforeClass
+    public static void registerCommands() throws Exception {
+        new SimpleHttpCommandCenter().beforeStart();
+    }
+
+    @Test
+    public void testDeltaEncodedMetricResponse() throws Exception {
+        byte[] response = request("GET /metric?startTime=1000&endTime=2000&identity=none&format=delta HTTP/1.1\r\n"
+            + "Host: localhost:8719\r\n\r\n");
+        int headEnd = headEnd(response);
+        String head = new String(response, 0, headEnd, "UTF-8");
+        assertTrue(head.contains("Content-Type: " + MetricDeltaCodec.CONTENT_TYPE));
+
+        byte[] body = Arrays.copyOfRange(response, headEnd + 4, response.length);
+        assertTrue(MetricDeltaCodec.decode(body).isEmpty());
+    }
+
+    @Test
+    public void testGzipResponse() throws Exception {
+        List<FlowRule> rules = new ArrayList<FlowRule>();
+        for (int i = 0; i < 20; i++) {
+            rules.add(new FlowRule("resource-" + i).setCount(i + 1));
+        }
+        FlowRuleManager.loadRules(rules);
+        String expectedBody = JSON.toJSONString(FlowRuleManager.getRules());
+
+        byte[] response = request("GET /getRules?type=flow HTTP/1.1\r\n"
+            + "Host: localhost:8719\r\nAccept-Encoding: gzip\r\n\r\n");
+        int headEnd = headEnd(response);
+        String head = new String(response, 0, headEnd, "UTF-8");
+        assertTrue(head.contains("Content-Encoding: gzip"));
+
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(response, headEnd + 4,
+            response.length - headEnd - 4));
+        assertEquals(expectedBody, new String(readAll(in), "UTF-8"));
+    }
+
+    private static byte[] request(String request) throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort())) {
+            client.getOutputStream().write(request.getBytes("UTF-8"));
+            client.getOutputStream().flush();
+            new HttpEventTask(serverSocket.accept()).run();
+            return readAll(client.getInputStream());
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static int headEnd(byte[] response) {
+        for (int i = 0; i + 3 < response.length; i++) {
+            if (response[i] == '\r' && response[i + 1] == '\n' && response[i + 2] == '\r' && response[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
     
     @Test
     public void processQueryString() {
@@ -0,0 +1,65 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link SocketCommandStream}.
+ */
+public class SocketCommandStreamTest {
+
+    @Test
+    public void testWriteAndClose() throws Exception {
+        Charset charset = Charset.forName("UTF-8");
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort())) {
+            Socket socket = serverSocket.accept();
+            SocketCommandStream stream = new SocketCommandStream(socket, socket.getOutputStream());
+            stream.start();
+
+            assertTrue(stream.write("data: a\n\n".getBytes(charset)));
+            assertTrue(stream.write("data: b\n\n".getBytes(charset)));
+
+            byte[] expected = "data: a\n\ndata: b\n\n".getBytes(charset);
+            byte[] actual = new byte[expected.length];
+            InputStream in = client.getInputStream();
+            int read = 0;
+            while (read < actual.length) {
+                int n = in.read(actual, read, actual.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            assertEquals(new String(expected, charset), new String(actual, 0, read, charset));
+
+            stream.close();
+            assertFalse(stream.write("data: c\n\n".getBytes(charset)));
+            assertEquals(-1, in.read());
+        }
+    }
+}